@@ -5,10 +5,11 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.crac.Core;
 import software.amazon.awssdk.http.HttpStatusCode;
 import software.amazon.lambda.powertools.logging.CorrelationIdPathConstants;
 import software.amazon.lambda.powertools.logging.Logging;
@@ -19,6 +20,7 @@ import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.SharedClaims;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
@@ -39,16 +41,25 @@ import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.CheckDetails;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.DVACloseableHttpClientFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.AcmCertificateService;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.DocumentCheckResultStorageService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpConnectionPoolThawMonitor;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpConnectionPreWarmer;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.TestStrategyConcurrencyLimiter;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshotDeclaration;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
@@ -56,12 +67,17 @@ import java.security.spec.InvalidKeySpecException;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
 import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TTL_PARAMETER;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVA_ENDPOINT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVA_PASSWORD;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVA_USERNAME;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVLA_TOKEN_TABLE_NAME;
 
 public class DrivingPermitHandler
         implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
@@ -77,7 +93,13 @@ public class DrivingPermitHandler
     // Maximum submissions from the front end form
     private static final int MAX_ATTEMPTS = 2;
 
-    private ObjectMapper objectMapper;
+    // API Gateway integration timeout - a response after this is never seen by the user
+    private static final long API_GATEWAY_INTEGRATION_TIMEOUT_MS = 29000L;
+
+    // Kept back from the third party check for audit events, saving the results and responding
+    private static final long POST_DOCUMENT_CHECK_RESERVED_TIME_MS = 3000L;
+
+    private ObjectReader drivingPermitFormReader;
     private EventProbe eventProbe;
 
     private SessionService sessionService;
@@ -89,6 +111,11 @@ public class DrivingPermitHandler
     private ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory;
     private IdentityVerificationService identityVerificationService;
 
+    private HttpConnectionPoolThawMonitor httpConnectionPoolThawMonitor;
+    private HttpConnectionPreWarmer httpConnectionPreWarmer;
+
+    private ConcurrentCallRunner concurrentCallRunner;
+
     private long documentCheckResultItemTtl;
 
     private String environment;
@@ -101,7 +128,7 @@ public class DrivingPermitHandler
     public DrivingPermitHandler()
             throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException,
                     JsonProcessingException {
-        ServiceFactory serviceFactory = new ServiceFactory();
+        ServiceFactory serviceFactory = new ServiceFactory(createConfigSnapshotDeclaration());
 
         DrivingPermitConfigurationService drivingPermitConfigurationServiceNotYetAssigned =
                 createDrivingPermitConfigurationService(serviceFactory);
@@ -118,6 +145,11 @@ public class DrivingPermitHandler
         IdentityVerificationService identityVerificationServiceNotAssignedYet =
                 createIdentityVerificationService(serviceFactory);
 
+        // Held by the handler as CRaC only weakly references registered resources
+        this.httpConnectionPreWarmer = serviceFactory.getHttpConnectionPreWarmer();
+        Core.getGlobalContext().register(httpConnectionPreWarmer);
+        httpConnectionPreWarmer.preWarm();
+
         initializeLambdaServices(
                 serviceFactory,
                 thirdPartyAPIServiceFactoryNotAssignedYet,
@@ -136,7 +168,8 @@ public class DrivingPermitHandler
             ServiceFactory serviceFactory,
             ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory,
             IdentityVerificationService identityVerificationService) {
-        this.objectMapper = serviceFactory.getObjectMapper();
+        this.drivingPermitFormReader =
+                serviceFactory.getJsonCodecs().reader(DrivingPermitForm.class);
         this.eventProbe = serviceFactory.getEventProbe();
         this.sessionService = serviceFactory.getSessionService();
         this.auditService = serviceFactory.getAuditService();
@@ -146,6 +179,8 @@ public class DrivingPermitHandler
                 serviceFactory.getDocumentCheckResultStorageService();
         this.thirdPartyAPIServiceFactory = thirdPartyAPIServiceFactory;
         this.identityVerificationService = identityVerificationService;
+        this.httpConnectionPoolThawMonitor = serviceFactory.getHttpConnectionPoolThawMonitor();
+        this.concurrentCallRunner = serviceFactory.getConcurrentCallRunner();
 
         ParameterStoreService parameterStoreService = serviceFactory.getParameterStoreService();
 
@@ -164,6 +199,31 @@ public class DrivingPermitHandler
                 System.currentTimeMillis() - FUNCTION_INIT_START_TIME_MILLISECONDS;
     }
 
+    // Every parameter read while creating the services below, fetched together up front
+    private static ConfigSnapshotDeclaration createConfigSnapshotDeclaration() {
+        return new ConfigSnapshotDeclaration()
+                .parameter(ParameterPrefix.COMMON_API, DOCUMENT_CHECK_RESULT_TTL_PARAMETER)
+                // DvaConfiguration
+                .parameter(ParameterPrefix.OVERRIDE, DVA_ENDPOINT)
+                .parameter(ParameterPrefix.OVERRIDE, DVA_USERNAME)
+                .parameter(ParameterPrefix.OVERRIDE, DVA_PASSWORD)
+                // DvlaConfiguration
+                .parametersFromPath(
+                        ParameterPrefix.OVERRIDE, DvlaConfiguration.DVLA_PARAMETER_PATH)
+                .parameter(ParameterPrefix.STACK, DVLA_TOKEN_TABLE_NAME)
+                // DvaCryptographyServiceConfiguration
+                .parametersFromPathWithDecryption(
+                        ParameterPrefix.OVERRIDE,
+                        DvaCryptographyServiceConfiguration.DVA_JWS_PARAMETER_PATH)
+                .parametersFromPathWithDecryption(
+                        ParameterPrefix.OVERRIDE,
+                        DvaCryptographyServiceConfiguration.DVA_JWE_PARAMETER_PATH)
+                // DVACloseableHttpClientFactory
+                .parametersFromPathWithDecryption(
+                        ParameterPrefix.OVERRIDE,
+                        DVACloseableHttpClientFactory.HTTP_CLIENT_PARAMETER_PATH);
+    }
+
     private DrivingPermitConfigurationService createDrivingPermitConfigurationService(
             ServiceFactory serviceFactory) throws JsonProcessingException {
 
@@ -174,7 +234,8 @@ public class DrivingPermitHandler
         SecretsManagerService secretsManagerService =
                 new SecretsManagerService(clientProviderFactory.getSecretsManagerClient());
 
-        return new DrivingPermitConfigurationService(parameterStoreService, secretsManagerService);
+        return new DrivingPermitConfigurationService(
+                parameterStoreService, secretsManagerService, serviceFactory.getJsonCodecs());
     }
 
     @Override
@@ -183,6 +244,16 @@ public class DrivingPermitHandler
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
 
+        // Created first so the time budget includes everything before the third party call
+        long remainingTimeMs =
+                Math.min(context.getRemainingTimeInMillis(), API_GATEWAY_INTEGRATION_TIMEOUT_MS);
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(
+                        remainingTimeMs - POST_DOCUMENT_CHECK_RESERVED_TIME_MS);
+
+        // Any re-warm of stale third party connections runs alongside the session checks below
+        httpConnectionPoolThawMonitor.onInvocationStart();
+
         try {
             LOGGER.info(
                     "Initiating lambda {} version {}",
@@ -268,25 +339,37 @@ public class DrivingPermitHandler
 
             LOGGER.info("IPV Core Client Id {}, Routing set to {}", clientId, strategy);
 
-            DocumentCheckVerificationResult documentCheckVerificationResult =
-                    identityVerificationService.verifyIdentity(
-                            drivingPermitFormData, thirdPartyAPIService, strategy);
+            DocumentCheckVerificationResult documentCheckVerificationResult;
+
+            // Admitted before the prefetch, so a rejected check makes no third party calls
+            try (TestStrategyConcurrencyLimiter.Slot documentCheckSlot =
+                    thirdPartyAPIService.acquireDocumentCheckSlot(strategy)) {
+
+                // Started once the service and strategy are known, overlapping with validation
+                thirdPartyAPIService.startDocumentCheckPrefetch(strategy, requestDeadline);
+
+                try {
+                    // REQUEST_SENT is sent while the third party call is in flight
+                    documentCheckVerificationResult =
+                            identityVerificationService.verifyIdentity(
+                                    drivingPermitFormData,
+                                    thirdPartyAPIService,
+                                    strategy,
+                                    requestDeadline,
+                                    concurrentCallRunner.getExecutor(),
+                                    () ->
+                                            sendRequestSentAuditEvent(
+                                                    headers, sessionItem, drivingPermitFormData));
+                } finally {
+                    // Any prefetch not used by the document check (e.g. validation failed)
+                    thirdPartyAPIService.discardDocumentCheckPrefetch();
+                }
+            }
 
             documentCheckVerificationResult.setAttemptCount(sessionItem.getAttemptCount());
 
-            auditService.sendAuditEvent(
-                    AuditEventType.RESPONSE_RECEIVED, new AuditEventContext(headers, sessionItem));
-
-            LOGGER.info("Sending audit event REQUEST_SENT...");
-            auditService.sendAuditEvent(
-                    AuditEventType.REQUEST_SENT,
-                    new AuditEventContext(
-                            RequestSentAuditHelper.drivingPermitFormDataToAuditRestrictedFormat(
-                                    drivingPermitFormData),
-                            input.getHeaders(),
-                            sessionItem));
-
-            saveAttempt(sessionItem, drivingPermitFormData, documentCheckVerificationResult);
+            sendAuditEventsAndSaveAttempt(
+                    headers, sessionItem, drivingPermitFormData, documentCheckVerificationResult);
 
             boolean canRetry =
                     determineVerificationRetryStatus(
@@ -362,15 +445,17 @@ public class DrivingPermitHandler
         return !uuidRegex.matcher(sessionId).matches();
     }
 
-    private void saveAttempt(
+    // The audit event is sent before anything is written, so a failed send leaves no writes
+    // without an audit trail. The writes are independent of each other, so run concurrently.
+    // Returns once all have completed, throwing if any failed.
+    private void sendAuditEventsAndSaveAttempt(
+            Map<String, String> headers,
             SessionItem sessionItem,
             DrivingPermitForm drivingPermitFormData,
             DocumentCheckVerificationResult result) {
 
-        LOGGER.info("Generating authorization code...");
-        sessionService.createAuthorizationCode(sessionItem);
+        final String sessionId = sessionItem.getSessionId();
 
-        LOGGER.info("Saving person identity...");
         BirthDate birthDate = new BirthDate();
         birthDate.setValue(drivingPermitFormData.getDateOfBirth());
 
@@ -383,22 +468,59 @@ public class DrivingPermitHandler
                                 drivingPermitFormData.getForenames(),
                                 drivingPermitFormData.getSurname())));
 
-        personIdentityService.savePersonIdentity(sessionItem.getSessionId(), sharedClaims);
-        LOGGER.info("person identity saved.");
-
         final DocumentCheckResultItem documentCheckResultItem =
                 mapVerificationResultToResultItem(sessionItem, result, drivingPermitFormData);
 
-        LOGGER.info("Saving document check results...");
-        documentCheckResultStorageService.saveDocumentCheckResult(documentCheckResultItem);
-        LOGGER.info("document check results saved.");
+        LOGGER.info("Sending audit event RESPONSE_RECEIVED...");
+        concurrentCallRunner.runAll(
+                Definitions.LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX,
+                Map.of(
+                        "audit_response_received",
+                        () ->
+                                auditService.sendAuditEvent(
+                                        AuditEventType.RESPONSE_RECEIVED,
+                                        new AuditEventContext(headers, sessionItem))));
+
+        Map<String, ConcurrentCallRunner.Call> saveAttemptCalls = new LinkedHashMap<>();
+        saveAttemptCalls.put(
+                "create_authorization_code",
+                () -> sessionService.createAuthorizationCode(sessionItem));
+        saveAttemptCalls.put(
+                "save_person_identity",
+                () -> personIdentityService.savePersonIdentity(sessionId, sharedClaims));
+        saveAttemptCalls.put(
+                "save_document_check_result",
+                () ->
+                        documentCheckResultStorageService.saveDocumentCheckResult(
+                                documentCheckResultItem));
+
+        LOGGER.info("Saving attempt...");
+        concurrentCallRunner.runAll(
+                Definitions.LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX,
+                saveAttemptCalls);
+        LOGGER.info("Audit events sent and attempt saved.");
+    }
+
+    private void sendRequestSentAuditEvent(
+            Map<String, String> headers,
+            SessionItem sessionItem,
+            DrivingPermitForm drivingPermitFormData)
+            throws SqsException {
+        LOGGER.info("Sending audit event REQUEST_SENT...");
+        auditService.sendAuditEvent(
+                AuditEventType.REQUEST_SENT,
+                new AuditEventContext(
+                        RequestSentAuditHelper.drivingPermitFormDataToAuditRestrictedFormat(
+                                drivingPermitFormData),
+                        headers,
+                        sessionItem));
     }
 
     private DrivingPermitForm parseDrivingPermitFormRequest(String input)
             throws OAuthErrorResponseException {
         LOGGER.info("Parsing driving permit form data into payload for third party document check");
         try {
-            return objectMapper.readValue(input, DrivingPermitForm.class);
+            return drivingPermitFormReader.readValue(input);
         } catch (JsonProcessingException e) {
             LOGGER.error(("Failed to parse payload from input: " + e.getMessage()));
             throw new OAuthErrorResponseException(
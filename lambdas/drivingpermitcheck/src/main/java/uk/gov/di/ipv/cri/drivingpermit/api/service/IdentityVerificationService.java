@@ -13,9 +13,14 @@ import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DOCUMENT_DATA_VERIFICATION_REQUEST_FAILED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DOCUMENT_DATA_VERIFICATION_REQUEST_SUCCEEDED;
@@ -44,6 +49,11 @@ public class IdentityVerificationService {
     private static final String ERROR_DRIVING_PERMIT_CHECK_RESULT_NO_ERR_MSG =
             "DrivingPermitCheckResult had no error message.";
 
+    @FunctionalInterface
+    private interface DocumentCheck {
+        DocumentCheckResult perform() throws OAuthErrorResponseException;
+    }
+
     private final FormDataValidator formDataValidator;
     private final EventProbe eventProbe;
 
@@ -55,7 +65,45 @@ public class IdentityVerificationService {
     public DocumentCheckVerificationResult verifyIdentity(
             DrivingPermitForm drivingPermitData,
             ThirdPartyAPIService thirdPartyAPIService,
-            Strategy strategy)
+            Strategy strategy,
+            RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+        return verifyIdentity(
+                drivingPermitData,
+                () ->
+                        thirdPartyAPIService.performDocumentCheck(
+                                drivingPermitData, strategy, requestDeadline));
+    }
+
+    /**
+     * As verifyIdentity, with the document check run on the executor while the calling thread
+     * runs whileDocumentCheckInFlight. Neither is started if the form data is invalid. Returns
+     * once both have finished; a failure of whileDocumentCheckInFlight is thrown in place of the
+     * result, unchecked exceptions unchanged and checked exceptions as the cause of a
+     * CompletionException.
+     */
+    public DocumentCheckVerificationResult verifyIdentity(
+            DrivingPermitForm drivingPermitData,
+            ThirdPartyAPIService thirdPartyAPIService,
+            Strategy strategy,
+            RequestDeadline requestDeadline,
+            Executor documentCheckExecutor,
+            ConcurrentCallRunner.Call whileDocumentCheckInFlight)
+            throws OAuthErrorResponseException {
+        return verifyIdentity(
+                drivingPermitData,
+                () ->
+                        awaitDocumentCheck(
+                                thirdPartyAPIService.performDocumentCheckAsync(
+                                        drivingPermitData,
+                                        strategy,
+                                        requestDeadline,
+                                        documentCheckExecutor),
+                                whileDocumentCheckInFlight));
+    }
+
+    private DocumentCheckVerificationResult verifyIdentity(
+            DrivingPermitForm drivingPermitData, DocumentCheck documentCheck)
             throws OAuthErrorResponseException {
         DocumentCheckVerificationResult result = new DocumentCheckVerificationResult();
 
@@ -83,8 +131,7 @@ public class IdentityVerificationService {
             LOGGER.info("Document Issuer {}", issuingAuthority);
             eventProbe.counterMetric(
                     ISSUING_AUTHORITY_PREFIX + issuingAuthority.toString().toLowerCase());
-            DocumentCheckResult documentCheckResult =
-                    thirdPartyAPIService.performDocumentCheck(drivingPermitData, strategy);
+            DocumentCheckResult documentCheckResult = documentCheck.perform();
 
             LOGGER.info("Third party response mapped");
             if (Objects.nonNull(documentCheckResult)) {
@@ -152,6 +199,36 @@ public class IdentityVerificationService {
         return result;
     }
 
+    private static DocumentCheckResult awaitDocumentCheck(
+            CompletableFuture<DocumentCheckResult> documentCheck,
+            ConcurrentCallRunner.Call whileDocumentCheckInFlight)
+            throws OAuthErrorResponseException {
+        try {
+            whileDocumentCheckInFlight.run();
+        } catch (Exception e) {
+            // The check is left to finish first, so it is not still running (e.g. holding the
+            // document check slot) once the caller sees the failure
+            documentCheck.handle((documentCheckResult, failure) -> null).join();
+
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(e);
+        }
+
+        try {
+            return documentCheck.join();
+        } catch (CompletionException e) {
+            // Unwrapped so the caller sees the same exceptions as from performDocumentCheck
+            if (e.getCause() instanceof OAuthErrorResponseException oAuthErrorResponseException) {
+                throw oAuthErrorResponseException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
     private CheckDetails getCheckDetails(
             DrivingPermitForm drivingPermitData, DocumentCheckResult documentCheckResult) {
         CheckDetails checkDetails = new CheckDetails();
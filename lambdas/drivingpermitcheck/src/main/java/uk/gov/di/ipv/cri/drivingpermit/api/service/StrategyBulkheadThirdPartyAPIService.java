@@ -0,0 +1,96 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.TestStrategyConcurrencyLimiter;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps test strategy (stub and UAT) document checks apart from live ones. Each runs on its own
+ * ThirdPartyAPIService, so its own connection pool, retry budget and circuit breakers, and test
+ * strategy checks are limited to their share of the function's concurrency. The share is taken in
+ * acquireDocumentCheckSlot, before the prefetch, so a rejected check makes no third party calls.
+ *
+ * <p>The test strategy service is only created on the first test strategy request, so containers
+ * that only see live traffic never create it.
+ */
+public class StrategyBulkheadThirdPartyAPIService implements ThirdPartyAPIService {
+
+    private final ThirdPartyAPIService liveThirdPartyAPIService;
+    private final Supplier<ThirdPartyAPIService> testStrategyThirdPartyAPIServiceSupplier;
+    private final TestStrategyConcurrencyLimiter testStrategyConcurrencyLimiter;
+
+    private ThirdPartyAPIService testStrategyThirdPartyAPIService;
+
+    public StrategyBulkheadThirdPartyAPIService(
+            ThirdPartyAPIService liveThirdPartyAPIService,
+            Supplier<ThirdPartyAPIService> testStrategyThirdPartyAPIServiceSupplier,
+            TestStrategyConcurrencyLimiter testStrategyConcurrencyLimiter) {
+        this.liveThirdPartyAPIService = liveThirdPartyAPIService;
+        this.testStrategyThirdPartyAPIServiceSupplier = testStrategyThirdPartyAPIServiceSupplier;
+        this.testStrategyConcurrencyLimiter = testStrategyConcurrencyLimiter;
+    }
+
+    @Override
+    public String getServiceName() {
+        return liveThirdPartyAPIService.getServiceName();
+    }
+
+    @Override
+    public TestStrategyConcurrencyLimiter.Slot acquireDocumentCheckSlot(Strategy strategy)
+            throws OAuthErrorResponseException {
+        TestStrategyConcurrencyLimiter.Slot slot =
+                testStrategyConcurrencyLimiter.tryAcquire(strategy);
+
+        if (slot == null) {
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.THROTTLING,
+                    ErrorResponse.TEST_STRATEGY_CONCURRENCY_LIMIT_REACHED);
+        }
+
+        return slot;
+    }
+
+    @Override
+    public DocumentCheckResult performDocumentCheck(
+            DrivingPermitForm drivingPermitForm, Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+        return getThirdPartyAPIService(strategy)
+                .performDocumentCheck(drivingPermitForm, strategy, requestDeadline);
+    }
+
+    @Override
+    public void startDocumentCheckPrefetch(Strategy strategy, RequestDeadline requestDeadline) {
+        getThirdPartyAPIService(strategy).startDocumentCheckPrefetch(strategy, requestDeadline);
+    }
+
+    @Override
+    public void discardDocumentCheckPrefetch() {
+        liveThirdPartyAPIService.discardDocumentCheckPrefetch();
+
+        synchronized (this) {
+            if (testStrategyThirdPartyAPIService != null) {
+                testStrategyThirdPartyAPIService.discardDocumentCheckPrefetch();
+            }
+        }
+    }
+
+    private ThirdPartyAPIService getThirdPartyAPIService(Strategy strategy) {
+        if (!strategy.isTestStrategy()) {
+            return liveThirdPartyAPIService;
+        }
+
+        synchronized (this) {
+            if (testStrategyThirdPartyAPIService == null) {
+                testStrategyThirdPartyAPIService = testStrategyThirdPartyAPIServiceSupplier.get();
+            }
+            return testStrategyThirdPartyAPIService;
+        }
+    }
+}
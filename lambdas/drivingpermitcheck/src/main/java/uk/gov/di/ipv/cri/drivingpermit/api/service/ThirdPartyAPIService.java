@@ -4,11 +4,63 @@ import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DrivingPermitForm;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.TestStrategyConcurrencyLimiter;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public interface ThirdPartyAPIService {
     String getServiceName();
 
     // Error - Do not add additional exceptions to this class
-    DocumentCheckResult performDocumentCheck(DrivingPermitForm drivingPermitForm, Strategy strategy)
+    DocumentCheckResult performDocumentCheck(
+            DrivingPermitForm drivingPermitForm, Strategy strategy, RequestDeadline requestDeadline)
             throws OAuthErrorResponseException;
+
+    /**
+     * Admits a document check for the strategy, before any work is started for it. The slot is
+     * held until the document check and any prefetch are complete. Throws if the check is not
+     * admitted.
+     */
+    default TestStrategyConcurrencyLimiter.Slot acquireDocumentCheckSlot(Strategy strategy)
+            throws OAuthErrorResponseException {
+        // Always admitted by default
+        return () -> {};
+    }
+
+    /**
+     * Optionally starts any work the document check needs that does not depend on the form (e.g.
+     * obtaining a token), so it can overlap with form validation. Used by the next
+     * performDocumentCheck with the same strategy.
+     */
+    default void startDocumentCheckPrefetch(Strategy strategy, RequestDeadline requestDeadline) {
+        // No prefetch by default
+    }
+
+    /** Discards any prefetch not used by a document check, e.g. as form validation failed. */
+    default void discardDocumentCheckPrefetch() {
+        // No prefetch by default
+    }
+
+    /**
+     * As performDocumentCheck, run on the executor so the caller can overlap other work with the
+     * third party call. The future fails with the OAuthErrorResponseException as the cause.
+     */
+    default CompletableFuture<DocumentCheckResult> performDocumentCheckAsync(
+            DrivingPermitForm drivingPermitForm,
+            Strategy strategy,
+            RequestDeadline requestDeadline,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return performDocumentCheck(drivingPermitForm, strategy, requestDeadline);
+                    } catch (OAuthErrorResponseException e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                executor);
+    }
 }
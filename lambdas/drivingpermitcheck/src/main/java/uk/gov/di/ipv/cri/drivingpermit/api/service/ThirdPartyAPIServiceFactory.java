@@ -1,28 +1,39 @@
 package uk.gov.di.ipv.cri.drivingpermit.api.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.acm.model.ExportCertificateResponse;
 import software.amazon.awssdk.services.kms.KmsClient;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.configuration.DrivingPermitConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.dva.DvaThirdPartyDocumentGateway;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.dvla.DvlaThirdPartyDocumentGateway;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.DVACloseableHttpClientFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.DvaCryptographyService;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.RequestHashValidator;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.AcmCertificateService;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.DvaKmsClientFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.DvaSigningBackend;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.JweKmsDecrypter;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.KmsSigner;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.LocalJcaSigner;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.TimedDvaSigningBackend;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.DVLACloseableHttpClientFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.DvlaEndpointFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakingThirdPartyTransport;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.TestStrategyConcurrencyLimiter;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
@@ -31,11 +42,18 @@ import java.security.spec.InvalidKeySpecException;
 
 public class ThirdPartyAPIServiceFactory {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
     public static final String BEGIN_CERT = "-----BEGIN CERTIFICATE-----";
     public static final String END_CERT = "-----END CERTIFICATE-----";
 
     private static final int MAX_HTTP_RETRIES = 2;
 
+    private static final String LIVE_CIRCUIT_BREAKER_NAME_PREFIX = "";
+    private static final String TEST_STRATEGY_CIRCUIT_BREAKER_NAME_PREFIX = "test_";
+
+    private static final String DVA_KMS_PRE_WARM_TASK_NAME = "dva_kms";
+
     private static final int DVA = 0;
     private static final int DVLA = 1;
 
@@ -49,40 +67,49 @@ public class ThirdPartyAPIServiceFactory {
 
         boolean tlsOnDva = !drivingPermitConfigurationService.isDvaPerformanceStub();
 
+        // Shared by DVA and DVLA, the cap is on the whole function's concurrency
+        TestStrategyConcurrencyLimiter testStrategyConcurrencyLimiter =
+                new TestStrategyConcurrencyLimiter(
+                        serviceFactory.getEventProbe(),
+                        serviceFactory.getClientProviderFactory().getDynamoDbEnhancedClient());
+
         thirdPartyAPIServices[DVA] =
-                createDvaThirdPartyDocumentGateway(
+                createDvaThirdPartyAPIService(
                         serviceFactory,
                         drivingPermitConfigurationService,
                         acmCertificateService,
-                        tlsOnDva);
+                        tlsOnDva,
+                        testStrategyConcurrencyLimiter);
         thirdPartyAPIServices[DVLA] =
-                createDvlaThirdPartyDocumentGateway(
-                        serviceFactory, drivingPermitConfigurationService);
+                createDvlaThirdPartyAPIService(
+                        serviceFactory,
+                        drivingPermitConfigurationService,
+                        testStrategyConcurrencyLimiter);
     }
 
-    private ThirdPartyAPIService createDvaThirdPartyDocumentGateway(
+    private ThirdPartyAPIService createDvaThirdPartyAPIService(
             ServiceFactory serviceFactory,
             DrivingPermitConfigurationService drivingPermitConfigurationService,
             AcmCertificateService acmCertificateService,
-            boolean tlsOn)
+            boolean tlsOn,
+            TestStrategyConcurrencyLimiter testStrategyConcurrencyLimiter)
             throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException {
 
-        EventProbe eventProbe = serviceFactory.getEventProbe();
         ParameterStoreService parameterStoreService = serviceFactory.getParameterStoreService();
-        ApacheHTTPClientFactoryService apacheHTTPClientFactoryService =
-                serviceFactory.getApacheHTTPClientFactoryService();
 
         DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration =
                 new DvaCryptographyServiceConfiguration(parameterStoreService);
-        String signingKeyId = dvaCryptographyServiceConfiguration.getKmsSigningKeyId();
         String encryptionKeyId = dvaCryptographyServiceConfiguration.getKmsEncryptionKeyId();
 
         X509Certificate dlSigningCertificate =
                 (X509Certificate) dvaCryptographyServiceConfiguration.getSigningThumbprintCert();
         boolean hasCA = Boolean.parseBoolean(dvaCryptographyServiceConfiguration.getHasCA());
 
+        // Exported once, the certificate and (for local signing) its private key come from it
+        ExportCertificateResponse signingCertificateExport = null;
         if (hasCA) {
-            String dlSigningCertificateString = acmCertificateService.exportAcmSigningCertificate();
+            signingCertificateExport = acmCertificateService.exportAcmSigningCertificateAndKey();
+            String dlSigningCertificateString = signingCertificateExport.certificate();
             dlSigningCertificateString =
                     dlSigningCertificateString
                             .replace("\n", "")
@@ -92,12 +119,112 @@ public class ThirdPartyAPIServiceFactory {
                     KeyCertHelper.getDecodedX509Certificate(dlSigningCertificateString);
         }
 
-        KmsClient kmsClient = serviceFactory.getClientProviderFactory().getKMSClient();
+        // Not the shared client, the DVA Sign and Decrypt calls are on the request path
+        KmsClient kmsClient = DvaKmsClientFactory.createKmsClient();
+        DvaSigningBackend dvaSigningBackend =
+                createDvaSigningBackend(
+                        dvaCryptographyServiceConfiguration,
+                        signingCertificateExport,
+                        dlSigningCertificate,
+                        kmsClient,
+                        serviceFactory.getEventProbe());
         DvaCryptographyService dvaCryptographyService =
                 new DvaCryptographyService(
                         dvaCryptographyServiceConfiguration,
-                        new KmsSigner(signingKeyId, dlSigningCertificate, kmsClient),
-                        new JweKmsDecrypter(encryptionKeyId, kmsClient));
+                        dvaSigningBackend,
+                        new JweKmsDecrypter(
+                                encryptionKeyId, kmsClient, serviceFactory.getEventProbe()),
+                        serviceFactory.getJsonCodecs());
+
+        serviceFactory
+                .getHttpConnectionPreWarmer()
+                .addTarget(
+                        DVACloseableHttpClientFactory.HTTP_CONNECTION_POOL_CONFIG.getPoolName(),
+                        drivingPermitConfigurationService.getDvaConfiguration().getEndpointUri());
+
+        // Describing the key is the cheapest call that opens the KMS connection, used by all keys
+        serviceFactory
+                .getHttpConnectionPreWarmer()
+                .addTask(
+                        DVA_KMS_PRE_WARM_TASK_NAME,
+                        () -> kmsClient.describeKey(builder -> builder.keyId(encryptionKeyId)));
+
+        // Only the connections differ between the live and test strategy gateways
+        return new StrategyBulkheadThirdPartyAPIService(
+                createDvaThirdPartyDocumentGateway(
+                        serviceFactory,
+                        drivingPermitConfigurationService,
+                        acmCertificateService,
+                        tlsOn,
+                        dvaCryptographyServiceConfiguration,
+                        dvaCryptographyService,
+                        DVACloseableHttpClientFactory.HTTP_CONNECTION_POOL_CONFIG,
+                        LIVE_CIRCUIT_BREAKER_NAME_PREFIX),
+                () ->
+                        createDvaThirdPartyDocumentGateway(
+                                serviceFactory,
+                                drivingPermitConfigurationService,
+                                acmCertificateService,
+                                tlsOn,
+                                dvaCryptographyServiceConfiguration,
+                                dvaCryptographyService,
+                                DVACloseableHttpClientFactory
+                                        .TEST_STRATEGY_HTTP_CONNECTION_POOL_CONFIG,
+                                TEST_STRATEGY_CIRCUIT_BREAKER_NAME_PREFIX),
+                testStrategyConcurrencyLimiter);
+    }
+
+    private DvaSigningBackend createDvaSigningBackend(
+            DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration,
+            ExportCertificateResponse signingCertificateExport,
+            X509Certificate dlSigningCertificate,
+            KmsClient kmsClient,
+            EventProbe eventProbe)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+
+        boolean localSigning =
+                DvaSigningBackend.LOCAL.equals(
+                        dvaCryptographyServiceConfiguration.getSigningBackend());
+
+        DvaSigningBackend dvaSigningBackend;
+        if (localSigning && signingCertificateExport != null) {
+            // Only the ACM signing certificate can be exported with its private key
+            String signingKey =
+                    AcmCertificateService.parseAcmKey(signingCertificateExport.privateKey());
+
+            dvaSigningBackend =
+                    new LocalJcaSigner(
+                            KeyCertHelper.getDecodedPrivateRSAKey(signingKey),
+                            dlSigningCertificate);
+        } else {
+            if (localSigning) {
+                LOGGER.warn("Local DVA signing needs the ACM signing certificate, using KMS");
+            }
+
+            dvaSigningBackend =
+                    new KmsSigner(
+                            dvaCryptographyServiceConfiguration.getKmsSigningKeyId(),
+                            dlSigningCertificate,
+                            kmsClient);
+        }
+
+        LOGGER.info("DVA signing backend {}", dvaSigningBackend.getBackendName());
+
+        return new TimedDvaSigningBackend(dvaSigningBackend, eventProbe);
+    }
+
+    @java.lang.SuppressWarnings("java:S107")
+    private ThirdPartyAPIService createDvaThirdPartyDocumentGateway(
+            ServiceFactory serviceFactory,
+            DrivingPermitConfigurationService drivingPermitConfigurationService,
+            AcmCertificateService acmCertificateService,
+            boolean tlsOn,
+            DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration,
+            DvaCryptographyService dvaCryptographyService,
+            HttpConnectionPoolConfig httpConnectionPoolConfig,
+            String circuitBreakerNamePrefix) {
+
+        EventProbe eventProbe = serviceFactory.getEventProbe();
 
         RequestHashValidator requestHashValidator = new RequestHashValidator();
 
@@ -107,28 +234,67 @@ public class ThirdPartyAPIServiceFactory {
         CloseableHttpClient httpClient =
                 dvaCloseableHttpClientFactory.getClient(
                         dvaCryptographyServiceConfiguration,
-                        parameterStoreService,
-                        apacheHTTPClientFactoryService,
+                        serviceFactory.getParameterStoreService(),
+                        serviceFactory.getApacheHTTPClientFactoryService(),
                         acmCertificateService,
-                        tlsOn);
+                        tlsOn,
+                        httpConnectionPoolConfig);
 
         HttpRetryer httpRetryer = new HttpRetryer(httpClient, eventProbe, MAX_HTTP_RETRIES);
+        ThirdPartyTransport thirdPartyTransport =
+                new CircuitBreakingThirdPartyTransport(
+                        httpRetryer,
+                        eventProbe,
+                        serviceFactory.getClientProviderFactory().getDynamoDbEnhancedClient(),
+                        circuitBreakerNamePrefix);
 
         return new DvaThirdPartyDocumentGateway(
                 dvaCryptographyService,
                 requestHashValidator,
                 drivingPermitConfigurationService,
-                httpRetryer,
+                thirdPartyTransport,
                 eventProbe);
     }
 
+    private ThirdPartyAPIService createDvlaThirdPartyAPIService(
+            ServiceFactory serviceFactory,
+            DrivingPermitConfigurationService drivingPermitConfigurationService,
+            TestStrategyConcurrencyLimiter testStrategyConcurrencyLimiter) {
+
+        // The match endpoint is on the same host as the token endpoint
+        serviceFactory
+                .getHttpConnectionPreWarmer()
+                .addTarget(
+                        DVLACloseableHttpClientFactory.HTTP_CONNECTION_POOL_CONFIG.getPoolName(),
+                        drivingPermitConfigurationService
+                                .getDvlaConfiguration()
+                                .getTokenEndpoint());
+
+        return new StrategyBulkheadThirdPartyAPIService(
+                createDvlaThirdPartyDocumentGateway(
+                        serviceFactory,
+                        drivingPermitConfigurationService,
+                        DVLACloseableHttpClientFactory.HTTP_CONNECTION_POOL_CONFIG,
+                        LIVE_CIRCUIT_BREAKER_NAME_PREFIX),
+                () ->
+                        createDvlaThirdPartyDocumentGateway(
+                                serviceFactory,
+                                drivingPermitConfigurationService,
+                                DVLACloseableHttpClientFactory
+                                        .TEST_STRATEGY_HTTP_CONNECTION_POOL_CONFIG,
+                                TEST_STRATEGY_CIRCUIT_BREAKER_NAME_PREFIX),
+                testStrategyConcurrencyLimiter);
+    }
+
     private ThirdPartyAPIService createDvlaThirdPartyDocumentGateway(
             ServiceFactory serviceFactory,
-            DrivingPermitConfigurationService drivingPermitConfigurationService) {
+            DrivingPermitConfigurationService drivingPermitConfigurationService,
+            HttpConnectionPoolConfig httpConnectionPoolConfig,
+            String circuitBreakerNamePrefix) {
 
         DvlaConfiguration dvlaConfiguration =
                 drivingPermitConfigurationService.getDvlaConfiguration();
-        ObjectMapper objectMapper = serviceFactory.getObjectMapper();
+        JsonCodecs jsonCodecs = serviceFactory.getJsonCodecs();
         EventProbe eventProbe = serviceFactory.getEventProbe();
         DynamoDbEnhancedClient dynamoDbEnhancedClient =
                 serviceFactory.getClientProviderFactory().getDynamoDbEnhancedClient();
@@ -140,14 +306,19 @@ public class ThirdPartyAPIServiceFactory {
 
         HttpRetryer httpRetryer =
                 new HttpRetryer(
-                        dvlaCloseableHttpClientFactory.getClient(), eventProbe, MAX_HTTP_RETRIES);
+                        dvlaCloseableHttpClientFactory.getClient(httpConnectionPoolConfig),
+                        eventProbe,
+                        MAX_HTTP_RETRIES);
+        ThirdPartyTransport thirdPartyTransport =
+                new CircuitBreakingThirdPartyTransport(
+                        httpRetryer, eventProbe, dynamoDbEnhancedClient, circuitBreakerNamePrefix);
 
         DvlaEndpointFactory dvlaEndpointFactory =
                 new DvlaEndpointFactory(
                         dvlaConfiguration,
-                        objectMapper,
+                        jsonCodecs,
                         eventProbe,
-                        httpRetryer,
+                        thirdPartyTransport,
                         dynamoDbEnhancedClient);
 
         return new DvlaThirdPartyDocumentGateway(dvlaEndpointFactory);
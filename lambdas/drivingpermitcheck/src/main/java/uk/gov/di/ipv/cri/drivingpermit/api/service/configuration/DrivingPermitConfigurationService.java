@@ -5,6 +5,7 @@ import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 public class DrivingPermitConfigurationService {
 
@@ -17,7 +18,8 @@ public class DrivingPermitConfigurationService {
 
     public DrivingPermitConfigurationService(
             ParameterStoreService parameterStoreService,
-            SecretsManagerService secretsManagerService)
+            SecretsManagerService secretsManagerService,
+            JsonCodecs jsonCodecs)
             throws JsonProcessingException {
 
         // ****************************Private Parameters****************************
@@ -34,7 +36,8 @@ public class DrivingPermitConfigurationService {
 
         // **************************** DVLA ****************************
 
-        dvlaConfiguration = new DvlaConfiguration(parameterStoreService, secretsManagerService);
+        dvlaConfiguration =
+                new DvlaConfiguration(parameterStoreService, secretsManagerService, jsonCodecs);
     }
 
     public boolean isDvaPerformanceStub() {
@@ -2,13 +2,12 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service.dva;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSObject;
-import org.apache.http.HttpEntity;
 import org.apache.http.ParseException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.message.BasicHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.http.HttpStatusCode;
@@ -26,10 +25,15 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.DvaCryptographyServic
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.DvaHttpRetryStatusConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.service.RequestHashValidator;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.IpvCryptoException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.EndpointDescriptor;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
-import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BoundedResponseReader;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import java.io.IOException;
@@ -60,11 +64,15 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
     private static final String SERVICE_NAME = DvaThirdPartyDocumentGateway.class.getSimpleName();
     private static final Logger LOGGER = LogManager.getLogger();
     private static final APIResultSource API_RESULT_SOURCE = DVA;
+    private static final String ENDPOINT_NAME = "DVA document check endpoint";
+    private static final String DOCUMENT_CHECK_PATH = "/api/ukverify";
     private final DvaCryptographyService dvaCryptographyService;
     private final RequestHashValidator requestHashValidator;
     private final DrivingPermitConfigurationService drivingPermitConfigurationService;
-    private final HttpRetryer httpRetryer;
+    private final ThirdPartyTransport thirdPartyTransport;
     private final EventProbe eventProbe;
+    private final BoundedResponseReader responseReader;
+    private final EndpointDescriptor endpointDescriptor;
 
     private final HttpRetryStatusConfig httpRetryStatusConfig;
     private final StopWatch stopWatch;
@@ -73,13 +81,16 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
             DvaCryptographyService dvaCryptographyService,
             RequestHashValidator requestHashValidator,
             DrivingPermitConfigurationService drivingPermitConfigurationService,
-            HttpRetryer httpRetryer,
+            ThirdPartyTransport thirdPartyTransport,
             EventProbe eventProbe) {
         this.dvaCryptographyService = dvaCryptographyService;
         this.requestHashValidator = requestHashValidator;
         this.drivingPermitConfigurationService = drivingPermitConfigurationService;
-        this.httpRetryer = httpRetryer;
+        this.thirdPartyTransport = thirdPartyTransport;
         this.eventProbe = eventProbe;
+        this.responseReader = new BoundedResponseReader(ENDPOINT_NAME);
+        this.endpointDescriptor =
+                createEndpointDescriptor(drivingPermitConfigurationService.getDvaConfiguration());
 
         this.httpRetryStatusConfig = new DvaHttpRetryStatusConfig();
         this.stopWatch = new StopWatch();
@@ -92,7 +103,7 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
 
     @Override
     public DocumentCheckResult performDocumentCheck(
-            DrivingPermitForm drivingPermitData, Strategy strategy)
+            DrivingPermitForm drivingPermitData, Strategy strategy, RequestDeadline requestDeadline)
             throws OAuthErrorResponseException {
         LOGGER.info("Mapping person to third party document check request");
         DvaPayload dvaPayload = new DvaPayload();
@@ -105,15 +116,10 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         String drivingPermitDriverLicenceNumber = drivingPermitData.getDrivingLicenceNumber();
         String drivingPermitAddress = drivingPermitData.getPostcode();
 
-        DvaConfiguration dvaConfiguration = drivingPermitConfigurationService.getDvaConfiguration();
-
-        String dvaEndpointUri = null;
-
         // Note: dva direct request fields have different names/mappings to the
         // drivingPermitForm
         // the below is for mapping the form fields into the correct dva field names
 
-        dvaEndpointUri = dvaConfiguration.getEndpointUri() + "/api/ukverify";
         dvaPayload.setRequestId(UUID.randomUUID());
         dvaPayload.setSurname(drivingPermitFamilyName);
         dvaPayload.setForenames(drivingPermitGivenNames);
@@ -133,19 +139,15 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
 
         String requestBody = preparedDvaPayload.serialize();
 
-        URI endpoint = URI.create(dvaEndpointUri);
-        String username = dvaConfiguration.getUserName();
-        String password = dvaConfiguration.getPassword();
-        HttpPost request = requestBuilder(endpoint, username, password, requestBody);
+        HttpPost request = requestBuilder(requestBody);
 
         if (drivingPermitConfigurationService.isDvaPerformanceStub()) {
             try {
                 request.addHeader(
                         "request-hash",
-                        new RequestHashValidator.HashFactory()
-                                .getHash(
-                                        dvaPayload,
-                                        drivingPermitConfigurationService.isDvaPerformanceStub()));
+                        requestHashValidator.getHash(
+                                dvaPayload,
+                                drivingPermitConfigurationService.isDvaPerformanceStub()));
                 boolean additionalHeaderRequired =
                         drivingPermitConfigurationService.isDvaPerformanceStub();
                 request.addHeader("has-ca", String.valueOf(additionalHeaderRequired));
@@ -163,10 +165,22 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         stopWatch.start();
         DocumentCheckResult documentCheckResult;
         try (CloseableHttpResponse httpResponse =
-                httpRetryer.sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig)) {
+                thirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        request, httpRetryStatusConfig, requestDeadline)) {
             eventProbe.counterMetric(DVA_REQUEST_SEND_OK.withEndpointPrefix());
             documentCheckResult =
                     responseHandler(dvaPayload, httpResponse, dvaPayload.getRequestId().toString());
+        } catch (RequestDeadlineExceededException e) {
+            LOGGER.error("Document check request not sent to DVA {}", e.getMessage());
+            eventProbe.counterMetric(DVA_REQUEST_SEND_ERROR.withEndpointPrefix());
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.REQUEST_DEADLINE_EXCEEDED);
+        } catch (CircuitBreakerOpenException e) {
+            LOGGER.error("Document check request not sent to DVA {}", e.getMessage());
+            eventProbe.counterMetric(DVA_REQUEST_SEND_ERROR.withEndpointPrefix());
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN);
         } catch (IOException e) {
             // No Response Latency
             eventProbe.counterMetric(DVA_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
@@ -234,8 +248,8 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
             throws IOException, ParseException, JOSEException, OAuthErrorResponseException {
         int statusCode = httpResponse.getStatusLine().getStatusCode();
 
-        HttpEntity entity = httpResponse.getEntity();
-        String responseBody = EntityUtils.toString(entity);
+        // The JOSE response is parsed from a String, read with a hard size limit
+        String responseBody = responseReader.readString(httpResponse);
 
         LOGGER.info("Third party response code {}", statusCode);
 
@@ -318,19 +332,30 @@ public class DvaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         }
     }
 
-    private HttpPost requestBuilder(
-            URI endpointUri, String userName, String password, String requestBody) {
-        HttpPost request = new HttpPost(endpointUri);
+    private HttpPost requestBuilder(String requestBody) {
+        HttpPost request = new HttpPost();
 
-        request.addHeader("Content-Type", "application/jose");
-        // basic auth
-        request.addHeader("Authorization", getBasicAuthenticationHeader(userName, password));
+        endpointDescriptor.applyTo(request);
         request.setEntity(new StringEntity(requestBody, ContentType.DEFAULT_TEXT));
 
         return request;
     }
 
-    private String getBasicAuthenticationHeader(String username, String password) {
+    // The endpoint and basic auth header do not change, so are built once
+    private static EndpointDescriptor createEndpointDescriptor(DvaConfiguration dvaConfiguration) {
+        return new EndpointDescriptor(
+                URI.create(dvaConfiguration.getEndpointUri() + DOCUMENT_CHECK_PATH),
+                List.of(
+                        new BasicHeader("Content-Type", "application/jose"),
+                        new BasicHeader(
+                                "Authorization",
+                                getBasicAuthenticationHeader(
+                                        dvaConfiguration.getUserName(),
+                                        dvaConfiguration.getPassword()))),
+                null);
+    }
+
+    private static String getBasicAuthenticationHeader(String username, String password) {
         String valueToEncode = username + ":" + password;
         return "Basic " + Base64.getEncoder().encodeToString(valueToEncode.getBytes());
     }
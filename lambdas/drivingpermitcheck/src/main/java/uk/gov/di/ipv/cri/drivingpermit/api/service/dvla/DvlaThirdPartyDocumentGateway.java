@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service.dvla;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DrivingPermitForm;
@@ -15,6 +16,14 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.DvlaEndpointFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.DriverMatchService;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.DaemonThreadFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import static uk.gov.di.ipv.cri.drivingpermit.api.domain.result.APIResultSource.DVLA;
 import static uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse.ERROR_DVLA_EXPIRED_TOKEN_RECOVERY_FAILED;
@@ -31,9 +40,24 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
 
     private static final int MAX_UNAUTHORIZED_RECOVERY_ATTEMPTS = 1;
 
+    private final Executor tokenPrefetchExecutor;
+
+    // Token requested ahead of the document check, for the strategy it was requested with
+    private TokenPrefetch tokenPrefetch;
+
+    private record TokenPrefetch(Strategy strategy, CompletableFuture<String> tokenValue) {}
+
     public DvlaThirdPartyDocumentGateway(DvlaEndpointFactory endpointFactory) {
+        this(
+                endpointFactory,
+                Executors.newSingleThreadExecutor(new DaemonThreadFactory("dvla-token-prefetch")));
+    }
+
+    DvlaThirdPartyDocumentGateway(
+            DvlaEndpointFactory endpointFactory, Executor tokenPrefetchExecutor) {
         tokenRequestService = endpointFactory.getTokenRequestService();
         driverMatchService = endpointFactory.getDriverMatchService();
+        this.tokenPrefetchExecutor = tokenPrefetchExecutor;
     }
 
     @Override
@@ -41,17 +65,59 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         return SERVICE_NAME;
     }
 
+    /**
+     * Starts requesting the token on the prefetch executor, so a token table read (or new token
+     * request) overlaps with the form validation before the document check.
+     */
+    @Override
+    public void startDocumentCheckPrefetch(Strategy strategy, RequestDeadline requestDeadline) {
+        discardDocumentCheckPrefetch();
+
+        LOGGER.info("Prefetching token");
+
+        // Log context (e.g. the correlation id) is per thread
+        final Map<String, String> threadContext = ThreadContext.getImmutableContext();
+
+        CompletableFuture<String> tokenValue =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            ThreadContext.putAll(threadContext);
+                            try {
+                                return tokenRequestService.requestToken(
+                                        false, strategy, requestDeadline);
+                            } catch (OAuthErrorResponseException e) {
+                                throw new CompletionException(e);
+                            } finally {
+                                ThreadContext.clearMap();
+                            }
+                        },
+                        tokenPrefetchExecutor);
+
+        tokenPrefetch = new TokenPrefetch(strategy, tokenValue);
+    }
+
+    @Override
+    public void discardDocumentCheckPrefetch() {
+        if (tokenPrefetch != null) {
+            // Prevents the request if not yet started, one in progress still caches its token
+            tokenPrefetch.tokenValue().cancel(false);
+            tokenPrefetch = null;
+
+            LOGGER.info("Prefetched token discarded");
+        }
+    }
+
     @Override
     public DocumentCheckResult performDocumentCheck(
-            DrivingPermitForm drivingPermitForm, Strategy strategy)
+            DrivingPermitForm drivingPermitForm, Strategy strategy, RequestDeadline requestDeadline)
             throws OAuthErrorResponseException {
 
         LOGGER.info("DVLA request started");
 
         DriverMatchServiceResult driverMatchServiceResult = null;
 
-        // Use any existing token by default
-        boolean newTokenOverride = false;
+        // Set once the match endpoint rejects a token, so recovery uses a different one
+        String rejectedTokenValue = null;
 
         // Only happy path becomes true
         boolean finished = false;
@@ -59,14 +125,28 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         // > 0 are token expired recovery iterations
         int iteration = 0;
 
+        // Only used for the first iteration, token recovery always replaces the token
+        CompletableFuture<String> prefetchedTokenValue = takePrefetchedTokenValue(strategy);
+
         do {
-            String tokenValue = tokenRequestService.requestToken(newTokenOverride, strategy);
+            String tokenValue;
+            if (prefetchedTokenValue != null) {
+                tokenValue = awaitPrefetchedTokenValue(prefetchedTokenValue);
+                prefetchedTokenValue = null;
+            } else if (rejectedTokenValue != null) {
+                tokenValue =
+                        tokenRequestService.requestTokenReplacing(
+                                rejectedTokenValue, strategy, requestDeadline);
+            } else {
+                tokenValue = tokenRequestService.requestToken(false, strategy, requestDeadline);
+            }
 
             LOGGER.info("Token value {}", tokenValue);
 
             try {
                 driverMatchServiceResult =
-                        driverMatchService.performMatch(drivingPermitForm, tokenValue, strategy);
+                        driverMatchService.performMatch(
+                                drivingPermitForm, tokenValue, strategy, requestDeadline);
 
                 finished = true;
 
@@ -74,6 +154,9 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
 
                 LOGGER.warn("{} - iteration {}", e.getClass().getSimpleName(), iteration);
 
+                // So no other request in this container reuses the rejected token
+                tokenRequestService.invalidateCachedToken(strategy, tokenValue);
+
                 if (iteration == MAX_UNAUTHORIZED_RECOVERY_ATTEMPTS) {
 
                     // If Unauthorized comes back again, there could be an issue with the api key
@@ -83,11 +166,10 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
                             HttpStatusCode.INTERNAL_SERVER_ERROR,
                             ERROR_DVLA_EXPIRED_TOKEN_RECOVERY_FAILED);
                 } else {
-                    LOGGER.warn(
-                            "Assuming Token expired, attempting recovery via a new token request");
+                    LOGGER.warn("Assuming Token expired, attempting recovery via a new token");
 
-                    // flip flag to force update the token
-                    newTokenOverride = true;
+                    // A token published elsewhere is used before requesting a new one
+                    rejectedTokenValue = tokenValue;
                     iteration++;
                 }
             }
@@ -99,6 +181,32 @@ public class DvlaThirdPartyDocumentGateway implements ThirdPartyAPIService {
         return mapDriverMatchServiceResultToDocumentCheckResult(driverMatchServiceResult);
     }
 
+    private CompletableFuture<String> takePrefetchedTokenValue(Strategy strategy) {
+        if (tokenPrefetch != null && tokenPrefetch.strategy() == strategy) {
+            CompletableFuture<String> prefetchedTokenValue = tokenPrefetch.tokenValue();
+            tokenPrefetch = null;
+            return prefetchedTokenValue;
+        }
+
+        discardDocumentCheckPrefetch();
+        return null;
+    }
+
+    private static String awaitPrefetchedTokenValue(CompletableFuture<String> tokenValue)
+            throws OAuthErrorResponseException {
+        try {
+            return tokenValue.join();
+        } catch (CompletionException e) {
+            // Fails as the token request would have, had it not been prefetched
+            if (e.getCause() instanceof OAuthErrorResponseException oAuthErrorResponseException) {
+                throw oAuthErrorResponseException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
     private static DocumentCheckResult mapDriverMatchServiceResultToDocumentCheckResult(
             DriverMatchServiceResult driverMatchServiceResult) {
 
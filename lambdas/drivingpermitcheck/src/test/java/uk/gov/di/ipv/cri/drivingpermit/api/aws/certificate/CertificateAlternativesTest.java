@@ -19,6 +19,7 @@ import software.amazon.awssdk.services.kms.KmsClient;
 import software.amazon.awssdk.services.kms.model.DecryptRequest;
 import software.amazon.awssdk.services.kms.model.DecryptResponse;
 import software.amazon.awssdk.services.kms.model.EncryptionAlgorithmSpec;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.aws.certificate.utils.CryptoUtils;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Thumbprints;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
@@ -152,11 +153,15 @@ class CertificateAlternativesTest {
                 new uk.gov.di.ipv.cri.drivingpermit.library.dva.util.KmsSigner(
                         SIGNING_KEY_ID, signingCertificate, kmsClient);
 
-        JweKmsDecrypter jweKmsDecrypter = new JweKmsDecrypter(ENC_KEY_ID, kmsClient);
+        JweKmsDecrypter jweKmsDecrypter =
+                new JweKmsDecrypter(ENC_KEY_ID, kmsClient, new EventProbe());
 
         DvaCryptographyService dvaCryptographyService =
                 new DvaCryptographyService(
-                        dvaCryptographyServiceConfiguration, kmsSigner, jweKmsDecrypter);
+                        dvaCryptographyServiceConfiguration,
+                        kmsSigner,
+                        jweKmsDecrypter,
+                        new ServiceFactory().getJsonCodecs());
         JWSObject jwsObject =
                 dvaCryptographyService.preparePayload(
                         createSuccessDvaResponse(requestHash, Boolean.parseBoolean(validDoc)));
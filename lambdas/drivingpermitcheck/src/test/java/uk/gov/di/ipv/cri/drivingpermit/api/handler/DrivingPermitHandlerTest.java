@@ -6,6 +6,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
@@ -36,12 +38,17 @@ import uk.gov.di.ipv.cri.drivingpermit.api.testdata.DocumentCheckVerificationRes
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.CommonExpressOAuthError;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.DocumentCheckResultStorageService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpConnectionPoolThawMonitor;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.DrivingPermitFormTestDataGenerator;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
@@ -54,11 +61,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -74,6 +83,7 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_FUNCTION_INIT_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_USER_REDIRECTED_ATTEMPTS_OVER_MAX;
 
 @ExtendWith(MockitoExtension.class)
@@ -82,7 +92,8 @@ class DrivingPermitHandlerTest {
 
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
-    @Mock private ObjectMapper mockObjectMapper;
+    @Mock private JsonCodecs mockJsonCodecs;
+    @Mock private ObjectReader mockDrivingPermitFormReader;
     @Mock private EventProbe mockEventProbe;
     @Mock private SessionService mockSessionService;
     @Mock private AuditService mockAuditService;
@@ -90,6 +101,7 @@ class DrivingPermitHandlerTest {
     @Mock private PersonIdentityService mockPersonIdentityService;
     @Mock private DocumentCheckResultStorageService mockDocumentCheckResultStorageService;
     @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private HttpConnectionPoolThawMonitor mockHttpConnectionPoolThawMonitor;
 
     @Mock private ServiceFactory mockServiceFactory;
     @Mock private ThirdPartyAPIServiceFactory mockThirdPartyAPIServiceFactory;
@@ -112,7 +124,9 @@ class DrivingPermitHandlerTest {
         environmentVariables.set("LOG_DVA_RESPONSE", "false");
         environmentVariables.set("DEV_ENVIRONMENT_ONLY_ENHANCED_DEBUG", "false");
 
-        when(mockServiceFactory.getObjectMapper()).thenReturn(mockObjectMapper);
+        when(mockServiceFactory.getJsonCodecs()).thenReturn(mockJsonCodecs);
+        when(mockJsonCodecs.reader(DrivingPermitForm.class))
+                .thenReturn(mockDrivingPermitFormReader);
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
         when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
         when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
@@ -126,6 +140,10 @@ class DrivingPermitHandlerTest {
 
         when(mockServiceFactory.getDocumentCheckResultStorageService())
                 .thenReturn(mockDocumentCheckResultStorageService);
+        when(mockServiceFactory.getHttpConnectionPoolThawMonitor())
+                .thenReturn(mockHttpConnectionPoolThawMonitor);
+        when(mockServiceFactory.getConcurrentCallRunner())
+                .thenReturn(new ConcurrentCallRunner(Runnable::run, mockEventProbe));
 
         this.drivingPermitHandler =
                 new DrivingPermitHandler(
@@ -161,7 +179,7 @@ class DrivingPermitHandlerTest {
         sessionItem.setClientId("NoChangeClientId"); // TestSrategy
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
 
-        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
                 .thenReturn(drivingPermitForm);
 
         doNothing()
@@ -181,8 +199,11 @@ class DrivingPermitHandlerTest {
         when(mockIdentityVerificationService.verifyIdentity(
                         any(DrivingPermitForm.class),
                         any(ThirdPartyAPIService.class),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(testDocumentVerificationResult);
+                        eq(Strategy.NO_CHANGE),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class)))
+                .thenAnswer(runningWhileDocumentCheckInFlight(testDocumentVerificationResult));
 
         when(context.getFunctionName()).thenReturn("functionName");
         when(context.getFunctionVersion()).thenReturn("1.0");
@@ -194,6 +215,7 @@ class DrivingPermitHandlerTest {
         inOrder.verify(mockEventProbe)
                 .counterMetric(eq(LAMBDA_DRIVING_PERMIT_CHECK_FUNCTION_INIT_DURATION), anyDouble());
         inOrder.verify(mockEventProbe).counterMetric(CONTEXT_VALUE_NULL);
+        verifyPostCheckDurationMetrics(inOrder);
         inOrder.verify(mockEventProbe)
                 .counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_VERIFIED_PREFIX + 1);
         inOrder.verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK);
@@ -202,14 +224,20 @@ class DrivingPermitHandlerTest {
         switch (issuingAuthority) {
             case "DVA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
             case "DVLA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvlaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvlaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
         }
 
         verify(mockDocumentCheckResultStorageService)
@@ -253,7 +281,7 @@ class DrivingPermitHandlerTest {
         sessionItem.setClientId("NoChangeClientId"); // TestSrategy
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
 
-        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
                 .thenReturn(drivingPermitForm);
 
         doNothing()
@@ -273,8 +301,11 @@ class DrivingPermitHandlerTest {
         when(mockIdentityVerificationService.verifyIdentity(
                         any(DrivingPermitForm.class),
                         any(ThirdPartyAPIService.class),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(testDocumentVerificationResult);
+                        eq(Strategy.NO_CHANGE),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class)))
+                .thenAnswer(runningWhileDocumentCheckInFlight(testDocumentVerificationResult));
 
         when(context.getFunctionName()).thenReturn("functionName");
         when(context.getFunctionVersion()).thenReturn("1.0");
@@ -285,6 +316,7 @@ class DrivingPermitHandlerTest {
         inOrder.verify(mockEventProbe)
                 .counterMetric(eq(LAMBDA_DRIVING_PERMIT_CHECK_FUNCTION_INIT_DURATION), anyDouble());
         inOrder.verify(mockEventProbe).counterMetric(CONTEXT_VALUE_NULL);
+        verifyPostCheckDurationMetrics(inOrder);
 
         if (documentVerified) {
             inOrder.verify(mockEventProbe)
@@ -308,14 +340,20 @@ class DrivingPermitHandlerTest {
         switch (issuingAuthority) {
             case "DVA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
             case "DVLA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvlaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvlaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
         }
     }
 
@@ -353,7 +391,7 @@ class DrivingPermitHandlerTest {
         sessionItem.setClientId("NoChangeClientId"); // TestSrategy
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
 
-        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
                 .thenReturn(drivingPermitForm);
 
         doNothing()
@@ -373,8 +411,11 @@ class DrivingPermitHandlerTest {
         when(mockIdentityVerificationService.verifyIdentity(
                         any(DrivingPermitForm.class),
                         any(ThirdPartyAPIService.class),
-                        eq(Strategy.NO_CHANGE)))
-                .thenReturn(testDocumentVerificationResult);
+                        eq(Strategy.NO_CHANGE),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class)))
+                .thenAnswer(runningWhileDocumentCheckInFlight(testDocumentVerificationResult));
 
         when(context.getFunctionName()).thenReturn("functionName");
         when(context.getFunctionVersion()).thenReturn("1.0");
@@ -385,6 +426,7 @@ class DrivingPermitHandlerTest {
         inOrder.verify(mockEventProbe)
                 .counterMetric(eq(LAMBDA_DRIVING_PERMIT_CHECK_FUNCTION_INIT_DURATION), anyDouble());
         inOrder.verify(mockEventProbe).counterMetric(CONTEXT_VALUE_NULL);
+        verifyPostCheckDurationMetrics(inOrder);
 
         if (documentVerified) {
             inOrder.verify(mockEventProbe)
@@ -397,14 +439,20 @@ class DrivingPermitHandlerTest {
         switch (issuingAuthority) {
             case "DVA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
             case "DVLA" -> verify(mockIdentityVerificationService)
                     .verifyIdentity(
-                            drivingPermitForm,
-                            mockDvlaThirdPartyDocumentGateway,
-                            Strategy.NO_CHANGE);
+                            eq(drivingPermitForm),
+                            eq(mockDvlaThirdPartyDocumentGateway),
+                            eq(Strategy.NO_CHANGE),
+                            any(RequestDeadline.class),
+                            any(Executor.class),
+                            any(ConcurrentCallRunner.Call.class));
         }
 
         inOrder.verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK);
@@ -483,7 +531,7 @@ class DrivingPermitHandlerTest {
         sessionItem.setClientId("NoChangeClientId"); // TestSrategy
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
 
-        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
                 .thenReturn(drivingPermitForm);
 
         verify(mockAuditService, never())
@@ -526,6 +574,208 @@ class DrivingPermitHandlerTest {
                 oauthErrorNode.get("error_description").textValue()); // error description
     }
 
+    @Test
+    void handleResponseShouldReturnInternalServerErrorWhenAPostCheckWriteFails()
+            throws IOException, SqsException, OAuthErrorResponseException {
+        String testRequestBody = "request body";
+        UUID sessionId = UUID.randomUUID();
+
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+
+        DocumentCheckVerificationResult testDocumentVerificationResult =
+                DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId.toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(sessionId);
+        sessionItem.setAttemptCount(0); // No previous attempt
+        sessionItem.setClientId("NoChangeClientId"); // TestSrategy
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
+                .thenReturn(drivingPermitForm);
+
+        when(mockThirdPartyAPIServiceFactory.getDvlaThirdPartyAPIService())
+                .thenReturn(mockDvlaThirdPartyDocumentGateway);
+
+        when(mockIdentityVerificationService.verifyIdentity(
+                        any(DrivingPermitForm.class),
+                        any(ThirdPartyAPIService.class),
+                        eq(Strategy.NO_CHANGE),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class)))
+                .thenAnswer(runningWhileDocumentCheckInFlight(testDocumentVerificationResult));
+
+        doThrow(new IllegalStateException("Write failed"))
+                .when(mockPersonIdentityService)
+                .savePersonIdentity(eq(sessionId), any());
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        // The failed write does not stop the others
+        verify(mockAuditService)
+                .sendAuditEvent(eq(AuditEventType.RESPONSE_RECEIVED), any(AuditEventContext.class));
+        verify(mockAuditService)
+                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+        verify(mockSessionService).createAuthorizationCode(sessionItem);
+        verify(mockDocumentCheckResultStorageService)
+                .saveDocumentCheckResult(any(DocumentCheckResultItem.class));
+
+        InOrder inOrder = inOrder(mockEventProbe);
+        inOrder.verify(mockEventProbe)
+                .counterMetric(eq(LAMBDA_DRIVING_PERMIT_CHECK_FUNCTION_INIT_DURATION), anyDouble());
+        inOrder.verify(mockEventProbe).counterMetric(CONTEXT_VALUE_NULL);
+        inOrder.verify(mockEventProbe)
+                .counterMetric(
+                        eq(LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX
+                                + "audit_response_received"),
+                        anyDouble());
+        inOrder.verify(mockEventProbe)
+                .counterMetric(
+                        eq(LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX
+                                + "create_authorization_code"),
+                        anyDouble());
+        inOrder.verify(mockEventProbe)
+                .counterMetric(
+                        eq(LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX
+                                + "save_document_check_result"),
+                        anyDouble());
+        inOrder.verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        assertNotNull(responseEvent);
+        assertEquals(500, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldNotSaveAttemptWhenResponseReceivedAuditEventFails()
+            throws IOException, SqsException, OAuthErrorResponseException {
+        String testRequestBody = "request body";
+        UUID sessionId = UUID.randomUUID();
+
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+
+        DocumentCheckVerificationResult testDocumentVerificationResult =
+                DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId.toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(sessionId);
+        sessionItem.setAttemptCount(0); // No previous attempt
+        sessionItem.setClientId("NoChangeClientId"); // TestSrategy
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
+                .thenReturn(drivingPermitForm);
+
+        when(mockThirdPartyAPIServiceFactory.getDvlaThirdPartyAPIService())
+                .thenReturn(mockDvlaThirdPartyDocumentGateway);
+
+        when(mockIdentityVerificationService.verifyIdentity(
+                        any(DrivingPermitForm.class),
+                        any(ThirdPartyAPIService.class),
+                        eq(Strategy.NO_CHANGE),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class)))
+                .thenAnswer(runningWhileDocumentCheckInFlight(testDocumentVerificationResult));
+
+        doThrow(new IllegalStateException("Audit failed"))
+                .when(mockAuditService)
+                .sendAuditEvent(eq(AuditEventType.RESPONSE_RECEIVED), any(AuditEventContext.class));
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        // Audit events are sent before anything is written, so nothing is left unaudited
+        verify(mockAuditService)
+                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+        verify(mockSessionService, never()).createAuthorizationCode(any(SessionItem.class));
+        verify(mockPersonIdentityService, never()).savePersonIdentity(any(), any());
+        verify(mockDocumentCheckResultStorageService, never())
+                .saveDocumentCheckResult(any(DocumentCheckResultItem.class));
+        verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
+
+        assertNotNull(responseEvent);
+        assertEquals(500, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldNotStartDocumentCheckWorkWhenDocumentCheckNotAdmitted()
+            throws IOException, OAuthErrorResponseException {
+        String testRequestBody = "request body";
+        UUID sessionId = UUID.randomUUID();
+
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId.toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(sessionId);
+        sessionItem.setAttemptCount(0); // No previous attempt
+        sessionItem.setClientId("ipv-core-stub"); // TestStrategy STUB
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockDrivingPermitFormReader.readValue(testRequestBody))
+                .thenReturn(drivingPermitForm);
+
+        when(mockThirdPartyAPIServiceFactory.getDvlaThirdPartyAPIService())
+                .thenReturn(mockDvlaThirdPartyDocumentGateway);
+
+        when(mockDvlaThirdPartyDocumentGateway.acquireDocumentCheckSlot(Strategy.STUB))
+                .thenThrow(
+                        new OAuthErrorResponseException(
+                                HttpStatusCode.THROTTLING,
+                                ErrorResponse.TEST_STRATEGY_CONCURRENCY_LIMIT_REACHED));
+
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        // Rejected before the prefetch, so no third party calls are made
+        verify(mockDvlaThirdPartyDocumentGateway, never())
+                .startDocumentCheckPrefetch(any(Strategy.class), any(RequestDeadline.class));
+        verify(mockIdentityVerificationService, never())
+                .verifyIdentity(
+                        any(DrivingPermitForm.class),
+                        any(ThirdPartyAPIService.class),
+                        any(Strategy.class),
+                        any(RequestDeadline.class),
+                        any(Executor.class),
+                        any(ConcurrentCallRunner.Call.class));
+        verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
+
+        assertNotNull(responseEvent);
+        assertEquals(HttpStatusCode.THROTTLING, responseEvent.getStatusCode());
+    }
+
     private DocumentCheckResultItem generateDocCheckResultItem(
             UUID sessionId,
             DrivingPermitForm drivingPermitForm,
@@ -551,6 +801,29 @@ class DrivingPermitHandlerTest {
         return documentCheckResultItem;
     }
 
+    private void verifyPostCheckDurationMetrics(InOrder inOrder) {
+        for (String callName :
+                List.of(
+                        "audit_response_received",
+                        "create_authorization_code",
+                        "save_person_identity",
+                        "save_document_check_result")) {
+            inOrder.verify(mockEventProbe)
+                    .counterMetric(
+                            eq(LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX + callName),
+                            anyDouble());
+        }
+    }
+
+    // Runs the work overlapped with the document check, as the service does
+    private static Answer<DocumentCheckVerificationResult> runningWhileDocumentCheckInFlight(
+            DocumentCheckVerificationResult documentCheckVerificationResult) {
+        return invocation -> {
+            invocation.<ConcurrentCallRunner.Call>getArgument(5).run();
+            return documentCheckVerificationResult;
+        };
+    }
+
     private static boolean[] getDocumentVerifiedStatus() {
         return new boolean[] {true, false};
     }
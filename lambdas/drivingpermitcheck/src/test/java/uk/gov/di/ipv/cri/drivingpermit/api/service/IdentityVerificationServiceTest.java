@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResult;
@@ -13,14 +14,23 @@ import uk.gov.di.ipv.cri.drivingpermit.api.domain.ValidationResult;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.DrivingPermitFormTestDataGenerator;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DOCUMENT_DATA_VERIFICATION_REQUEST_FAILED;
@@ -58,19 +68,24 @@ class IdentityVerificationServiceTest {
         testFraudCheckResult.setValid(true);
         when(mockFormDataValidator.validate(drivingPermitForm))
                 .thenReturn(ValidationResult.createValidResult());
-        when(mockThirdPartyAPIService.performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE))
+        when(mockThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none()))
                 .thenReturn(testFraudCheckResult);
 
         DocumentCheckVerificationResult result =
                 this.identityVerificationService.verifyIdentity(
-                        drivingPermitForm, mockThirdPartyAPIService, Strategy.NO_CHANGE);
+                        drivingPermitForm,
+                        mockThirdPartyAPIService,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none());
 
         assertNotNull(result);
         verify(mockFormDataValidator).validate(drivingPermitForm);
         verify(mockEventProbe).counterMetric(FORM_DATA_VALIDATION_PASS);
         verify(mockEventProbe).counterMetric(DOCUMENT_DATA_VERIFICATION_REQUEST_SUCCEEDED);
         verify(mockThirdPartyAPIService)
-                .performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE);
+                .performDocumentCheck(
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
     }
 
     @Test
@@ -87,7 +102,8 @@ class IdentityVerificationServiceTest {
                             this.identityVerificationService.verifyIdentity(
                                     drivingPermitForm,
                                     mockThirdPartyAPIService,
-                                    Strategy.NO_CHANGE);
+                                    Strategy.NO_CHANGE,
+                                    RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = String.valueOf(ErrorResponse.FORM_DATA_FAILED_VALIDATION);
@@ -103,12 +119,16 @@ class IdentityVerificationServiceTest {
         DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
         when(mockFormDataValidator.validate(drivingPermitForm))
                 .thenReturn(ValidationResult.createValidResult());
-        when(mockThirdPartyAPIService.performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE))
+        when(mockThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none()))
                 .thenReturn(null);
 
         DocumentCheckVerificationResult result =
                 this.identityVerificationService.verifyIdentity(
-                        drivingPermitForm, mockThirdPartyAPIService, Strategy.NO_CHANGE);
+                        drivingPermitForm,
+                        mockThirdPartyAPIService,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none());
 
         assertNotNull(result);
         assertFalse(result.isExecutedSuccessfully());
@@ -130,12 +150,16 @@ class IdentityVerificationServiceTest {
         DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
         when(mockFormDataValidator.validate(drivingPermitForm))
                 .thenReturn(ValidationResult.createValidResult());
-        when(mockThirdPartyAPIService.performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE))
+        when(mockThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none()))
                 .thenReturn(testDocumentCheckResult);
 
         DocumentCheckVerificationResult result =
                 this.identityVerificationService.verifyIdentity(
-                        drivingPermitForm, mockThirdPartyAPIService, Strategy.NO_CHANGE);
+                        drivingPermitForm,
+                        mockThirdPartyAPIService,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none());
 
         assertNotNull(result);
         assertFalse(result.isExecutedSuccessfully());
@@ -145,4 +169,132 @@ class IdentityVerificationServiceTest {
         verify(mockEventProbe).counterMetric(FORM_DATA_VALIDATION_PASS);
         verify(mockEventProbe).counterMetric(DOCUMENT_DATA_VERIFICATION_REQUEST_FAILED);
     }
+
+    @Test
+    void verifyIdentityShouldRunWorkWhileDocumentCheckInFlight()
+            throws OAuthErrorResponseException {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        Executor executor = Runnable::run;
+
+        DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
+        testDocumentCheckResult.setExecutedSuccessfully(true);
+        testDocumentCheckResult.setValid(true);
+
+        CompletableFuture<DocumentCheckResult> documentCheck = new CompletableFuture<>();
+        when(mockFormDataValidator.validate(drivingPermitForm))
+                .thenReturn(ValidationResult.createValidResult());
+        when(mockThirdPartyAPIService.performDocumentCheckAsync(
+                        drivingPermitForm, Strategy.NO_CHANGE, requestDeadline, executor))
+                .thenReturn(documentCheck);
+
+        List<Boolean> documentCheckDoneDuringWork = new ArrayList<>();
+        DocumentCheckVerificationResult result =
+                this.identityVerificationService.verifyIdentity(
+                        drivingPermitForm,
+                        mockThirdPartyAPIService,
+                        Strategy.NO_CHANGE,
+                        requestDeadline,
+                        executor,
+                        () -> {
+                            documentCheckDoneDuringWork.add(documentCheck.isDone());
+                            documentCheck.complete(testDocumentCheckResult);
+                        });
+
+        assertEquals(List.of(false), documentCheckDoneDuringWork);
+        assertTrue(result.isExecutedSuccessfully());
+        assertTrue(result.isVerified());
+        verify(mockEventProbe).counterMetric(DOCUMENT_DATA_VERIFICATION_REQUEST_SUCCEEDED);
+    }
+
+    @Test
+    void verifyIdentityShouldNotStartDocumentCheckOrWorkWhenInvalidInputProvided() {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        when(mockFormDataValidator.validate(drivingPermitForm))
+                .thenReturn(new ValidationResult<>(false, List.of("validation error")));
+
+        List<String> workRun = new ArrayList<>();
+        assertThrows(
+                OAuthErrorResponseException.class,
+                () ->
+                        this.identityVerificationService.verifyIdentity(
+                                drivingPermitForm,
+                                mockThirdPartyAPIService,
+                                Strategy.NO_CHANGE,
+                                RequestDeadline.none(),
+                                Runnable::run,
+                                () -> workRun.add("work")));
+
+        assertTrue(workRun.isEmpty());
+        verify(mockThirdPartyAPIService, never())
+                .performDocumentCheckAsync(any(), any(), any(), any());
+    }
+
+    @Test
+    void verifyIdentityShouldThrowWorkFailureOnceDocumentCheckHasFinished() {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        Executor executor = Runnable::run;
+
+        CompletableFuture<DocumentCheckResult> documentCheck = new CompletableFuture<>();
+        when(mockFormDataValidator.validate(drivingPermitForm))
+                .thenReturn(ValidationResult.createValidResult());
+        when(mockThirdPartyAPIService.performDocumentCheckAsync(
+                        drivingPermitForm, Strategy.NO_CHANGE, requestDeadline, executor))
+                .thenReturn(documentCheck);
+
+        IllegalStateException workFailure = new IllegalStateException("Audit failed");
+        IllegalStateException thrown =
+                assertThrows(
+                        IllegalStateException.class,
+                        () ->
+                                this.identityVerificationService.verifyIdentity(
+                                        drivingPermitForm,
+                                        mockThirdPartyAPIService,
+                                        Strategy.NO_CHANGE,
+                                        requestDeadline,
+                                        executor,
+                                        () -> {
+                                            // Finishes after the work has failed
+                                            documentCheck.completeAsync(
+                                                    DocumentCheckResult::new,
+                                                    CompletableFuture.delayedExecutor(
+                                                            50, TimeUnit.MILLISECONDS));
+                                            throw workFailure;
+                                        }));
+
+        assertSame(workFailure, thrown);
+        assertTrue(documentCheck.isDone());
+    }
+
+    @Test
+    void verifyIdentityShouldThrowDocumentCheckFailureWhenCheckFailsInFlight() {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        Executor executor = Runnable::run;
+
+        OAuthErrorResponseException checkException =
+                new OAuthErrorResponseException(
+                        HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.ERROR_CONTACTING_DVA);
+        when(mockFormDataValidator.validate(drivingPermitForm))
+                .thenReturn(ValidationResult.createValidResult());
+        when(mockThirdPartyAPIService.performDocumentCheckAsync(
+                        drivingPermitForm, Strategy.NO_CHANGE, requestDeadline, executor))
+                .thenReturn(CompletableFuture.failedFuture(checkException));
+
+        OAuthErrorResponseException thrown =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                this.identityVerificationService.verifyIdentity(
+                                        drivingPermitForm,
+                                        mockThirdPartyAPIService,
+                                        Strategy.NO_CHANGE,
+                                        requestDeadline,
+                                        executor,
+                                        () -> {}));
+
+        assertSame(checkException, thrown);
+        verify(mockEventProbe).counterMetric(DOCUMENT_DATA_VERIFICATION_REQUEST_FAILED);
+    }
 }
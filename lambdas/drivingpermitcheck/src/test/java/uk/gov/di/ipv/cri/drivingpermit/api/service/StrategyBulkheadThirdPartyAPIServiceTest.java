@@ -0,0 +1,136 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.TestStrategyConcurrencyLimiter;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StrategyBulkheadThirdPartyAPIServiceTest {
+
+    private final DrivingPermitForm drivingPermitForm = new DrivingPermitForm();
+    private final RequestDeadline requestDeadline = RequestDeadline.none();
+
+    @Mock private ThirdPartyAPIService mockLiveThirdPartyAPIService;
+    @Mock private ThirdPartyAPIService mockTestStrategyThirdPartyAPIService;
+    @Mock private TestStrategyConcurrencyLimiter mockTestStrategyConcurrencyLimiter;
+    @Mock private TestStrategyConcurrencyLimiter.Slot mockSlot;
+
+    private final AtomicInteger testStrategyServicesCreated = new AtomicInteger();
+
+    private StrategyBulkheadThirdPartyAPIService strategyBulkheadThirdPartyAPIService;
+
+    @BeforeEach
+    void setUp() {
+        strategyBulkheadThirdPartyAPIService =
+                new StrategyBulkheadThirdPartyAPIService(
+                        mockLiveThirdPartyAPIService,
+                        () -> {
+                            testStrategyServicesCreated.incrementAndGet();
+                            return mockTestStrategyThirdPartyAPIService;
+                        },
+                        mockTestStrategyConcurrencyLimiter);
+    }
+
+    @Test
+    void shouldPerformLiveDocumentCheckWithoutCreatingTestStrategyService()
+            throws OAuthErrorResponseException {
+        DocumentCheckResult documentCheckResult = new DocumentCheckResult();
+        when(mockLiveThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.LIVE, requestDeadline))
+                .thenReturn(documentCheckResult);
+
+        assertSame(
+                documentCheckResult,
+                strategyBulkheadThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.LIVE, requestDeadline));
+
+        verifyNoInteractions(mockTestStrategyThirdPartyAPIService);
+        assertEquals(0, testStrategyServicesCreated.get());
+    }
+
+    @Test
+    void shouldPerformTestStrategyDocumentChecksOnOneTestStrategyService()
+            throws OAuthErrorResponseException {
+        DocumentCheckResult documentCheckResult = new DocumentCheckResult();
+        when(mockTestStrategyThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.STUB, requestDeadline))
+                .thenReturn(documentCheckResult);
+
+        for (int i = 0; i < 2; i++) {
+            assertSame(
+                    documentCheckResult,
+                    strategyBulkheadThirdPartyAPIService.performDocumentCheck(
+                            drivingPermitForm, Strategy.STUB, requestDeadline));
+        }
+
+        assertEquals(1, testStrategyServicesCreated.get());
+        verifyNoInteractions(mockLiveThirdPartyAPIService);
+    }
+
+    @Test
+    void shouldReturnSlotWhenDocumentCheckAdmitted() throws OAuthErrorResponseException {
+        when(mockTestStrategyConcurrencyLimiter.tryAcquire(Strategy.UAT)).thenReturn(mockSlot);
+
+        assertSame(
+                mockSlot,
+                strategyBulkheadThirdPartyAPIService.acquireDocumentCheckSlot(Strategy.UAT));
+
+        verifyNoInteractions(mockTestStrategyThirdPartyAPIService);
+    }
+
+    @Test
+    void shouldThrowWhenTestStrategyConcurrencyLimitReached() {
+        when(mockTestStrategyConcurrencyLimiter.tryAcquire(Strategy.UAT)).thenReturn(null);
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                strategyBulkheadThirdPartyAPIService.acquireDocumentCheckSlot(
+                                        Strategy.UAT));
+
+        assertEquals(HttpStatusCode.THROTTLING, thrownException.getStatusCode());
+        assertEquals(
+                ErrorResponse.TEST_STRATEGY_CONCURRENCY_LIMIT_REACHED,
+                thrownException.getErrorResponse());
+        assertEquals(0, testStrategyServicesCreated.get());
+    }
+
+    @Test
+    void shouldPrefetchOnTheServiceForTheStrategyAndDiscardOnBoth() {
+        strategyBulkheadThirdPartyAPIService.startDocumentCheckPrefetch(
+                Strategy.STUB, requestDeadline);
+        strategyBulkheadThirdPartyAPIService.discardDocumentCheckPrefetch();
+
+        verify(mockTestStrategyThirdPartyAPIService)
+                .startDocumentCheckPrefetch(Strategy.STUB, requestDeadline);
+        verify(mockTestStrategyThirdPartyAPIService).discardDocumentCheckPrefetch();
+        verify(mockLiveThirdPartyAPIService).discardDocumentCheckPrefetch();
+    }
+
+    @Test
+    void shouldUseLiveServiceName() {
+        when(mockLiveThirdPartyAPIService.getServiceName()).thenReturn("LiveService");
+
+        assertEquals("LiveService", strategyBulkheadThirdPartyAPIService.getServiceName());
+    }
+}
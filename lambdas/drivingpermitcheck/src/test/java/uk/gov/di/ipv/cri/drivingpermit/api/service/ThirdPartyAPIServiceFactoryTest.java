@@ -16,27 +16,35 @@ import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.configuration.DrivingPermitConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.dva.DvaThirdPartyDocumentGateway;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.dvla.DvlaThirdPartyDocumentGateway;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.AcmCertificateService;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpConnectionPreWarmer;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 import uk.gov.di.ipv.cri.drivingpermit.util.CertAndKeyTestFixtures;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
+import java.net.URI;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,13 +59,13 @@ class ThirdPartyAPIServiceFactoryTest {
 
     @Mock ParameterStoreService mockParameterStoreService;
     @Mock ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
+    @Mock HttpConnectionPreWarmer mockHttpConnectionPreWarmer;
 
     @Mock ClientProviderFactory clientProviderFactory;
 
     @Mock DvaConfiguration mockDvaConfiguration;
     @Mock DvlaConfiguration mockDvlaConfiguration;
 
-    @Mock ObjectMapper mockObjectMapper;
     @Mock EventProbe mockEventProbe;
     @Mock AcmCertificateService acmCertificateService;
     @Mock DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
@@ -80,11 +88,16 @@ class ThirdPartyAPIServiceFactoryTest {
         when(mockServiceFactory.getApacheHTTPClientFactoryService())
                 .thenReturn(mockApacheHTTPClientFactoryService);
         when(mockServiceFactory.getClientProviderFactory()).thenReturn(clientProviderFactory);
+        when(mockServiceFactory.getHttpConnectionPreWarmer())
+                .thenReturn(mockHttpConnectionPreWarmer);
 
         when(mockDrivingPermitConfigurationService.isDvaPerformanceStub()).thenReturn(false);
+        when(mockDrivingPermitConfigurationService.getDvaConfiguration())
+                .thenReturn(mockDvaConfiguration);
+        when(mockDvaConfiguration.getEndpointUri()).thenReturn("https://dva.example.com");
 
         // DVA
-        when(mockServiceFactory.getObjectMapper()).thenReturn(mockObjectMapper);
+        when(mockServiceFactory.getJsonCodecs()).thenReturn(new JsonCodecs(new ObjectMapper()));
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
 
         // DVLA
@@ -96,36 +109,40 @@ class ThirdPartyAPIServiceFactoryTest {
                 .thenReturn(mockDvlaConfiguration);
         when(mockDvlaConfiguration.getTokenEndpoint()).thenReturn("TOKEN_END_POINT");
         when(mockDvlaConfiguration.getTokenTableName()).thenReturn("TOKEN_TABLE");
-        when(mockDvlaConfiguration.getMatchEndpoint()).thenReturn("DRIVER_MATCH_ENDPOINT");
+        when(mockDvlaConfiguration.getMatchEndpointURIs())
+                .thenReturn(Map.of(Strategy.NO_CHANGE, URI.create("DRIVER_MATCH_ENDPOINT")));
 
         mockDvaCryptographyServiceConfigurationParameterPathReads();
-        when(acmCertificateService.exportAcmSigningCertificate())
+        when(acmCertificateService.exportAcmSigningCertificateAndKey())
                 .thenReturn(
-                        //  pragma: allowlist nextline secret
-                        """
-                                -----BEGIN CERTIFICATE-----
-                                MIIDsDCCApigAwIBAgIRAN8vzgI+5JH/ENYddMs21eowDQYJKoZIhvcNAQELBQAw
-                                WTELMAkGA1UEBhMCR0IxFzAVBgNVBAoMDkNhYmluZXQgT2ZmaWNlMQwwCgYDVQQL
-                                DANHRFMxIzAhBgNVBAMMGkdEUyBETCBEVkEgVGVzdCBSb290IENBIEczMB4XDTI0
-                                MDYxNDEwMTQwMVoXDTI1MDcxNDExMTQwMVowJjEkMCIGA1UEAwwbcmV2aWV3LWQu
-                                ZGV2LmFjY291bnQuZ292LnVrMIIBIjANBgkqhkiG9w0BAQEFAAOCAQ8AMIIBCgKC
-                                AQEAm3NZqdAvs9QbdH00cUTEuufMPHebK6QYogpxKc/SM9Nj3pexOHHZ9rCRH3VA
-                                Kpv/qgS2++ELBXvfAUP3V5lh3iwY+QzWq9QJmkZqm5NDEo7bc5u+rEjmpftZDi1E
-                                VGAcyUDgRl10nif2iyFy6LzU/M8YNm26D6cug6cxZyNWzK+mbeXTk+38zLScnsTu
-                                9EKMZ8oeqF9xg0Y6zvEHx5/pyGAc/Dnm88DJ20Nr4NoycVtWib4tcjA4rO3yVoYL
-                                4X4T94NF1FYJj5P9DAamxuRLLWPQC6gcc4kazElTVUVTGn8tS9HhoeQz6qN0+R8u
-                                lqipvuf20J0coYBlT+HNRjO4HQIDAQABo4GlMIGiMCYGA1UdEQQfMB2CG3Jldmll
-                                dy1kLmRldi5hY2NvdW50Lmdvdi51azAJBgNVHRMEAjAAMB8GA1UdIwQYMBaAFPKA
-                                A24tSXdEi82gTV3E0C2lbvV4MB0GA1UdDgQWBBQv6gc6W96+rySLP3EpAxZZM//w
-                                JzAOBgNVHQ8BAf8EBAMCBaAwHQYDVR0lBBYwFAYIKwYBBQUHAwEGCCsGAQUFBwMC
-                                MA0GCSqGSIb3DQEBCwUAA4IBAQCoo/JBxEl5QKfu+rpSMAtHzwzScNLq6HP6Fy+Q
-                                g+TbhWUIb5HANJf/VxDu20Oa3Hh0Ew3S/+28+4ZbEiE+38JXlnPmO93pMFmmMmyo
-                                NHy0xHATmWlSaIDEtgagG0kaz+11negNJzXwwApYkgun5ig7Y8r16iZrmwE92LvW
-                                70G9ln1cqF7ODt/8+WzdIs18PAZ/OxL7Pmo3hC5iNXn7go0h1tC0LpQzA0pdym54
-                                li0b1qKxh+WoyIKCP4c42lr5bvtmBPZDPH11JUblfq126AmuVURXO4Cs3qHnqRej
-                                bteNsvJYtttuyalLvQmepjYdGivN2y+pC7mYKCaFFFSPb2NE
-                                -----END CERTIFICATE-----
-                                """);
+                        ExportCertificateResponse.builder()
+                                .certificate(
+                                        //  pragma: allowlist nextline secret
+                                        """
+                                                -----BEGIN CERTIFICATE-----
+                                                MIIDsDCCApigAwIBAgIRAN8vzgI+5JH/ENYddMs21eowDQYJKoZIhvcNAQELBQAw
+                                                WTELMAkGA1UEBhMCR0IxFzAVBgNVBAoMDkNhYmluZXQgT2ZmaWNlMQwwCgYDVQQL
+                                                DANHRFMxIzAhBgNVBAMMGkdEUyBETCBEVkEgVGVzdCBSb290IENBIEczMB4XDTI0
+                                                MDYxNDEwMTQwMVoXDTI1MDcxNDExMTQwMVowJjEkMCIGA1UEAwwbcmV2aWV3LWQu
+                                                ZGV2LmFjY291bnQuZ292LnVrMIIBIjANBgkqhkiG9w0BAQEFAAOCAQ8AMIIBCgKC
+                                                AQEAm3NZqdAvs9QbdH00cUTEuufMPHebK6QYogpxKc/SM9Nj3pexOHHZ9rCRH3VA
+                                                Kpv/qgS2++ELBXvfAUP3V5lh3iwY+QzWq9QJmkZqm5NDEo7bc5u+rEjmpftZDi1E
+                                                VGAcyUDgRl10nif2iyFy6LzU/M8YNm26D6cug6cxZyNWzK+mbeXTk+38zLScnsTu
+                                                9EKMZ8oeqF9xg0Y6zvEHx5/pyGAc/Dnm88DJ20Nr4NoycVtWib4tcjA4rO3yVoYL
+                                                4X4T94NF1FYJj5P9DAamxuRLLWPQC6gcc4kazElTVUVTGn8tS9HhoeQz6qN0+R8u
+                                                lqipvuf20J0coYBlT+HNRjO4HQIDAQABo4GlMIGiMCYGA1UdEQQfMB2CG3Jldmll
+                                                dy1kLmRldi5hY2NvdW50Lmdvdi51azAJBgNVHRMEAjAAMB8GA1UdIwQYMBaAFPKA
+                                                A24tSXdEi82gTV3E0C2lbvV4MB0GA1UdDgQWBBQv6gc6W96+rySLP3EpAxZZM//w
+                                                JzAOBgNVHQ8BAf8EBAMCBaAwHQYDVR0lBBYwFAYIKwYBBQUHAwEGCCsGAQUFBwMC
+                                                MA0GCSqGSIb3DQEBCwUAA4IBAQCoo/JBxEl5QKfu+rpSMAtHzwzScNLq6HP6Fy+Q
+                                                g+TbhWUIb5HANJf/VxDu20Oa3Hh0Ew3S/+28+4ZbEiE+38JXlnPmO93pMFmmMmyo
+                                                NHy0xHATmWlSaIDEtgagG0kaz+11negNJzXwwApYkgun5ig7Y8r16iZrmwE92LvW
+                                                70G9ln1cqF7ODt/8+WzdIs18PAZ/OxL7Pmo3hC5iNXn7go0h1tC0LpQzA0pdym54
+                                                li0b1qKxh+WoyIKCP4c42lr5bvtmBPZDPH11JUblfq126AmuVURXO4Cs3qHnqRej
+                                                bteNsvJYtttuyalLvQmepjYdGivN2y+pC7mYKCaFFFSPb2NE
+                                                -----END CERTIFICATE-----
+                                                """)
+                                .build());
 
         // Self signed cert and key
         when(acmCertificateService.exportAcmTlsCertificates())
@@ -205,7 +222,13 @@ class ThirdPartyAPIServiceFactoryTest {
         ThirdPartyAPIService thirdPartyAPIService =
                 thirdPartyAPIServiceFactory.getDvaThirdPartyAPIService();
         assertNotNull(thirdPartyAPIService);
-        assertInstanceOf(DvaThirdPartyDocumentGateway.class, thirdPartyAPIService);
+        assertInstanceOf(StrategyBulkheadThirdPartyAPIService.class, thirdPartyAPIService);
+        assertEquals(
+                DvaThirdPartyDocumentGateway.class.getSimpleName(),
+                thirdPartyAPIService.getServiceName());
+
+        verify(mockHttpConnectionPreWarmer).addTarget("dva", "https://dva.example.com");
+        verify(mockHttpConnectionPreWarmer).addTask(eq("dva_kms"), any(Runnable.class));
     }
 
     @Test
@@ -213,7 +236,12 @@ class ThirdPartyAPIServiceFactoryTest {
         ThirdPartyAPIService thirdPartyAPIService =
                 thirdPartyAPIServiceFactory.getDvlaThirdPartyAPIService();
         assertNotNull(thirdPartyAPIService);
-        assertInstanceOf(DvlaThirdPartyDocumentGateway.class, thirdPartyAPIService);
+        assertInstanceOf(StrategyBulkheadThirdPartyAPIService.class, thirdPartyAPIService);
+        assertEquals(
+                DvlaThirdPartyDocumentGateway.class.getSimpleName(),
+                thirdPartyAPIService.getServiceName());
+
+        verify(mockHttpConnectionPreWarmer).addTarget("dvla", "TOKEN_END_POINT");
     }
 
     private void mockDvaCryptographyServiceConfigurationParameterPathReads() {
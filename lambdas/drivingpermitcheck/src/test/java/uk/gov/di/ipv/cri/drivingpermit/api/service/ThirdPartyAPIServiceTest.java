@@ -0,0 +1,79 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ThirdPartyAPIServiceTest {
+
+    private final DrivingPermitForm drivingPermitForm = new DrivingPermitForm();
+    private final RequestDeadline requestDeadline = RequestDeadline.none();
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
+    private ThirdPartyAPIService thirdPartyAPIService;
+
+    @BeforeEach
+    void setUp() {
+        thirdPartyAPIService = mock(ThirdPartyAPIService.class, CALLS_REAL_METHODS);
+    }
+
+    @Test
+    void shouldPerformDocumentCheckOnExecutorWhenAsync() throws OAuthErrorResponseException {
+        DocumentCheckResult documentCheckResult = new DocumentCheckResult();
+        doReturn(documentCheckResult)
+                .when(thirdPartyAPIService)
+                .performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE, requestDeadline);
+
+        CompletableFuture<DocumentCheckResult> future =
+                thirdPartyAPIService.performDocumentCheckAsync(
+                        drivingPermitForm, Strategy.NO_CHANGE, requestDeadline, pendingTasks::add);
+
+        assertFalse(future.isDone());
+        verify(thirdPartyAPIService, never())
+                .performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE, requestDeadline);
+
+        pendingTasks.forEach(Runnable::run);
+
+        assertSame(documentCheckResult, future.join());
+    }
+
+    @Test
+    void shouldFailFutureWithOAuthErrorResponseExceptionWhenAsyncCheckFails()
+            throws OAuthErrorResponseException {
+        OAuthErrorResponseException checkException =
+                new OAuthErrorResponseException(
+                        HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.ERROR_CONTACTING_DVA);
+        doThrow(checkException)
+                .when(thirdPartyAPIService)
+                .performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE, requestDeadline);
+
+        CompletableFuture<DocumentCheckResult> future =
+                thirdPartyAPIService.performDocumentCheckAsync(
+                        drivingPermitForm, Strategy.NO_CHANGE, requestDeadline, Runnable::run);
+
+        CompletionException thrown = assertThrows(CompletionException.class, future::join);
+        assertSame(checkException, thrown.getCause());
+    }
+}
@@ -1,12 +1,14 @@
 package uk.gov.di.ipv.cri.drivingpermit.api.service.configuration;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
@@ -37,7 +39,9 @@ class DrivingPermitConfigurationServiceTest {
 
         drivingPermitConfigurationService =
                 new DrivingPermitConfigurationService(
-                        mockParameterStoreService, secretsManagerService);
+                        mockParameterStoreService,
+                        secretsManagerService,
+                        new JsonCodecs(new ObjectMapper()));
 
         assertNotNull(drivingPermitConfigurationService);
 
@@ -53,6 +53,7 @@ import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.DrivingPermitFormTestDataGenerator;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
@@ -180,7 +181,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(200, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
         when(this.dvaCryptographyService.unwrapDvaResponse(anyString()))
                 .thenReturn(createSuccessDvaResponse());
@@ -193,7 +196,7 @@ class DvaThirdPartyDocumentGatewayTest {
 
         DocumentCheckResult actualDocumentCheckResult =
                 dvaThirdPartyDocumentGateway.performDocumentCheck(
-                        drivingPermitForm, Strategy.NO_CHANGE);
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
 
         assertEquals(
                 TEST_ENDPOINT_URL + "/api/ukverify",
@@ -222,7 +225,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(300, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
 
         OAuthErrorResponseException e =
@@ -231,7 +236,9 @@ class DvaThirdPartyDocumentGatewayTest {
                         () -> {
                             DocumentCheckResult actualFraudCheckResult =
                                     dvaThirdPartyDocumentGateway.performDocumentCheck(
-                                            drivingPermitForm, Strategy.NO_CHANGE);
+                                            drivingPermitForm,
+                                            Strategy.NO_CHANGE,
+                                            RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = ErrorResponse.DVA_ERROR_HTTP_30X.getMessage();
@@ -258,7 +265,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 .thenReturn(jwsObject);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        any(HttpUriRequest.class), any(DvaHttpRetryStatusConfig.class)))
+                        any(HttpUriRequest.class),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenThrow(new IOException());
 
         OAuthErrorResponseException e =
@@ -266,7 +275,7 @@ class DvaThirdPartyDocumentGatewayTest {
                         OAuthErrorResponseException.class,
                         () -> {
                             dvaThirdPartyDocumentGateway.performDocumentCheck(
-                                    drivingPermitForm, Strategy.NO_CHANGE);
+                                    drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = "Error when contacting DVA for document check";
@@ -291,7 +300,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(400, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
 
         OAuthErrorResponseException e =
@@ -300,7 +311,9 @@ class DvaThirdPartyDocumentGatewayTest {
                         () -> {
                             DocumentCheckResult actualFraudCheckResult =
                                     dvaThirdPartyDocumentGateway.performDocumentCheck(
-                                            drivingPermitForm, Strategy.NO_CHANGE);
+                                            drivingPermitForm,
+                                            Strategy.NO_CHANGE,
+                                            RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = ErrorResponse.DVA_ERROR_HTTP_400.getMessage();
@@ -334,7 +347,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(500, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
 
         OAuthErrorResponseException e =
@@ -343,7 +358,9 @@ class DvaThirdPartyDocumentGatewayTest {
                         () -> {
                             DocumentCheckResult actualFraudCheckResult =
                                     dvaThirdPartyDocumentGateway.performDocumentCheck(
-                                            drivingPermitForm, Strategy.NO_CHANGE);
+                                            drivingPermitForm,
+                                            Strategy.NO_CHANGE,
+                                            RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = ErrorResponse.DVA_ERROR_HTTP_50X.getMessage();
@@ -376,7 +393,9 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(-1, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
 
         OAuthErrorResponseException e =
@@ -385,7 +404,9 @@ class DvaThirdPartyDocumentGatewayTest {
                         () -> {
                             DocumentCheckResult actualFraudCheckResult =
                                     dvaThirdPartyDocumentGateway.performDocumentCheck(
-                                            drivingPermitForm, Strategy.NO_CHANGE);
+                                            drivingPermitForm,
+                                            Strategy.NO_CHANGE,
+                                            RequestDeadline.none());
                         });
 
         final String EXPECTED_ERROR = ErrorResponse.DVA_ERROR_HTTP_X.getMessage();
@@ -423,14 +444,16 @@ class DvaThirdPartyDocumentGatewayTest {
                 HttpResponseFixtures.createHttpResponse(200, null, "", false);
 
         when(this.httpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DvaHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DvaHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(httpResponse);
         when(this.dvaCryptographyService.unwrapDvaResponse(anyString()))
                 .thenReturn(createSuccessDvaResponse());
 
         DocumentCheckResult actualFraudCheckResult =
                 dvaThirdPartyDocumentGateway.performDocumentCheck(
-                        drivingPermitForm, Strategy.NO_CHANGE);
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
 
         assertNotNull(actualFraudCheckResult);
         assertEquals(
@@ -495,7 +518,9 @@ class DvaThirdPartyDocumentGatewayTest {
                         serviceFactory.getClientProviderFactory().getKMSClient());
         JweKmsDecrypter jweKmsDecrypter =
                 new JweKmsDecrypter(
-                        ENC_KEY_ID, serviceFactory.getClientProviderFactory().getKMSClient());
+                        ENC_KEY_ID,
+                        serviceFactory.getClientProviderFactory().getKMSClient(),
+                        new EventProbe());
         DVACloseableHttpClientFactory dvaCloseableHttpClientFactory =
                 new DVACloseableHttpClientFactory();
         EventProbe eventProbe = new EventProbe();
@@ -504,14 +529,16 @@ class DvaThirdPartyDocumentGatewayTest {
                                 new DvaCryptographyService(
                                         dvaCryptographyServiceConfiguration,
                                         kmsSigner,
-                                        jweKmsDecrypter),
+                                        jweKmsDecrypter,
+                                        serviceFactory.getJsonCodecs()),
                                 new RequestHashValidator(),
                                 new DrivingPermitConfigurationService(
                                         parameterStoreService,
                                         new SecretsManagerService(
                                                 serviceFactory
                                                         .getClientProviderFactory()
-                                                        .getSecretsManagerClient())),
+                                                        .getSecretsManagerClient()),
+                                        serviceFactory.getJsonCodecs()),
                                 new HttpRetryer(
                                         dvaCloseableHttpClientFactory.getClient(
                                                 dvaCryptographyServiceConfiguration,
@@ -525,7 +552,8 @@ class DvaThirdPartyDocumentGatewayTest {
                                         eventProbe,
                                         1),
                                 eventProbe)
-                        .performDocumentCheck(drivingPermitForm, Strategy.NO_CHANGE);
+                        .performDocumentCheck(
+                                drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
 
         assertEquals(true, actualDocumentCheckResult.isValid());
     }
@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service.dvla;
 
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -19,14 +20,23 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.DriverMatc
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.DrivingPermitFormTestDataGenerator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.drivingpermit.api.domain.result.APIResultSource.DVLA;
 import static uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse.ERROR_MATCH_ENDPOINT_REJECTED_TOKEN_OR_API_KEY;
@@ -40,6 +50,9 @@ class DvlaThirdPartyDocumentGatewayTest {
 
     private ThirdPartyAPIService dvlaThirdPartyAPIService;
 
+    // Holds submitted prefetch tasks until run
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
     @BeforeEach
     void setUp() {
         // Mocks out the creation of all endpoints to allow mocking the endpoint responses without
@@ -69,16 +82,20 @@ class DvlaThirdPartyDocumentGatewayTest {
         DriverMatchServiceResult testDriverMatchServiceResult =
                 DriverMatchServiceResult.builder().validity(validity).requestId("123456").build();
 
-        when(mockTokenRequestService.requestToken(any(Boolean.class), eq(Strategy.NO_CHANGE)))
+        when(mockTokenRequestService.requestToken(
+                        any(Boolean.class), eq(Strategy.NO_CHANGE), eq(RequestDeadline.none())))
                 .thenReturn(testTokenValue);
 
         when(mockDriverMatchService.performMatch(
-                        drivingPermitForm, testTokenValue, Strategy.NO_CHANGE))
+                        drivingPermitForm,
+                        testTokenValue,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none()))
                 .thenReturn(testDriverMatchServiceResult);
 
         DocumentCheckResult result =
                 dvlaThirdPartyAPIService.performDocumentCheck(
-                        drivingPermitForm, Strategy.NO_CHANGE);
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
 
         // Using the correct third party API?
         assertEquals(
@@ -102,6 +119,7 @@ class DvlaThirdPartyDocumentGatewayTest {
 
         // Token Value
         String testTokenValue = "TEST_TOKEN_VALUE";
+        String testReplacementTokenValue = "TEST_REPLACEMENT_TOKEN_VALUE";
 
         // Generated a valid api response object to create the api response for this test
         DriverMatchServiceResult testDriverMatchServiceResult =
@@ -110,9 +128,13 @@ class DvlaThirdPartyDocumentGatewayTest {
                         .requestId("123456")
                         .build();
 
-        when(mockTokenRequestService.requestToken(any(Boolean.class), eq(Strategy.NO_CHANGE)))
-                .thenReturn(testTokenValue)
-                .thenReturn(testTokenValue); // second request
+        when(mockTokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none()))
+                .thenReturn(testTokenValue);
+        // Recovery asks for a token other than the rejected one
+        when(mockTokenRequestService.requestTokenReplacing(
+                        testTokenValue, Strategy.NO_CHANGE, RequestDeadline.none()))
+                .thenReturn(testReplacementTokenValue);
 
         DVLAMatchUnauthorizedException exceptionCaught =
                 new DVLAMatchUnauthorizedException(
@@ -126,23 +148,42 @@ class DvlaThirdPartyDocumentGatewayTest {
         if (recoverySucessful) {
             // Match issue resolved via new token
             when(mockDriverMatchService.performMatch(
-                            drivingPermitForm, testTokenValue, Strategy.NO_CHANGE))
-                    .thenThrow(exceptionCaught)
+                            drivingPermitForm,
+                            testTokenValue,
+                            Strategy.NO_CHANGE,
+                            RequestDeadline.none()))
+                    .thenThrow(exceptionCaught);
+            when(mockDriverMatchService.performMatch(
+                            drivingPermitForm,
+                            testReplacementTokenValue,
+                            Strategy.NO_CHANGE,
+                            RequestDeadline.none()))
                     .thenReturn(testDriverMatchServiceResult);
 
             DocumentCheckResult result =
                     dvlaThirdPartyAPIService.performDocumentCheck(
-                            drivingPermitForm, Strategy.NO_CHANGE);
+                            drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
 
             assertNotNull(result);
             assertNotNull(result.getTransactionId());
             assertTrue(result.isValid());
             assertEquals(DVLA, result.getApiResultSource());
+
+            verify(mockTokenRequestService)
+                    .invalidateCachedToken(Strategy.NO_CHANGE, testTokenValue);
         } else {
             // Match issue remains
             when(mockDriverMatchService.performMatch(
-                            drivingPermitForm, testTokenValue, Strategy.NO_CHANGE))
-                    .thenThrow(exceptionCaught)
+                            drivingPermitForm,
+                            testTokenValue,
+                            Strategy.NO_CHANGE,
+                            RequestDeadline.none()))
+                    .thenThrow(exceptionCaught);
+            when(mockDriverMatchService.performMatch(
+                            drivingPermitForm,
+                            testReplacementTokenValue,
+                            Strategy.NO_CHANGE,
+                            RequestDeadline.none()))
                     .thenThrow(exceptionCaught);
 
             OAuthErrorResponseException expectedReturnedException =
@@ -155,13 +196,109 @@ class DvlaThirdPartyDocumentGatewayTest {
                             OAuthErrorResponseException.class,
                             () ->
                                     dvlaThirdPartyAPIService.performDocumentCheck(
-                                            drivingPermitForm, Strategy.NO_CHANGE),
+                                            drivingPermitForm,
+                                            Strategy.NO_CHANGE,
+                                            RequestDeadline.none()),
                             "Expected OAuthErrorResponseException");
 
             assertEquals(
                     expectedReturnedException.getStatusCode(), thrownException.getStatusCode());
             assertEquals(
                     expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
+
+            verify(mockTokenRequestService)
+                    .invalidateCachedToken(Strategy.NO_CHANGE, testTokenValue);
+            verify(mockTokenRequestService)
+                    .invalidateCachedToken(Strategy.NO_CHANGE, testReplacementTokenValue);
         }
     }
+
+    @Test
+    void shouldUsePrefetchedTokenForDocumentCheck() throws OAuthErrorResponseException {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        String testTokenValue = "TEST_TOKEN_VALUE";
+
+        DriverMatchServiceResult testDriverMatchServiceResult =
+                DriverMatchServiceResult.builder()
+                        .validity(Validity.VALID)
+                        .requestId("123456")
+                        .build();
+
+        when(mockTokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none()))
+                .thenReturn(testTokenValue);
+        when(mockDriverMatchService.performMatch(
+                        drivingPermitForm,
+                        testTokenValue,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none()))
+                .thenReturn(testDriverMatchServiceResult);
+
+        ThirdPartyAPIService prefetchingThirdPartyAPIService =
+                new DvlaThirdPartyDocumentGateway(mockDvlaEndpointFactory, pendingTasks::add);
+
+        prefetchingThirdPartyAPIService.startDocumentCheckPrefetch(
+                Strategy.NO_CHANGE, RequestDeadline.none());
+
+        // Not requested on the calling thread
+        verifyNoInteractions(mockTokenRequestService);
+
+        pendingTasks.forEach(Runnable::run);
+
+        DocumentCheckResult result =
+                prefetchingThirdPartyAPIService.performDocumentCheck(
+                        drivingPermitForm, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertTrue(result.isValid());
+        verify(mockTokenRequestService, times(1))
+                .requestToken(false, Strategy.NO_CHANGE, RequestDeadline.none());
+    }
+
+    @Test
+    void shouldThrowPrefetchedTokenRequestFailureFromDocumentCheck()
+            throws OAuthErrorResponseException {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+
+        OAuthErrorResponseException tokenRequestException =
+                new OAuthErrorResponseException(
+                        HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_TOKEN_ENDPOINT);
+        when(mockTokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none()))
+                .thenThrow(tokenRequestException);
+
+        ThirdPartyAPIService prefetchingThirdPartyAPIService =
+                new DvlaThirdPartyDocumentGateway(mockDvlaEndpointFactory, Runnable::run);
+
+        prefetchingThirdPartyAPIService.startDocumentCheckPrefetch(
+                Strategy.NO_CHANGE, RequestDeadline.none());
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                prefetchingThirdPartyAPIService.performDocumentCheck(
+                                        drivingPermitForm,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()));
+
+        assertSame(tokenRequestException, thrownException);
+        verifyNoInteractions(mockDriverMatchService);
+    }
+
+    @Test
+    void shouldNotRequestTokenWhenPrefetchDiscardedBeforeStarting()
+            throws OAuthErrorResponseException {
+        ThirdPartyAPIService prefetchingThirdPartyAPIService =
+                new DvlaThirdPartyDocumentGateway(mockDvlaEndpointFactory, pendingTasks::add);
+
+        prefetchingThirdPartyAPIService.startDocumentCheckPrefetch(
+                Strategy.NO_CHANGE, RequestDeadline.none());
+        prefetchingThirdPartyAPIService.discardDocumentCheckPrefetch();
+
+        pendingTasks.forEach(Runnable::run);
+
+        verify(mockTokenRequestService, never())
+                .requestToken(false, Strategy.NO_CHANGE, RequestDeadline.none());
+    }
 }
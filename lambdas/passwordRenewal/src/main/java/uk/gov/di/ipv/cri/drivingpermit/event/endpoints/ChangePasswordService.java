@@ -1,12 +1,13 @@
 package uk.gov.di.ipv.cri.drivingpermit.event.endpoints;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.http.HttpStatusCode;
@@ -16,16 +17,19 @@ import uk.gov.di.ipv.cri.drivingpermit.event.service.ChangePasswordHttpRetryStat
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.UnauthorisedException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.EndpointDescriptor;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
-import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReply;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReplyHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BoundedResponseReader;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import java.io.IOException;
-import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.request.RequestHeaderKeys.HEADER_CONTENT_TYPE;
@@ -44,13 +48,13 @@ public class ChangePasswordService {
     private static final String ENDPOINT_NAME = "change password endpoint";
     private static final String REQUEST_NAME = "Change Password";
 
-    private URI requestURI;
+    private final Map<Strategy, EndpointDescriptor> endpointDescriptors;
     private final String username;
 
-    private final HttpRetryer httpRetryer;
-    private final RequestConfig requestConfig;
+    private final ThirdPartyTransport thirdPartyTransport;
 
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter changePasswordPayloadWriter;
+    private final BoundedResponseReader responseReader;
     private final EventProbe eventProbe;
 
     private final HttpRetryStatusConfig httpRetryStatusConfig;
@@ -61,19 +65,26 @@ public class ChangePasswordService {
 
     public ChangePasswordService(
             DvlaConfiguration dvlaConfiguration,
-            HttpRetryer httpRetryer,
+            ThirdPartyTransport thirdPartyTransport,
             RequestConfig requestConfig,
-            ObjectMapper objectMapper,
+            JsonCodecs jsonCodecs,
             EventProbe eventProbe) {
         this.dvlaConfiguration = dvlaConfiguration;
 
-        this.requestURI = URI.create(dvlaConfiguration.getChangePasswordEndpoint());
+        this.endpointDescriptors =
+                EndpointDescriptor.forStrategies(
+                        dvlaConfiguration.getChangePasswordEndpointURIs(),
+                        List.of(
+                                new BasicHeader(
+                                        HEADER_CONTENT_TYPE,
+                                        ContentType.APPLICATION_JSON.getMimeType())),
+                        requestConfig);
         this.username = dvlaConfiguration.getUsername();
 
-        this.httpRetryer = httpRetryer;
-        this.requestConfig = requestConfig;
+        this.thirdPartyTransport = thirdPartyTransport;
 
-        this.objectMapper = objectMapper;
+        this.changePasswordPayloadWriter = jsonCodecs.writer(ChangePasswordPayload.class);
+        this.responseReader = new BoundedResponseReader(jsonCodecs, ENDPOINT_NAME);
         this.eventProbe = eventProbe;
 
         this.httpRetryStatusConfig = new ChangePasswordHttpRetryStatusConfig();
@@ -96,23 +107,10 @@ public class ChangePasswordService {
         // Change Password Request is posted as if via a form
         final HttpPost request = new HttpPost();
 
-        // TestStrategy Logic
-        if (strategy == Strategy.NO_CHANGE) {
-            request.setURI(requestURI);
-        } else {
-            final String endpointUri = dvlaConfiguration.getEndpointURLs().get(strategy.name());
-            this.requestURI =
-                    URI.create(
-                            String.format(
-                                    "%s%s",
-                                    endpointUri, dvlaConfiguration.getChangePasswordPath()));
-            request.setURI(requestURI);
-        }
-
-        request.addHeader(HEADER_CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
-
-        // Enforce connection timeout values
-        request.setConfig(requestConfig);
+        // TestStrategy Logic, also enforces connection timeout values
+        final EndpointDescriptor endpointDescriptor =
+                EndpointDescriptor.forStrategy(endpointDescriptors, strategy);
+        endpointDescriptor.applyTo(request);
 
         String requestBody = createRequestBody(newPassword, exisitingPassword);
 
@@ -122,20 +120,31 @@ public class ChangePasswordService {
 
         eventProbe.counterMetric(DVLA_CHANGE_PASSWORD_REQUEST_CREATED.withEndpointPrefix());
 
-        final HTTPReply httpReply;
-
-        String requestURIString = requestURI.toString();
+        String requestURIString = endpointDescriptor.getUri().toString();
 
         LOGGER.debug("{} request endpoint is {}", REQUEST_NAME, requestURIString);
         LOGGER.info("Submitting {} request to third party...", REQUEST_NAME);
         // This will also need tidied up in LIME-906
         stopWatch.start();
         try (CloseableHttpResponse response =
-                httpRetryer.sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig)) {
+                thirdPartyTransport.sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig)) {
             eventProbe.counterMetric(DVLA_CHANGE_PASSWORD_REQUEST_SEND_OK.withEndpointPrefix());
 
-            // throws OAuthErrorResponseException on error
-            httpReply = HTTPReplyHelper.retrieveResponse(response, ENDPOINT_NAME);
+            // Response Latency
+            eventProbe.counterMetric(
+                    DVLA_CHANGE_PASSWORD_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+
+            // Body is only read before the response closes when it is to be logged
+            handleResponse(response);
+        } catch (CircuitBreakerOpenException e) {
+            LOGGER.error("{} request not sent - {}", REQUEST_NAME, e.getMessage());
+
+            eventProbe.counterMetric(
+                    DVLA_CHANGE_PASSWORD_REQUEST_SEND_ERROR.withEndpointPrefixAndExceptionName(e));
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN);
         } catch (IOException e) {
             // No Response Latency
             eventProbe.counterMetric(
@@ -150,13 +159,14 @@ public class ChangePasswordService {
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT);
         }
+    }
 
-        // Response Latency
-        eventProbe.counterMetric(
-                DVLA_CHANGE_PASSWORD_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+    private void handleResponse(CloseableHttpResponse response)
+            throws OAuthErrorResponseException, UnauthorisedException {
+        int statusCode = response.getStatusLine().getStatusCode();
 
-        if (httpReply.statusCode == 200) {
-            LOGGER.info("{} status code {}", REQUEST_NAME, httpReply.statusCode);
+        if (statusCode == 200) {
+            LOGGER.info("{} status code {}", REQUEST_NAME, statusCode);
 
             eventProbe.counterMetric(
                     DVLA_CHANGE_PASSWORD_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
@@ -165,19 +175,19 @@ public class ChangePasswordService {
             LOGGER.error(
                     "{} response status code {} content - {}",
                     REQUEST_NAME,
-                    httpReply.statusCode,
-                    httpReply.responseBody);
+                    statusCode,
+                    responseReader.readErrorResponseBody(response));
 
             eventProbe.counterMetric(
                     DVLA_CHANGE_PASSWORD_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS.withEndpointPrefix());
 
-            LOGGER.warn("Status code {}, triggered alert metric", httpReply.statusCode);
+            LOGGER.warn("Status code {}, triggered alert metric", statusCode);
 
             // Alarm Firing
             eventProbe.counterMetric(
                     DVLA_CHANGE_PASSWORD_RESPONSE_STATUS_CODE_ALERT_METRIC.withEndpointPrefix());
 
-            if (httpReply.statusCode == HttpStatusCode.UNAUTHORIZED) {
+            if (statusCode == HttpStatusCode.UNAUTHORIZED) {
                 throw new UnauthorisedException(
                         HttpStatusCode.UNAUTHORIZED,
                         ErrorResponse
@@ -203,7 +213,7 @@ public class ChangePasswordService {
                             .newPassword(newPassword)
                             .build();
 
-            requestBody = objectMapper.writeValueAsString(changePasswordPayload);
+            requestBody = changePasswordPayloadWriter.writeValueAsString(changePasswordPayload);
         } catch (JsonProcessingException e) {
             LOGGER.error("JsonProcessingException creating request body");
             LOGGER.debug(e.getMessage());
@@ -7,13 +7,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.passay.CharacterData;
 import org.passay.CharacterRule;
 import org.passay.EnglishCharacterData;
 import org.passay.PasswordGenerator;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
@@ -33,11 +33,17 @@ import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpRequestConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.TokenResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.DVLACloseableHttpClientFactory;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.UnauthorisedException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakingThirdPartyTransport;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 import java.util.Optional;
 
@@ -48,6 +54,9 @@ public class PasswordRenewalHandler implements RequestHandler<SecretsManagerRota
 
     private static final Logger LOGGER = LogManager.getLogger();
 
+    // Rotation calls are kept out of the circuit breakers of the check and token maintainer lambdas
+    private static final String CIRCUIT_BREAKER_NAME_PREFIX = "password_renewal_";
+
     private final SecretsManagerClient secretsManagerClient;
     private final ChangePasswordService changePasswordService;
     private final TokenRequestService tokenRequestService;
@@ -67,26 +76,39 @@ public class PasswordRenewalHandler implements RequestHandler<SecretsManagerRota
         SecretsManagerService secretsManagerService =
                 new SecretsManagerService(secretsManagerClient);
 
-        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        JsonCodecs jsonCodecs =
+                new JsonCodecs(new ObjectMapper().registerModule(new JavaTimeModule()));
         eventProbe = new EventProbe();
-        HttpRetryer httpRetryer = new HttpRetryer(HttpClients.custom().build(), eventProbe, 0);
-        dvlaConfiguration = new DvlaConfiguration(parameterStoreService, secretsManagerService);
+        DVLACloseableHttpClientFactory dvlaCloseableHttpClientFactory =
+                new DVLACloseableHttpClientFactory(new ApacheHTTPClientFactoryService(eventProbe));
+        HttpRetryer httpRetryer =
+                new HttpRetryer(dvlaCloseableHttpClientFactory.getClient(), eventProbe, 0);
+        DynamoDbEnhancedClient dynamoDbEnhancedClient =
+                clientProviderFactory.getDynamoDbEnhancedClient();
+        ThirdPartyTransport thirdPartyTransport =
+                new CircuitBreakingThirdPartyTransport(
+                        httpRetryer,
+                        eventProbe,
+                        dynamoDbEnhancedClient,
+                        CIRCUIT_BREAKER_NAME_PREFIX);
+        dvlaConfiguration =
+                new DvlaConfiguration(parameterStoreService, secretsManagerService, jsonCodecs);
         RequestConfig defaultRequestConfig = new HttpRequestConfig().getDefaultRequestConfig();
 
         changePasswordService =
                 new ChangePasswordService(
                         dvlaConfiguration,
-                        httpRetryer,
+                        thirdPartyTransport,
                         defaultRequestConfig,
-                        objectMapper,
+                        jsonCodecs,
                         eventProbe);
         tokenRequestService =
                 new TokenRequestService(
                         dvlaConfiguration,
-                        clientProviderFactory.getDynamoDbEnhancedClient(),
-                        httpRetryer,
+                        dynamoDbEnhancedClient,
+                        thirdPartyTransport,
                         defaultRequestConfig,
-                        objectMapper,
+                        jsonCodecs,
                         eventProbe);
     }
 
@@ -183,13 +205,15 @@ public class PasswordRenewalHandler implements RequestHandler<SecretsManagerRota
                     // TEST SECRET START
                     LOGGER.info("{} commenced", SecretsManagerRotationStep.TEST_SECRET);
                     /*Third step is to verify that the secret has been set in DVLA
-                     * To do so, we request a token to ensure the new password works, but this does
-                     * not replace the token in the DB, and does not invalidate the existing one*/
+                     * To do so, we request a token to ensure the new password works, this token is
+                     * then published to the DB so checks switch over without requesting their own*/
                     if (dvlaConfiguration.isPasswordRotationEnabled()) {
                         LOGGER.info("Testing the new password against DVLA");
-                        tokenRequestService.performNewTokenRequest(
-                                newPassword, strategy); // This may be breaking
+                        TokenResponse tokenResponse =
+                                tokenRequestService.performNewTokenRequest(
+                                        newPassword, strategy); // This may be breaking
                         LOGGER.info("Token retrieved successfully");
+                        tokenRequestService.publishToken(strategy, tokenResponse);
                     }
                     LOGGER.info("{} step is complete", SecretsManagerRotationStep.TEST_SECRET);
                     // TEST SECRET END
@@ -201,6 +225,10 @@ public class PasswordRenewalHandler implements RequestHandler<SecretsManagerRota
                     updateSecret(input.getSecretId(), newPassword);
                     LOGGER.info("{} step is complete", SecretsManagerRotationStep.FINISH_SECRET);
                     // FINISH SECRET END
+
+                    if (dvlaConfiguration.isPasswordRotationEnabled()) {
+                        publishTokensForOtherStrategies(newPassword, strategy);
+                    }
                 }
 
             } catch (OAuthErrorResponseException e) {
@@ -221,6 +249,24 @@ public class PasswordRenewalHandler implements RequestHandler<SecretsManagerRota
         return "Success";
     }
 
+    // Best effort, the rotation has completed - any route not published refreshes its own token
+    private void publishTokensForOtherStrategies(String newPassword, Strategy testedStrategy) {
+        for (Strategy strategy : dvlaConfiguration.getConfiguredStrategies()) {
+            if (strategy == testedStrategy) {
+                continue;
+            }
+
+            try {
+                TokenResponse tokenResponse =
+                        tokenRequestService.performNewTokenRequest(newPassword, strategy);
+                tokenRequestService.publishToken(strategy, tokenResponse);
+                LOGGER.info("Token published for {}", strategy);
+            } catch (OAuthErrorResponseException e) {
+                LOGGER.warn("Unable to publish token for {} - {}", strategy, e.getErrorReason());
+            }
+        }
+    }
+
     private String generateNewPassword() {
 
         PasswordGenerator password = new PasswordGenerator();
@@ -1,18 +1,28 @@
 package uk.gov.di.ipv.cri.drivingpermit.event.service;
 
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.SUCCESS;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_CLOSED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_HALF_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_REJECTED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_REQUEST_SEND_FAIL;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_REQUEST_SEND_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_REQUEST_SEND_RETRY;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_BUDGET;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_SUPPRESSED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_SEND_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_SEND_MAX_RETRIES;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_CHANGE_PASSWORD_HTTP_RETRYER_WAIT_TIME;
 
 @ExcludeFromGeneratedCoverageReport
 public class ChangePasswordHttpRetryStatusConfig implements HttpRetryStatusConfig {
 
+    public static final String CIRCUIT_BREAKER_NAME = "dvla_change_password";
+
     @Override
     public boolean shouldHttpClientRetry(int statusCode) {
         return false;
@@ -23,6 +33,12 @@ public class ChangePasswordHttpRetryStatusConfig implements HttpRetryStatusConfi
         return SUCCESS == statusCode;
     }
 
+    @Override
+    public boolean isIdempotent() {
+        // The password may already have been changed by the original request
+        return false;
+    }
+
     @Override
     public String httpRetryerSendOkMetric() {
         return DVLA_CHANGE_PASSWORD_HTTP_RETRYER_REQUEST_SEND_OK.withEndpointPrefix();
@@ -48,4 +64,38 @@ public class ChangePasswordHttpRetryStatusConfig implements HttpRetryStatusConfi
     public String httpRetryerMaxRetriesMetric() {
         return DVLA_CHANGE_PASSWORD_HTTP_RETRYER_SEND_MAX_RETRIES.withEndpointPrefix();
     }
+
+    @Override
+    public String httpRetryerWaitTimeMetric() {
+        return DVLA_CHANGE_PASSWORD_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetrySuppressedMetric() {
+        return DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_SUPPRESSED.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetryBudgetMetric() {
+        return DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_BUDGET.withEndpointPrefix();
+    }
+
+    @Override
+    public String circuitBreakerName() {
+        return CIRCUIT_BREAKER_NAME;
+    }
+
+    @Override
+    public String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState) {
+        return switch (circuitBreakerState) {
+            case CLOSED -> DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix();
+            case OPEN -> DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_OPEN.withEndpointPrefix();
+            case HALF_OPEN -> DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_HALF_OPEN.withEndpointPrefix();
+        };
+    }
+
+    @Override
+    public String circuitBreakerRejectedMetric() {
+        return DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_REJECTED.withEndpointPrefix();
+    }
 }
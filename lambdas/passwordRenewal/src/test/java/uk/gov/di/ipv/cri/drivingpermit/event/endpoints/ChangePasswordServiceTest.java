@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.event.endpoints;
 
 import com.fasterxml.jackson.core.exc.InputCoercionException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.Header;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
@@ -24,9 +25,11 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfigurat
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,6 +41,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
@@ -49,6 +53,12 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpo
 class ChangePasswordServiceTest {
 
     private static final String TEST_END_POINT = "http://127.0.0.1";
+    private static final Map<Strategy, URI> TEST_END_POINT_URIS =
+            Arrays.stream(Strategy.values())
+                    .collect(
+                            Collectors.toMap(
+                                    strategy -> strategy,
+                                    strategy -> URI.create(TEST_END_POINT)));
     private static final String TEST_USER_NAME = "TEST";
     private static final String TEST_PASSWORD = "PASSWORD";
 
@@ -63,7 +73,8 @@ class ChangePasswordServiceTest {
     void setUp() {
         realObjectMapper = new ObjectMapper();
 
-        when(mockDvlaConfiguration.getChangePasswordEndpoint()).thenReturn(TEST_END_POINT);
+        when(mockDvlaConfiguration.getChangePasswordEndpointURIs())
+                .thenReturn(TEST_END_POINT_URIS);
         when(mockDvlaConfiguration.getUsername()).thenReturn(TEST_USER_NAME);
         when(mockDvlaConfiguration.getPassword()).thenReturn(TEST_PASSWORD);
 
@@ -72,7 +83,7 @@ class ChangePasswordServiceTest {
                         mockDvlaConfiguration,
                         mockHttpRetryer,
                         mockRequestConfig,
-                        realObjectMapper,
+                        new JsonCodecs(realObjectMapper),
                         mockEventProbe);
     }
 
@@ -238,7 +249,10 @@ class ChangePasswordServiceTest {
     void shouldReturnOAuthErrorResponseExceptionWhenFailingToCreateChangePasswordRequestBody()
             throws IOException {
 
-        ObjectMapper spyObjectMapper = Mockito.spy(new ObjectMapper());
+        JsonCodecs spyJsonCodecs = Mockito.spy(new JsonCodecs(new ObjectMapper()));
+        ObjectWriter mockPayloadWriter = Mockito.mock(ObjectWriter.class);
+        // The payload writer is created once, when the service is constructed
+        doReturn(mockPayloadWriter).when(spyJsonCodecs).writer(ChangePasswordPayload.class);
 
         // Just for this test so we can inject use a spy to inject exceptions
         ChangePasswordService thisTestOnlyChangePasswordService =
@@ -247,7 +261,7 @@ class ChangePasswordServiceTest {
                                 mockDvlaConfiguration,
                                 mockHttpRetryer,
                                 mockRequestConfig,
-                                spyObjectMapper,
+                                spyJsonCodecs,
                                 mockEventProbe);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -258,7 +272,7 @@ class ChangePasswordServiceTest {
         // The above form data is validated and mapped into another object,
         // preventing the JsonProcessingException from occurring.
         // This triggers the exception directly to ensure it is handled should the processing change
-        when(spyObjectMapper.writeValueAsString(any(ChangePasswordPayload.class)))
+        when(mockPayloadWriter.writeValueAsString(any(ChangePasswordPayload.class)))
                 .thenThrow(
                         new InputCoercionException(
                                 null, "Problem during json mapping", null, null));
@@ -26,6 +26,8 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenReque
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.UnauthorisedException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -36,6 +38,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -192,11 +195,46 @@ class PasswordRenewalHandlerTest {
         when(mockInput.getStep()).thenReturn(SecretsManagerRotationStep.FINISH_SECRET.toString());
         when(mockInput.getSecretId()).thenReturn("1234567");
         String newPassword = "asdfghjkl";
+        TokenResponse tokenResponse = new TokenResponse("qwertyuiop");
         when(mockTokenRequestService.performNewTokenRequest(newPassword, Strategy.NO_CHANGE))
-                .thenReturn(new TokenResponse("qwertyuiop"));
+                .thenReturn(tokenResponse);
 
         passwordRenewalHandler.handleRequest(mockInput, mockContext);
         verify(mockTokenRequestService).performNewTokenRequest("asdfghjkl", Strategy.NO_CHANGE);
+        // The validated token is published rather than thrown away
+        verify(mockTokenRequestService).publishToken(Strategy.NO_CHANGE, tokenResponse);
+    }
+
+    @Test
+    void whenRotationFinishesThenTokensArePublishedForOtherConfiguredStrategies()
+            throws OAuthErrorResponseException {
+        when(dvlaConfiguration.isPasswordRotationEnabled()).thenReturn(true);
+        when(dvlaConfiguration.getConfiguredStrategies())
+                .thenReturn(List.of(Strategy.UAT, Strategy.LIVE, Strategy.NO_CHANGE));
+
+        GetSecretValueResponse secretValueResponse =
+                GetSecretValueResponse.builder().secretString("asdfghjkl").build();
+        when(mockSecretsManagerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenReturn(secretValueResponse);
+
+        when(mockInput.getStep()).thenReturn(SecretsManagerRotationStep.FINISH_SECRET.toString());
+        when(mockInput.getSecretId()).thenReturn("1234567");
+
+        TokenResponse uatTokenResponse = new TokenResponse("uat-token");
+        when(mockTokenRequestService.performNewTokenRequest("asdfghjkl", Strategy.UAT))
+                .thenReturn(uatTokenResponse);
+        // A failure for one route does not fail the completed rotation
+        doThrow(
+                        new OAuthErrorResponseException(
+                                500, ERROR_INVOKING_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT))
+                .when(mockTokenRequestService)
+                .performNewTokenRequest("asdfghjkl", Strategy.LIVE);
+
+        assertEquals("Success", passwordRenewalHandler.handleRequest(mockInput, mockContext));
+
+        verify(mockTokenRequestService).publishToken(Strategy.UAT, uatTokenResponse);
+        verify(mockTokenRequestService, never()).publishToken(eq(Strategy.LIVE), any());
+        verify(mockTokenRequestService).performNewTokenRequest("asdfghjkl", Strategy.NO_CHANGE);
     }
 
     @Test
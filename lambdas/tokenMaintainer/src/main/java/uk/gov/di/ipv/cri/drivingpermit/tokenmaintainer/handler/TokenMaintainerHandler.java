@@ -0,0 +1,139 @@
+package uk.gov.di.ipv.cri.drivingpermit.tokenmaintainer.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.lambda.powertools.logging.CorrelationIdPathConstants;
+import software.amazon.lambda.powertools.logging.Logging;
+import software.amazon.lambda.powertools.metrics.Metrics;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpRequestConfig;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.DVLACloseableHttpClientFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ApacheHTTPClientFactoryService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakingThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_TOKEN_CURRENT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED;
+
+/**
+ * Keeps a fresh DVLA token in the token table for each configured strategy, so the driving permit
+ * check only reads tokens and refreshes inline only when the maintained token is missing or
+ * rejected.
+ */
+public class TokenMaintainerHandler implements RequestHandler<Object, String> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Runs every 10 minutes, refreshing tokens with under 20 minutes left leaves one spare run
+    // before a token enters the request path expiration window
+    public static final long TOKEN_REFRESH_AHEAD_SECONDS = 1200L;
+
+    private final TokenRequestService tokenRequestService;
+    private final DvlaConfiguration dvlaConfiguration;
+    private final EventProbe eventProbe;
+
+    @ExcludeFromGeneratedCoverageReport
+    public TokenMaintainerHandler() throws JsonProcessingException {
+        ClientProviderFactory clientProviderFactory = new ClientProviderFactory(true, true);
+
+        ParameterStoreService parameterStoreService =
+                new ParameterStoreService(clientProviderFactory.getSSMProvider());
+        SecretsManagerService secretsManagerService =
+                new SecretsManagerService(clientProviderFactory.getSecretsManagerClient());
+
+        JsonCodecs jsonCodecs =
+                new JsonCodecs(new ObjectMapper().registerModule(new JavaTimeModule()));
+        eventProbe = new EventProbe();
+        DVLACloseableHttpClientFactory dvlaCloseableHttpClientFactory =
+                new DVLACloseableHttpClientFactory(new ApacheHTTPClientFactoryService(eventProbe));
+        HttpRetryer httpRetryer =
+                new HttpRetryer(dvlaCloseableHttpClientFactory.getClient(), eventProbe, 0);
+        DynamoDbEnhancedClient dynamoDbEnhancedClient =
+                clientProviderFactory.getDynamoDbEnhancedClient();
+        ThirdPartyTransport thirdPartyTransport =
+                new CircuitBreakingThirdPartyTransport(
+                        httpRetryer, eventProbe, dynamoDbEnhancedClient);
+        dvlaConfiguration =
+                new DvlaConfiguration(parameterStoreService, secretsManagerService, jsonCodecs);
+
+        tokenRequestService =
+                new TokenRequestService(
+                        dvlaConfiguration,
+                        dynamoDbEnhancedClient,
+                        thirdPartyTransport,
+                        new HttpRequestConfig().getDefaultRequestConfig(),
+                        jsonCodecs,
+                        eventProbe);
+    }
+
+    public TokenMaintainerHandler(
+            TokenRequestService tokenRequestService,
+            DvlaConfiguration dvlaConfiguration,
+            EventProbe eventProbe) {
+        this.tokenRequestService = tokenRequestService;
+        this.dvlaConfiguration = dvlaConfiguration;
+        this.eventProbe = eventProbe;
+    }
+
+    @Override
+    @Metrics(captureColdStart = true)
+    @Logging(correlationIdPath = CorrelationIdPathConstants.EVENT_BRIDGE)
+    public String handleRequest(Object input, Context context) {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(context.getRemainingTimeInMillis());
+
+        boolean allTokensMaintained = true;
+
+        // A failure for one strategy does not stop the others being refreshed
+        for (Strategy strategy : dvlaConfiguration.getConfiguredStrategies()) {
+            try {
+                boolean refreshed =
+                        tokenRequestService.refreshTokenIfDue(
+                                strategy, TOKEN_REFRESH_AHEAD_SECONDS, requestDeadline);
+
+                LOGGER.info("Token for {} refreshed {}", strategy, refreshed);
+
+                eventProbe.counterMetric(
+                        refreshed
+                                ? LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED
+                                : LAMBDA_TOKEN_MAINTAINER_TOKEN_CURRENT);
+            } catch (OAuthErrorResponseException e) {
+                LOGGER.error(
+                        "Unable to refresh token for {} - {}", strategy, e.getErrorReason());
+
+                eventProbe.counterMetric(LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR);
+                allTokensMaintained = false;
+            } catch (RuntimeException e) {
+                // e.g. the token table being unavailable
+                LOGGER.error(
+                        "Unexpected error refreshing token for {} - {}",
+                        strategy,
+                        e.getClass().getSimpleName(),
+                        e);
+
+                eventProbe.counterMetric(LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR);
+                allTokensMaintained = false;
+            }
+        }
+
+        return allTokensMaintained ? "Success" : "Failed";
+    }
+}
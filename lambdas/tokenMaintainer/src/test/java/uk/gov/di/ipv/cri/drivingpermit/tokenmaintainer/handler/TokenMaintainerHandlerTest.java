@@ -0,0 +1,214 @@
+package uk.gov.di.ipv.cri.drivingpermit.tokenmaintainer.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.dynamo.TokenItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.TokenResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVLA_PASSWORD_SECRET;
+import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVLA_TOKEN_TABLE_NAME;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_TOKEN_CURRENT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED;
+import static uk.gov.di.ipv.cri.drivingpermit.tokenmaintainer.handler.TokenMaintainerHandler.TOKEN_REFRESH_AHEAD_SECONDS;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class TokenMaintainerHandlerTest {
+
+    private static final String TEST_TOKEN_TABLE_NAME = "test_token_table_name";
+    private static final String TEST_STATIC_PASSWORD = "static-parameter-password";
+    private static final String TEST_ROTATED_PASSWORD = "rotated-secret-password";
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    @Mock private TokenRequestService mockTokenRequestService;
+    @Mock private DvlaConfiguration mockDvlaConfiguration;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private Context mockContext;
+
+    @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private SecretsManagerService mockSecretsManagerService;
+    @Mock private DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
+    @Mock private DynamoDbTable<TokenItem> mockTokenTable;
+    @Mock private ThirdPartyTransport mockThirdPartyTransport;
+
+    private TokenMaintainerHandler tokenMaintainerHandler;
+
+    @BeforeEach
+    void setUp() {
+        when(mockContext.getRemainingTimeInMillis()).thenReturn(30000);
+
+        tokenMaintainerHandler =
+                new TokenMaintainerHandler(
+                        mockTokenRequestService, mockDvlaConfiguration, mockEventProbe);
+    }
+
+    @Test
+    void shouldMaintainTokenForEachConfiguredStrategy() throws OAuthErrorResponseException {
+        when(mockDvlaConfiguration.getConfiguredStrategies())
+                .thenReturn(List.of(Strategy.UAT, Strategy.NO_CHANGE));
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.UAT), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenReturn(true);
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.NO_CHANGE), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenReturn(false);
+
+        assertEquals("Success", tokenMaintainerHandler.handleRequest(null, mockContext));
+
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED);
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_TOKEN_CURRENT);
+        verifyNoMoreInteractions(mockEventProbe);
+        verifyNoMoreInteractions(mockTokenRequestService);
+    }
+
+    @Test
+    void shouldContinueWithOtherStrategiesWhenARefreshFails() throws OAuthErrorResponseException {
+        when(mockDvlaConfiguration.getConfiguredStrategies())
+                .thenReturn(List.of(Strategy.STUB, Strategy.NO_CHANGE));
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.STUB), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenThrow(
+                        new OAuthErrorResponseException(
+                                500, ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_TOKEN_ENDPOINT));
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.NO_CHANGE), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenReturn(true);
+
+        assertEquals("Failed", tokenMaintainerHandler.handleRequest(null, mockContext));
+
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR);
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldContinueWithOtherStrategiesWhenARefreshThrowsUnexpectedly()
+            throws OAuthErrorResponseException {
+        when(mockDvlaConfiguration.getConfiguredStrategies())
+                .thenReturn(List.of(Strategy.STUB, Strategy.NO_CHANGE));
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.STUB), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenThrow(new IllegalStateException("Token table unavailable"));
+        when(mockTokenRequestService.refreshTokenIfDue(
+                        eq(Strategy.NO_CHANGE), eq(TOKEN_REFRESH_AHEAD_SECONDS), any()))
+                .thenReturn(true);
+
+        assertEquals("Failed", tokenMaintainerHandler.handleRequest(null, mockContext));
+
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR);
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldRequestTokenWithRotatedPasswordWhenPasswordRotationEnabled() throws Exception {
+        environmentVariables.set("DVLA_PASSWORD_ROTATION_ENABLED", "true");
+
+        when(mockParameterStoreService.getAllParametersFromPath(
+                        ParameterPrefix.OVERRIDE, DvlaConfiguration.DVLA_PARAMETER_PATH))
+                .thenReturn(
+                        Map.of(
+                                "endpointUrl", "http://127.0.0.1",
+                                "testStrategy/endpointUrl", "{}",
+                                "tokenPath", "/token",
+                                "username", "TEST",
+                                "password", TEST_STATIC_PASSWORD));
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.STACK, DVLA_TOKEN_TABLE_NAME))
+                .thenReturn(TEST_TOKEN_TABLE_NAME);
+        when(mockSecretsManagerService.getStackSecret(DVLA_PASSWORD_SECRET))
+                .thenReturn(
+                        GetSecretValueResponse.builder()
+                                .secretString(TEST_ROTATED_PASSWORD)
+                                .versionId("2")
+                                .build());
+
+        // No token in the table and the refresh lease is won, so a new token is requested
+        when(mockDynamoDbEnhancedClient.table(eq(TEST_TOKEN_TABLE_NAME), any(TableSchema.class)))
+                .thenReturn(mockTokenTable);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200,
+                        null,
+                        objectMapper.writeValueAsString(
+                                TokenResponse.builder().idToken("new-token").build()),
+                        false);
+
+        ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        httpRequestCaptor.capture(),
+                        any(HttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        JsonCodecs jsonCodecs = new JsonCodecs(objectMapper);
+        DvlaConfiguration dvlaConfiguration =
+                new DvlaConfiguration(
+                        mockParameterStoreService, mockSecretsManagerService, jsonCodecs);
+        TokenRequestService tokenRequestService =
+                new TokenRequestService(
+                        dvlaConfiguration,
+                        mockDynamoDbEnhancedClient,
+                        mockThirdPartyTransport,
+                        RequestConfig.DEFAULT,
+                        jsonCodecs,
+                        mockEventProbe);
+
+        tokenMaintainerHandler =
+                new TokenMaintainerHandler(tokenRequestService, dvlaConfiguration, mockEventProbe);
+
+        assertEquals("Success", tokenMaintainerHandler.handleRequest(null, mockContext));
+
+        String requestBody = EntityUtils.toString(httpRequestCaptor.getValue().getEntity());
+        assertTrue(requestBody.contains(TEST_ROTATED_PASSWORD));
+        assertFalse(requestBody.contains(TEST_STATIC_PASSWORD));
+
+        verify(mockEventProbe).counterMetric(LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED);
+    }
+}
@@ -43,6 +43,8 @@ public class DvaCryptographyServiceConfiguration {
     // cert used in thumbprint generation
     private final Certificate signingThumbprintCert;
     private final String hasCA;
+    // kms (default) or local, see DvaSigningBackend
+    private final String signingBackend;
 
     public DvaCryptographyServiceConfiguration(ParameterStoreService parameterStoreService)
             throws CertificateException, NoSuchAlgorithmException {
@@ -81,6 +83,7 @@ public class DvaCryptographyServiceConfiguration {
         kmsSigningKeyId = System.getenv("SIGNING_KEY_ID");
         kmsEncryptionKeyId = System.getenv("ENCRYPTION_KEY_ID");
         hasCA = System.getenv("HAS_CA");
+        signingBackend = System.getenv("DVA_SIGNING_BACKEND");
     }
 
     public Certificate getEncryptionCert() {
@@ -115,4 +118,8 @@ public class DvaCryptographyServiceConfiguration {
     public String getHasCA() {
         return hasCA;
     }
+
+    public String getSigningBackend() {
+        return signingBackend;
+    }
 }
@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -58,6 +59,10 @@ public class DvaPayload implements DvaInterface {
     @JsonFormat(pattern = DATE_FORMAT, timezone = TIME_ZONE)
     public LocalDate expiryDate;
 
+    // Memoised by RequestHashValidator.HashFactory, as the hash sent is the one validated
+    @JsonIgnore private String requestHash;
+    @JsonIgnore private boolean requestHashForImposterStub;
+
     public DvaPayload() {}
 
     @JsonCreator
@@ -170,6 +175,19 @@ public class DvaPayload implements DvaInterface {
         this.issuerId = issuerId;
     }
 
+    /**
+     * The request hash computed earlier for the same stub mode, or null if there is none. The
+     * payload is not changed once it has been hashed and sent.
+     */
+    public String getMemoisedRequestHash(boolean isImposterStub) {
+        return isImposterStub == requestHashForImposterStub ? requestHash : null;
+    }
+
+    public void setMemoisedRequestHash(String requestHash, boolean isImposterStub) {
+        this.requestHash = requestHash;
+        this.requestHashForImposterStub = isImposterStub;
+    }
+
     @Override
     public String toString() {
         return "DvaPayload{"
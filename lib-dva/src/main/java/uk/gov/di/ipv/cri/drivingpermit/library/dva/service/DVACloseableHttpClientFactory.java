@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
 
 import org.apache.http.impl.client.CloseableHttpClient;
 import software.amazon.awssdk.services.acm.model.ExportCertificateResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.AcmCertificateService;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.HttpClientException;
@@ -29,6 +30,18 @@ public class DVACloseableHttpClientFactory {
     public static final String MAP_KEY_TLS_ROOT_CERT = "tlsRootCertificate-2023-11-13";
     public static final String MAP_KEY_TLS_INT_CERT = "tlsIntermediateCertificate-2023-11-13";
 
+    // Re-using pooled connections avoids repeating the mutual TLS handshake on each request
+    public static final HttpConnectionPoolConfig HTTP_CONNECTION_POOL_CONFIG =
+            HttpConnectionPoolConfig.builder().poolName("dva").build();
+
+    // Separate pool for stub and UAT requests, so live requests keep their TLS connections
+    public static final HttpConnectionPoolConfig TEST_STRATEGY_HTTP_CONNECTION_POOL_CONFIG =
+            HttpConnectionPoolConfig.builder()
+                    .poolName("dva_test")
+                    .maxTotal(4)
+                    .maxPerRoute(2)
+                    .build();
+
     public DVACloseableHttpClientFactory() {
         /* Intended */
     }
@@ -39,6 +52,22 @@ public class DVACloseableHttpClientFactory {
             ApacheHTTPClientFactoryService apacheHTTPClientFactoryService,
             AcmCertificateService acmCertificateService,
             boolean tlsOn) {
+        return getClient(
+                dvaCryptographyServiceConfiguration,
+                parameterStoreService,
+                apacheHTTPClientFactoryService,
+                acmCertificateService,
+                tlsOn,
+                HTTP_CONNECTION_POOL_CONFIG);
+    }
+
+    public CloseableHttpClient getClient(
+            DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration,
+            ParameterStoreService parameterStoreService,
+            ApacheHTTPClientFactoryService apacheHTTPClientFactoryService,
+            AcmCertificateService acmCertificateService,
+            boolean tlsOn,
+            HttpConnectionPoolConfig httpConnectionPoolConfig) {
 
         try {
             if (tlsOn) {
@@ -74,9 +103,11 @@ public class DVACloseableHttpClientFactory {
                                 base64TLSCertString,
                                 base64TLSKeyString,
                                 base64TLSRootCertString,
-                                base64TLSIntCertString);
+                                base64TLSIntCertString,
+                                httpConnectionPoolConfig);
             } else {
-                return apacheHTTPClientFactoryService.generatePublicHttpClient();
+                return apacheHTTPClientFactoryService.generatePublicHttpClient(
+                        httpConnectionPoolConfig);
             }
         } catch (NoSuchAlgorithmException
                 | InvalidKeySpecException
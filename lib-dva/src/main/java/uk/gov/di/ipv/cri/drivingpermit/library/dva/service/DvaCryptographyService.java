@@ -1,143 +1,115 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.nimbusds.jose.EncryptionMethod;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JOSEObjectType;
-import com.nimbusds.jose.JWEAlgorithm;
-import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.Payload;
-import com.nimbusds.jose.crypto.RSAEncrypter;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
-import uk.gov.di.ipv.cri.drivingpermit.library.domain.Thumbprints;
+import com.nimbusds.jose.util.Base64URL;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.DvaInterface;
-import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request.ProtectedHeader;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.response.DvaResponse;
-import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.response.DvaSignedEncryptedResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.DvaSigningBackend;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.JweKmsDecrypter;
-import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.KmsSigner;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.IpvCryptoException;
-import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
-import java.security.interfaces.RSAPublicKey;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
 import java.text.ParseException;
-import java.util.Map;
 
 public class DvaCryptographyService {
 
-    private final DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration;
-    private final KmsSigner kmsSigner;
+    // Parts of a compact serialised JWS and JWE
+    private static final int JWS_PARTS = 3;
+    private static final int JWE_PARTS = 5;
+
+    private final DvaJoseContext dvaJoseContext;
+    private final DvaSigningBackend dvaSigningBackend;
     private final JweKmsDecrypter jweKmsDecrypter;
-    private final ObjectMapper objectMapper =
-            new ObjectMapper().registerModule(new JavaTimeModule());
+    private final JsonCodecs jsonCodecs;
+
+    // Built once, rather than resolved by the mapper on every response
+    private final ObjectReader dvaResponseReader;
 
     public DvaCryptographyService(
             DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration,
-            KmsSigner kmsSigner,
-            JweKmsDecrypter jweKmsDecrypter) {
-        this.kmsSigner = kmsSigner;
-        this.dvaCryptographyServiceConfiguration = dvaCryptographyServiceConfiguration;
+            DvaSigningBackend dvaSigningBackend,
+            JweKmsDecrypter jweKmsDecrypter,
+            JsonCodecs jsonCodecs)
+            throws CertificateEncodingException, NoSuchAlgorithmException {
+        this(
+                DvaJoseContext.create(
+                        dvaCryptographyServiceConfiguration, dvaSigningBackend, jsonCodecs),
+                dvaSigningBackend,
+                jweKmsDecrypter,
+                jsonCodecs);
+    }
+
+    public DvaCryptographyService(
+            DvaJoseContext dvaJoseContext,
+            DvaSigningBackend dvaSigningBackend,
+            JweKmsDecrypter jweKmsDecrypter,
+            JsonCodecs jsonCodecs) {
+        this.dvaJoseContext = dvaJoseContext;
+        this.dvaSigningBackend = dvaSigningBackend;
         this.jweKmsDecrypter = jweKmsDecrypter;
+        this.jsonCodecs = jsonCodecs;
+        this.dvaResponseReader = jsonCodecs.reader(DvaResponse.class);
     }
 
     public JWSObject preparePayload(DvaInterface documentDetails)
             throws IOException, GeneralSecurityException, JOSEException {
+        // Typed by the payload class, so each payload type is resolved once
+        ObjectWriter payloadWriter = jsonCodecs.writer(documentDetails.getClass());
         JWSObject signedDocumentDetails =
-                createJWS(objectMapper.writeValueAsString(documentDetails));
+                createJWS(payloadWriter.writeValueAsString(documentDetails));
         JWEObject encryptedDocumentDetails = createJWE(signedDocumentDetails.serialize());
         return createJWS(encryptedDocumentDetails.serialize());
     }
 
     public DvaResponse unwrapDvaResponse(String dvaSignedEncryptedResponseString)
             throws ParseException, JOSEException {
-        DvaSignedEncryptedResponse dvaSignedEncryptedResponse =
-                new DvaSignedEncryptedResponse(dvaSignedEncryptedResponseString);
-        JWSObject outerSignedPayload = JWSObject.parse(dvaSignedEncryptedResponse.getPayload());
+        JWSObject outerSignedPayload = JWSObject.parse(dvaSignedEncryptedResponseString);
         if (isInvalidSignature(outerSignedPayload)) {
             throw new IpvCryptoException("Dva Response Outer Signature invalid.");
         }
+        // Each stage is built from the Base64URL parts of the decoded payload bytes, rather than
+        // the payload being copied to a String and split again
+        Base64URL[] jweParts =
+                splitCompactSerialization(outerSignedPayload.getPayload().toBytes(), JWE_PARTS);
         JWEObject encryptedSignedPayload =
-                JWEObject.parse(outerSignedPayload.getPayload().toString());
+                new JWEObject(jweParts[0], jweParts[1], jweParts[2], jweParts[3], jweParts[4]);
         JWSObject decryptedSignedPayload = decrypt(encryptedSignedPayload);
         if (isInvalidSignature(decryptedSignedPayload)) {
             throw new IpvCryptoException("Dva Response Inner Signature invalid.");
         }
         try {
-            return objectMapper.readValue(
-                    decryptedSignedPayload.getPayload().toString(), DvaResponse.class);
-        } catch (JsonProcessingException exception) {
+            return dvaResponseReader.readValue(decryptedSignedPayload.getPayload().toBytes());
+        } catch (IOException exception) {
             throw new IpvCryptoException(
                     String.format(
                             "Failed to parse decrypted Dva response: %s", exception.getMessage()));
         }
     }
 
-    private JWSObject createJWS(String stringToSign)
-            throws JOSEException, IOException, GeneralSecurityException {
-        Thumbprints thumbprints = KeyCertHelper.makeThumbprint(kmsSigner.getDlSigningCertificate());
-
-        ProtectedHeader protectedHeader =
-                new ProtectedHeader(
-                        JWSAlgorithm.RS256.toString(),
-                        thumbprints.getSha1Thumbprint(),
-                        thumbprints.getSha256Thumbprint());
-
-        String jsonHeaders = objectMapper.writeValueAsString(protectedHeader);
-
+    private JWSObject createJWS(String stringToSign) throws JOSEException {
         JWSObject jwsObject =
-                new JWSObject(
-                        new JWSHeader.Builder(JWSAlgorithm.RS256)
-                                .customParams(
-                                        objectMapper.readValue(
-                                                jsonHeaders,
-                                                new TypeReference<Map<String, Object>>() {}))
-                                .build(),
-                        new Payload(stringToSign));
+                new JWSObject(dvaJoseContext.getJwsHeader(), new Payload(stringToSign));
 
-        jwsObject.sign(kmsSigner);
+        jwsObject.sign(dvaSigningBackend);
 
         return jwsObject;
     }
 
-    private JWEObject createJWE(String data) throws JOSEException, JsonProcessingException {
-
-        ProtectedHeader protectedHeader =
-                new ProtectedHeader(
-                        JWSAlgorithm.RS256.toString(),
-                        dvaCryptographyServiceConfiguration
-                                .getEncryptionCertThumbprints()
-                                .getSha1Thumbprint(),
-                        dvaCryptographyServiceConfiguration
-                                .getEncryptionCertThumbprints()
-                                .getSha256Thumbprint());
-
-        String jsonHeaders = objectMapper.writeValueAsString(protectedHeader);
-
-        var header =
-                new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP, EncryptionMethod.A128CBC_HS256)
-                        .customParams(
-                                objectMapper.readValue(
-                                        jsonHeaders, new TypeReference<Map<String, Object>>() {}))
-                        .type(new JOSEObjectType("JWE"))
-                        .build();
-        var jwe = new JWEObject(header, new Payload(data));
-
-        jwe.encrypt(
-                new RSAEncrypter(
-                        (RSAPublicKey)
-                                dvaCryptographyServiceConfiguration
-                                        .getEncryptionCert()
-                                        .getPublicKey()));
+    private JWEObject createJWE(String data) throws JOSEException {
+        var jwe = new JWEObject(dvaJoseContext.getJweHeader(), new Payload(data));
+
+        jwe.encrypt(dvaJoseContext.getDvaEncrypter());
 
         if (!jwe.getState().equals(JWEObject.State.ENCRYPTED)) {
             throw new IpvCryptoException("Something went wrong, couldn't encrypt JWE");
@@ -147,23 +119,94 @@ public class DvaCryptographyService {
     }
 
     private boolean isInvalidSignature(JWSObject jwsObject) throws JOSEException {
-        RSASSAVerifier rsassaVerifier =
-                new RSASSAVerifier(
-                        (RSAPublicKey)
-                                dvaCryptographyServiceConfiguration
-                                        .getSigningCert()
-                                        .getPublicKey());
-        return !jwsObject.verify(rsassaVerifier);
+        return !jwsObject.verify(dvaJoseContext.getDvaSignatureVerifier());
     }
 
     public JWSObject decrypt(JWEObject encrypted) {
         try {
             encrypted.decrypt(jweKmsDecrypter);
 
-            return JWSObject.parse(encrypted.getPayload().toString());
+            Base64URL[] jwsParts =
+                    splitCompactSerialization(encrypted.getPayload().toBytes(), JWS_PARTS);
+            return new JWSObject(jwsParts[0], jwsParts[1], jwsParts[2]);
         } catch (ParseException | JOSEException exception) {
             throw new IpvCryptoException(
                     String.format("Cannot Decrypt Dva Payload: %s", exception.getMessage()));
         }
     }
+
+    /**
+     * Splits a compact serialised JOSE object into its Base64URL parts. As JOSEObject.split, but
+     * the dots, empty parts and Base64URL alphabet are checked on the bytes of the enclosing
+     * payload, so the whole object is never copied to a String and malformed input is rejected
+     * before any part is allocated.
+     */
+    static Base64URL[] splitCompactSerialization(byte[] serialized, int expectedParts)
+            throws ParseException {
+        int start = 0;
+        int end = serialized.length;
+
+        // Surrounding whitespace is ignored
+        while (start < end && serialized[start] <= ' ') {
+            start++;
+        }
+        while (end > start && serialized[end - 1] <= ' ') {
+            end--;
+        }
+
+        int[] partEnds = new int[expectedParts];
+        int part = 0;
+        int partStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && serialized[i] != '.') {
+                if (!isBase64URLCharacter(serialized[i])) {
+                    throw new ParseException("Invalid Base64URL character in part " + part, i);
+                }
+                continue;
+            }
+            if (part == expectedParts) {
+                throw new ParseException(
+                        "Unexpected number of Base64URL parts, must be " + expectedParts, i);
+            }
+            int partLength = i - partStart;
+            if (partLength == 0) {
+                throw new ParseException("Empty Base64URL part " + part, i);
+            }
+            // Unpadded Base64URL never leaves a single character in the final quantum
+            if (partLength % 4 == 1) {
+                throw new ParseException("Invalid Base64URL length in part " + part, i);
+            }
+            partEnds[part++] = i;
+            partStart = i + 1;
+        }
+
+        if (part != expectedParts) {
+            throw new ParseException(
+                    "Unexpected number of Base64URL parts, must be " + expectedParts, end);
+        }
+
+        // Base64URL is String backed, so each part is only materialised once all are valid
+        Base64URL[] parts = new Base64URL[expectedParts];
+        partStart = start;
+        for (part = 0; part < expectedParts; part++) {
+            parts[part] =
+                    new Base64URL(
+                            new String(
+                                    serialized,
+                                    partStart,
+                                    partEnds[part] - partStart,
+                                    StandardCharsets.US_ASCII));
+            partStart = partEnds[part] + 1;
+        }
+
+        return parts;
+    }
+
+    private static boolean isBase64URLCharacter(byte character) {
+        return (character >= 'A' && character <= 'Z')
+                || (character >= 'a' && character <= 'z')
+                || (character >= '0' && character <= '9')
+                || character == '-'
+                || character == '_';
+    }
 }
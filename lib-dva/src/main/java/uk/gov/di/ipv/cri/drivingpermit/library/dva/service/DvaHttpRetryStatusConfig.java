@@ -1,14 +1,25 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
 
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
 
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_CLOSED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_HALF_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_REJECTED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_REQUEST_SEND_FAIL;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_REQUEST_SEND_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_REQUEST_SEND_RETRY;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_RETRY_BUDGET;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_RETRY_SUPPRESSED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_SEND_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_SEND_MAX_RETRIES;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_WAIT_TIME;
 
 public class DvaHttpRetryStatusConfig implements HttpRetryStatusConfig {
+
+    public static final String CIRCUIT_BREAKER_NAME = "dva";
+
     @Override
     public boolean shouldHttpClientRetry(int statusCode) {
         if (statusCode == 200) {
@@ -28,6 +39,12 @@ public class DvaHttpRetryStatusConfig implements HttpRetryStatusConfig {
         return 200 == statusCode;
     }
 
+    @Override
+    public boolean isIdempotent() {
+        // Document check lookup, no state is changed at DVA
+        return true;
+    }
+
     @Override
     public String httpRetryerSendOkMetric() {
         return DVA_HTTP_RETRYER_REQUEST_SEND_OK.withEndpointPrefix();
@@ -52,4 +69,38 @@ public class DvaHttpRetryStatusConfig implements HttpRetryStatusConfig {
     public String httpRetryerMaxRetriesMetric() {
         return DVA_HTTP_RETRYER_SEND_MAX_RETRIES.withEndpointPrefix();
     }
+
+    @Override
+    public String httpRetryerWaitTimeMetric() {
+        return DVA_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetrySuppressedMetric() {
+        return DVA_HTTP_RETRYER_RETRY_SUPPRESSED.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetryBudgetMetric() {
+        return DVA_HTTP_RETRYER_RETRY_BUDGET.withEndpointPrefix();
+    }
+
+    @Override
+    public String circuitBreakerName() {
+        return CIRCUIT_BREAKER_NAME;
+    }
+
+    @Override
+    public String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState) {
+        return switch (circuitBreakerState) {
+            case CLOSED -> DVA_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix();
+            case OPEN -> DVA_CIRCUIT_BREAKER_OPEN.withEndpointPrefix();
+            case HALF_OPEN -> DVA_CIRCUIT_BREAKER_HALF_OPEN.withEndpointPrefix();
+        };
+    }
+
+    @Override
+    public String circuitBreakerRejectedMetric() {
+        return DVA_CIRCUIT_BREAKER_REJECTED.withEndpointPrefix();
+    }
 }
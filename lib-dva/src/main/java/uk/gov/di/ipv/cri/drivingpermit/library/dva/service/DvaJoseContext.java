@@ -0,0 +1,118 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Thumbprints;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request.ProtectedHeader;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.DvaSigningBackend;
+import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+
+/**
+ * The JOSE headers, verifier and encrypter used with DVA, built once from the configuration as
+ * none of them change between requests. Immutable, and the Nimbus verifier and encrypter are
+ * thread-safe, so can be shared by concurrent requests.
+ */
+public final class DvaJoseContext {
+
+    private static final TypeReference<Map<String, Object>> CUSTOM_PARAMS_TYPE =
+            new TypeReference<>() {};
+
+    private final JWSHeader jwsHeader;
+    private final JWEHeader jweHeader;
+    private final RSASSAVerifier dvaSignatureVerifier;
+    private final RSAEncrypter dvaEncrypter;
+
+    private DvaJoseContext(
+            JWSHeader jwsHeader,
+            JWEHeader jweHeader,
+            RSASSAVerifier dvaSignatureVerifier,
+            RSAEncrypter dvaEncrypter) {
+        this.jwsHeader = jwsHeader;
+        this.jweHeader = jweHeader;
+        this.dvaSignatureVerifier = dvaSignatureVerifier;
+        this.dvaEncrypter = dvaEncrypter;
+    }
+
+    public static DvaJoseContext create(
+            DvaCryptographyServiceConfiguration dvaCryptographyServiceConfiguration,
+            DvaSigningBackend dvaSigningBackend,
+            JsonCodecs jsonCodecs)
+            throws CertificateEncodingException, NoSuchAlgorithmException {
+
+        // Our signing certificate, identified to DVA in the header of each signed payload
+        Thumbprints signingThumbprints =
+                KeyCertHelper.makeThumbprint(dvaSigningBackend.getDlSigningCertificate());
+
+        JWSHeader jwsHeader =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .customParams(toCustomParams(signingThumbprints, jsonCodecs))
+                        .build();
+
+        // DVA's encryption certificate, identified in the header of each encrypted payload
+        Thumbprints encryptionThumbprints =
+                dvaCryptographyServiceConfiguration.getEncryptionCertThumbprints();
+
+        JWEHeader jweHeader =
+                new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP, EncryptionMethod.A128CBC_HS256)
+                        .customParams(toCustomParams(encryptionThumbprints, jsonCodecs))
+                        .type(new JOSEObjectType("JWE"))
+                        .build();
+
+        RSASSAVerifier dvaSignatureVerifier =
+                new RSASSAVerifier(
+                        (RSAPublicKey)
+                                dvaCryptographyServiceConfiguration
+                                        .getSigningCert()
+                                        .getPublicKey());
+
+        RSAEncrypter dvaEncrypter =
+                new RSAEncrypter(
+                        (RSAPublicKey)
+                                dvaCryptographyServiceConfiguration
+                                        .getEncryptionCert()
+                                        .getPublicKey());
+
+        return new DvaJoseContext(jwsHeader, jweHeader, dvaSignatureVerifier, dvaEncrypter);
+    }
+
+    private static Map<String, Object> toCustomParams(
+            Thumbprints thumbprints, JsonCodecs jsonCodecs) {
+        ProtectedHeader protectedHeader =
+                new ProtectedHeader(
+                        JWSAlgorithm.RS256.toString(),
+                        thumbprints.getSha1Thumbprint(),
+                        thumbprints.getSha256Thumbprint());
+
+        return jsonCodecs.convertValue(protectedHeader, CUSTOM_PARAMS_TYPE);
+    }
+
+    public JWSHeader getJwsHeader() {
+        return jwsHeader;
+    }
+
+    public JWEHeader getJweHeader() {
+        return jweHeader;
+    }
+
+    public RSASSAVerifier getDvaSignatureVerifier() {
+        return dvaSignatureVerifier;
+    }
+
+    public RSAEncrypter getDvaEncrypter() {
+        return dvaEncrypter;
+    }
+}
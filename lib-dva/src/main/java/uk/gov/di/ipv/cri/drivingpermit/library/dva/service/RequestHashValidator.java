@@ -4,8 +4,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request.DvaPayload;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Objects;
 
 public class RequestHashValidator {
@@ -21,13 +23,23 @@ public class RequestHashValidator {
 
     public boolean valid(DvaPayload request, String hash, boolean isImposterStub)
             throws NoSuchAlgorithmException {
-        return hashFactory.getHash(request, isImposterStub).equals(hash);
+        return getHash(request, isImposterStub).equals(hash);
+    }
+
+    public String getHash(DvaPayload request, boolean isImposterStub)
+            throws NoSuchAlgorithmException {
+        return hashFactory.getHash(request, isImposterStub);
     }
 
     public static class HashFactory {
+        private static final HexFormat HEX_FORMAT = HexFormat.of();
+
         private final Sha256MessageDigestFactory messageDigestFactory;
         private final Logger LOGGER = LogManager.getLogger();
 
+        // A digest is not thread-safe, so each thread reuses its own
+        private final ThreadLocal<MessageDigest> messageDigests = new ThreadLocal<>();
+
         public HashFactory() {
             this(new Sha256MessageDigestFactory());
         }
@@ -36,56 +48,59 @@ public class RequestHashValidator {
             this.messageDigestFactory = messageDigestFactory;
         }
 
+        /**
+         * The SHA-256 of the payload fields, in the order and form DVA hashes them. Each field is
+         * fed to the digest as UTF-8 rather than first being concatenated, and the hash is
+         * memoised on the payload so the request-hash header and response validation share it.
+         */
         public String getHash(DvaPayload request, boolean isImposterStub)
                 throws NoSuchAlgorithmException {
-            String message;
-            if (isImposterStub) {
+            String memoisedHash = request.getMemoisedRequestHash(isImposterStub);
+            if (memoisedHash != null) {
+                return memoisedHash;
+            }
+
+            MessageDigest sha256 = getMessageDigest();
+
+            update(sha256, String.valueOf(request.getIssuerId()));
+            if (!isImposterStub) {
                 // no requestId used in hash generation if connecting to imposter stub
-                message =
-                        request.getIssuerId()
-                                + Objects.toString(request.getSurname(), "")
-                                + request.getForenames().stream()
-                                        .filter(Objects::nonNull)
-                                        .reduce("", String::concat)
-                                + Objects.toString(request.getDateOfBirth(), "")
-                                + request.getDateOfIssue()
-                                + request.getExpiryDate()
-                                + request.getDriverLicenceNumber()
-                                + Objects.toString(request.getPostcode(), "");
-            } else {
-                message =
-                        request.getIssuerId()
-                                + request.getRequestId()
-                                + Objects.toString(request.getSurname(), "")
-                                + request.getForenames().stream()
-                                        .filter(Objects::nonNull)
-                                        .reduce("", String::concat)
-                                + Objects.toString(request.getDateOfBirth(), "")
-                                + request.getDateOfIssue()
-                                + request.getExpiryDate()
-                                + request.getDriverLicenceNumber()
-                                + Objects.toString(request.getPostcode(), "");
+                update(sha256, String.valueOf(request.getRequestId()));
             }
-            MessageDigest sha256;
-            try {
-                sha256 = messageDigestFactory.getInstance();
-            } catch (NoSuchAlgorithmException e) {
-                LOGGER.error("Encountered hash validation exception : {}", e.getMessage());
-                throw e;
+            update(sha256, Objects.toString(request.getSurname(), ""));
+            for (String forename : request.getForenames()) {
+                if (forename != null) {
+                    update(sha256, forename);
+                }
             }
-            byte[] array = sha256.digest(message.getBytes());
-            return arrayToString(array);
+            update(sha256, Objects.toString(request.getDateOfBirth(), ""));
+            update(sha256, String.valueOf(request.getDateOfIssue()));
+            update(sha256, String.valueOf(request.getExpiryDate()));
+            update(sha256, String.valueOf(request.getDriverLicenceNumber()));
+            update(sha256, Objects.toString(request.getPostcode(), ""));
+
+            // digest() also resets the digest ready for the next request on this thread
+            String hash = HEX_FORMAT.formatHex(sha256.digest());
+            request.setMemoisedRequestHash(hash, isImposterStub);
+            return hash;
         }
 
-        private String arrayToString(byte[] array) {
-            StringBuilder sb = new StringBuilder();
-            for (byte anArray : array) {
-                // performs a bitwise calculation on `anArray` to extract the lower 8 bits
-                // and affirm it as a positive value via AND 0xFF
-                // before performing a XOR check with 0x100
-                sb.append(Integer.toHexString((anArray & 0xFF) | 0x100), 1, 3);
+        private MessageDigest getMessageDigest() throws NoSuchAlgorithmException {
+            MessageDigest sha256 = messageDigests.get();
+            if (sha256 == null) {
+                try {
+                    sha256 = messageDigestFactory.getInstance();
+                } catch (NoSuchAlgorithmException e) {
+                    LOGGER.error("Encountered hash validation exception : {}", e.getMessage());
+                    throw e;
+                }
+                messageDigests.set(sha256);
             }
-            return sb.toString();
+            return sha256;
+        }
+
+        private static void update(MessageDigest messageDigest, String field) {
+            messageDigest.update(field.getBytes(StandardCharsets.UTF_8));
         }
 
         public static class Sha256MessageDigestFactory {
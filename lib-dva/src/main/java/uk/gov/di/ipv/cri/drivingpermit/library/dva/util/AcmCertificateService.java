@@ -38,10 +38,13 @@ public class AcmCertificateService {
     }
 
     public String exportAcmSigningCertificate() {
+        return exportAcmSigningCertificateAndKey().certificate();
+    }
+
+    // The private key is encrypted with RANDOM_RUN_TIME_PASSWORD, see parseAcmKey
+    public ExportCertificateResponse exportAcmSigningCertificateAndKey() {
         String signingCertificateArn = System.getenv("SIGNING_CERTIFICATE_ARN");
-        ExportCertificateResponse getCertificateResponse =
-                exportAcmCertificate(signingCertificateArn);
-        return getCertificateResponse.certificate();
+        return exportAcmCertificate(signingCertificateArn);
     }
 
     private ExportCertificateResponse exportAcmCertificate(String certificateArn) {
@@ -0,0 +1,58 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.kms.KmsClient;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+import java.time.Duration;
+
+/**
+ * Creates the KmsClient used to sign and decrypt DVA payloads, kept apart from the shared client
+ * as it is on the request path. Each DVA request makes a Sign and a Decrypt call, so connections
+ * are kept open between requests and timeouts are short enough to leave the DVA call its share of
+ * the request deadline.
+ */
+@ExcludeFromGeneratedCoverageReport
+public final class DvaKmsClientFactory {
+
+    // Concurrent Sign and Decrypt calls per execution environment, with headroom for retries
+    private static final int MAX_CONCURRENCY = 8;
+
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofMillis(1000);
+    private static final Duration CONNECTION_MAX_IDLE_TIME = Duration.ofSeconds(60);
+
+    // KMS closes idle connections, keep alive stops the pool holding ones already closed
+    private static final Duration TCP_KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration TCP_KEEP_ALIVE_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final Duration API_CALL_ATTEMPT_TIMEOUT = Duration.ofMillis(1500);
+    private static final Duration API_CALL_TIMEOUT = Duration.ofMillis(4000);
+
+    private DvaKmsClientFactory() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static KmsClient createKmsClient() {
+        return KmsClient.builder()
+                .region(Region.of(System.getenv("AWS_REGION")))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .httpClientBuilder(
+                        AwsCrtHttpClient.builder()
+                                .maxConcurrency(MAX_CONCURRENCY)
+                                .connectionTimeout(CONNECTION_TIMEOUT)
+                                .connectionMaxIdleTime(CONNECTION_MAX_IDLE_TIME)
+                                .tcpKeepAliveConfiguration(
+                                        TcpKeepAliveConfiguration.builder()
+                                                .keepAliveInterval(TCP_KEEP_ALIVE_INTERVAL)
+                                                .keepAliveTimeout(TCP_KEEP_ALIVE_TIMEOUT)
+                                                .build()))
+                .overrideConfiguration(
+                        builder ->
+                                builder.apiCallAttemptTimeout(API_CALL_ATTEMPT_TIMEOUT)
+                                        .apiCallTimeout(API_CALL_TIMEOUT))
+                .build();
+    }
+}
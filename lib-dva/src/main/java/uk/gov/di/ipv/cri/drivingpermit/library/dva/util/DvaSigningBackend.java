@@ -0,0 +1,21 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import com.nimbusds.jose.JWSSigner;
+
+import java.security.cert.X509Certificate;
+
+/**
+ * Signs the JWS payloads sent to DVA, selected per environment by DVA_SIGNING_BACKEND (see {@link
+ * KmsSigner} and {@link LocalJcaSigner}).
+ */
+public interface DvaSigningBackend extends JWSSigner {
+
+    String KMS = "kms";
+    String LOCAL = "local";
+
+    // Used in metric names
+    String getBackendName();
+
+    // The certificate for the signing key, identified to DVA by its thumbprints
+    X509Certificate getDlSigningCertificate();
+}
@@ -14,6 +14,8 @@ import software.amazon.awssdk.services.kms.model.DecryptRequest;
 import software.amazon.awssdk.services.kms.model.DecryptResponse;
 import software.amazon.awssdk.services.kms.model.EncryptionAlgorithmSpec;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -21,15 +23,19 @@ import javax.crypto.spec.SecretKeySpec;
 import java.util.HashSet;
 import java.util.Set;
 
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DVA_KMS_DECRYPT_DURATION;
+
 @ExcludeFromGeneratedCoverageReport
 public class JweKmsDecrypter implements JWEDecrypter {
 
     private final KmsClient kmsClient;
     private final String keyId;
+    private final EventProbe eventProbe;
 
-    public JweKmsDecrypter(String kmsKeyId, KmsClient kmsClient) {
+    public JweKmsDecrypter(String kmsKeyId, KmsClient kmsClient, EventProbe eventProbe) {
         this.keyId = kmsKeyId;
         this.kmsClient = kmsClient;
+        this.eventProbe = eventProbe;
     }
 
     @Override
@@ -50,7 +56,16 @@ public class JweKmsDecrypter implements JWEDecrypter {
                         .encryptionAlgorithm(EncryptionAlgorithmSpec.RSAES_OAEP_SHA_1)
                         .ciphertextBlob(SdkBytes.fromByteArray(encryptedBytes))
                         .build();
-        DecryptResponse decryptResponse = kmsClient.decrypt(decryptRequest);
+
+        // Only the KMS call is timed, the content decryption below is local
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        DecryptResponse decryptResponse;
+        try {
+            decryptResponse = kmsClient.decrypt(decryptRequest);
+        } finally {
+            eventProbe.counterMetric(DVA_KMS_DECRYPT_DURATION, stopWatch.stop());
+        }
         byte[] decryptedBytes = decryptResponse.plaintext().asByteArray();
 
         // Step 2: Convert the decrypted CEK to a SecretKey object
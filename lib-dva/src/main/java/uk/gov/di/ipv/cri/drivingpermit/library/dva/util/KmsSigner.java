@@ -2,7 +2,6 @@ package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
 
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jose.jca.JCAContext;
 import com.nimbusds.jose.util.Base64URL;
 import software.amazon.awssdk.core.SdkBytes;
@@ -17,7 +16,7 @@ import java.util.Collections;
 import java.util.Set;
 
 @ExcludeFromGeneratedCoverageReport
-public class KmsSigner implements JWSSigner {
+public class KmsSigner implements DvaSigningBackend {
     private final KmsClient kmsClient;
     private final String keyId;
     private final X509Certificate dlSigningCertificate;
@@ -45,10 +44,16 @@ public class KmsSigner implements JWSSigner {
         return Base64URL.encode(signResult.signature().asByteArray());
     }
 
+    @Override
+    public String getBackendName() {
+        return KMS;
+    }
+
     public String getKeyId() {
         return keyId;
     }
 
+    @Override
     public X509Certificate getDlSigningCertificate() {
         return dlSigningCertificate;
     }
@@ -0,0 +1,52 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Set;
+
+/**
+ * Signs in process with a private key loaded once at init, so signing does not need a network
+ * call. The key must be the one the signing certificate was issued for.
+ */
+public class LocalJcaSigner implements DvaSigningBackend {
+
+    private final RSASSASigner rsassaSigner;
+    private final X509Certificate dlSigningCertificate;
+
+    public LocalJcaSigner(PrivateKey signingKey, X509Certificate dlSigningCertificate) {
+        this.rsassaSigner = new RSASSASigner(signingKey);
+        this.dlSigningCertificate = dlSigningCertificate;
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        return rsassaSigner.sign(header, signingInput);
+    }
+
+    @Override
+    public String getBackendName() {
+        return LOCAL;
+    }
+
+    @Override
+    public X509Certificate getDlSigningCertificate() {
+        return dlSigningCertificate;
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.RS256);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return rsassaSigner.getJCAContext();
+    }
+}
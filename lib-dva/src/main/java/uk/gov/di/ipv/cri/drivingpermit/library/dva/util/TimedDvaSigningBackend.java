@@ -0,0 +1,59 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
+
+import java.security.cert.X509Certificate;
+import java.util.Set;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DVA_SIGNING_DURATION;
+
+/** Records how long each signature takes, per backend, so backends can be compared */
+public class TimedDvaSigningBackend implements DvaSigningBackend {
+
+    private final DvaSigningBackend dvaSigningBackend;
+    private final EventProbe eventProbe;
+    private final String signingDurationMetric;
+
+    public TimedDvaSigningBackend(DvaSigningBackend dvaSigningBackend, EventProbe eventProbe) {
+        this.dvaSigningBackend = dvaSigningBackend;
+        this.eventProbe = eventProbe;
+        this.signingDurationMetric = DVA_SIGNING_DURATION + dvaSigningBackend.getBackendName();
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        try {
+            return dvaSigningBackend.sign(header, signingInput);
+        } finally {
+            eventProbe.counterMetric(signingDurationMetric, stopWatch.stop());
+        }
+    }
+
+    @Override
+    public String getBackendName() {
+        return dvaSigningBackend.getBackendName();
+    }
+
+    @Override
+    public X509Certificate getDlSigningCertificate() {
+        return dvaSigningBackend.getDlSigningCertificate();
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return dvaSigningBackend.supportedJWSAlgorithms();
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return dvaSigningBackend.getJCAContext();
+    }
+}
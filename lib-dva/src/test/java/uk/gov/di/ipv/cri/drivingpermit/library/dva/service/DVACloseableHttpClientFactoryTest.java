@@ -9,6 +9,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import software.amazon.awssdk.services.acm.model.ExportCertificateResponse;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.AcmCertificateService;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.HttpClientException;
@@ -32,6 +34,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -48,6 +51,8 @@ class DVACloseableHttpClientFactoryTest {
 
     @Mock private AcmCertificateService acmCertificateService;
 
+    @Mock private EventProbe mockEventProbe;
+
     @ParameterizedTest
     @CsvSource({"true", "false"})
     void shouldReturnClient(boolean tlsOn) {
@@ -66,7 +71,7 @@ class DVACloseableHttpClientFactoryTest {
                         dvaCloseableHttpClientFactory.getClient(
                                 dvaCryptographyServiceConfiguration,
                                 mockParameterStoreService,
-                                new ApacheHTTPClientFactoryService(),
+                                new ApacheHTTPClientFactoryService(mockEventProbe),
                                 acmCertificateService,
                                 tlsOn));
     }
@@ -83,7 +88,7 @@ class DVACloseableHttpClientFactoryTest {
         //  pragma: allowlist nextline secret
         AcmCertificateService.RANDOM_RUN_TIME_PASSWORD = "password"; // NOSONAR
         ApacheHTTPClientFactoryService apacheHTTPClientFactoryService =
-                new ApacheHTTPClientFactoryService();
+                new ApacheHTTPClientFactoryService(mockEventProbe);
 
         // Note creates a full TLS http client using test certs + REAL ClientFactoryService
         assertDoesNotThrow(
@@ -134,7 +139,11 @@ class DVACloseableHttpClientFactoryTest {
                 };
 
         when(mockApacheHTTPClientFactoryService.generateHTTPClientFromExternalApacheHttpClient(
-                        anyString(), anyString(), anyString(), anyString()))
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        any(HttpConnectionPoolConfig.class)))
                 .thenThrow(thrownException);
 
         Exception thrown =
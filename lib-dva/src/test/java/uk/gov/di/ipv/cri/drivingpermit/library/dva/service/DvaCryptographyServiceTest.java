@@ -1,7 +1,10 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.EncryptionMethod;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
 import com.nimbusds.jose.JWSHeader;
@@ -12,6 +15,8 @@ import org.apache.http.ParseException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Thumbprints;
@@ -20,10 +25,13 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request.DvaPayload;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.response.DvaResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.JweKmsDecrypter;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.KmsSigner;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.IpvCryptoException;
 import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Base64;
@@ -33,6 +41,8 @@ import java.util.UUID;
 import static com.nimbusds.jose.JWSAlgorithm.RS256;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -48,6 +58,8 @@ class DvaCryptographyServiceTest {
     @Mock private JweKmsDecrypter jweKmsDecrypter;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodecs jsonCodecs =
+            new JsonCodecs(new ObjectMapper().registerModule(new JavaTimeModule()));
 
     @Test
     void preparePayload()
@@ -62,17 +74,17 @@ class DvaCryptographyServiceTest {
                         KeyCertHelper.getDecodedX509Certificate(
                                 "MIIDBzCCAe+gAwIBAgIGAZF1WmijMA0GCSqGSIb3DQEBCwUAMDoxODA2BgNVBAMML0RyaXZpbmcgTGljZW5jZSBDUkkgSlNPTiBTaWduaW5nIERldiAyNS0wNi0yMDI0MB4XDTI0MDgyMTE0MzIyNFoXDTI1MDgyMTE0MzIyNFowOjE4MDYGA1UEAwwvRHJpdmluZyBMaWNlbmNlIENSSSBKU09OIFNpZ25pbmcgRGV2IDI1LTA2LTIwMjQwggEiMA0GCSqGSIb3DQEBAQUAA4IBDwAwggEKAoIBAQCoUPIfrOrbuP3q4fSJgmNC4YbmukpNCjqK/yrTp+ykB+GpxvjcVWymdb7ywRlqC49Qfl18gHne261B82YKLDIRViz+q36ZlC1woTAIl/SLeXPdEFx26nLO4qqhBsfFPtALbZ/DIzMWIquThiTWxIg3JZS/ujYL2EwOBEJ18zQnc3NvFQ8tax5rz5mz0u3STTasn/xaFsnEO45GwaAIXW4ygnAa2sg5udI8RbyA25hEPfKDMypIAJgqsFLjyp1BGeQdqoHw2fJ6ECntKxiq9oLvJbYX+mgxxp9KIqxfg1yyjpg37MoY19U+iPytbMTLNkIZGXFXK3Zz5PE4iL1rVpqhAgMBAAGjEzARMA8GA1UdEwEB/wQFMAMBAf8wDQYJKoZIhvcNAQELBQADggEBAAOjP27zad26Rs5b20XkqLAoNGgIu2gaNhzLE0Uw0gZDeYYOnAfaBwZ0oOFL1PSQ3/u4C9wBH8o0sRrnk+OGCL/HzSSb6BV1SClLwhdCONP37PLhjJf6LLG1D7MDMaZvfwy3hVW7JWAf1F/chUnOJXfwfwxNEaRqa5CKelTfOXCDdDxdCOj2mr1IH2WNzcWV5xuPXmbLjCsWyyJ4F/7Dpu6MhlAeUGq8jynhO6UfEYDUxcpMXGhuXgllEbkli2CDZQX3LaBaiSM8rWyUaImnjVD8ouQVJCZS/DeP0DDXNdY195RvVebb0RPfPj8pqRziPfam2rxin/ws3FvZnfEczZw="));
 
+        mockEncryptionCert();
+        when(dvaCryptographyServiceConfiguration.getSigningCert())
+                .thenReturn(KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT));
+
         DvaCryptographyService dvaCryptographyService =
                 new DvaCryptographyService(
-                        dvaCryptographyServiceConfiguration, kmsSigner, jweKmsDecrypter);
+                        dvaCryptographyServiceConfiguration,
+                        kmsSigner,
+                        jweKmsDecrypter,
+                        jsonCodecs);
         DvaPayload dvaPayload = createSuccessDvaPayload();
-        when(dvaCryptographyServiceConfiguration.getEncryptionCertThumbprints())
-                .thenReturn(
-                        new Thumbprints(
-                                SHA_1_THUMBPRINT + "-encryption",
-                                SHA_256_THUMBPRINT + "-encryption"));
-        when(dvaCryptographyServiceConfiguration.getEncryptionCert())
-                .thenReturn(KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT));
 
         JWSObject jwsObject = dvaCryptographyService.preparePayload(dvaPayload);
 
@@ -114,6 +126,9 @@ class DvaCryptographyServiceTest {
 
         when(dvaCryptographyServiceConfiguration.getSigningCert())
                 .thenReturn(KeyCertHelper.getDecodedX509Certificate(dlSigningCert));
+        when(kmsSigner.getDlSigningCertificate())
+                .thenReturn(KeyCertHelper.getDecodedX509Certificate(dlSigningCert));
+        mockEncryptionCert();
 
         JWEObject jweObject = JWEObject.parse(jwsResponseObject.getPayload().toString());
 
@@ -137,7 +152,10 @@ class DvaCryptographyServiceTest {
 
         DvaCryptographyService dvaCryptographyService =
                 new DvaCryptographyService(
-                        dvaCryptographyServiceConfiguration, kmsSigner, jweKmsDecrypter);
+                        dvaCryptographyServiceConfiguration,
+                        kmsSigner,
+                        jweKmsDecrypter,
+                        jsonCodecs);
 
         DvaResponse dvaResponse =
                 dvaCryptographyService.unwrapDvaResponse(jwsResponseObject.serialize());
@@ -148,6 +166,118 @@ class DvaCryptographyServiceTest {
                 objectMapper.writeValueAsString(dvaResponse));
     }
 
+    @Test
+    void shouldSplitCompactSerializationIntoBase64URLParts() throws Exception {
+        Base64URL[] parts =
+                DvaCryptographyService.splitCompactSerialization(
+                        " eyJhbGciOiJSUzI1NiJ9.cGF5bG9hZA.c2lnbmF0dXJl \n".getBytes(), 3);
+
+        assertEquals(3, parts.length);
+        assertEquals("eyJhbGciOiJSUzI1NiJ9", parts[0].toString());
+        assertEquals("payload", parts[1].decodeToString());
+        assertEquals("signature", parts[2].decodeToString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"aGVhZGVy", "aGVhZGVy.cGF5bG9hZA", "aGVhZGVy.cGF5bG9hZA.c2ln.ZXh0cmE"})
+    void shouldRejectCompactSerializationWithWrongNumberOfDots(String serialized) {
+        java.text.ParseException exception =
+                assertThrows(
+                        java.text.ParseException.class,
+                        () ->
+                                DvaCryptographyService.splitCompactSerialization(
+                                        serialized.getBytes(), 3));
+
+        assertEquals("Unexpected number of Base64URL parts, must be 3", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {".cGF5bG9hZA.c2ln", "aGVhZGVy..c2ln", "aGVhZGVy.cGF5bG9hZA.", ".."})
+    void shouldRejectCompactSerializationWithEmptyParts(String serialized) {
+        java.text.ParseException exception =
+                assertThrows(
+                        java.text.ParseException.class,
+                        () ->
+                                DvaCryptographyService.splitCompactSerialization(
+                                        serialized.getBytes(), 3));
+
+        assertTrue(exception.getMessage().startsWith("Empty Base64URL part"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "aGVh+ZGVy.cGF5bG9hZA.c2ln",
+                "aGVhZGVy.cGF5/bG9hZA.c2ln",
+                "aGVhZGVy.cGF5bG9hZA==.c2ln",
+                "aGVhZGVy.cGF5 bG9hZA.c2ln"
+            })
+    void shouldRejectCompactSerializationWithInvalidBase64URLCharacters(String serialized) {
+        java.text.ParseException exception =
+                assertThrows(
+                        java.text.ParseException.class,
+                        () ->
+                                DvaCryptographyService.splitCompactSerialization(
+                                        serialized.getBytes(), 3));
+
+        assertTrue(exception.getMessage().startsWith("Invalid Base64URL character"));
+    }
+
+    @Test
+    void shouldRejectCompactSerializationWithInvalidBase64URLLength() {
+        java.text.ParseException exception =
+                assertThrows(
+                        java.text.ParseException.class,
+                        () ->
+                                DvaCryptographyService.splitCompactSerialization(
+                                        "aGVhZGVy.cGF5b.c2ln".getBytes(), 3));
+
+        assertEquals("Invalid Base64URL length in part 1", exception.getMessage());
+    }
+
+    @Test
+    void shouldFailToDecryptWhenDecryptedPayloadIsNotACompactJWS() throws Exception {
+        when(kmsSigner.getDlSigningCertificate())
+                .thenReturn(KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT));
+        when(dvaCryptographyServiceConfiguration.getSigningCert())
+                .thenReturn(KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT));
+        mockEncryptionCert();
+        when(jweKmsDecrypter.decrypt(any(), any(), any(), any(), any(), any()))
+                .thenReturn("aGVhZGVy..c2ln".getBytes());
+
+        DvaCryptographyService dvaCryptographyService =
+                new DvaCryptographyService(
+                        dvaCryptographyServiceConfiguration,
+                        kmsSigner,
+                        jweKmsDecrypter,
+                        jsonCodecs);
+
+        JWEObject encrypted =
+                new JWEObject(
+                        new JWEHeader(JWEAlgorithm.RSA_OAEP, EncryptionMethod.A128CBC_HS256)
+                                .toBase64URL(),
+                        new Base64URL("a2V5"),
+                        new Base64URL("aXY"),
+                        new Base64URL("Y2lwaGVy"),
+                        new Base64URL("dGFn"));
+
+        IpvCryptoException exception =
+                assertThrows(
+                        IpvCryptoException.class, () -> dvaCryptographyService.decrypt(encrypted));
+
+        assertEquals("Cannot Decrypt Dva Payload: Empty Base64URL part 1", exception.getMessage());
+    }
+
+    private void mockEncryptionCert() throws CertificateException {
+        when(dvaCryptographyServiceConfiguration.getEncryptionCertThumbprints())
+                .thenReturn(
+                        new Thumbprints(
+                                SHA_1_THUMBPRINT + "-encryption",
+                                SHA_256_THUMBPRINT + "-encryption"));
+        when(dvaCryptographyServiceConfiguration.getEncryptionCert())
+                .thenReturn(KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT));
+    }
+
     private DvaResponse createSuccessDvaResponse() {
         DvaResponse dvaResponse = new DvaResponse();
         dvaResponse.setRequestHash(
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 
 import java.util.List;
 import java.util.stream.IntStream;
@@ -87,5 +88,44 @@ class DvaHttpRetryStatusConfigTest {
         assertEquals(
                 ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_SEND_MAX_RETRIES.withEndpointPrefix(),
                 dvaHttpRetryStatusConfig.httpRetryerMaxRetriesMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.httpRetryerWaitTimeMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_RETRY_SUPPRESSED.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.httpRetryerRetrySuppressedMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_HTTP_RETRYER_RETRY_BUDGET.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.httpRetryerRetryBudgetMetric());
+    }
+
+    @Test
+    void shouldBeIdempotent() {
+        assertTrue(dvaHttpRetryStatusConfig.isIdempotent());
+    }
+
+    @Test
+    void checkCircuitBreakerCallbacksWiredCorrectly() {
+
+        assertEquals("dva", dvaHttpRetryStatusConfig.circuitBreakerName());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.circuitBreakerStateMetric(CircuitBreakerState.CLOSED));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_OPEN.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.circuitBreakerStateMetric(CircuitBreakerState.OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_HALF_OPEN.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.circuitBreakerStateMetric(CircuitBreakerState.HALF_OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVA_CIRCUIT_BREAKER_REJECTED.withEndpointPrefix(),
+                dvaHttpRetryStatusConfig.circuitBreakerRejectedMetric());
     }
 }
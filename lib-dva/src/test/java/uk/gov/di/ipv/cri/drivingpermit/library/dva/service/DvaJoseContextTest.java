@@ -0,0 +1,80 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Thumbprints;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.configuration.DvaCryptographyServiceConfiguration;
+import uk.gov.di.ipv.cri.drivingpermit.library.dva.util.KmsSigner;
+import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.dva.KeyUtilities.BASE64_DCS_SIGNING_CERT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.dva.KeyUtilities.BASE64_ENCRYPTION_PUBLIC_CERT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.dva.KeyUtilities.SHA_1_THUMBPRINT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.dva.KeyUtilities.SHA_256_THUMBPRINT;
+
+@ExtendWith(MockitoExtension.class)
+class DvaJoseContextTest {
+
+    @Mock private DvaCryptographyServiceConfiguration mockDvaCryptographyServiceConfiguration;
+    @Mock private KmsSigner mockKmsSigner;
+
+    @Test
+    void shouldBuildHeadersVerifierAndEncrypterFromConfiguration()
+            throws GeneralSecurityException {
+        X509Certificate dlSigningCertificate =
+                KeyCertHelper.getDecodedX509Certificate(BASE64_DCS_SIGNING_CERT);
+        X509Certificate dvaCertificate =
+                KeyCertHelper.getDecodedX509Certificate(BASE64_ENCRYPTION_PUBLIC_CERT);
+
+        when(mockKmsSigner.getDlSigningCertificate()).thenReturn(dlSigningCertificate);
+        when(mockDvaCryptographyServiceConfiguration.getEncryptionCertThumbprints())
+                .thenReturn(new Thumbprints(SHA_1_THUMBPRINT, SHA_256_THUMBPRINT));
+        when(mockDvaCryptographyServiceConfiguration.getSigningCert()).thenReturn(dvaCertificate);
+        when(mockDvaCryptographyServiceConfiguration.getEncryptionCert())
+                .thenReturn(dvaCertificate);
+
+        DvaJoseContext dvaJoseContext =
+                DvaJoseContext.create(
+                        mockDvaCryptographyServiceConfiguration,
+                        mockKmsSigner,
+                        new JsonCodecs(new ObjectMapper()));
+
+        Thumbprints dlSigningThumbprints = KeyCertHelper.makeThumbprint(dlSigningCertificate);
+        JWSHeader jwsHeader = dvaJoseContext.getJwsHeader();
+
+        assertEquals(JWSAlgorithm.RS256, jwsHeader.getAlgorithm());
+        assertEquals(dlSigningThumbprints.getSha1Thumbprint(), jwsHeader.getCustomParam("x5t"));
+        assertEquals(
+                dlSigningThumbprints.getSha256Thumbprint(),
+                jwsHeader.getCustomParam("x5t#S256"));
+
+        JWEHeader jweHeader = dvaJoseContext.getJweHeader();
+
+        assertEquals(JWEAlgorithm.RSA_OAEP, jweHeader.getAlgorithm());
+        assertEquals(EncryptionMethod.A128CBC_HS256, jweHeader.getEncryptionMethod());
+        assertEquals(new JOSEObjectType("JWE"), jweHeader.getType());
+        assertEquals(SHA_1_THUMBPRINT, jweHeader.getCustomParam("x5t"));
+        assertEquals(SHA_256_THUMBPRINT, jweHeader.getCustomParam("x5t#S256"));
+
+        assertEquals(
+                dvaCertificate.getPublicKey(),
+                dvaJoseContext.getDvaSignatureVerifier().getPublicKey());
+        assertEquals(
+                dvaCertificate.getPublicKey(), dvaJoseContext.getDvaEncrypter().getPublicKey());
+    }
+}
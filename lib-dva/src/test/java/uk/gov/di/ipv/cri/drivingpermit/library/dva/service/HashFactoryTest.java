@@ -1,6 +1,7 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dva.service;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -9,12 +10,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.request.DvaPayload;
 import uk.gov.di.ipv.cri.drivingpermit.library.dva.domain.response.DvaResponse;
 
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +52,29 @@ class HashFactoryTest {
                 () -> hashFactory.getHash(createSuccessDvaPayload(imposterStub), imposterStub));
     }
 
+    @Test
+    void shouldMemoiseHashOnPayloadAndReuseDigest() throws NoSuchAlgorithmException {
+        hashFactory = new RequestHashValidator.HashFactory(mockSha256MessageDigestFactory);
+        when(mockSha256MessageDigestFactory.getInstance())
+                .thenReturn(MessageDigest.getInstance("SHA-256"));
+
+        DvaPayload dvaPayload = createSuccessDvaPayload(false);
+        String expectedHash = createSuccessDvaResponse(false).getRequestHash();
+
+        assertEquals(expectedHash, hashFactory.getHash(dvaPayload, false));
+        assertEquals(expectedHash, dvaPayload.getMemoisedRequestHash(false));
+        assertNull(dvaPayload.getMemoisedRequestHash(true));
+        assertEquals(expectedHash, hashFactory.getHash(dvaPayload, false));
+
+        // Not memoised for the other mode, and the digest is reset between payloads
+        assertEquals(
+                createSuccessDvaResponse(true).getRequestHash(),
+                hashFactory.getHash(createSuccessDvaPayload(true), true));
+        assertEquals(expectedHash, hashFactory.getHash(createSuccessDvaPayload(false), false));
+
+        verify(mockSha256MessageDigestFactory, times(1)).getInstance();
+    }
+
     private DvaPayload createSuccessDvaPayload(boolean imposterStub) {
         DvaPayload dvaPayload = new DvaPayload();
         if (!imposterStub) {
@@ -0,0 +1,38 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalJcaSignerTest {
+
+    @Test
+    void shouldSignWithTheLocalKey() throws NoSuchAlgorithmException, JOSEException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        LocalJcaSigner localJcaSigner = new LocalJcaSigner(keyPair.getPrivate(), null);
+
+        JWSObject jwsObject =
+                new JWSObject(new JWSHeader(JWSAlgorithm.RS256), new Payload("payload"));
+        jwsObject.sign(localJcaSigner);
+
+        assertTrue(jwsObject.verify(new RSASSAVerifier((RSAPublicKey) keyPair.getPublic())));
+        assertEquals(DvaSigningBackend.LOCAL, localJcaSigner.getBackendName());
+        assertNull(localJcaSigner.getDlSigningCertificate());
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dva.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DVA_SIGNING_DURATION;
+
+@ExtendWith(MockitoExtension.class)
+class TimedDvaSigningBackendTest {
+
+    private static final JWSHeader TEST_HEADER = new JWSHeader(JWSAlgorithm.RS256);
+    private static final byte[] TEST_SIGNING_INPUT = "signingInput".getBytes();
+
+    @Mock private DvaSigningBackend mockDvaSigningBackend;
+    @Mock private EventProbe mockEventProbe;
+
+    @Test
+    void shouldRecordSigningDurationForBackend() throws JOSEException {
+        Base64URL signature = new Base64URL("signature");
+        when(mockDvaSigningBackend.getBackendName()).thenReturn(DvaSigningBackend.KMS);
+        when(mockDvaSigningBackend.sign(TEST_HEADER, TEST_SIGNING_INPUT)).thenReturn(signature);
+
+        TimedDvaSigningBackend timedDvaSigningBackend =
+                new TimedDvaSigningBackend(mockDvaSigningBackend, mockEventProbe);
+
+        assertEquals(signature, timedDvaSigningBackend.sign(TEST_HEADER, TEST_SIGNING_INPUT));
+
+        verify(mockEventProbe).counterMetric(eq(DVA_SIGNING_DURATION + "kms"), anyDouble());
+    }
+
+    @Test
+    void shouldRecordSigningDurationWhenSigningFails() throws JOSEException {
+        when(mockDvaSigningBackend.getBackendName()).thenReturn(DvaSigningBackend.LOCAL);
+        when(mockDvaSigningBackend.sign(TEST_HEADER, TEST_SIGNING_INPUT))
+                .thenThrow(new JOSEException("Signing failed"));
+
+        TimedDvaSigningBackend timedDvaSigningBackend =
+                new TimedDvaSigningBackend(mockDvaSigningBackend, mockEventProbe);
+
+        assertThrows(
+                JOSEException.class,
+                () -> timedDvaSigningBackend.sign(TEST_HEADER, TEST_SIGNING_INPUT));
+
+        verify(mockEventProbe).counterMetric(eq(DVA_SIGNING_DURATION + "local"), anyDouble());
+    }
+}
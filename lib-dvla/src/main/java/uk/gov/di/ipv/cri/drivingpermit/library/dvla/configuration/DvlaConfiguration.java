@@ -1,24 +1,34 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
-import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.CachedStackSecret;
 import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVLA_PASSWORD_SECRET;
 import static uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters.DVLA_TOKEN_TABLE_NAME;
 
-@ExcludeFromGeneratedCoverageReport
 public class DvlaConfiguration {
 
-    private static final String DVLA_PARAMETER_PATH = "DVLA";
+    private static final Logger LOGGER = LogManager.getLogger();
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public static final String DVLA_PARAMETER_PATH = "DVLA";
+
+    // Rotation is picked up sooner, as the token endpoint rejecting the password invalidates it
+    private static final long PASSWORD_SECRET_CACHE_TTL_MS = 300000L;
 
     private final String tokenEndpoint;
     private final String matchEndpoint;
@@ -32,7 +42,7 @@ public class DvlaConfiguration {
 
     private final boolean passwordRotationEnabled;
 
-    private final SecretsManagerService secretsManagerService;
+    private final CachedStackSecret cachedPasswordSecret;
 
     // TestDataStrategy mvp updates
     private final Map<String, String> endpointURLs;
@@ -41,11 +51,19 @@ public class DvlaConfiguration {
     private final String matchPath;
     private final String changePasswordPath;
 
+    // Built once, rather than formatted and parsed on every request
+    private final Map<Strategy, URI> tokenEndpointURIs;
+    private final Map<Strategy, URI> matchEndpointURIs;
+    private final Map<Strategy, URI> changePasswordEndpointURIs;
+
     public DvlaConfiguration(
             ParameterStoreService parameterStoreService,
-            SecretsManagerService secretsManagerService)
+            SecretsManagerService secretsManagerService,
+            JsonCodecs jsonCodecs)
             throws JsonProcessingException {
-        this.secretsManagerService = secretsManagerService;
+        this.cachedPasswordSecret =
+                new CachedStackSecret(
+                        secretsManagerService, DVLA_PASSWORD_SECRET, PASSWORD_SECRET_CACHE_TTL_MS);
 
         Map<String, String> dvlaParameterMap =
                 parameterStoreService.getAllParametersFromPath(
@@ -53,7 +71,9 @@ public class DvlaConfiguration {
 
         final String endpointUri = dvlaParameterMap.get("endpointUrl");
         ////////////////////////// TestStrategyMVP////////////////////////////////////
-        this.endpointURLs = constructParameterMap(dvlaParameterMap.get("testStrategy/endpointUrl"));
+        this.endpointURLs =
+                constructParameterMap(
+                        dvlaParameterMap.get("testStrategy/endpointUrl"), jsonCodecs);
         this.tokenPath = dvlaParameterMap.get("tokenPath");
         this.matchPath = dvlaParameterMap.get("matchPath");
         this.changePasswordPath = dvlaParameterMap.get("passwordPath");
@@ -63,6 +83,11 @@ public class DvlaConfiguration {
         this.matchEndpoint = String.format("%s%s", endpointUri, matchPath);
         this.changePasswordEndpoint = String.format("%s%s", endpointUri, changePasswordPath);
 
+        this.tokenEndpointURIs = buildEndpointURIs(tokenEndpoint, tokenPath);
+        this.matchEndpointURIs = buildEndpointURIs(matchEndpoint, matchPath);
+        this.changePasswordEndpointURIs =
+                buildEndpointURIs(changePasswordEndpoint, changePasswordPath);
+
         this.apiKey = dvlaParameterMap.get("apiKey");
         this.username = dvlaParameterMap.get("username");
         this.password = dvlaParameterMap.get("password");
@@ -99,7 +124,7 @@ public class DvlaConfiguration {
     public String getPassword() {
         if (isPasswordRotationEnabled()) {
             try {
-                return secretsManagerService.getStackSecretValue(DVLA_PASSWORD_SECRET);
+                return cachedPasswordSecret.getValue();
             } catch (ResourceNotFoundException e) {
                 return password;
             }
@@ -108,6 +133,13 @@ public class DvlaConfiguration {
         }
     }
 
+    /** Called when the token endpoint rejects the password, so the next use re-reads it */
+    public void invalidatePassword() {
+        if (isPasswordRotationEnabled()) {
+            cachedPasswordSecret.invalidate();
+        }
+    }
+
     public String getApiKey() {
         return apiKey;
     }
@@ -120,6 +152,32 @@ public class DvlaConfiguration {
         return endpointURLs;
     }
 
+    /** NO_CHANGE uses the default endpoint, the others only where a test strategy url is set */
+    public List<Strategy> getConfiguredStrategies() {
+        List<Strategy> strategies = new ArrayList<>();
+
+        for (Strategy strategy : Strategy.values()) {
+            // Only strategies with a valid endpoint url have an endpoint URI
+            if (tokenEndpointURIs.containsKey(strategy)) {
+                strategies.add(strategy);
+            }
+        }
+
+        return strategies;
+    }
+
+    public Map<Strategy, URI> getTokenEndpointURIs() {
+        return tokenEndpointURIs;
+    }
+
+    public Map<Strategy, URI> getMatchEndpointURIs() {
+        return matchEndpointURIs;
+    }
+
+    public Map<Strategy, URI> getChangePasswordEndpointURIs() {
+        return changePasswordEndpointURIs;
+    }
+
     public String getTokenPath() {
         return tokenPath;
     }
@@ -132,8 +190,40 @@ public class DvlaConfiguration {
         return changePasswordPath;
     }
 
-    private Map<String, String> constructParameterMap(String parameterValue)
-            throws JsonProcessingException {
+    /**
+     * NO_CHANGE uses the default endpoint, the others the test strategy url with the same path. A
+     * test strategy with no url, or a malformed one, is left out (failing only requests using it)
+     * rather than failing initialisation for every strategy. The NO_CHANGE endpoint must be valid.
+     */
+    private Map<Strategy, URI> buildEndpointURIs(String defaultEndpoint, String path) {
+        Map<Strategy, URI> endpointURIsByStrategy = new EnumMap<>(Strategy.class);
+
+        for (Strategy strategy : Strategy.values()) {
+            if (strategy == Strategy.NO_CHANGE) {
+                endpointURIsByStrategy.put(strategy, URI.create(defaultEndpoint));
+                continue;
+            }
+
+            // A missing (or null) url would be formatted as "null" + path, which URI.create
+            // accepts as a relative URI
+            String endpointURL = endpointURLs.get(strategy.name());
+            if (endpointURL == null) {
+                continue;
+            }
+
+            String endpoint = String.format("%s%s", endpointURL, path);
+            try {
+                endpointURIsByStrategy.put(strategy, URI.create(endpoint));
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Invalid endpoint for {} not used - {}", strategy, e.getMessage());
+            }
+        }
+
+        return Collections.unmodifiableMap(endpointURIsByStrategy);
+    }
+
+    private static Map<String, String> constructParameterMap(
+            String parameterValue, JsonCodecs jsonCodecs) throws JsonProcessingException {
         if (null == parameterValue) {
             // null check is for testing DrivingPermitConfiguration creation purposes ONLY
             return Map.of(
@@ -144,7 +234,7 @@ public class DvlaConfiguration {
                     "LIVE",
                     "unassignedLiveEndpoint");
         } else {
-            return objectMapper.readValue(parameterValue, Map.class);
+            return jsonCodecs.reader(Map.class).readValue(parameterValue);
         }
     }
 }
@@ -0,0 +1,43 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.dynamo;
+
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+// Held in the token table alongside the TokenItem it guards
+@DynamoDbBean
+@NoArgsConstructor
+public class TokenRefreshLeaseItem {
+
+    private String id;
+
+    // Epoch millis the lease is held until
+    private long leaseUntil;
+
+    private long ttl;
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(long leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
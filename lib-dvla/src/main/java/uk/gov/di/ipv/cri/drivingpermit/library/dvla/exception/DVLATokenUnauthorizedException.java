@@ -0,0 +1,11 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dvla.exception;
+
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+
+/** The token endpoint responded 401, e.g. as the password used has been rotated. */
+public class DVLATokenUnauthorizedException extends OAuthErrorResponseException {
+    public DVLATokenUnauthorizedException(int statusCode, ErrorResponse errorResponse) {
+        super(statusCode, errorResponse);
+    }
+}
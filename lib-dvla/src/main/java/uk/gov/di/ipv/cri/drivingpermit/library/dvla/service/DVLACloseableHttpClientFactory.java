@@ -2,11 +2,24 @@ package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service;
 
 import org.apache.http.impl.client.CloseableHttpClient;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.ApacheHTTPClientFactoryService;
 
 @ExcludeFromGeneratedCoverageReport
 public class DVLACloseableHttpClientFactory {
 
+    // Token, match and change password endpoints share the one pool
+    public static final HttpConnectionPoolConfig HTTP_CONNECTION_POOL_CONFIG =
+            HttpConnectionPoolConfig.builder().poolName("dvla").build();
+
+    // Stub and UAT traffic has its own smaller pool so cannot take the connections of live traffic
+    public static final HttpConnectionPoolConfig TEST_STRATEGY_HTTP_CONNECTION_POOL_CONFIG =
+            HttpConnectionPoolConfig.builder()
+                    .poolName("dvla_test")
+                    .maxTotal(4)
+                    .maxPerRoute(2)
+                    .build();
+
     private ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
 
     public DVLACloseableHttpClientFactory(
@@ -15,6 +28,10 @@ public class DVLACloseableHttpClientFactory {
     }
 
     public CloseableHttpClient getClient() {
-        return apacheHTTPClientFactoryService.generatePublicHttpClient();
+        return getClient(HTTP_CONNECTION_POOL_CONFIG);
+    }
+
+    public CloseableHttpClient getClient(HttpConnectionPoolConfig httpConnectionPoolConfig) {
+        return apacheHTTPClientFactoryService.generatePublicHttpClient(httpConnectionPoolConfig);
     }
 }
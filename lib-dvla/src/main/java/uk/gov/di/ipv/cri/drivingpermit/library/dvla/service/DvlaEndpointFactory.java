@@ -1,6 +1,5 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import org.apache.http.client.config.RequestConfig;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
@@ -10,7 +9,8 @@ import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpRequestConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.DriverMatchService;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService;
-import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 
 @ExcludeFromGeneratedCoverageReport
 @Getter
@@ -21,9 +21,9 @@ public class DvlaEndpointFactory {
 
     public DvlaEndpointFactory(
             DvlaConfiguration dvlaConfiguration,
-            ObjectMapper objectMapper,
+            JsonCodecs jsonCodecs,
             EventProbe eventProbe,
-            HttpRetryer httpRetryer,
+            ThirdPartyTransport thirdPartyTransport,
             DynamoDbEnhancedClient dynamoDbEnhancedClient) {
 
         // Same on all endpoints
@@ -33,17 +33,17 @@ public class DvlaEndpointFactory {
                 new TokenRequestService(
                         dvlaConfiguration,
                         dynamoDbEnhancedClient,
-                        httpRetryer,
+                        thirdPartyTransport,
                         defaultRequestConfig,
-                        objectMapper,
+                        jsonCodecs,
                         eventProbe);
 
         driverMatchService =
                 new DriverMatchService(
                         dvlaConfiguration,
-                        httpRetryer,
+                        thirdPartyTransport,
                         defaultRequestConfig,
-                        objectMapper,
+                        jsonCodecs,
                         eventProbe);
     }
 }
@@ -1,6 +1,7 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
 
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
 
 import java.util.List;
@@ -14,9 +15,17 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.Res
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.TOO_MANY_REQUESTS;
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.UNAUTHORISED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.UNSPECIFIED_ERROR_500;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_CLOSED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_HALF_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_REJECTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_RETRY_BUDGET;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_RETRY_SUPPRESSED;
 
 public class DriverMatchHttpRetryStatusConfig implements HttpRetryStatusConfig {
 
+    public static final String CIRCUIT_BREAKER_NAME = "dvla_match";
+
     // These values are from DVLA driver-get version 1.13.0
     private final List<Integer> neverRetryCodes =
             List.of(SUCCESS, BAD_REQUEST, UNAUTHORISED, FORBIDDEN, NOT_FOUND);
@@ -42,6 +51,12 @@ public class DriverMatchHttpRetryStatusConfig implements HttpRetryStatusConfig {
         return successStatusCodes.contains(statusCode);
     }
 
+    @Override
+    public boolean isIdempotent() {
+        // Driver match lookup, no state is changed at DVLA
+        return true;
+    }
+
     @Override
     public String httpRetryerSendOkMetric() {
         return ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_REQUEST_SEND_OK
@@ -70,4 +85,38 @@ public class DriverMatchHttpRetryStatusConfig implements HttpRetryStatusConfig {
         return ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_SEND_MAX_RETRIES
                 .withEndpointPrefix();
     }
+
+    @Override
+    public String httpRetryerWaitTimeMetric() {
+        return ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetrySuppressedMetric() {
+        return DVLA_MATCH_HTTP_RETRYER_RETRY_SUPPRESSED.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetryBudgetMetric() {
+        return DVLA_MATCH_HTTP_RETRYER_RETRY_BUDGET.withEndpointPrefix();
+    }
+
+    @Override
+    public String circuitBreakerName() {
+        return CIRCUIT_BREAKER_NAME;
+    }
+
+    @Override
+    public String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState) {
+        return switch (circuitBreakerState) {
+            case CLOSED -> DVLA_MATCH_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix();
+            case OPEN -> DVLA_MATCH_CIRCUIT_BREAKER_OPEN.withEndpointPrefix();
+            case HALF_OPEN -> DVLA_MATCH_CIRCUIT_BREAKER_HALF_OPEN.withEndpointPrefix();
+        };
+    }
+
+    @Override
+    public String circuitBreakerRejectedMetric() {
+        return DVLA_MATCH_CIRCUIT_BREAKER_REJECTED.withEndpointPrefix();
+    }
 }
@@ -1,12 +1,13 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.http.HttpStatusCode;
@@ -23,17 +24,22 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.errorrespons
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.result.DriverMatchServiceResult;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.exception.DVLAMatchUnauthorizedException;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.EndpointDescriptor;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
-import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReply;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReplyHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BoundedResponseReader;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import java.io.IOException;
-import java.net.URI;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.NOT_FOUND;
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.SUCCESS;
@@ -51,37 +57,42 @@ public class DriverMatchService {
 
     private static final String DVLA_RESPONSE_HEADER_REQUEST_ID_KEY = "X-DVLA-Request-Id";
 
-    private URI requestURI;
-    private final String apiKey;
+    private final Map<Strategy, EndpointDescriptor> endpointDescriptors;
 
-    private final HttpRetryer httpRetryer;
-    private final RequestConfig requestConfig;
+    private final ThirdPartyTransport thirdPartyTransport;
 
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter dvlaPayloadWriter;
+    private final BoundedResponseReader responseReader;
 
     private final EventProbe eventProbe;
 
     private final HttpRetryStatusConfig httpRetryStatusConfig;
 
-    private final DvlaConfiguration dvlaConfiguration;
-
     private final StopWatch stopWatch;
 
     public DriverMatchService(
             DvlaConfiguration dvlaConfiguration,
-            HttpRetryer httpRetryer,
+            ThirdPartyTransport thirdPartyTransport,
             RequestConfig requestConfig,
-            ObjectMapper objectMapper,
+            JsonCodecs jsonCodecs,
             EventProbe eventProbe) {
 
-        this.dvlaConfiguration = dvlaConfiguration;
-        this.requestURI = URI.create(dvlaConfiguration.getMatchEndpoint());
-        this.apiKey = dvlaConfiguration.getApiKey();
-
-        this.httpRetryer = httpRetryer;
-        this.requestConfig = requestConfig;
-
-        this.objectMapper = objectMapper;
+        this.endpointDescriptors =
+                EndpointDescriptor.forStrategies(
+                        dvlaConfiguration.getMatchEndpointURIs(),
+                        List.of(
+                                new BasicHeader(
+                                        RequestHeaderKeys.HEADER_CONTENT_TYPE,
+                                        ContentType.APPLICATION_JSON.getMimeType()),
+                                new BasicHeader(
+                                        RequestHeaderKeys.HEADER_API_KEY,
+                                        dvlaConfiguration.getApiKey())),
+                        requestConfig);
+
+        this.thirdPartyTransport = thirdPartyTransport;
+
+        this.dvlaPayloadWriter = jsonCodecs.writer(DvlaPayload.class);
+        this.responseReader = new BoundedResponseReader(jsonCodecs, ENDPOINT_NAME);
         this.eventProbe = eventProbe;
 
         this.httpRetryStatusConfig = new DriverMatchHttpRetryStatusConfig();
@@ -90,30 +101,21 @@ public class DriverMatchService {
 
     @java.lang.SuppressWarnings("java:S3776")
     public DriverMatchServiceResult performMatch(
-            DvlaFormFields dvlaFormFields, String tokenValue, Strategy strategy)
+            DvlaFormFields dvlaFormFields,
+            String tokenValue,
+            Strategy strategy,
+            RequestDeadline requestDeadline)
             throws OAuthErrorResponseException {
 
         // Request is posted as if JSON
         final HttpPost request = new HttpPost();
 
-        // TestStrategy Logic
-        if (strategy == Strategy.NO_CHANGE) {
-            request.setURI(requestURI);
-        } else {
-            final String endpointUri = dvlaConfiguration.getEndpointURLs().get(strategy.name());
-            this.requestURI =
-                    URI.create(
-                            String.format("%s%s", endpointUri, dvlaConfiguration.getMatchPath()));
-            request.setURI(requestURI);
-        }
+        // TestStrategy Logic, also enforces connection timeout values
+        final EndpointDescriptor endpointDescriptor =
+                EndpointDescriptor.forStrategy(endpointDescriptors, strategy);
+        endpointDescriptor.applyTo(request);
 
-        request.addHeader(
-                RequestHeaderKeys.HEADER_CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
         request.addHeader(RequestHeaderKeys.HEADER_AUTHORIZATION, tokenValue);
-        request.addHeader(RequestHeaderKeys.HEADER_API_KEY, apiKey);
-
-        // Enforce connection timeout values
-        request.setConfig(requestConfig);
 
         // Body Params
         String requestBody;
@@ -127,7 +129,7 @@ public class DriverMatchService {
                             .validTo(dvlaFormFields.getExpiryDate().toString())
                             .build();
 
-            requestBody = objectMapper.writeValueAsString(dvlaPayload);
+            requestBody = dvlaPayloadWriter.writeValueAsString(dvlaPayload);
         } catch (JsonProcessingException e) {
             // PII in variables
             LOGGER.error("JsonProcessingException creating request body");
@@ -148,19 +150,42 @@ public class DriverMatchService {
         eventProbe.counterMetric(
                 ThirdPartyAPIEndpointMetric.DVLA_MATCH_REQUEST_CREATED.withEndpointPrefix());
 
-        final HTTPReply httpReply;
-        String requestURIString = requestURI.toString();
+        String requestURIString = endpointDescriptor.getUri().toString();
         LOGGER.debug("{} request endpoint is {}", REQUEST_NAME, requestURIString);
         LOGGER.info("Submitting {} request to third party...", REQUEST_NAME);
         stopWatch.start();
         try (CloseableHttpResponse response =
-                httpRetryer.sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig)) {
+                thirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        request, httpRetryStatusConfig, requestDeadline)) {
 
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_MATCH_REQUEST_SEND_OK.withEndpointPrefix());
 
-            // throws OAuthErrorResponseException on error
-            httpReply = HTTPReplyHelper.retrieveResponse(response, ENDPOINT_NAME);
+            // Response Latency
+            eventProbe.counterMetric(
+                    DVLA_MATCH_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+
+            // Body is read before the response closes, throws OAuthErrorResponseException on error
+            return handleResponse(response);
+        } catch (RequestDeadlineExceededException e) {
+            LOGGER.error("{} request not sent - {}", REQUEST_NAME, e.getMessage());
+
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.DVLA_MATCH_REQUEST_SEND_ERROR
+                            .withEndpointPrefixAndExceptionName(e));
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.REQUEST_DEADLINE_EXCEEDED);
+        } catch (CircuitBreakerOpenException e) {
+            LOGGER.error("{} request not sent - {}", REQUEST_NAME, e.getMessage());
+
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.DVLA_MATCH_REQUEST_SEND_ERROR
+                            .withEndpointPrefixAndExceptionName(e));
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN);
         } catch (IOException e) {
             // No Response Latency
             eventProbe.counterMetric(
@@ -176,30 +201,33 @@ public class DriverMatchService {
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_MATCH_ENDPOINT);
         }
+    }
 
-        // Response Latency
-        eventProbe.counterMetric(
-                DVLA_MATCH_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+    @java.lang.SuppressWarnings("java:S3776")
+    private DriverMatchServiceResult handleResponse(CloseableHttpResponse response)
+            throws OAuthErrorResponseException {
+        int statusCode = response.getStatusLine().getStatusCode();
 
         // There are two API response types possible depending on userdata
-        if (httpReply.statusCode == SUCCESS || httpReply.statusCode == NOT_FOUND) {
+        if (statusCode == SUCCESS || statusCode == NOT_FOUND) {
 
-            LOGGER.info("{} status code {}", REQUEST_NAME, httpReply.statusCode);
+            LOGGER.info("{} status code {}", REQUEST_NAME, statusCode);
 
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_MATCH_RESPONSE_TYPE_EXPECTED_HTTP_STATUS
                             .withEndpointPrefix());
 
-            LOGGER.debug("{} headers {}", REQUEST_NAME, httpReply.responseHeaders);
-            LOGGER.debug("{} response {}", REQUEST_NAME, httpReply.responseBody);
+            LOGGER.debug(
+                    "{} headers {}",
+                    REQUEST_NAME,
+                    LOGGER.isDebugEnabled() ? (Arrays.toString(response.getAllHeaders())) : "");
 
             try {
                 Validity validity;
 
-                if (httpReply.statusCode == SUCCESS) {
+                if (statusCode == SUCCESS) {
                     DriverMatchAPIResponse driverMatchAPIResponse =
-                            objectMapper.readValue(
-                                    httpReply.responseBody, DriverMatchAPIResponse.class);
+                            responseReader.readJson(response, DriverMatchAPIResponse.class);
 
                     // Invalid = licence number found but details mismatch
                     validity =
@@ -209,8 +237,7 @@ public class DriverMatchService {
                 } else {
                     // 404 response - with message in body
                     DriverMatchErrorResponse driverMatchErrorResponse =
-                            objectMapper.readValue(
-                                    httpReply.responseBody, DriverMatchErrorResponse.class);
+                            responseReader.readJson(response, DriverMatchErrorResponse.class);
 
                     // For monitoring
                     int numberOfErrors = driverMatchErrorResponse.getErrors().size();
@@ -235,7 +262,8 @@ public class DriverMatchService {
 
                 // requestId is in the response header
                 String requestId =
-                        httpReply.responseHeaders.get(DVLA_RESPONSE_HEADER_REQUEST_ID_KEY);
+                        BoundedResponseReader.getHeader(
+                                response, DVLA_RESPONSE_HEADER_REQUEST_ID_KEY);
                 LOGGER.info("{} response request Id {}", REQUEST_NAME, requestId);
 
                 eventProbe.counterMetric(
@@ -266,8 +294,8 @@ public class DriverMatchService {
             LOGGER.error(
                     "{} response status code {} content - {}",
                     REQUEST_NAME,
-                    httpReply.statusCode,
-                    httpReply.responseBody);
+                    statusCode,
+                    responseReader.readErrorResponseBody(response));
 
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_MATCH_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS
@@ -275,7 +303,7 @@ public class DriverMatchService {
 
             // Note 401 is for Token or API Key
             // Throw exception to allow recovering cases of token expiry
-            if (httpReply.statusCode == UNAUTHORISED) {
+            if (statusCode == UNAUTHORISED) {
 
                 LOGGER.warn(ERROR_MATCH_ENDPOINT_REJECTED_TOKEN_OR_API_KEY);
 
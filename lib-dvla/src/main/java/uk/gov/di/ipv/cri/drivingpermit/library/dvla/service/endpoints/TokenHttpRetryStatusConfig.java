@@ -1,6 +1,7 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
 
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
 
 import java.util.List;
@@ -12,6 +13,8 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.Res
 
 public class TokenHttpRetryStatusConfig implements HttpRetryStatusConfig {
 
+    public static final String CIRCUIT_BREAKER_NAME = "dvla_token";
+
     private final List<Integer> neverRetryCodes =
             List.of(SUCCESS, BAD_REQUEST, UNAUTHORISED, FORBIDDEN);
 
@@ -40,6 +43,12 @@ public class TokenHttpRetryStatusConfig implements HttpRetryStatusConfig {
         return SUCCESS == statusCode;
     }
 
+    @Override
+    public boolean isIdempotent() {
+        // A repeated request only issues another token
+        return true;
+    }
+
     private boolean isServerErrorStatusCode(int statusCode) {
         return (statusCode >= 500) && (statusCode <= 599);
     }
@@ -72,4 +81,44 @@ public class TokenHttpRetryStatusConfig implements HttpRetryStatusConfig {
         return ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_SEND_MAX_RETRIES
                 .withEndpointPrefix();
     }
+
+    @Override
+    public String httpRetryerWaitTimeMetric() {
+        return ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetrySuppressedMetric() {
+        return ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_RETRY_SUPPRESSED
+                .withEndpointPrefix();
+    }
+
+    @Override
+    public String httpRetryerRetryBudgetMetric() {
+        return ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_RETRY_BUDGET
+                .withEndpointPrefix();
+    }
+
+    @Override
+    public String circuitBreakerName() {
+        return CIRCUIT_BREAKER_NAME;
+    }
+
+    @Override
+    public String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState) {
+        return switch (circuitBreakerState) {
+            case CLOSED -> ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_CLOSED
+                    .withEndpointPrefix();
+            case OPEN -> ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_OPEN
+                    .withEndpointPrefix();
+            case HALF_OPEN -> ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_HALF_OPEN
+                    .withEndpointPrefix();
+        };
+    }
+
+    @Override
+    public String circuitBreakerRejectedMetric() {
+        return ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_REJECTED
+                .withEndpointPrefix();
+    }
 }
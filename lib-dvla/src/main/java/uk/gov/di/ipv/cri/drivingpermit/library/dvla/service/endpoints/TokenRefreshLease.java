@@ -0,0 +1,176 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.dynamo.TokenRefreshLeaseItem;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Lets one container at a time refresh the shared token for a strategy. The lease is an item in
+ * the token table, claimed with a conditional write that only succeeds if no other container holds
+ * an unexpired lease, and released by its holder once the refresh has published or failed.
+ */
+public class TokenRefreshLease {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public enum Result {
+        WON,
+        HELD_ELSEWHERE,
+        // The lease could not be read or written, the caller refreshes without it
+        UNAVAILABLE
+    }
+
+    // leaseUntilMs identifies the lease when WON, so a holder only ever releases its own lease
+    public record Lease(Result result, long leaseUntilMs) {}
+
+    public static final String TOKEN_REFRESH_LEASE_ITEM_ID = "TokenRefreshLease";
+
+    // Covers a token request including its retries, after which another container may take over
+    public static final long TOKEN_REFRESH_LEASE_DURATION_MS = 15000L;
+
+    private static final long ITEM_TTL_AFTER_LEASE_SECONDS = 3600L;
+
+    private static final String LEASE_CONDITION = "attribute_not_exists(id) OR leaseUntil < :now";
+    private static final String HOLDER_CONDITION = "leaseUntil = :leaseUntil";
+
+    private final DynamoDbTable<TokenRefreshLeaseItem> leaseTable;
+    private final long leaseDurationMs;
+    private final LongSupplier currentTimeMs;
+
+    public TokenRefreshLease(String tokenTableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this(
+                dynamoDbEnhancedClient.table(
+                        tokenTableName, TableSchema.fromBean(TokenRefreshLeaseItem.class)),
+                TOKEN_REFRESH_LEASE_DURATION_MS,
+                System::currentTimeMillis);
+    }
+
+    TokenRefreshLease(
+            DynamoDbTable<TokenRefreshLeaseItem> leaseTable,
+            long leaseDurationMs,
+            LongSupplier currentTimeMs) {
+        this.leaseTable = leaseTable;
+        this.leaseDurationMs = leaseDurationMs;
+        this.currentTimeMs = currentTimeMs;
+    }
+
+    public Lease tryAcquire(Strategy strategy) {
+        long nowMs = currentTimeMs.getAsLong();
+        long leaseUntilMs = nowMs + leaseDurationMs;
+
+        TokenRefreshLeaseItem leaseItem = new TokenRefreshLeaseItem();
+        leaseItem.setId(leaseItemId(strategy));
+        leaseItem.setLeaseUntil(leaseUntilMs);
+        leaseItem.setTtl(leaseUntilMs / 1000 + ITEM_TTL_AFTER_LEASE_SECONDS);
+
+        Expression leaseCondition =
+                Expression.builder()
+                        .expression(LEASE_CONDITION)
+                        .putExpressionValue(
+                                ":now", AttributeValue.builder().n(Long.toString(nowMs)).build())
+                        .build();
+
+        try {
+            leaseTable.putItem(
+                    PutItemEnhancedRequest.builder(TokenRefreshLeaseItem.class)
+                            .item(leaseItem)
+                            .conditionExpression(leaseCondition)
+                            .build());
+
+            LOGGER.info("Token refresh lease won for {}", strategy);
+            return new Lease(Result.WON, leaseUntilMs);
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Token refresh lease for {} held by another container", strategy);
+            return new Lease(Result.HELD_ELSEWHERE, 0L);
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Unable to acquire token refresh lease for {} - {}",
+                    strategy,
+                    e.getClass().getSimpleName());
+            return new Lease(Result.UNAVAILABLE, 0L);
+        }
+    }
+
+    /**
+     * Deletes the lease if it is still the one won, so containers waiting on it stop waiting. A
+     * lease that expired and was taken over by another container is left with its new holder.
+     * Does nothing for a lease that was not won.
+     */
+    public void release(Strategy strategy, Lease lease) {
+        if (lease.result() != Result.WON) {
+            return;
+        }
+
+        Expression holderCondition =
+                Expression.builder()
+                        .expression(HOLDER_CONDITION)
+                        .putExpressionValue(
+                                ":leaseUntil",
+                                AttributeValue.builder()
+                                        .n(Long.toString(lease.leaseUntilMs()))
+                                        .build())
+                        .build();
+
+        try {
+            leaseTable.deleteItem(
+                    DeleteItemEnhancedRequest.builder()
+                            .key(leaseItemKey(strategy))
+                            .conditionExpression(holderCondition)
+                            .build());
+
+            LOGGER.info("Token refresh lease released for {}", strategy);
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Token refresh lease for {} already taken over", strategy);
+        } catch (RuntimeException e) {
+            // The lease is left to expire
+            LOGGER.warn(
+                    "Unable to release token refresh lease for {} - {}",
+                    strategy,
+                    e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Whether another container holds an unexpired lease, read consistently so a release is seen
+     * as soon as it is made. A lease that cannot be read is treated as released.
+     */
+    public boolean isHeldElsewhere(Strategy strategy) {
+        try {
+            TokenRefreshLeaseItem leaseItem =
+                    leaseTable.getItem(
+                            GetItemEnhancedRequest.builder()
+                                    .key(leaseItemKey(strategy))
+                                    .consistentRead(true)
+                                    .build());
+
+            return leaseItem != null && leaseItem.getLeaseUntil() >= currentTimeMs.getAsLong();
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Unable to read token refresh lease for {} - {}",
+                    strategy,
+                    e.getClass().getSimpleName());
+            return false;
+        }
+    }
+
+    private static String leaseItemId(Strategy strategy) {
+        return strategy.name() + TOKEN_REFRESH_LEASE_ITEM_ID;
+    }
+
+    private static Key leaseItemKey(Strategy strategy) {
+        return Key.builder().partitionValue(leaseItemId(strategy)).build();
+    }
+}
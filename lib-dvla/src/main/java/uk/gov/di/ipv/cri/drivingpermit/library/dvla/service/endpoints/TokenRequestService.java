@@ -1,12 +1,13 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
@@ -20,22 +21,32 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.request.RequestHeader
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.request.TokenRequestPayload;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.TokenResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.exception.DVLATokenExpiryWindowException;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.exception.DVLATokenUnauthorizedException;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.EndpointDescriptor;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
-import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReply;
-import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPReplyHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ThirdPartyTransport;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BoundedResponseReader;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.SleepHelper;
 import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import java.io.IOException;
-import java.net.URI;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.BAD_REQUEST;
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.ResponseStatusCodes.UNAUTHORISED;
@@ -51,12 +62,24 @@ public class TokenRequestService {
     private final String tokenTableName;
     private DataStore<TokenItem> dataStore;
 
-    private URI requestURI;
+    // In-process tier in front of the token table, shared by every request this container handles
+    private final Map<Strategy, TokenItem> inProcessTokenItems = new ConcurrentHashMap<>();
+
+    // Refreshes in flight, so concurrent callers wait on a single refresh rather than each
+    // refreshing. Callers replacing a rejected token share a refresh keyed by that token.
+    private final Map<TokenRefreshKey, CompletableFuture<String>> tokenRefreshes =
+            new ConcurrentHashMap<>();
+
+    // Across containers, so only one refreshes the shared token while others keep the old one
+    private final TokenRefreshLease tokenRefreshLease;
+    private final SleepHelper sleepHelper;
+
     private final String username;
-    private final HttpRetryer httpRetryer;
-    private final RequestConfig requestConfig;
+    private final ThirdPartyTransport thirdPartyTransport;
+    private final Map<Strategy, EndpointDescriptor> endpointDescriptors;
 
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter tokenRequestPayloadWriter;
+    private final BoundedResponseReader responseReader;
     private final EventProbe eventProbe;
 
     private final DvlaConfiguration dvlaConfiguration;
@@ -78,6 +101,10 @@ public class TokenRequestService {
     private static final long TOKEN_ITEM_TTL_SECS =
             MAX_ALLOWED_TOKEN_LIFETIME_SECONDS - TOKEN_EXPIRATION_WINDOW_SECONDS;
 
+    // While the lease is held elsewhere and there is no usable token, wait for the new token
+    private static final long TOKEN_REFRESH_WAIT_MS = 2000L;
+    private static final long TOKEN_REFRESH_POLL_INTERVAL_MS = 200L;
+
     public static final String INVALID_EXPIRY_WINDOW_ERROR_MESSAGE =
             "Token expiry window not valid";
 
@@ -86,22 +113,31 @@ public class TokenRequestService {
     public TokenRequestService(
             DvlaConfiguration dvlaConfiguration,
             DynamoDbEnhancedClient dynamoDbEnhancedClient,
-            HttpRetryer httpRetryer,
+            ThirdPartyTransport thirdPartyTransport,
             RequestConfig requestConfig,
-            ObjectMapper objectMapper,
+            JsonCodecs jsonCodecs,
             EventProbe eventProbe) {
 
         // Token Table
         this.tokenTableName = dvlaConfiguration.getTokenTableName();
         this.dataStore = new DataStore<>(tokenTableName, TokenItem.class, dynamoDbEnhancedClient);
+        this.tokenRefreshLease = new TokenRefreshLease(tokenTableName, dynamoDbEnhancedClient);
+        this.sleepHelper = new SleepHelper(TOKEN_REFRESH_POLL_INTERVAL_MS);
 
-        this.requestURI = URI.create(dvlaConfiguration.getTokenEndpoint());
         this.username = dvlaConfiguration.getUsername();
 
-        this.httpRetryer = httpRetryer;
-        this.requestConfig = requestConfig;
-
-        this.objectMapper = objectMapper;
+        this.thirdPartyTransport = thirdPartyTransport;
+        this.endpointDescriptors =
+                EndpointDescriptor.forStrategies(
+                        dvlaConfiguration.getTokenEndpointURIs(),
+                        List.of(
+                                new BasicHeader(
+                                        RequestHeaderKeys.HEADER_CONTENT_TYPE,
+                                        ContentType.APPLICATION_JSON.getMimeType())),
+                        requestConfig);
+
+        this.tokenRequestPayloadWriter = jsonCodecs.writer(TokenRequestPayload.class);
+        this.responseReader = new BoundedResponseReader(jsonCodecs, ENDPOINT_NAME);
         this.eventProbe = eventProbe;
 
         this.httpRetryStatusConfig = new TokenHttpRetryStatusConfig();
@@ -110,9 +146,48 @@ public class TokenRequestService {
         this.stopWatch = new StopWatch();
     }
 
-    public String requestToken(boolean alwaysRequestNewToken, Strategy strategy)
+    public String requestToken(
+            boolean alwaysRequestNewToken, Strategy strategy, RequestDeadline requestDeadline)
             throws OAuthErrorResponseException {
 
+        if (alwaysRequestNewToken) {
+            LOGGER.info("Override enabled - requesting a new token");
+        } else {
+            TokenItem inProcessTokenItem = getValidInProcessTokenItem(strategy);
+            if (inProcessTokenItem != null) {
+                return reuseCachedToken(
+                        inProcessTokenItem,
+                        ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_HIT);
+            }
+        }
+
+        // An override caller joining a refresh in flight uses the token it obtains, as that
+        // token was requested after this caller started
+        return awaitTokenRefresh(
+                new TokenRefreshKey(strategy, null),
+                () -> {
+                    if (alwaysRequestNewToken) {
+                        return requestAndSaveNewToken(strategy, requestDeadline);
+                    }
+
+                    return refreshToken(strategy, requestDeadline);
+                });
+    }
+
+    private String refreshToken(Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+
+        // A refresh that finished after this caller checked may have cached the token
+        TokenItem inProcessTokenItem = getValidInProcessTokenItem(strategy);
+        if (inProcessTokenItem != null) {
+            return reuseCachedToken(
+                    inProcessTokenItem,
+                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_HIT);
+        }
+
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+
         LOGGER.info("Checking Table {} for existing cached token", tokenTableName);
 
         TokenItem tokenItem = getTokenItemFromTable(strategy);
@@ -127,41 +202,355 @@ public class TokenRequestService {
                 existingCachedToken,
                 tokenTtlHasExpired);
 
-        if (alwaysRequestNewToken) {
-            LOGGER.info("Override enabled - requesting a new token");
+        if (existingCachedToken && !tokenTtlHasExpired) {
+            inProcessTokenItems.put(strategy, tokenItem);
+
+            return reuseCachedToken(
+                    tokenItem, ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_HIT);
+        }
+
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+
+        return requestTokenUnderLease(strategy, tokenItem, null, requestDeadline);
+    }
+
+    /**
+     * Used when the match endpoint rejects a token. Returns a token other than the rejected one,
+     * re-reading the token table first so a token published elsewhere (e.g. by password renewal)
+     * is used. A new token is only requested if the table has none, under the refresh lease so
+     * containers recovering at the same time share one token request.
+     */
+    public String requestTokenReplacing(
+            String rejectedTokenValue, Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+
+        return awaitTokenRefresh(
+                new TokenRefreshKey(strategy, rejectedTokenValue),
+                () -> replaceToken(rejectedTokenValue, strategy, requestDeadline));
+    }
+
+    private String replaceToken(
+            String rejectedTokenValue, Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+
+        // Another caller may have replaced the rejected token before this refresh started
+        TokenItem inProcessTokenItem = getValidInProcessTokenItem(strategy);
+        if (inProcessTokenItem != null
+                && !Objects.equals(inProcessTokenItem.getTokenValue(), rejectedTokenValue)) {
+            return reuseCachedToken(
+                    inProcessTokenItem,
+                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_HIT);
+        }
+
+        LOGGER.info("Checking Table {} for a replacement token", tokenTableName);
+
+        TokenItem tokenItem = getTokenItemFromTable(strategy);
+
+        if (isUsableTokenItem(tokenItem, rejectedTokenValue)) {
+            inProcessTokenItems.put(strategy, tokenItem);
+
+            return reuseCachedToken(
+                    tokenItem, ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_HIT);
+        }
+
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+
+        // The rejected token is not usable while waiting on the lease
+        return requestTokenUnderLease(strategy, null, rejectedTokenValue, requestDeadline);
+    }
+
+    /**
+     * Runs the refresh unless one with the same key is already in flight, in which case its result
+     * (or failure) is shared. No lock is held while the refresh does its I/O.
+     */
+    private String awaitTokenRefresh(TokenRefreshKey tokenRefreshKey, TokenRefresh tokenRefresh)
+            throws OAuthErrorResponseException {
+
+        CompletableFuture<String> newTokenRefresh = new CompletableFuture<>();
+        CompletableFuture<String> inFlightTokenRefresh =
+                tokenRefreshes.putIfAbsent(tokenRefreshKey, newTokenRefresh);
+
+        if (inFlightTokenRefresh != null) {
+            LOGGER.info("Waiting on the token refresh in progress");
+            return joinTokenRefresh(inFlightTokenRefresh);
         }
 
-        boolean newTokenRequest =
-                alwaysRequestNewToken || !existingCachedToken || tokenTtlHasExpired;
+        try {
+            String tokenValue = tokenRefresh.refresh();
+            newTokenRefresh.complete(tokenValue);
+            return tokenValue;
+        } catch (OAuthErrorResponseException | RuntimeException e) {
+            newTokenRefresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            tokenRefreshes.remove(tokenRefreshKey, newTokenRefresh);
+        }
+    }
 
+    private static String joinTokenRefresh(CompletableFuture<String> tokenRefresh)
+            throws OAuthErrorResponseException {
+        try {
+            return tokenRefresh.join();
+        } catch (CompletionException e) {
+            // Fails as the refresh this caller waited on did
+            if (e.getCause() instanceof OAuthErrorResponseException oAuthErrorResponseException) {
+                throw oAuthErrorResponseException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private String requestAndSaveNewToken(Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
         // Request an Access Token
-        if (newTokenRequest) {
+        TokenResponse newTokenResponse =
+                performNewTokenRequestWithCurrentPassword(strategy, requestDeadline);
+
+        LOGGER.info("Saving Token {}", newTokenResponse.getIdToken());
+
+        TokenItem tokenItem = new TokenItem(newTokenResponse.getIdToken());
+
+        saveTokenItem(tokenItem, strategy);
+        inProcessTokenItems.put(strategy, tokenItem);
 
+        return tokenItem.getTokenValue();
+    }
+
+    /**
+     * Used by the scheduled token maintainer. Requests a new token when the shared token is missing
+     * or within refreshAheadSeconds of expiry, so the request path keeps finding a valid token in
+     * the table. Skipped while another container holds the refresh lease.
+     *
+     * @return true if a new token was saved
+     */
+    public boolean refreshTokenIfDue(
+            Strategy strategy, long refreshAheadSeconds, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+
+        TokenItem tokenItem = getTokenItemFromTable(strategy);
+
+        if (tokenItem != null && !isTokenNearExpiration(tokenItem, refreshAheadSeconds)) {
+            LOGGER.info("Token for {} not yet due for refresh", strategy);
+            return false;
+        }
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(strategy);
+        if (lease.result() == TokenRefreshLease.Result.HELD_ELSEWHERE) {
+            LOGGER.info("Token for {} is being refreshed elsewhere", strategy);
+            return false;
+        }
+
+        try {
             TokenResponse newTokenResponse =
-                    performNewTokenRequest(dvlaConfiguration.getPassword(), strategy);
+                    performNewTokenRequestWithCurrentPassword(strategy, requestDeadline);
 
-            LOGGER.info("Saving Token {}", newTokenResponse.getIdToken());
+            TokenItem newTokenItem = new TokenItem(newTokenResponse.getIdToken());
+            saveTokenItem(newTokenItem, strategy);
+            inProcessTokenItems.put(strategy, newTokenItem);
+        } finally {
+            tokenRefreshLease.release(strategy, lease);
+        }
 
-            tokenItem = new TokenItem(newTokenResponse.getIdToken());
+        return true;
+    }
 
-            saveTokenItem(tokenItem, strategy);
-        } else {
-            long ttl = tokenItem.getTtl();
+    /**
+     * Saves a token obtained outside of requestToken (e.g. while testing a rotated password) as the
+     * shared token, so callers switch to it without requesting their own.
+     */
+    public void publishToken(Strategy strategy, TokenResponse tokenResponse) {
+        TokenItem tokenItem = new TokenItem(tokenResponse.getIdToken());
+
+        saveTokenItem(tokenItem, strategy);
+        inProcessTokenItems.put(strategy, tokenItem);
+    }
+
+    /**
+     * Drops a token rejected by the match endpoint from the in-process tier. Only if it is still
+     * the cached token, so a token already refreshed by a concurrent caller is kept.
+     */
+    public void invalidateCachedToken(Strategy strategy, String tokenValue) {
+        TokenItem removedTokenItem =
+                inProcessTokenItems.computeIfPresent(
+                        strategy,
+                        (key, tokenItem) ->
+                                Objects.equals(tokenItem.getTokenValue(), tokenValue)
+                                        ? null
+                                        : tokenItem);
+
+        LOGGER.info("In-process cached token invalidated - {}", removedTokenItem == null);
+    }
+
+    /**
+     * Requests a new token under the refresh lease for the strategy, releasing it once the token
+     * is published or the request fails. While the lease is held elsewhere the old token is used
+     * if still valid, otherwise this waits for the holder to release the lease and uses the token
+     * it published - or takes the lease over if the holder failed. A new token is requested without
+     * the lease when it is unavailable, or the holder has not released it in time. A published
+     * token matching rejectedTokenValue (if not null) is not used.
+     */
+    private String requestTokenUnderLease(
+            Strategy strategy,
+            TokenItem oldTokenItem,
+            String rejectedTokenValue,
+            RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(strategy);
+
+        if (lease.result() == TokenRefreshLease.Result.HELD_ELSEWHERE) {
+            // Near expiration is not expired, the old token stays usable until its ttl
+            if (oldTokenItem != null && Instant.now().getEpochSecond() < oldTokenItem.getTtl()) {
+                return reuseCachedToken(
+                        oldTokenItem, ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_WAIT);
+            }
+
+            // Leaves at least half the remaining time for the fallback token request
+            RequestDeadline leaseWaitDeadline =
+                    RequestDeadline.fromRemainingTimeMs(
+                            Math.min(
+                                    TOKEN_REFRESH_WAIT_MS,
+                                    requestDeadline.getRemainingTimeMs() / 2));
+
+            while (lease.result() == TokenRefreshLease.Result.HELD_ELSEWHERE
+                    && awaitLeaseRelease(strategy, leaseWaitDeadline)) {
 
-            LOGGER.info(
-                    "Re-using cached Token - expires {} UTC",
-                    Instant.ofEpochSecond(ttl).atZone(ZoneId.systemDefault()).toLocalDateTime());
+                TokenItem publishedTokenItem = getTokenItemFromTable(strategy);
+                if (isUsableTokenItem(publishedTokenItem, rejectedTokenValue)) {
+                    inProcessTokenItems.put(strategy, publishedTokenItem);
 
+                    return reuseCachedToken(
+                            publishedTokenItem,
+                            ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_WAIT);
+                }
+
+                // Released without a token, the holder failed
+                lease = tokenRefreshLease.tryAcquire(strategy);
+            }
+        }
+
+        if (lease.result() == TokenRefreshLease.Result.WON) {
             eventProbe.counterMetric(
-                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN
-                            .withEndpointPrefix());
+                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
+
+            try {
+                // The previous holder may have published between the table read and the lease
+                TokenItem publishedTokenItem = getTokenItemFromTable(strategy);
+                if (isUsableTokenItem(publishedTokenItem, rejectedTokenValue)) {
+                    inProcessTokenItems.put(strategy, publishedTokenItem);
+
+                    return reuseCachedToken(
+                            publishedTokenItem,
+                            ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_HIT);
+                }
+
+                return requestAndSaveNewToken(strategy, requestDeadline);
+            } finally {
+                tokenRefreshLease.release(strategy, lease);
+            }
         }
 
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_FALLBACK.withEndpointPrefix());
+
+        return requestAndSaveNewToken(strategy, requestDeadline);
+    }
+
+    /**
+     * Polls the lease until its holder releases it or it expires. Stops early, returning false,
+     * when leaseWaitDeadline leaves no time for another poll or the thread is interrupted.
+     */
+    private boolean awaitLeaseRelease(Strategy strategy, RequestDeadline leaseWaitDeadline) {
+        while (leaseWaitDeadline.getRemainingTimeMs() >= TOKEN_REFRESH_POLL_INTERVAL_MS) {
+            sleepHelper.sleep(TOKEN_REFRESH_POLL_INTERVAL_MS);
+
+            // The sleep returns at once when interrupted, polling on would only spin on the table
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.warn("Interrupted while waiting on the token refresh lease");
+                return false;
+            }
+
+            if (!tokenRefreshLease.isHeldElsewhere(strategy)) {
+                return true;
+            }
+        }
+
+        LOGGER.warn("Token refresh lease for {} not released in time", strategy);
+
+        return false;
+    }
+
+    private boolean isUsableTokenItem(TokenItem tokenItem, String rejectedTokenValue) {
+        return tokenItem != null
+                && !isTokenNearExpiration(tokenItem, TOKEN_EXPIRATION_WINDOW_SECONDS)
+                && !Objects.equals(tokenItem.getTokenValue(), rejectedTokenValue);
+    }
+
+    private TokenItem getValidInProcessTokenItem(Strategy strategy) {
+        TokenItem tokenItem = inProcessTokenItems.get(strategy);
+
+        if (tokenItem == null
+                || isTokenNearExpiration(tokenItem, TOKEN_EXPIRATION_WINDOW_SECONDS)) {
+            return null;
+        }
+
+        return tokenItem;
+    }
+
+    private String reuseCachedToken(
+            TokenItem tokenItem, ThirdPartyAPIEndpointMetric cacheTierHitMetric) {
+        eventProbe.counterMetric(cacheTierHitMetric.withEndpointPrefix());
+
+        long ttl = tokenItem.getTtl();
+
+        LOGGER.info(
+                "Re-using cached Token - expires {} UTC",
+                Instant.ofEpochSecond(ttl).atZone(ZoneId.systemDefault()).toLocalDateTime());
+
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN
+                        .withEndpointPrefix());
+
         return tokenItem.getTokenValue();
     }
 
+    /**
+     * A 401 invalidates the cached password. If re-reading it finds a rotated password the request
+     * is retried once with it, otherwise the original failure is thrown.
+     */
+    private TokenResponse performNewTokenRequestWithCurrentPassword(
+            Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
+        String password = dvlaConfiguration.getPassword();
+
+        try {
+            return performNewTokenRequest(password, strategy, requestDeadline);
+        } catch (DVLATokenUnauthorizedException e) {
+            // Only a 401 can be due to a rotated password, other failures are thrown as they are
+            String currentPassword = dvlaConfiguration.getPassword();
+
+            if (Objects.equals(password, currentPassword)) {
+                throw e;
+            }
+
+            LOGGER.info("Password has been rotated - retrying {} request", REQUEST_NAME);
+
+            return performNewTokenRequest(currentPassword, strategy, requestDeadline);
+        }
+    }
+
     public TokenResponse performNewTokenRequest(String passwordParam, Strategy strategy)
             throws OAuthErrorResponseException {
+        return performNewTokenRequest(passwordParam, strategy, RequestDeadline.none());
+    }
+
+    public TokenResponse performNewTokenRequest(
+            String passwordParam, Strategy strategy, RequestDeadline requestDeadline)
+            throws OAuthErrorResponseException {
 
         final String requestId = UUID.randomUUID().toString();
         LOGGER.info("{} Request Id {}", REQUEST_NAME, requestId);
@@ -169,22 +558,10 @@ public class TokenRequestService {
         // Token Request is posted as if via a form
         final HttpPost request = new HttpPost();
 
-        // TestStrategy Logic
-        if (strategy == Strategy.NO_CHANGE) {
-            request.setURI(requestURI);
-        } else {
-            final String endpointUri = dvlaConfiguration.getEndpointURLs().get(strategy.name());
-            final String tokenEndpoint =
-                    String.format("%s%s", endpointUri, dvlaConfiguration.getTokenPath());
-            this.requestURI = URI.create(tokenEndpoint);
-            request.setURI(requestURI);
-        }
-
-        request.addHeader(
-                RequestHeaderKeys.HEADER_CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
-
-        // Enforce connection timeout values
-        request.setConfig(requestConfig);
+        // TestStrategy Logic, also enforces connection timeout values
+        final EndpointDescriptor endpointDescriptor =
+                EndpointDescriptor.forStrategy(endpointDescriptors, strategy);
+        endpointDescriptor.applyTo(request);
 
         String requestBody;
         try {
@@ -194,7 +571,7 @@ public class TokenRequestService {
                             .password(passwordParam)
                             .build();
 
-            requestBody = objectMapper.writeValueAsString(tokenRequestPayload);
+            requestBody = tokenRequestPayloadWriter.writeValueAsString(tokenRequestPayload);
         } catch (JsonProcessingException e) {
             LOGGER.error("JsonProcessingException creating request body");
             LOGGER.debug(e.getMessage());
@@ -214,18 +591,41 @@ public class TokenRequestService {
         eventProbe.counterMetric(
                 ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
 
-        final HTTPReply httpReply;
-        String requestURIString = requestURI.toString();
+        String requestURIString = endpointDescriptor.getUri().toString();
         LOGGER.debug("{} request endpoint is {}", REQUEST_NAME, requestURIString);
         LOGGER.info("Submitting {} request to third party...", REQUEST_NAME);
         stopWatch.start();
         try (CloseableHttpResponse response =
-                httpRetryer.sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig)) {
+                thirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        request, httpRetryStatusConfig, requestDeadline)) {
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_SEND_OK.withEndpointPrefix());
 
-            // throws OAuthErrorResponseException on error
-            httpReply = HTTPReplyHelper.retrieveResponse(response, ENDPOINT_NAME);
+            // Response Latency
+            eventProbe.counterMetric(
+                    DVLA_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+
+            // Body is read before the response closes, throws OAuthErrorResponseException on error
+            return handleResponse(response);
+        } catch (RequestDeadlineExceededException e) {
+            LOGGER.error("{} request not sent - {}", REQUEST_NAME, e.getMessage());
+
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_SEND_ERROR
+                            .withEndpointPrefixAndExceptionName(e));
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.REQUEST_DEADLINE_EXCEEDED);
+        } catch (CircuitBreakerOpenException e) {
+            LOGGER.error("{} request not sent - {}", REQUEST_NAME, e.getMessage());
+
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_SEND_ERROR
+                            .withEndpointPrefixAndExceptionName(e));
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN);
         } catch (IOException e) {
             // No Response Latency
             eventProbe.counterMetric(
@@ -241,30 +641,33 @@ public class TokenRequestService {
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     ErrorResponse.ERROR_INVOKING_THIRD_PARTY_API_TOKEN_ENDPOINT);
         }
+    }
 
-        // Response Latency
-        eventProbe.counterMetric(
-                DVLA_TOKEN_RESPONSE_LATENCY.withEndpointPrefix(), stopWatch.stop());
+    private TokenResponse handleResponse(CloseableHttpResponse response)
+            throws OAuthErrorResponseException {
+        int statusCode = response.getStatusLine().getStatusCode();
 
-        if (httpReply.statusCode == 200) {
-            LOGGER.info("{} status code {}", REQUEST_NAME, httpReply.statusCode);
+        if (statusCode == 200) {
+            LOGGER.info("{} status code {}", REQUEST_NAME, statusCode);
 
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS
                             .withEndpointPrefix());
 
             try {
-                LOGGER.debug("{} headers {}", REQUEST_NAME, httpReply.responseHeaders);
-                LOGGER.debug("{} response {}", REQUEST_NAME, httpReply.responseBody);
+                LOGGER.debug(
+                        "{} headers {}",
+                        REQUEST_NAME,
+                        LOGGER.isDebugEnabled() ? (Arrays.toString(response.getAllHeaders())) : "");
 
-                TokenResponse response =
-                        objectMapper.readValue(httpReply.responseBody, TokenResponse.class);
+                TokenResponse tokenResponse =
+                        responseReader.readJson(response, TokenResponse.class);
 
                 eventProbe.counterMetric(
                         ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_VALID
                                 .withEndpointPrefix());
 
-                return response;
+                return tokenResponse;
             } catch (JsonProcessingException e) {
                 LOGGER.error("JsonProcessingException mapping {} response", REQUEST_NAME);
                 LOGGER.debug(e.getMessage());
@@ -282,15 +685,15 @@ public class TokenRequestService {
             LOGGER.error(
                     "{} response status code {} content - {}",
                     REQUEST_NAME,
-                    httpReply.statusCode,
-                    httpReply.responseBody);
+                    statusCode,
+                    responseReader.readErrorResponseBody(response));
 
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS
                             .withEndpointPrefix());
 
-            if (alertStatusCodes.contains(httpReply.statusCode)) {
-                LOGGER.warn("Status code {}, triggered alert metric", httpReply.statusCode);
+            if (alertStatusCodes.contains(statusCode)) {
+                LOGGER.warn("Status code {}, triggered alert metric", statusCode);
 
                 // Alarm Firing
                 eventProbe.counterMetric(
@@ -298,6 +701,15 @@ public class TokenRequestService {
                                 .withEndpointPrefix());
             }
 
+            if (statusCode == UNAUTHORISED) {
+                // The password may have been rotated since it was cached
+                dvlaConfiguration.invalidatePassword();
+
+                throw new DVLATokenUnauthorizedException(
+                        HttpStatusCode.INTERNAL_SERVER_ERROR,
+                        ErrorResponse.ERROR_TOKEN_ENDPOINT_RETURNED_UNEXPECTED_HTTP_STATUS_CODE);
+            }
+
             throw new OAuthErrorResponseException(
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     ErrorResponse.ERROR_TOKEN_ENDPOINT_RETURNED_UNEXPECTED_HTTP_STATUS_CODE);
@@ -339,4 +751,11 @@ public class TokenRequestService {
 
         return now >= windowStart;
     }
+
+    @FunctionalInterface
+    private interface TokenRefresh {
+        String refresh() throws OAuthErrorResponseException;
+    }
+
+    private record TokenRefreshKey(Strategy strategy, String rejectedTokenValue) {}
 }
@@ -0,0 +1,63 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.SecretsManagerService;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DvlaConfigurationTest {
+
+    // The UAT endpoint is not a valid URI, LIVE has no endpoint
+    private static final String TEST_STRATEGY_ENDPOINT_URLS =
+            "{\"STUB\":\"http://stub\",\"UAT\":\"http://u a t\"}";
+
+    @Mock private ParameterStoreService mockParameterStoreService;
+    @Mock private SecretsManagerService mockSecretsManagerService;
+
+    @Test
+    void shouldLeaveOutMissingAndMalformedTestStrategyEndpoints() throws JsonProcessingException {
+        when(mockParameterStoreService.getAllParametersFromPath(
+                        ParameterPrefix.OVERRIDE, DvlaConfiguration.DVLA_PARAMETER_PATH))
+                .thenReturn(
+                        Map.of(
+                                "endpointUrl", "http://127.0.0.1",
+                                "testStrategy/endpointUrl", TEST_STRATEGY_ENDPOINT_URLS,
+                                "tokenPath", "/token",
+                                "matchPath", "/match",
+                                "passwordPath", "/password"));
+
+        DvlaConfiguration dvlaConfiguration =
+                new DvlaConfiguration(
+                        mockParameterStoreService,
+                        mockSecretsManagerService,
+                        new JsonCodecs(new ObjectMapper()));
+
+        Map<Strategy, URI> tokenEndpointURIs = dvlaConfiguration.getTokenEndpointURIs();
+        assertEquals(
+                URI.create("http://127.0.0.1/token"), tokenEndpointURIs.get(Strategy.NO_CHANGE));
+        assertEquals(URI.create("http://stub/token"), tokenEndpointURIs.get(Strategy.STUB));
+        assertFalse(tokenEndpointURIs.containsKey(Strategy.UAT));
+        assertFalse(tokenEndpointURIs.containsKey(Strategy.LIVE));
+        assertFalse(dvlaConfiguration.getMatchEndpointURIs().containsKey(Strategy.UAT));
+
+        assertEquals(
+                List.of(Strategy.STUB, Strategy.NO_CHANGE),
+                dvlaConfiguration.getConfiguredStrategies());
+    }
+}
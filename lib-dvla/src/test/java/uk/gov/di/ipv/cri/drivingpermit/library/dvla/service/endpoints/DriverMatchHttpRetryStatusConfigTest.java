@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 
 import java.util.List;
 import java.util.stream.IntStream;
@@ -102,5 +103,51 @@ class DriverMatchHttpRetryStatusConfigTest {
                 ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_SEND_MAX_RETRIES
                         .withEndpointPrefix(),
                 driverMatchHttpRetryStatusConfig.httpRetryerMaxRetriesMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.httpRetryerWaitTimeMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_RETRY_SUPPRESSED
+                        .withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.httpRetryerRetrySuppressedMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_HTTP_RETRYER_RETRY_BUDGET
+                        .withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.httpRetryerRetryBudgetMetric());
+    }
+
+    @Test
+    void shouldBeIdempotent() {
+        assertTrue(driverMatchHttpRetryStatusConfig.isIdempotent());
+    }
+
+    @Test
+    void checkCircuitBreakerCallbacksWiredCorrectly() {
+
+        assertEquals("dvla_match", driverMatchHttpRetryStatusConfig.circuitBreakerName());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.circuitBreakerStateMetric(
+                        CircuitBreakerState.CLOSED));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_OPEN.withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.circuitBreakerStateMetric(
+                        CircuitBreakerState.OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_HALF_OPEN
+                        .withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.circuitBreakerStateMetric(
+                        CircuitBreakerState.HALF_OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_MATCH_CIRCUIT_BREAKER_REJECTED
+                        .withEndpointPrefix(),
+                driverMatchHttpRetryStatusConfig.circuitBreakerRejectedMetric());
     }
 }
@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
 
 import com.fasterxml.jackson.core.exc.InputCoercionException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.http.Header;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
@@ -31,11 +32,16 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.errorrespons
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.result.DriverMatchServiceResult;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.exception.DVLAMatchUnauthorizedException;
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
 
 import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Base64;
@@ -50,6 +56,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
@@ -69,6 +76,17 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpo
 class DriverMatchServiceTest {
 
     private static final String TEST_END_POINT = "http://127.0.0.1";
+    private static final String TEST_MATCH_PATH = "/match";
+    private static final Map<Strategy, URI> TEST_END_POINT_URIS =
+            Map.of(
+                    Strategy.NO_CHANGE,
+                    URI.create(TEST_END_POINT),
+                    Strategy.STUB,
+                    URI.create("http://stub" + TEST_MATCH_PATH),
+                    Strategy.UAT,
+                    URI.create("http://uat" + TEST_MATCH_PATH),
+                    Strategy.LIVE,
+                    URI.create("http://live" + TEST_MATCH_PATH));
 
     // Real token will be a base64 encoded JWT
     private static final String TEST_TOKEN_VALUE =
@@ -86,7 +104,7 @@ class DriverMatchServiceTest {
     @BeforeEach
     void setUp() {
         realObjectMapper = new ObjectMapper();
-        when(mockDvlaConfiguration.getMatchEndpoint()).thenReturn(TEST_END_POINT);
+        when(mockDvlaConfiguration.getMatchEndpointURIs()).thenReturn(TEST_END_POINT_URIS);
         when(mockDvlaConfiguration.getApiKey()).thenReturn(TEST_API_KEY);
 
         driverMatchService =
@@ -94,7 +112,7 @@ class DriverMatchServiceTest {
                         mockDvlaConfiguration,
                         mockHttpRetryer,
                         mockRequestConfig,
-                        realObjectMapper,
+                        new JsonCodecs(realObjectMapper),
                         mockEventProbe);
     }
 
@@ -138,7 +156,9 @@ class DriverMatchServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DriverMatchHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(driverMatchResponse);
 
         // Method arg
@@ -146,14 +166,19 @@ class DriverMatchServiceTest {
 
         DriverMatchServiceResult driverMatchServiceResult =
                 driverMatchService.performMatch(
-                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE);
+                        dvlaFormFields,
+                        TEST_TOKEN_VALUE,
+                        Strategy.NO_CHANGE,
+                        RequestDeadline.none());
 
         // (POST)
         InOrder inOrderMockCloseableHttpClient = inOrder(mockHttpRetryer);
         inOrderMockCloseableHttpClient
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbe = inOrder(mockEventProbe);
@@ -187,17 +212,6 @@ class DriverMatchServiceTest {
         int status = 200;
         boolean validDocument = true;
         Validity expectedValidity = Validity.VALID;
-        if (!(strategy == Strategy.NO_CHANGE)) {
-            when(mockDvlaConfiguration.getEndpointURLs())
-                    .thenReturn(
-                            Map.of(
-                                    "STUB",
-                                    "http://stub",
-                                    "UAT",
-                                    "http://uat",
-                                    "LIVE",
-                                    "http://live"));
-        }
 
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
@@ -228,21 +242,26 @@ class DriverMatchServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DriverMatchHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(driverMatchResponse);
 
         // Method arg
         DvlaFormFields dvlaFormFields = getTestData();
 
         DriverMatchServiceResult driverMatchServiceResult =
-                driverMatchService.performMatch(dvlaFormFields, TEST_TOKEN_VALUE, strategy);
+                driverMatchService.performMatch(
+                        dvlaFormFields, TEST_TOKEN_VALUE, strategy, RequestDeadline.none());
 
         // (POST)
         InOrder inOrderMockCloseableHttpClient = inOrder(mockHttpRetryer);
         inOrderMockCloseableHttpClient
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbe = inOrder(mockEventProbe);
@@ -266,6 +285,7 @@ class DriverMatchServiceTest {
         assertNotNull(driverMatchServiceResult);
         assertNotNull(driverMatchServiceResult.getValidity());
         assertEquals(expectedValidity, driverMatchServiceResult.getValidity());
+        assertEquals(TEST_END_POINT_URIS.get(strategy), httpRequestCaptor.getValue().getURI());
         assertDriverMatchHeaders(httpRequestCaptor);
     }
 
@@ -273,7 +293,10 @@ class DriverMatchServiceTest {
     void shouldReturnOAuthErrorResponseExceptionWhenFailingToCreateDriverMatchRequestBody()
             throws IOException {
 
-        ObjectMapper spyObjectMapper = Mockito.spy(new ObjectMapper());
+        JsonCodecs spyJsonCodecs = Mockito.spy(new JsonCodecs(new ObjectMapper()));
+        ObjectWriter mockPayloadWriter = Mockito.mock(ObjectWriter.class);
+        // The payload writer is created once, when the service is constructed
+        doReturn(mockPayloadWriter).when(spyJsonCodecs).writer(DvlaPayload.class);
 
         // Just for this test so we can inject use a spy to inject exceptions
         DriverMatchService thisTestOnlyDriverMatchService =
@@ -282,7 +305,7 @@ class DriverMatchServiceTest {
                                 mockDvlaConfiguration,
                                 mockHttpRetryer,
                                 mockRequestConfig,
-                                spyObjectMapper,
+                                spyJsonCodecs,
                                 mockEventProbe);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -296,7 +319,7 @@ class DriverMatchServiceTest {
         // The above form data is validated and mapped into another object,
         // preventing the JsonProcessingException from occurring.
         // This triggers the exception directly to ensure it is handled should the processing change
-        when(spyObjectMapper.writeValueAsString(any(DvlaPayload.class)))
+        when(mockPayloadWriter.writeValueAsString(any(DvlaPayload.class)))
                 .thenThrow(
                         new InputCoercionException(
                                 null, "Problem during json mapping", null, null));
@@ -306,7 +329,10 @@ class DriverMatchServiceTest {
                         OAuthErrorResponseException.class,
                         () ->
                                 thisTestOnlyDriverMatchService.performMatch(
-                                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE),
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         assertEquals(expectedReturnedException.getStatusCode(), thrownException.getStatusCode());
@@ -321,7 +347,9 @@ class DriverMatchServiceTest {
         doThrow(exceptionCaught)
                 .when(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -336,7 +364,10 @@ class DriverMatchServiceTest {
                         OAuthErrorResponseException.class,
                         () ->
                                 driverMatchService.performMatch(
-                                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE),
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post)
@@ -344,7 +375,9 @@ class DriverMatchServiceTest {
         inOrderMockHttpClientSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -365,6 +398,99 @@ class DriverMatchServiceTest {
         assertEquals(expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
     }
 
+    @Test
+    void shouldReturnOAuthErrorResponseExceptionWhenCircuitBreakerIsOpen() throws IOException {
+        Exception exceptionCaught =
+                new CircuitBreakerOpenException("Circuit breaker open, request not sent");
+
+        doThrow(exceptionCaught)
+                .when(mockHttpRetryer)
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
+
+        OAuthErrorResponseException expectedReturnedException =
+                new OAuthErrorResponseException(
+                        HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        ErrorResponse.THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN);
+
+        // Method arg
+        DvlaFormFields dvlaFormFields = getTestData();
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                driverMatchService.performMatch(
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
+                        "Expected OAuthErrorResponseException");
+
+        assertEquals(expectedReturnedException.getStatusCode(), thrownException.getStatusCode());
+        assertEquals(expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_MATCH_REQUEST_CREATED.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(
+                        DVLA_MATCH_REQUEST_SEND_ERROR.withEndpointPrefixAndExceptionName(
+                                exceptionCaught));
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldReturnOAuthErrorResponseExceptionWhenRequestDeadlineIsExceeded()
+            throws IOException {
+        Exception exceptionCaught =
+                new RequestDeadlineExceededException("Request deadline reached before sending");
+
+        doThrow(exceptionCaught)
+                .when(mockHttpRetryer)
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
+
+        OAuthErrorResponseException expectedReturnedException =
+                new OAuthErrorResponseException(
+                        HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        ErrorResponse.REQUEST_DEADLINE_EXCEEDED);
+
+        // Method arg
+        DvlaFormFields dvlaFormFields = getTestData();
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                driverMatchService.performMatch(
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.fromRemainingTimeMs(0)),
+                        "Expected OAuthErrorResponseException");
+
+        assertEquals(expectedReturnedException.getStatusCode(), thrownException.getStatusCode());
+        assertEquals(expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_MATCH_REQUEST_CREATED.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(
+                        DVLA_MATCH_REQUEST_SEND_ERROR.withEndpointPrefixAndExceptionName(
+                                exceptionCaught));
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
     @Test
     void
             shouldThrowDVLAMatchUnauthorizedExceptionWhenDriverMatchEndpointResponseStatusCodeIs401Unauthorised()
@@ -391,7 +517,9 @@ class DriverMatchServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DriverMatchHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(driverMatchResponse);
 
         DVLAMatchUnauthorizedException expectedReturnedException =
@@ -406,7 +534,10 @@ class DriverMatchServiceTest {
                         DVLAMatchUnauthorizedException.class,
                         () ->
                                 driverMatchService.performMatch(
-                                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE),
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
                         "Expected DVLAMatchUnauthorizedException");
 
         // (Post) DriverMatch
@@ -414,7 +545,9 @@ class DriverMatchServiceTest {
         inOrderMockHttpClientSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -462,7 +595,9 @@ class DriverMatchServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DriverMatchHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(driverMatchResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -478,7 +613,10 @@ class DriverMatchServiceTest {
                         OAuthErrorResponseException.class,
                         () ->
                                 driverMatchService.performMatch(
-                                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE),
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) DriverMatch
@@ -486,7 +624,9 @@ class DriverMatchServiceTest {
         inOrderMockHttpClientSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -524,7 +664,9 @@ class DriverMatchServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(DriverMatchHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(driverMatchResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -540,7 +682,10 @@ class DriverMatchServiceTest {
                         OAuthErrorResponseException.class,
                         () ->
                                 driverMatchService.performMatch(
-                                        dvlaFormFields, TEST_TOKEN_VALUE, Strategy.NO_CHANGE),
+                                        dvlaFormFields,
+                                        TEST_TOKEN_VALUE,
+                                        Strategy.NO_CHANGE,
+                                        RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) DriverMatch
@@ -548,7 +693,9 @@ class DriverMatchServiceTest {
         inOrderMockHttpClientSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(DriverMatchHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(DriverMatchHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 
 import java.util.List;
 import java.util.stream.IntStream;
@@ -98,5 +99,49 @@ class TokenHttpRetryStatusConfigTest {
                 ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_SEND_MAX_RETRIES
                         .withEndpointPrefix(),
                 tokenHttpRetryStatusConfig.httpRetryerMaxRetriesMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_WAIT_TIME.withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.httpRetryerWaitTimeMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_RETRY_SUPPRESSED
+                        .withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.httpRetryerRetrySuppressedMetric());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_HTTP_RETRYER_RETRY_BUDGET
+                        .withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.httpRetryerRetryBudgetMetric());
+    }
+
+    @Test
+    void shouldBeIdempotent() {
+        assertTrue(tokenHttpRetryStatusConfig.isIdempotent());
+    }
+
+    @Test
+    void checkCircuitBreakerCallbacksWiredCorrectly() {
+
+        assertEquals("dvla_token", tokenHttpRetryStatusConfig.circuitBreakerName());
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_CLOSED.withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.circuitBreakerStateMetric(CircuitBreakerState.CLOSED));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_OPEN.withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.circuitBreakerStateMetric(CircuitBreakerState.OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_HALF_OPEN
+                        .withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.circuitBreakerStateMetric(
+                        CircuitBreakerState.HALF_OPEN));
+
+        assertEquals(
+                ThirdPartyAPIEndpointMetric.DVLA_TOKEN_CIRCUIT_BREAKER_REJECTED
+                        .withEndpointPrefix(),
+                tokenHttpRetryStatusConfig.circuitBreakerRejectedMetric());
     }
 }
@@ -0,0 +1,147 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.dynamo.TokenRefreshLeaseItem;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRefreshLeaseTest {
+
+    private static final long TEST_LEASE_DURATION_MS = 10000L;
+    private static final long TEST_NOW_MS = 1700000000000L;
+
+    @Mock private DynamoDbTable<TokenRefreshLeaseItem> mockLeaseTable;
+
+    private TokenRefreshLease tokenRefreshLease;
+
+    @BeforeEach
+    void setUp() {
+        tokenRefreshLease =
+                new TokenRefreshLease(mockLeaseTable, TEST_LEASE_DURATION_MS, () -> TEST_NOW_MS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWinLeaseWithConditionalPut() {
+        ArgumentCaptor<PutItemEnhancedRequest<TokenRefreshLeaseItem>> putRequestCaptor =
+                ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE);
+
+        assertEquals(TokenRefreshLease.Result.WON, lease.result());
+        assertEquals(TEST_NOW_MS + TEST_LEASE_DURATION_MS, lease.leaseUntilMs());
+
+        verify(mockLeaseTable).putItem(putRequestCaptor.capture());
+        PutItemEnhancedRequest<TokenRefreshLeaseItem> putRequest = putRequestCaptor.getValue();
+
+        assertEquals("NO_CHANGETokenRefreshLease", putRequest.item().getId());
+        assertEquals(TEST_NOW_MS + TEST_LEASE_DURATION_MS, putRequest.item().getLeaseUntil());
+        assertEquals(
+                "attribute_not_exists(id) OR leaseUntil < :now",
+                putRequest.conditionExpression().expression());
+        assertEquals(
+                Long.toString(TEST_NOW_MS),
+                putRequest.conditionExpression().expressionValues().get(":now").n());
+    }
+
+    @Test
+    void shouldReportLeaseHeldElsewhereWhenConditionFails() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockLeaseTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertEquals(
+                TokenRefreshLease.Result.HELD_ELSEWHERE,
+                tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE).result());
+    }
+
+    @Test
+    void shouldReportLeaseUnavailableWhenTableCannotBeWritten() {
+        doThrow(new IllegalStateException("Dynamo unavailable"))
+                .when(mockLeaseTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertEquals(
+                TokenRefreshLease.Result.UNAVAILABLE,
+                tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE).result());
+    }
+
+    @Test
+    void shouldReleaseLeaseWithDeleteConditionalOnHoldersLeaseUntil() {
+        ArgumentCaptor<DeleteItemEnhancedRequest> deleteRequestCaptor =
+                ArgumentCaptor.forClass(DeleteItemEnhancedRequest.class);
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE);
+        tokenRefreshLease.release(Strategy.NO_CHANGE, lease);
+
+        verify(mockLeaseTable).deleteItem(deleteRequestCaptor.capture());
+        DeleteItemEnhancedRequest deleteRequest = deleteRequestCaptor.getValue();
+
+        assertEquals("NO_CHANGETokenRefreshLease", deleteRequest.key().partitionKeyValue().s());
+        assertEquals("leaseUntil = :leaseUntil", deleteRequest.conditionExpression().expression());
+        assertEquals(
+                Long.toString(TEST_NOW_MS + TEST_LEASE_DURATION_MS),
+                deleteRequest.conditionExpression().expressionValues().get(":leaseUntil").n());
+    }
+
+    @Test
+    void shouldLeaveLeaseTakenOverByAnotherContainer() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockLeaseTable)
+                .deleteItem(any(DeleteItemEnhancedRequest.class));
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE);
+
+        assertDoesNotThrow(() -> tokenRefreshLease.release(Strategy.NO_CHANGE, lease));
+    }
+
+    @Test
+    void shouldNotReleaseLeaseThatWasNotWon() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockLeaseTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        TokenRefreshLease.Lease lease = tokenRefreshLease.tryAcquire(Strategy.NO_CHANGE);
+        tokenRefreshLease.release(Strategy.NO_CHANGE, lease);
+
+        verify(mockLeaseTable, never()).deleteItem(any(DeleteItemEnhancedRequest.class));
+    }
+
+    @Test
+    void shouldOnlyReportUnexpiredLeaseAsHeldElsewhere() {
+        TokenRefreshLeaseItem leaseItem = new TokenRefreshLeaseItem();
+        leaseItem.setLeaseUntil(TEST_NOW_MS + 1);
+
+        when(mockLeaseTable.getItem(any(GetItemEnhancedRequest.class)))
+                .thenReturn(leaseItem)
+                .thenReturn(null);
+        assertTrue(tokenRefreshLease.isHeldElsewhere(Strategy.NO_CHANGE));
+        // Released
+        assertFalse(tokenRefreshLease.isHeldElsewhere(Strategy.NO_CHANGE));
+
+        leaseItem.setLeaseUntil(TEST_NOW_MS - 1);
+        when(mockLeaseTable.getItem(any(GetItemEnhancedRequest.class))).thenReturn(leaseItem);
+        // Expired
+        assertFalse(tokenRefreshLease.isHeldElsewhere(Strategy.NO_CHANGE));
+    }
+}
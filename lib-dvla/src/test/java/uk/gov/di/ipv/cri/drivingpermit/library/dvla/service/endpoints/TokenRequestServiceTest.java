@@ -20,6 +20,10 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
 import uk.gov.di.ipv.cri.drivingpermit.library.dvla.configuration.DvlaConfiguration;
@@ -28,27 +32,43 @@ import uk.gov.di.ipv.cri.drivingpermit.library.dvla.domain.response.TokenRespons
 import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
 
 import java.io.IOException;
+import java.net.URI;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.drivingpermit.library.dvla.service.endpoints.TokenRequestService.TOKEN_ITEM_ID;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_HIT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_IN_PROCESS_CACHE_MISS;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_FALLBACK;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_WAIT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REFRESH_LEASE_WON;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_CREATED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_REQUEST_SEND_ERROR;
@@ -59,11 +79,19 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpo
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_RESPONSE_TYPE_VALID;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_HIT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetric.DVLA_TOKEN_TABLE_CACHE_MISS;
 
 @ExtendWith(MockitoExtension.class)
 class TokenRequestServiceTest {
 
     private static final String TEST_END_POINT = "http://127.0.0.1";
+    private static final Map<Strategy, URI> TEST_END_POINT_URIS =
+            Arrays.stream(Strategy.values())
+                    .collect(
+                            Collectors.toMap(
+                                    strategy -> strategy,
+                                    strategy -> URI.create(TEST_END_POINT)));
     private static final String TEST_TOKEN_TABLE_NAME = "test_token_table_name";
 
     private static final String TEST_TOKEN_VALUE = "unit-test-token-value";
@@ -88,7 +116,7 @@ class TokenRequestServiceTest {
     void setUp() {
         realObjectMapper = new ObjectMapper();
 
-        when(mockDvlaConfiguration.getTokenEndpoint()).thenReturn(TEST_END_POINT);
+        when(mockDvlaConfiguration.getTokenEndpointURIs()).thenReturn(TEST_END_POINT_URIS);
         when(mockDvlaConfiguration.getTokenTableName()).thenReturn(TEST_TOKEN_TABLE_NAME);
         when(mockDvlaConfiguration.getUsername()).thenReturn(TEST_USER_NAME);
         when(mockDvlaConfiguration.getPassword()).thenReturn(TEST_PASSWORD);
@@ -103,7 +131,7 @@ class TokenRequestServiceTest {
                         mockDynamoDbEnhancedClient,
                         mockHttpRetryer,
                         mockRequestConfig,
-                        realObjectMapper,
+                        new JsonCodecs(realObjectMapper),
                         mockEventProbe);
     }
 
@@ -123,20 +151,35 @@ class TokenRequestServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
 
-        String tokenValue = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        String tokenValue =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
 
         // (POST) Token
         InOrder inOrderMockHttpRetryerSequence = inOrder(mockHttpRetryer);
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -169,7 +212,9 @@ class TokenRequestServiceTest {
         doThrow(exceptionCaught)
                 .when(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
 
         OAuthErrorResponseException expectedReturnedException =
                 new OAuthErrorResponseException(
@@ -179,7 +224,9 @@ class TokenRequestServiceTest {
         OAuthErrorResponseException thrownException =
                 assertThrows(
                         OAuthErrorResponseException.class,
-                        () -> tokenRequestService.requestToken(true, Strategy.NO_CHANGE),
+                        () ->
+                                tokenRequestService.requestToken(
+                                        true, Strategy.NO_CHANGE, RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) Token
@@ -187,7 +234,9 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -219,7 +268,9 @@ class TokenRequestServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -230,7 +281,9 @@ class TokenRequestServiceTest {
         OAuthErrorResponseException thrownException =
                 assertThrows(
                         OAuthErrorResponseException.class,
-                        () -> tokenRequestService.requestToken(true, Strategy.NO_CHANGE),
+                        () ->
+                                tokenRequestService.requestToken(
+                                        true, Strategy.NO_CHANGE, RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) Token
@@ -238,7 +291,9 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -275,7 +330,9 @@ class TokenRequestServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -286,7 +343,9 @@ class TokenRequestServiceTest {
         OAuthErrorResponseException thrownException =
                 assertThrows(
                         OAuthErrorResponseException.class,
-                        () -> tokenRequestService.requestToken(true, Strategy.NO_CHANGE),
+                        () ->
+                                tokenRequestService.requestToken(
+                                        true, Strategy.NO_CHANGE, RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) Token
@@ -294,7 +353,9 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -332,7 +393,9 @@ class TokenRequestServiceTest {
 
         // HttpClient response
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
 
         OAuthErrorResponseException expectedReturnedException =
@@ -343,7 +406,9 @@ class TokenRequestServiceTest {
         OAuthErrorResponseException thrownException =
                 assertThrows(
                         OAuthErrorResponseException.class,
-                        () -> tokenRequestService.requestToken(true, Strategy.NO_CHANGE),
+                        () ->
+                                tokenRequestService.requestToken(
+                                        true, Strategy.NO_CHANGE, RequestDeadline.none()),
                         "Expected OAuthErrorResponseException");
 
         // (Post) Token
@@ -351,7 +416,9 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
@@ -395,18 +462,21 @@ class TokenRequestServiceTest {
         // Request one
         when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(null);
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
         // Token put capture
         doNothing().when(mockTokenTable).putItem(dynamoPutItemTokenItemCaptor.capture());
-        String tokenResponseOne = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        String tokenResponseOne =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
         assertEquals(TEST_TOKEN_VALUE, tokenResponseOne);
 
-        // Request two
-        TokenItem testTokenFromDynamo = dynamoPutItemTokenItemCaptor.getValue();
-        // Captured token get
-        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
-        String tokenResponseTwo = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        // Request two - served by the in-process tier, without reading the token table
+        String tokenResponseTwo =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
 
         assertEquals(tokenResponseOne, tokenResponseTwo);
 
@@ -415,11 +485,22 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         // Times 1 here is important - token is cached
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -435,6 +516,9 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_HIT.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
@@ -460,11 +544,15 @@ class TokenRequestServiceTest {
         // Request one
         when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(null);
         when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
-                        httpRequestCaptor.capture(), any(TokenHttpRetryStatusConfig.class)))
+                        httpRequestCaptor.capture(),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
                 .thenReturn(tokenResponse);
         // Token put capture
         doNothing().when(mockTokenTable).putItem(dynamoPutItemTokenItemCaptor.capture());
-        String tokenResponseOne = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        String tokenResponseOne =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
         assertEquals(TEST_TOKEN_VALUE, tokenResponseOne);
 
         // Request two
@@ -475,7 +563,9 @@ class TokenRequestServiceTest {
 
         // Captured token get
         when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
-        String tokenResponseTwo = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        String tokenResponseTwo =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
 
         assertEquals(tokenResponseOne, tokenResponseTwo);
 
@@ -484,12 +574,23 @@ class TokenRequestServiceTest {
         inOrderMockHttpRetryerSequence
                 .verify(mockHttpRetryer, times(2))
                 .sendHTTPRequestRetryIfAllowed(
-                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class));
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
         verifyNoMoreInteractions(mockHttpRetryer);
 
         // Times 1 here is important - token is cached
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
         // Request one
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -505,7 +606,16 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
-        // Request Two
+        // Request Two - the in-process token is the same item, so has also expired
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -524,6 +634,450 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockEventProbe);
     }
 
+    @Test
+    void shouldReuseTokenFromTableWhenNotCachedInProcess() throws OAuthErrorResponseException {
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        String tokenResponseOne =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+        // Second request is served in-process, the table is only read once
+        String tokenResponseTwo =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenResponseOne);
+        assertEquals(TEST_TOKEN_VALUE, tokenResponseTwo);
+
+        verify(mockTokenTable, times(1)).getItem(TOKEN_ITEM_KEY);
+        verifyNoInteractions(mockHttpRetryer);
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_HIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_HIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldOnlyInvalidateInProcessTokenIfStillCached() throws OAuthErrorResponseException {
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        tokenRequestService.requestToken(false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        // A different token value is not the cached token, so is kept
+        tokenRequestService.invalidateCachedToken(Strategy.NO_CHANGE, "other-token-value");
+        tokenRequestService.requestToken(false, Strategy.NO_CHANGE, RequestDeadline.none());
+        verify(mockTokenTable, times(1)).getItem(TOKEN_ITEM_KEY);
+
+        // The cached token is dropped, so the table is read again
+        tokenRequestService.invalidateCachedToken(Strategy.NO_CHANGE, TEST_TOKEN_VALUE);
+        tokenRequestService.requestToken(false, Strategy.NO_CHANGE, RequestDeadline.none());
+        verify(mockTokenTable, times(2)).getItem(TOKEN_ITEM_KEY);
+    }
+
+    @Test
+    void shouldReplaceRejectedTokenWithTokenPublishedInTable() throws OAuthErrorResponseException {
+        // e.g. published by password renewal after the rejected token was cached
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        String tokenValue =
+                tokenRequestService.requestTokenReplacing(
+                        "rejected-token-value", Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verifyNoInteractions(mockHttpRetryer);
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_HIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldRequestNewTokenWhenTableOnlyHasRejectedToken()
+            throws IOException, OAuthErrorResponseException {
+        TokenItem testTokenFromDynamo = new TokenItem("rejected-token-value");
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        String tokenValue =
+                tokenRequestService.requestTokenReplacing(
+                        "rejected-token-value", Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verify(mockTokenTable).putItem(any(TokenItem.class));
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldShareTokenRequestInFlightWithConcurrentCaller() throws Exception {
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        CountDownLatch tokenRequestSent = new CountDownLatch(1);
+        CountDownLatch tokenResponseReleased = new CountDownLatch(1);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenAnswer(
+                        invocation -> {
+                            tokenRequestSent.countDown();
+                            tokenResponseReleased.await();
+                            return tokenResponse;
+                        });
+
+        FutureTask<String> firstCaller =
+                new FutureTask<>(
+                        () ->
+                                tokenRequestService.requestToken(
+                                        false, Strategy.NO_CHANGE, RequestDeadline.none()));
+        new Thread(firstCaller).start();
+        assertTrue(tokenRequestSent.await(5, TimeUnit.SECONDS));
+
+        FutureTask<String> secondCaller =
+                new FutureTask<>(
+                        () ->
+                                tokenRequestService.requestToken(
+                                        false, Strategy.NO_CHANGE, RequestDeadline.none()));
+        Thread secondCallerThread = new Thread(secondCaller);
+        secondCallerThread.start();
+
+        // The second caller waits on the token request in flight, no lock is held meanwhile
+        long waitUntil = System.currentTimeMillis() + 5000L;
+        while (secondCallerThread.getState() != Thread.State.WAITING
+                && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10L);
+        }
+        tokenResponseReleased.countDown();
+
+        assertEquals(TEST_TOKEN_VALUE, firstCaller.get(5, TimeUnit.SECONDS));
+        assertEquals(TEST_TOKEN_VALUE, secondCaller.get(5, TimeUnit.SECONDS));
+        verify(mockHttpRetryer, times(1))
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
+    }
+
+    @Test
+    void shouldKeepUsingOldTokenWhileRefreshLeaseIsHeldElsewhere()
+            throws OAuthErrorResponseException {
+        // Inside the expiration window but not yet expired
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(60).getEpochSecond());
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockTokenTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        String tokenValue =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verifyNoInteractions(mockHttpRetryer);
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_IN_PROCESS_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_WAIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldRequestNewTokenWhenRefreshLeaseIsUnavailable()
+            throws IOException, OAuthErrorResponseException {
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        doThrow(new IllegalStateException("Dynamo unavailable"))
+                .when(mockTokenTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        String tokenValue =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_TABLE_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_FALLBACK.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REQUEST_CREATED.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldUseTokenPublishedByRefreshLeaseHolderOnceReleased()
+            throws OAuthErrorResponseException {
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        // Published by the holder before it released the lease (the lease item reads as null)
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY))
+                .thenReturn(null)
+                .thenReturn(testTokenFromDynamo);
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockTokenTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        String tokenValue =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verify(mockTokenTable).getItem(any(GetItemEnhancedRequest.class));
+        verifyNoInteractions(mockHttpRetryer);
+        verify(mockEventProbe).counterMetric(DVLA_TOKEN_REFRESH_LEASE_WAIT.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldTakeOverRefreshLeaseReleasedWithoutToken()
+            throws IOException, OAuthErrorResponseException {
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        // The holder failed, so released the lease without publishing a token
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .doNothing()
+                .when(mockTokenTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        String tokenValue =
+                tokenRequestService.requestToken(
+                        false, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verify(mockTokenTable, times(2)).putItem(any(PutItemEnhancedRequest.class));
+        verify(mockTokenTable).deleteItem(any(DeleteItemEnhancedRequest.class));
+        verify(mockEventProbe).counterMetric(DVLA_TOKEN_REFRESH_LEASE_WON.withEndpointPrefix());
+        verify(mockEventProbe, never())
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_FALLBACK.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldStopWaitingOnRefreshLeaseWhenInterrupted()
+            throws IOException, OAuthErrorResponseException {
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockTokenTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        String tokenValue;
+        Thread.currentThread().interrupt();
+        try {
+            tokenValue =
+                    tokenRequestService.requestToken(
+                            false, Strategy.NO_CHANGE, RequestDeadline.none());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        // The lease is not polled once interrupted
+        verify(mockTokenTable, never()).getItem(any(GetItemEnhancedRequest.class));
+        verify(mockEventProbe)
+                .counterMetric(DVLA_TOKEN_REFRESH_LEASE_FALLBACK.withEndpointPrefix());
+    }
+
+    @Test
+    void shouldReleaseRefreshLeaseWhenTokenRequestFails() throws IOException {
+        CloseableHttpResponse serverErrorResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "Server Error", false);
+
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(serverErrorResponse);
+
+        assertThrows(
+                OAuthErrorResponseException.class,
+                () ->
+                        tokenRequestService.requestToken(
+                                false, Strategy.NO_CHANGE, RequestDeadline.none()));
+
+        verify(mockTokenTable).deleteItem(any(DeleteItemEnhancedRequest.class));
+    }
+
+    @Test
+    void shouldOnlyRefreshMaintainedTokenWhenDue() throws IOException, OAuthErrorResponseException {
+        TokenItem testTokenFromDynamo = new TokenItem(TEST_TOKEN_VALUE);
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(1800).getEpochSecond());
+
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        // 30 minutes left is outside a 20 minute refresh ahead window
+        assertFalse(
+                tokenRequestService.refreshTokenIfDue(
+                        Strategy.NO_CHANGE, 1200L, RequestDeadline.none()));
+        verifyNoInteractions(mockHttpRetryer);
+
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(tokenResponse);
+
+        // Inside a 40 minute window
+        assertTrue(
+                tokenRequestService.refreshTokenIfDue(
+                        Strategy.NO_CHANGE, 2400L, RequestDeadline.none()));
+        verify(mockTokenTable).putItem(any(TokenItem.class));
+    }
+
+    @Test
+    void shouldRetryTokenRequestOnceWithRotatedPasswordAfter401()
+            throws IOException, OAuthErrorResponseException {
+        TokenResponse testTokenResponse = TokenResponse.builder().idToken(TEST_TOKEN_VALUE).build();
+        CloseableHttpResponse unauthorisedResponse =
+                HttpResponseFixtures.createHttpResponse(401, null, "Unauthorized", false);
+        CloseableHttpResponse tokenResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        200, null, realObjectMapper.writeValueAsString(testTokenResponse), false);
+
+        // The 401 invalidates the cached password, re-reading it finds the rotated one
+        when(mockDvlaConfiguration.getPassword()).thenReturn(TEST_PASSWORD, "ROTATED_PASSWORD");
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(unauthorisedResponse, tokenResponse);
+
+        String tokenValue =
+                tokenRequestService.requestToken(true, Strategy.NO_CHANGE, RequestDeadline.none());
+
+        assertEquals(TEST_TOKEN_VALUE, tokenValue);
+        verify(mockDvlaConfiguration).invalidatePassword();
+        verify(mockHttpRetryer, times(2))
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
+    }
+
+    @Test
+    void shouldNotRetryTokenRequestWithRotatedPasswordAfterNon401Failure() throws IOException {
+        CloseableHttpResponse serverErrorResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "Server Error", false);
+
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class)))
+                .thenReturn(serverErrorResponse);
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () ->
+                                tokenRequestService.requestToken(
+                                        true, Strategy.NO_CHANGE, RequestDeadline.none()));
+
+        assertEquals(
+                ErrorResponse.ERROR_TOKEN_ENDPOINT_RETURNED_UNEXPECTED_HTTP_STATUS_CODE,
+                thrownException.getErrorResponse());
+        verify(mockDvlaConfiguration, times(1)).getPassword();
+        verify(mockDvlaConfiguration, never()).invalidatePassword();
+        verify(mockHttpRetryer, times(1))
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class),
+                        any(TokenHttpRetryStatusConfig.class),
+                        any(RequestDeadline.class));
+    }
+
     private void assertTokenHeaders(
             ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor) {
         // Check Headers
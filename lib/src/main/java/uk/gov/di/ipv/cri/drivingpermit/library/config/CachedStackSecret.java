@@ -0,0 +1,69 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds a stack secret for a ttl, so Secrets Manager is not called on every use. Callers invalidate
+ * it when the secret is rejected (e.g. after a rotation) so the current version is re-read on the
+ * next use rather than once the ttl expires.
+ */
+public class CachedStackSecret {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final SecretsManagerService secretsManagerService;
+    private final String parameterName;
+    private final long ttlMs;
+    private final LongSupplier currentTimeMs;
+
+    private String value;
+    private String versionId;
+    private long expiresAtMs;
+
+    public CachedStackSecret(
+            SecretsManagerService secretsManagerService, String parameterName, long ttlMs) {
+        this(secretsManagerService, parameterName, ttlMs, System::currentTimeMillis);
+    }
+
+    CachedStackSecret(
+            SecretsManagerService secretsManagerService,
+            String parameterName,
+            long ttlMs,
+            LongSupplier currentTimeMs) {
+        this.secretsManagerService = secretsManagerService;
+        this.parameterName = parameterName;
+        this.ttlMs = ttlMs;
+        this.currentTimeMs = currentTimeMs;
+    }
+
+    /** Exceptions reading the secret are thrown to the caller */
+    public synchronized String getValue() {
+        long nowMs = currentTimeMs.getAsLong();
+
+        if (value == null || nowMs >= expiresAtMs) {
+            GetSecretValueResponse secret = secretsManagerService.getStackSecret(parameterName);
+
+            if (versionId != null && !Objects.equals(versionId, secret.versionId())) {
+                LOGGER.info("Secret {} has a new version", parameterName);
+            }
+
+            value = secret.secretString();
+            versionId = secret.versionId();
+            expiresAtMs = nowMs + ttlMs;
+        }
+
+        return value;
+    }
+
+    public synchronized void invalidate() {
+        LOGGER.info("Secret {} invalidated", parameterName);
+
+        // The version is kept, to log if the re-read finds a new one
+        value = null;
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.config;
+
+import lombok.Builder;
+import lombok.Data;
+
+/** Connection pool settings for the http client of a single third party. */
+@Builder
+@Data
+public class HttpConnectionPoolConfig {
+
+    // Used as the metric prefix for the pool statistics e.g. dva, dvla
+    private final String poolName;
+
+    @Builder.Default private final int maxTotal = 10;
+
+    // All requests to a third party go to a single route (scheme/host/port)
+    @Builder.Default private final int maxPerRoute = 5;
+
+    // Used when the remote does not send (or useRemoteKeepAliveHeader is false) a Keep-Alive
+    @Builder.Default private final long keepAliveSeconds = 30;
+
+    @Builder.Default private final boolean useRemoteKeepAliveHeader = true;
+
+    // Pooled connections idle for longer than this are checked for staleness before re-use
+    @Builder.Default private final int validateAfterInactivityMs = 2000;
+
+    // Pooled connections idle for longer than this are closed rather than re-used
+    @Builder.Default private final long maxIdleTimeSeconds = 30;
+}
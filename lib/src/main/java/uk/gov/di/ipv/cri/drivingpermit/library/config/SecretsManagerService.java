@@ -50,6 +50,11 @@ public class SecretsManagerService {
     }
 
     public String getStackSecretValue(String parameterName) {
+        return getStackSecret(parameterName).secretString();
+    }
+
+    /** The full response, for callers that also need the version id of the secret */
+    public GetSecretValueResponse getStackSecret(String parameterName) {
         String secretId = String.format(PARAMETER_NAME_FORMAT, stackParameterPrefix, parameterName);
 
         GetSecretValueRequest valueRequest =
@@ -62,7 +67,7 @@ public class SecretsManagerService {
 
         LOGGER.info("{} {}", "getStackSecretValue", secretId);
 
-        return valueResponse.secretString();
+        return valueResponse;
     }
 
     public String getCommonSecretValue(String parameterName) {
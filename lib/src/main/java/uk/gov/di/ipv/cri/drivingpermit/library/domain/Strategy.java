@@ -21,4 +21,9 @@ public enum Strategy {
             default -> NO_CHANGE;
         };
     }
+
+    /** Stub and UAT traffic, kept apart from LIVE and NO_CHANGE (production) traffic */
+    public boolean isTestStrategy() {
+        return this == STUB || this == UAT;
+    }
 }
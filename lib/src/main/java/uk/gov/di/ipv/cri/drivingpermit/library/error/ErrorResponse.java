@@ -10,6 +10,12 @@ public enum ErrorResponse {
     TOO_MANY_RETRY_ATTEMPTS(1002, "Too many retry attempts made"),
     FAILED_TO_SELECT_THIRD_PARTY_API_SERVICE(
             1003, "Failed to select third party api gateway service"),
+    REQUEST_DEADLINE_EXCEEDED(
+            1004, "Request deadline reached before the third party api call could complete"),
+    THIRD_PARTY_API_CIRCUIT_BREAKER_OPEN(
+            1005, "Third party api circuit breaker open, request not sent"),
+    TEST_STRATEGY_CONCURRENCY_LIMIT_REACHED(
+            1006, "Test strategy concurrency limit reached, request not sent"),
 
     // Common to DCS + DVLA
     FAILED_TO_RETRIEVE_HTTP_RESPONSE_BODY(1099, "Failed to retrieve http response body"),
@@ -0,0 +1,13 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the CircuitBreakingThirdPartyTransport when a request is not sent as the endpoint's
+ * circuit breaker is open. An IOException so existing send error handling and metrics capture it.
+ */
+public class CircuitBreakerOpenException extends IOException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the HttpRetryer when the request deadline is reached before an attempt can be sent.
+ * An IOException so existing send error handling and metrics capture it.
+ */
+public class RequestDeadlineExceededException extends IOException {
+    public RequestDeadlineExceededException(String message) {
+        super(message);
+    }
+}
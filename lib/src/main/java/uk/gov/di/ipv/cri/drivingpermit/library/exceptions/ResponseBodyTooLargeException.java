@@ -0,0 +1,13 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the BoundedResponseReader when a response body is larger than the maximum allowed. An
+ * IOException so existing response body error handling captures it.
+ */
+public class ResponseBodyTooLargeException extends IOException {
+    public ResponseBodyTooLargeException(String message) {
+        super(message);
+    }
+}
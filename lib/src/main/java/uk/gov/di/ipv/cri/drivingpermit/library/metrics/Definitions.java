@@ -39,6 +39,10 @@ public class Definitions {
     public static final String LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_UNVERIFIED =
             "lambda_driving_permit_check_attempt_status_unverified";
 
+    // Duration of each concurrent call after the document check (Call name is Appended)
+    public static final String LAMBDA_DRIVING_PERMIT_CHECK_POST_CHECK_DURATION_PREFIX =
+            "lambda_driving_permit_check_post_check_duration_";
+
     // FormDataValidator
     public static final String FORM_DATA_VALIDATION_PASS = "form_data_validation_pass";
     public static final String FORM_DATA_VALIDATION_FAIL = "form_data_validation_fail";
@@ -66,6 +70,53 @@ public class Definitions {
     public static final String LAMBDA_PASSWORD_RENEWAL_CHECK_COMPLETED_ERROR =
             "lambda_password_renewal_check_completed_error";
 
+    // DVLA token maintainer
+    public static final String LAMBDA_TOKEN_MAINTAINER_TOKEN_REFRESHED =
+            "lambda_token_maintainer_token_refreshed";
+    public static final String LAMBDA_TOKEN_MAINTAINER_TOKEN_CURRENT =
+            "lambda_token_maintainer_token_current";
+    public static final String LAMBDA_TOKEN_MAINTAINER_REFRESH_ERROR =
+            "lambda_token_maintainer_refresh_error";
+
+    // Http Connection Pools (Pool name is Prepended e.g. dva_, dvla_)
+    public static final String HTTP_CONNECTION_POOL_LEASED = "http_connection_pool_leased";
+    public static final String HTTP_CONNECTION_POOL_AVAILABLE = "http_connection_pool_available";
+    public static final String HTTP_CONNECTION_POOL_PENDING = "http_connection_pool_pending";
+    public static final String HTTP_CONNECTION_POOL_LEASE_WAIT_TIME =
+            "http_connection_pool_lease_wait_time";
+    public static final String HTTP_CONNECTION_POOL_CONNECTION_OPENED =
+            "http_connection_pool_connection_opened";
+    public static final String HTTP_CONNECTION_POOL_EVICTED = "http_connection_pool_evicted";
+
+    // Idle time since the previous invocation, captured when over the thaw threshold
+    public static final String HTTP_CONNECTION_POOL_THAW_DETECTED =
+            "http_connection_pool_thaw_detected";
+
+    // Pre-warm of third party connections during init/after restore
+    public static final String HTTP_CONNECTION_PRE_WARM_DURATION =
+            "http_connection_pre_warm_duration";
+    public static final String HTTP_CONNECTION_PRE_WARM_INCOMPLETE =
+            "http_connection_pre_warm_incomplete";
+
+    // Parameter store prefetch during init (Call name is appended to the call duration)
+    public static final String CONFIG_SNAPSHOT_LOAD_DURATION = "config_snapshot_load_duration";
+    public static final String CONFIG_SNAPSHOT_CALL_DURATION = "config_snapshot_call_duration_";
+    public static final String CONFIG_SNAPSHOT_INCOMPLETE = "config_snapshot_incomplete";
+    // Creating and closing the SsmClient the snapshot is loaded with
+    public static final String CONFIG_SNAPSHOT_CLIENT_DURATION = "config_snapshot_client_duration";
+
+    // DVA JWS signing time (Backend name is appended e.g. _kms, _local)
+    public static final String DVA_SIGNING_DURATION = "dva_signing_duration_";
+
+    // DVA KMS decrypt call time, apart from the local content decryption around it
+    public static final String DVA_KMS_DECRYPT_DURATION = "dva_kms_decrypt_duration";
+
+    // Strategy bulkhead (Strategy is appended e.g. _live, _stub)
+    public static final String STRATEGY_BULKHEAD_ADMITTED = "strategy_bulkhead_admitted_";
+    public static final String STRATEGY_BULKHEAD_REJECTED = "strategy_bulkhead_rejected_";
+    public static final String STRATEGY_BULKHEAD_SLOTS_UNAVAILABLE =
+            "strategy_bulkhead_slots_unavailable";
+
     // Context Value Tracking
     public static final String CONTEXT_VALUE = "context_value_";
     public static final String CONTEXT_VALUE_NULL = "context_value_null";
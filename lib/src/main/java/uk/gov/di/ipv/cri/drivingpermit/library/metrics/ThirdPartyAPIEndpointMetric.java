@@ -9,11 +9,18 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpo
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_INVALID;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_UNEXPECTED_HTTP_STATUS;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.API_RESPONSE_TYPE_VALID;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.CIRCUIT_BREAKER_CLOSED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.CIRCUIT_BREAKER_HALF_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.CIRCUIT_BREAKER_OPEN;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.CIRCUIT_BREAKER_REJECTED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_REQUEST_SEND_FAIL;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_REQUEST_SEND_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_REQUEST_SEND_RETRY;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_RETRY_BUDGET;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_RETRY_SUPPRESSED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_SEND_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_SEND_MAX_RETRIES;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.HTTP_RETRYER_WAIT_TIME;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_CREATED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_SEND_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.ThirdPartyAPIEndpointMetricType.REQUEST_SEND_OK;
@@ -48,6 +55,15 @@ public enum ThirdPartyAPIEndpointMetric {
     DVA_HTTP_RETRYER_SEND_MAX_RETRIES(
             DVA_THIRD_PARTY_API_DVA_ENDPOINT, HTTP_RETRYER_SEND_MAX_RETRIES),
     DVA_HTTP_RETRYER_SEND_ERROR(DVA_THIRD_PARTY_API_DVA_ENDPOINT, HTTP_RETRYER_SEND_ERROR),
+    DVA_HTTP_RETRYER_WAIT_TIME(DVA_THIRD_PARTY_API_DVA_ENDPOINT, HTTP_RETRYER_WAIT_TIME),
+    DVA_HTTP_RETRYER_RETRY_SUPPRESSED(
+            DVA_THIRD_PARTY_API_DVA_ENDPOINT, HTTP_RETRYER_RETRY_SUPPRESSED),
+    DVA_HTTP_RETRYER_RETRY_BUDGET(DVA_THIRD_PARTY_API_DVA_ENDPOINT, HTTP_RETRYER_RETRY_BUDGET),
+
+    DVA_CIRCUIT_BREAKER_CLOSED(DVA_THIRD_PARTY_API_DVA_ENDPOINT, CIRCUIT_BREAKER_CLOSED),
+    DVA_CIRCUIT_BREAKER_OPEN(DVA_THIRD_PARTY_API_DVA_ENDPOINT, CIRCUIT_BREAKER_OPEN),
+    DVA_CIRCUIT_BREAKER_HALF_OPEN(DVA_THIRD_PARTY_API_DVA_ENDPOINT, CIRCUIT_BREAKER_HALF_OPEN),
+    DVA_CIRCUIT_BREAKER_REJECTED(DVA_THIRD_PARTY_API_DVA_ENDPOINT, CIRCUIT_BREAKER_REJECTED),
 
     DVA_INVALID_REQUEST_ERROR(DVA_THIRD_PARTY_API_DVA_ENDPOINT, "invalid_request_error"),
     DVA_REQUEST_ERROR(DVA_THIRD_PARTY_API_DVA_ENDPOINT, "request_error"),
@@ -57,6 +73,20 @@ public enum ThirdPartyAPIEndpointMetric {
     ///////////////////////////////////////////////////////////////////////////////////////////////
     DVLA_TOKEN_REQUEST_REUSING_CACHED_TOKEN(
             DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "reusing_cached_token"), // Unique to DVLA Token
+    DVLA_TOKEN_IN_PROCESS_CACHE_HIT(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "in_process_cache_hit"), // Unique to DVLA Token
+    DVLA_TOKEN_IN_PROCESS_CACHE_MISS(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "in_process_cache_miss"), // Unique to DVLA Token
+    DVLA_TOKEN_TABLE_CACHE_HIT(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "table_cache_hit"), // Unique to DVLA Token
+    DVLA_TOKEN_TABLE_CACHE_MISS(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "table_cache_miss"), // Unique to DVLA Token
+    DVLA_TOKEN_REFRESH_LEASE_WON(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "refresh_lease_won"), // Unique to DVLA Token
+    DVLA_TOKEN_REFRESH_LEASE_WAIT(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "refresh_lease_wait"), // Unique to DVLA Token
+    DVLA_TOKEN_REFRESH_LEASE_FALLBACK(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, "refresh_lease_fallback"), // Unique to DVLA Token
 
     DVLA_TOKEN_REQUEST_CREATED(DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, REQUEST_CREATED),
     DVLA_TOKEN_REQUEST_SEND_OK(DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, REQUEST_SEND_OK),
@@ -88,6 +118,18 @@ public enum ThirdPartyAPIEndpointMetric {
             DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, HTTP_RETRYER_SEND_MAX_RETRIES),
     DVLA_TOKEN_HTTP_RETRYER_SEND_ERROR(
             DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, HTTP_RETRYER_SEND_ERROR),
+    DVLA_TOKEN_HTTP_RETRYER_WAIT_TIME(DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, HTTP_RETRYER_WAIT_TIME),
+    DVLA_TOKEN_HTTP_RETRYER_RETRY_SUPPRESSED(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, HTTP_RETRYER_RETRY_SUPPRESSED),
+    DVLA_TOKEN_HTTP_RETRYER_RETRY_BUDGET(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, HTTP_RETRYER_RETRY_BUDGET),
+
+    DVLA_TOKEN_CIRCUIT_BREAKER_CLOSED(DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, CIRCUIT_BREAKER_CLOSED),
+    DVLA_TOKEN_CIRCUIT_BREAKER_OPEN(DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, CIRCUIT_BREAKER_OPEN),
+    DVLA_TOKEN_CIRCUIT_BREAKER_HALF_OPEN(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, CIRCUIT_BREAKER_HALF_OPEN),
+    DVLA_TOKEN_CIRCUIT_BREAKER_REJECTED(
+            DVLA_THIRD_PARTY_API_TOKEN_ENDPOINT, CIRCUIT_BREAKER_REJECTED),
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // DVLA Match End Point Metrics                                                              //
@@ -120,6 +162,18 @@ public enum ThirdPartyAPIEndpointMetric {
             DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, HTTP_RETRYER_SEND_MAX_RETRIES),
     DVLA_MATCH_HTTP_RETRYER_SEND_ERROR(
             DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, HTTP_RETRYER_SEND_ERROR),
+    DVLA_MATCH_HTTP_RETRYER_WAIT_TIME(DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, HTTP_RETRYER_WAIT_TIME),
+    DVLA_MATCH_HTTP_RETRYER_RETRY_SUPPRESSED(
+            DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, HTTP_RETRYER_RETRY_SUPPRESSED),
+    DVLA_MATCH_HTTP_RETRYER_RETRY_BUDGET(
+            DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, HTTP_RETRYER_RETRY_BUDGET),
+
+    DVLA_MATCH_CIRCUIT_BREAKER_CLOSED(DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, CIRCUIT_BREAKER_CLOSED),
+    DVLA_MATCH_CIRCUIT_BREAKER_OPEN(DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, CIRCUIT_BREAKER_OPEN),
+    DVLA_MATCH_CIRCUIT_BREAKER_HALF_OPEN(
+            DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, CIRCUIT_BREAKER_HALF_OPEN),
+    DVLA_MATCH_CIRCUIT_BREAKER_REJECTED(
+            DVLA_THIRD_PARTY_API_MATCH_ENDPOINT, CIRCUIT_BREAKER_REJECTED),
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // DVLA change password Metrics                                                              //
@@ -155,6 +209,21 @@ public enum ThirdPartyAPIEndpointMetric {
             DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, HTTP_RETRYER_SEND_MAX_RETRIES),
     DVLA_CHANGE_PASSWORD_HTTP_RETRYER_SEND_ERROR(
             DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, HTTP_RETRYER_SEND_ERROR),
+    DVLA_CHANGE_PASSWORD_HTTP_RETRYER_WAIT_TIME(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, HTTP_RETRYER_WAIT_TIME),
+    DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_SUPPRESSED(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, HTTP_RETRYER_RETRY_SUPPRESSED),
+    DVLA_CHANGE_PASSWORD_HTTP_RETRYER_RETRY_BUDGET(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, HTTP_RETRYER_RETRY_BUDGET),
+
+    DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_CLOSED(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, CIRCUIT_BREAKER_CLOSED),
+    DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_OPEN(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, CIRCUIT_BREAKER_OPEN),
+    DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_HALF_OPEN(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, CIRCUIT_BREAKER_HALF_OPEN),
+    DVLA_CHANGE_PASSWORD_CIRCUIT_BREAKER_REJECTED(
+            DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT, CIRCUIT_BREAKER_REJECTED),
 
     DVLA_CHANGE_PASSWORD_RESPONSE_STATUS_CODE_ALERT_METRIC(
             DVLA_THIRD_PARTY_API_CHANGE_PASSWORD_ENDPOINT,
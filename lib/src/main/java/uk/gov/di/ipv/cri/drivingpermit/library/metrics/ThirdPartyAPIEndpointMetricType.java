@@ -16,5 +16,13 @@ public enum ThirdPartyAPIEndpointMetricType {
     HTTP_RETRYER_REQUEST_SEND_FAIL,
     HTTP_RETRYER_REQUEST_SEND_RETRY,
     HTTP_RETRYER_SEND_MAX_RETRIES,
-    HTTP_RETRYER_SEND_ERROR;
+    HTTP_RETRYER_SEND_ERROR,
+    HTTP_RETRYER_WAIT_TIME,
+    HTTP_RETRYER_RETRY_SUPPRESSED,
+    HTTP_RETRYER_RETRY_BUDGET,
+    // CircuitBreakingThirdPartyTransport see @HttpRetryStatusConfig
+    CIRCUIT_BREAKER_CLOSED,
+    CIRCUIT_BREAKER_OPEN,
+    CIRCUIT_BREAKER_HALF_OPEN,
+    CIRCUIT_BREAKER_REJECTED;
 }
@@ -0,0 +1,48 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence.item;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+@DynamoDbBean
+@ExcludeFromGeneratedCoverageReport
+public class CircuitBreakerItem {
+
+    // Circuit breaker name
+    private String id;
+
+    // Epoch millis the circuit breaker is open until, 0 when closed
+    private long openUntil;
+
+    // expiry for circuitBreakerItem in DynamoDb
+    private long ttl;
+
+    public CircuitBreakerItem() {
+        /* Intended */
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getOpenUntil() {
+        return openUntil;
+    }
+
+    public void setOpenUntil(long openUntil) {
+        this.openUntil = openUntil;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence.item;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+@DynamoDbBean
+@ExcludeFromGeneratedCoverageReport
+public class ConcurrencySlotItem {
+
+    // Slot name
+    private String id;
+
+    // Epoch millis the slot is leased until
+    private long leaseUntil;
+
+    // expiry for concurrencySlotItem in DynamoDb
+    private long ttl;
+
+    public ConcurrencySlotItem() {
+        /* Intended */
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(long leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -1,9 +1,17 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.service;
 
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.ssl.SSLContexts;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
 import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.HTTPConnectionKeepAliveStrategyFactory;
 
 import javax.net.ssl.SSLContext;
 
@@ -18,7 +26,10 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ApacheHTTPClientFactoryService {
 
@@ -26,15 +37,28 @@ public class ApacheHTTPClientFactoryService {
     private static final char[] RANDOM_RUN_TIME_KEYSTORE_PASSWORD =
             UUID.randomUUID().toString().toCharArray();
 
-    public CloseableHttpClient generatePublicHttpClient() {
-        return HttpClients.custom().build();
+    private final EventProbe eventProbe;
+
+    // Pools of all clients created, for maintenance between invocations
+    private final List<InstrumentedPoolingHttpClientConnectionManager> connectionManagers =
+            new CopyOnWriteArrayList<>();
+
+    public ApacheHTTPClientFactoryService(EventProbe eventProbe) {
+        this.eventProbe = eventProbe;
+    }
+
+    public CloseableHttpClient generatePublicHttpClient(
+            HttpConnectionPoolConfig httpConnectionPoolConfig) {
+        return generatePooledHttpClient(
+                SSLConnectionSocketFactory.getSocketFactory(), httpConnectionPoolConfig);
     }
 
     public CloseableHttpClient generateHTTPClientFromExternalApacheHttpClient(
             String base64TLSCertString,
             String base64TLSKeyString,
             String base64TLSRootCertString,
-            String base64TLSIntCertString)
+            String base64TLSIntCertString,
+            HttpConnectionPoolConfig httpConnectionPoolConfig)
             throws NoSuchAlgorithmException, InvalidKeySpecException, CertificateException,
                     KeyStoreException, IOException, UnrecoverableKeyException,
                     KeyManagementException {
@@ -53,7 +77,41 @@ public class ApacheHTTPClientFactoryService {
 
         SSLContext sslContext = sslContextSetup(keystoreTLS, trustStore);
 
-        return HttpClients.custom().setSSLContext(sslContext).build();
+        return generatePooledHttpClient(
+                new SSLConnectionSocketFactory(sslContext), httpConnectionPoolConfig);
+    }
+
+    private CloseableHttpClient generatePooledHttpClient(
+            SSLConnectionSocketFactory sslConnectionSocketFactory,
+            HttpConnectionPoolConfig httpConnectionPoolConfig) {
+
+        // The SSLContext is applied via the connection manager socket factory registry
+        Registry<ConnectionSocketFactory> socketFactoryRegistry =
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", sslConnectionSocketFactory)
+                        .build();
+
+        InstrumentedPoolingHttpClientConnectionManager connectionManager =
+                new InstrumentedPoolingHttpClientConnectionManager(
+                        socketFactoryRegistry, httpConnectionPoolConfig, eventProbe);
+        connectionManagers.add(connectionManager);
+
+        // Connection state is disabled, otherwise a mutual TLS connection is tagged with its
+        // client principal after the first exchange and never matches a later (stateless) lease
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .disableConnectionState()
+                .setKeepAliveStrategy(
+                        HTTPConnectionKeepAliveStrategyFactory
+                                .createHTTPConnectionKeepAliveStrategy(
+                                        httpConnectionPoolConfig.getKeepAliveSeconds(),
+                                        httpConnectionPoolConfig.isUseRemoteKeepAliveHeader()))
+                .build();
+    }
+
+    public List<InstrumentedPoolingHttpClientConnectionManager> getConnectionManagers() {
+        return Collections.unmodifiableList(connectionManagers);
     }
 
     private SSLContext sslContextSetup(KeyStore clientTls, KeyStore caBundle)
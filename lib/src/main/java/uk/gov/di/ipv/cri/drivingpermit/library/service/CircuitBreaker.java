@@ -0,0 +1,237 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks consecutive failures of a third party endpoint, opening once the failure threshold is
+ * reached so requests fail fast rather than waiting on an endpoint that is down. After the open
+ * duration a single probe request is allowed (half-open), closing the circuit breaker on success
+ * and re-opening it on failure.
+ *
+ * <p>When a state store is provided, the time the circuit breaker is open until is shared with
+ * other lambda containers, so they fail fast without each first reaching the threshold. While
+ * closed, the shared state is only read once a failure has been recorded locally, so requests to a
+ * healthy endpoint never wait on the state store. Once the shared open duration ends, the probe is
+ * claimed with a conditional write so only one container sends it. The state store is never called
+ * while holding the monitor.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Minimum time between reads of the shared state while closed with failures recorded
+    public static final long SHARED_STATE_REFRESH_MS = 5000L;
+
+    private enum Permission {
+        GRANTED,
+        REJECTED,
+        // Granted if this container claims the shared probe
+        SHARED_PROBE
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier currentTimeMsSupplier;
+    private final Consumer<CircuitBreakerState> stateChangeListener;
+    private final CircuitBreakerStateStore circuitBreakerStateStore;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMs;
+    private boolean probeInFlight;
+    private long nextSharedStateRefreshMs;
+
+    /**
+     * @param stateChangeListener called with the new state on each change
+     * @param circuitBreakerStateStore null if the state is not shared
+     */
+    public CircuitBreaker(
+            String name,
+            int failureThreshold,
+            long openDurationMs,
+            LongSupplier currentTimeMsSupplier,
+            Consumer<CircuitBreakerState> stateChangeListener,
+            CircuitBreakerStateStore circuitBreakerStateStore) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.currentTimeMsSupplier = currentTimeMsSupplier;
+        this.stateChangeListener = stateChangeListener;
+        this.circuitBreakerStateStore = circuitBreakerStateStore;
+    }
+
+    /**
+     * @return true if a request can be sent, in which case the outcome must be reported with
+     *     exactly one of onSuccess, onFailure or onIgnored
+     */
+    public boolean tryAcquirePermission() {
+        long currentTimeMs = currentTimeMsSupplier.getAsLong();
+
+        if (claimSharedStateRefresh(currentTimeMs)) {
+            applySharedOpenUntil(circuitBreakerStateStore.getOpenUntilMs(name), currentTimeMs);
+        }
+
+        Permission permission = acquirePermission(currentTimeMs);
+        if (permission != Permission.SHARED_PROBE) {
+            return permission == Permission.GRANTED;
+        }
+
+        // The probe window lets another container take over if this probe never reports back
+        if (circuitBreakerStateStore.tryClaimProbe(
+                name, currentTimeMs, currentTimeMs + openDurationMs)) {
+            startProbe();
+            return true;
+        }
+
+        return applyProbeClaimedElsewhere(
+                circuitBreakerStateStore.getOpenUntilMs(name), currentTimeMs);
+    }
+
+    public void onSuccess() {
+        if (closeIfProbing()) {
+            publishSharedState(0);
+        }
+    }
+
+    public void onFailure() {
+        long publishOpenUntilMs = recordFailure(currentTimeMsSupplier.getAsLong());
+        if (publishOpenUntilMs > 0) {
+            publishSharedState(publishOpenUntilMs);
+        }
+    }
+
+    /** For outcomes that say nothing about the endpoint (e.g. the request deadline being hit). */
+    public synchronized void onIgnored() {
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    private synchronized Permission acquirePermission(long currentTimeMs) {
+        switch (state) {
+            case OPEN:
+                // A probe in flight while open is a shared probe still being claimed
+                if (currentTimeMs < openUntilMs || probeInFlight) {
+                    return Permission.REJECTED;
+                }
+                probeInFlight = true;
+                if (circuitBreakerStateStore != null) {
+                    return Permission.SHARED_PROBE;
+                }
+                transitionTo(CircuitBreakerState.HALF_OPEN);
+                return Permission.GRANTED;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return Permission.REJECTED;
+                }
+                probeInFlight = true;
+                return Permission.GRANTED;
+            default:
+                return Permission.GRANTED;
+        }
+    }
+
+    private synchronized void startProbe() {
+        transitionTo(CircuitBreakerState.HALF_OPEN);
+    }
+
+    /**
+     * @return true if the container that claimed the probe has already closed the circuit breaker
+     */
+    private synchronized boolean applyProbeClaimedElsewhere(
+            long sharedOpenUntilMs, long currentTimeMs) {
+        probeInFlight = false;
+
+        if (sharedOpenUntilMs > currentTimeMs) {
+            LOGGER.info("Circuit breaker {} probe claimed by another instance", name);
+
+            openUntilMs = sharedOpenUntilMs;
+            return false;
+        }
+
+        consecutiveFailures = 0;
+        openUntilMs = 0;
+        transitionTo(CircuitBreakerState.CLOSED);
+        return true;
+    }
+
+    private synchronized boolean closeIfProbing() {
+        consecutiveFailures = 0;
+
+        if (state != CircuitBreakerState.HALF_OPEN) {
+            return false;
+        }
+
+        probeInFlight = false;
+        openUntilMs = 0;
+        transitionTo(CircuitBreakerState.CLOSED);
+        return true;
+    }
+
+    /**
+     * @return the time to publish as open until if the circuit breaker opened, otherwise 0
+     */
+    private synchronized long recordFailure(long currentTimeMs) {
+        if (state == CircuitBreakerState.HALF_OPEN
+                || (state == CircuitBreakerState.CLOSED
+                        && ++consecutiveFailures >= failureThreshold)) {
+            LOGGER.warn("Circuit breaker {} opening for {}ms", name, openDurationMs);
+
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            openUntilMs = currentTimeMs + openDurationMs;
+            transitionTo(CircuitBreakerState.OPEN);
+            return openUntilMs;
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if this caller is to read the shared state, so only one request per refresh
+     *     interval does so, and only once a failure suggests the endpoint may be down
+     */
+    private synchronized boolean claimSharedStateRefresh(long currentTimeMs) {
+        if (circuitBreakerStateStore == null
+                || state != CircuitBreakerState.CLOSED
+                || consecutiveFailures == 0
+                || currentTimeMs < nextSharedStateRefreshMs) {
+            return false;
+        }
+        nextSharedStateRefreshMs = currentTimeMs + SHARED_STATE_REFRESH_MS;
+        return true;
+    }
+
+    private synchronized void applySharedOpenUntil(long sharedOpenUntilMs, long currentTimeMs) {
+        // Opened locally while the shared state was being read
+        if (state != CircuitBreakerState.CLOSED || sharedOpenUntilMs <= currentTimeMs) {
+            return;
+        }
+
+        LOGGER.warn("Circuit breaker {} opened by another instance", name);
+
+        openUntilMs = sharedOpenUntilMs;
+        transitionTo(CircuitBreakerState.OPEN);
+    }
+
+    private void publishSharedState(long sharedOpenUntilMs) {
+        if (circuitBreakerStateStore != null) {
+            circuitBreakerStateStore.saveOpenUntilMs(name, sharedOpenUntilMs);
+        }
+    }
+
+    private void transitionTo(CircuitBreakerState newState) {
+        LOGGER.info("Circuit breaker {} state {} -> {}", name, state, newState);
+
+        state = newState;
+        stateChangeListener.accept(newState);
+    }
+}
@@ -0,0 +1,10 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+public enum CircuitBreakerState {
+    // Requests are sent
+    CLOSED,
+    // Requests fail fast without being sent
+    OPEN,
+    // A single probe request is sent, to decide between CLOSED and OPEN
+    HALF_OPEN;
+}
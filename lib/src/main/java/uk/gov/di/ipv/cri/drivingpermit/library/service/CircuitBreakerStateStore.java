@@ -0,0 +1,118 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.CircuitBreakerItem;
+
+/**
+ * Shares when a circuit breaker is open between lambda containers, as one small item per circuit
+ * breaker. Errors are logged and otherwise ignored, leaving each circuit breaker to its own state.
+ */
+public class CircuitBreakerStateStore {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Items are only read while in use, kept a while longer for diagnosis
+    private static final long ITEM_TTL_AFTER_OPEN_UNTIL_SECONDS = 3600L;
+
+    // Only claimed once the shared open duration (or the previous probe window) has ended
+    private static final String PROBE_CONDITION = "attribute_not_exists(id) OR openUntil <= :now";
+
+    private final DataStore<CircuitBreakerItem> dataStore;
+    private final DynamoDbTable<CircuitBreakerItem> circuitBreakerTable;
+
+    CircuitBreakerStateStore(
+            DataStore<CircuitBreakerItem> dataStore,
+            DynamoDbTable<CircuitBreakerItem> circuitBreakerTable) {
+        this.dataStore = dataStore;
+        this.circuitBreakerTable = circuitBreakerTable;
+    }
+
+    public CircuitBreakerStateStore(
+            String circuitBreakerTableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this(
+                new DataStore<>(
+                        circuitBreakerTableName, CircuitBreakerItem.class, dynamoDbEnhancedClient),
+                dynamoDbEnhancedClient.table(
+                        circuitBreakerTableName, TableSchema.fromBean(CircuitBreakerItem.class)));
+    }
+
+    /**
+     * @return epoch millis the named circuit breaker is open until, 0 if closed or not known
+     */
+    public long getOpenUntilMs(String circuitBreakerName) {
+        try {
+            CircuitBreakerItem circuitBreakerItem = dataStore.getItem(circuitBreakerName);
+            return circuitBreakerItem == null ? 0 : circuitBreakerItem.getOpenUntil();
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Unable to read circuit breaker {} state - {}",
+                    circuitBreakerName,
+                    e.getClass().getSimpleName());
+            return 0;
+        }
+    }
+
+    public void saveOpenUntilMs(String circuitBreakerName, long openUntilMs) {
+        CircuitBreakerItem circuitBreakerItem = createItem(circuitBreakerName, openUntilMs);
+
+        try {
+            // Create calls put which overwrites any existing item
+            dataStore.create(circuitBreakerItem);
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Unable to save circuit breaker {} state - {}",
+                    circuitBreakerName,
+                    e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Claims the half-open probe for the named circuit breaker, keeping it open for other
+     * containers until probeUntilMs. If the state cannot be written the probe is allowed, as if
+     * the state were not shared.
+     *
+     * @return false if another container has claimed the probe or re-opened the circuit breaker
+     */
+    public boolean tryClaimProbe(String circuitBreakerName, long nowMs, long probeUntilMs) {
+        Expression probeCondition =
+                Expression.builder()
+                        .expression(PROBE_CONDITION)
+                        .putExpressionValue(
+                                ":now", AttributeValue.builder().n(Long.toString(nowMs)).build())
+                        .build();
+
+        try {
+            circuitBreakerTable.putItem(
+                    PutItemEnhancedRequest.builder(CircuitBreakerItem.class)
+                            .item(createItem(circuitBreakerName, probeUntilMs))
+                            .conditionExpression(probeCondition)
+                            .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                    "Unable to claim circuit breaker {} probe - {}",
+                    circuitBreakerName,
+                    e.getClass().getSimpleName());
+            return true;
+        }
+    }
+
+    private static CircuitBreakerItem createItem(String circuitBreakerName, long openUntilMs) {
+        CircuitBreakerItem circuitBreakerItem = new CircuitBreakerItem();
+        circuitBreakerItem.setId(circuitBreakerName);
+        circuitBreakerItem.setOpenUntil(openUntilMs);
+        circuitBreakerItem.setTtl(openUntilMs / 1000 + ITEM_TTL_AFTER_OPEN_UNTIL_SECONDS);
+        return circuitBreakerItem;
+    }
+}
@@ -0,0 +1,208 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Wraps a ThirdPartyTransport with a circuit breaker per endpoint (see {@link
+ * HttpRetryStatusConfig#circuitBreakerName()}). While a circuit breaker is open requests are not
+ * sent and a CircuitBreakerOpenException is thrown instead.
+ *
+ * <p>Outcomes are judged after any retries. Send failures and responses with a status the
+ * HttpRetryStatusConfig would retry count as failures, all other responses as successes. Reaching
+ * the request deadline says nothing about the endpoint so is ignored.
+ *
+ * <p>A circuit breaker name prefix keeps the circuit breakers (and their shared state) of separate
+ * transports to the same endpoints apart, e.g. for test strategy traffic.
+ */
+public class CircuitBreakingThirdPartyTransport implements ThirdPartyTransport {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String ENABLED_ENV_VAR = "CIRCUIT_BREAKER_ENABLED";
+    public static final String FAILURE_THRESHOLD_ENV_VAR = "CIRCUIT_BREAKER_FAILURE_THRESHOLD";
+    public static final String OPEN_DURATION_MS_ENV_VAR = "CIRCUIT_BREAKER_OPEN_DURATION_MS";
+    public static final String TABLE_NAME_ENV_VAR = "CIRCUIT_BREAKER_TABLE_NAME";
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MS = 30000L;
+
+    private final ThirdPartyTransport thirdPartyTransport;
+    private final EventProbe eventProbe;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier currentTimeMsSupplier;
+    private final CircuitBreakerStateStore circuitBreakerStateStore;
+    private final String circuitBreakerNamePrefix;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakingThirdPartyTransport(
+            ThirdPartyTransport thirdPartyTransport,
+            EventProbe eventProbe,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this(thirdPartyTransport, eventProbe, dynamoDbEnhancedClient, "");
+    }
+
+    public CircuitBreakingThirdPartyTransport(
+            ThirdPartyTransport thirdPartyTransport,
+            EventProbe eventProbe,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient,
+            String circuitBreakerNamePrefix) {
+        this(
+                thirdPartyTransport,
+                eventProbe,
+                Boolean.parseBoolean(System.getenv(ENABLED_ENV_VAR)),
+                parseFailureThreshold(System.getenv(FAILURE_THRESHOLD_ENV_VAR)),
+                parseOpenDurationMs(System.getenv(OPEN_DURATION_MS_ENV_VAR)),
+                System::currentTimeMillis,
+                createCircuitBreakerStateStore(
+                        System.getenv(TABLE_NAME_ENV_VAR), dynamoDbEnhancedClient),
+                circuitBreakerNamePrefix);
+    }
+
+    CircuitBreakingThirdPartyTransport(
+            ThirdPartyTransport thirdPartyTransport,
+            EventProbe eventProbe,
+            boolean enabled,
+            int failureThreshold,
+            long openDurationMs,
+            LongSupplier currentTimeMsSupplier,
+            CircuitBreakerStateStore circuitBreakerStateStore) {
+        this(
+                thirdPartyTransport,
+                eventProbe,
+                enabled,
+                failureThreshold,
+                openDurationMs,
+                currentTimeMsSupplier,
+                circuitBreakerStateStore,
+                "");
+    }
+
+    @java.lang.SuppressWarnings("java:S107")
+    CircuitBreakingThirdPartyTransport(
+            ThirdPartyTransport thirdPartyTransport,
+            EventProbe eventProbe,
+            boolean enabled,
+            int failureThreshold,
+            long openDurationMs,
+            LongSupplier currentTimeMsSupplier,
+            CircuitBreakerStateStore circuitBreakerStateStore,
+            String circuitBreakerNamePrefix) {
+        this.circuitBreakerNamePrefix = circuitBreakerNamePrefix;
+        this.thirdPartyTransport = thirdPartyTransport;
+        this.eventProbe = eventProbe;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.currentTimeMsSupplier = currentTimeMsSupplier;
+        this.circuitBreakerStateStore = circuitBreakerStateStore;
+    }
+
+    @Override
+    public CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline)
+            throws IOException {
+
+        if (!enabled) {
+            return thirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                    request, httpRetryStatusConfig, requestDeadline);
+        }
+
+        CircuitBreaker circuitBreaker = getCircuitBreaker(httpRetryStatusConfig);
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            String circuitBreakerName =
+                    circuitBreakerNamePrefix + httpRetryStatusConfig.circuitBreakerName();
+            LOGGER.warn("Circuit breaker {} open, request not sent", circuitBreakerName);
+            eventProbe.counterMetric(httpRetryStatusConfig.circuitBreakerRejectedMetric());
+
+            throw new CircuitBreakerOpenException(
+                    "Circuit breaker " + circuitBreakerName + " open, request not sent");
+        }
+
+        CloseableHttpResponse httpResponse = null;
+        boolean failed = false;
+        try {
+            httpResponse =
+                    thirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                            request, httpRetryStatusConfig, requestDeadline);
+
+            int statusCode = httpResponse.getStatusLine().getStatusCode();
+            failed =
+                    !httpRetryStatusConfig.isSuccessStatusCode(statusCode)
+                            && httpRetryStatusConfig.shouldHttpClientRetry(statusCode);
+
+            return httpResponse;
+        } catch (RequestDeadlineExceededException e) {
+            // Says nothing about the endpoint, so is ignored rather than counted as a failure
+            throw e;
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        } finally {
+            // Always reports an outcome, including on an Error, so a half-open probe is released
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else if (httpResponse != null) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    private CircuitBreaker getCircuitBreaker(HttpRetryStatusConfig httpRetryStatusConfig) {
+        return circuitBreakers.computeIfAbsent(
+                circuitBreakerNamePrefix + httpRetryStatusConfig.circuitBreakerName(),
+                circuitBreakerName ->
+                        new CircuitBreaker(
+                                circuitBreakerName,
+                                failureThreshold,
+                                openDurationMs,
+                                currentTimeMsSupplier,
+                                state ->
+                                        eventProbe.counterMetric(
+                                                httpRetryStatusConfig.circuitBreakerStateMetric(
+                                                        state)),
+                                circuitBreakerStateStore));
+    }
+
+    private static CircuitBreakerStateStore createCircuitBreakerStateStore(
+            String circuitBreakerTableName, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        if (circuitBreakerTableName == null || circuitBreakerTableName.isBlank()) {
+            return null;
+        }
+        return new CircuitBreakerStateStore(circuitBreakerTableName, dynamoDbEnhancedClient);
+    }
+
+    private static int parseFailureThreshold(String failureThreshold) {
+        if (failureThreshold == null) {
+            return DEFAULT_FAILURE_THRESHOLD;
+        }
+        return Integer.parseInt(failureThreshold);
+    }
+
+    private static long parseOpenDurationMs(String openDurationMs) {
+        if (openDurationMs == null) {
+            return DEFAULT_OPEN_DURATION_MS;
+        }
+        return Long.parseLong(openDurationMs);
+    }
+}
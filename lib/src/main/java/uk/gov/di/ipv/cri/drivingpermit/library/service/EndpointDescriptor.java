@@ -0,0 +1,78 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.Header;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything about a third party endpoint that does not change between requests, built once when a
+ * service is created. Immutable, so can be shared by concurrent requests.
+ */
+public final class EndpointDescriptor {
+
+    private final URI uri;
+    private final List<Header> staticHeaders;
+    private final RequestConfig requestConfig;
+
+    // requestConfig may be null, leaving the client defaults in place
+    public EndpointDescriptor(URI uri, List<Header> staticHeaders, RequestConfig requestConfig) {
+        this.uri = uri;
+        this.staticHeaders = List.copyOf(staticHeaders);
+        this.requestConfig = requestConfig;
+    }
+
+    /** A descriptor for each strategy in endpointURIs, all sharing the same headers and config */
+    public static Map<Strategy, EndpointDescriptor> forStrategies(
+            Map<Strategy, URI> endpointURIs,
+            List<Header> staticHeaders,
+            RequestConfig requestConfig) {
+        Map<Strategy, EndpointDescriptor> endpointDescriptors = new EnumMap<>(Strategy.class);
+
+        endpointURIs.forEach(
+                (strategy, uri) ->
+                        endpointDescriptors.put(
+                                strategy,
+                                new EndpointDescriptor(uri, staticHeaders, requestConfig)));
+
+        return Collections.unmodifiableMap(endpointDescriptors);
+    }
+
+    /**
+     * The descriptor for the strategy. Throws if the strategy has none, e.g. as its endpoint was
+     * not a valid URI.
+     */
+    public static EndpointDescriptor forStrategy(
+            Map<Strategy, EndpointDescriptor> endpointDescriptors, Strategy strategy) {
+        EndpointDescriptor endpointDescriptor = endpointDescriptors.get(strategy);
+
+        if (endpointDescriptor == null) {
+            throw new IllegalStateException("No valid endpoint configured for " + strategy);
+        }
+
+        return endpointDescriptor;
+    }
+
+    /** Sets the uri, static headers and request config, per request headers are added after */
+    public void applyTo(HttpRequestBase request) {
+        request.setURI(uri);
+
+        for (Header header : staticHeaders) {
+            request.addHeader(header);
+        }
+
+        if (requestConfig != null) {
+            request.setConfig(requestConfig);
+        }
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+}
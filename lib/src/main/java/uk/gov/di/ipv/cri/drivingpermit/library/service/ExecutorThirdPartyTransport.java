@@ -0,0 +1,63 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Asynchronous transport that runs each send of the wrapped (blocking) transport on the executor,
+ * leaving the calling thread free until the response is needed. A failed send completes the future
+ * exceptionally with the original IOException as the cause.
+ */
+public class ExecutorThirdPartyTransport implements ThirdPartyTransport {
+
+    private final ThirdPartyTransport blockingTransport;
+    private final Executor executor;
+
+    public ExecutorThirdPartyTransport(ThirdPartyTransport blockingTransport, Executor executor) {
+        this.blockingTransport = blockingTransport;
+        this.executor = executor;
+    }
+
+    @Override
+    public CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline)
+            throws IOException {
+        return blockingTransport.sendHTTPRequestRetryIfAllowed(
+                request, httpRetryStatusConfig, requestDeadline);
+    }
+
+    @Override
+    public CompletableFuture<CloseableHttpResponse> sendHTTPRequestRetryIfAllowedAsync(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline) {
+        return CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return blockingTransport.sendHTTPRequestRetryIfAllowed(
+                                        request, httpRetryStatusConfig, requestDeadline);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        },
+                        executor)
+                .exceptionallyCompose(
+                        e -> {
+                            // Unwrap so the caller sees the IOException as with a blocking send
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                                cause = uncheckedIOException.getCause();
+                            }
+                            return CompletableFuture.failedFuture(cause);
+                        });
+    }
+}
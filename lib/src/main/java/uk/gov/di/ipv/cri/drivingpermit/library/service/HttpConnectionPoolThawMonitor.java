@@ -0,0 +1,144 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.DaemonThreadFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_THAW_DETECTED;
+
+/**
+ * Detects an invocation following a long idle gap (the lambda having been frozen) and evicts the
+ * pooled connections, which are likely to have been closed by the remote in the meantime. When
+ * enabled, a fresh connection is then opened in the background for each pool so the cost overlaps
+ * with the rest of the invocation rather than the third party call.
+ */
+public class HttpConnectionPoolThawMonitor {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String THAW_THRESHOLD_MS_ENV_VAR = "HTTP_CONNECTION_THAW_THRESHOLD_MS";
+    public static final String REWARM_ENABLED_ENV_VAR = "HTTP_CONNECTION_REWARM_ENABLED";
+
+    // Not below the pool max idle time, shorter gaps are already handled by the pool itself
+    public static final long DEFAULT_THAW_THRESHOLD_MS = 30000L;
+    public static final int REWARM_CONNECT_TIMEOUT_MS = 5000;
+
+    // One connect per third party pool, so a small pool covers them without queueing for long
+    private static final int REWARM_THREADS = 2;
+
+    private static final long NO_PREVIOUS_INVOCATION = -1L;
+
+    private final Supplier<List<InstrumentedPoolingHttpClientConnectionManager>>
+            connectionManagersSupplier;
+    private final EventProbe eventProbe;
+    private final long thawThresholdMs;
+    private final boolean rewarmEnabled;
+    private final LongSupplier currentTimeMsSupplier;
+    private final Executor rewarmExecutor;
+
+    private long lastInvocationTimeMs = NO_PREVIOUS_INVOCATION;
+
+    public HttpConnectionPoolThawMonitor(
+            ApacheHTTPClientFactoryService apacheHTTPClientFactoryService, EventProbe eventProbe) {
+        this(
+                apacheHTTPClientFactoryService::getConnectionManagers,
+                eventProbe,
+                parseThawThresholdMs(System.getenv(THAW_THRESHOLD_MS_ENV_VAR)),
+                Boolean.parseBoolean(System.getenv(REWARM_ENABLED_ENV_VAR)),
+                System::currentTimeMillis,
+                // Daemon threads so a connect still in progress cannot hold up the runtime
+                Executors.newFixedThreadPool(
+                        REWARM_THREADS, new DaemonThreadFactory("http-connection-rewarm")));
+    }
+
+    HttpConnectionPoolThawMonitor(
+            Supplier<List<InstrumentedPoolingHttpClientConnectionManager>>
+                    connectionManagersSupplier,
+            EventProbe eventProbe,
+            long thawThresholdMs,
+            boolean rewarmEnabled,
+            LongSupplier currentTimeMsSupplier,
+            Executor rewarmExecutor) {
+        this.connectionManagersSupplier = connectionManagersSupplier;
+        this.eventProbe = eventProbe;
+        this.thawThresholdMs = thawThresholdMs;
+        this.rewarmEnabled = rewarmEnabled;
+        this.currentTimeMsSupplier = currentTimeMsSupplier;
+        this.rewarmExecutor = rewarmExecutor;
+    }
+
+    /**
+     * Records the invocation start and performs the pool maintenance if the idle gap since the
+     * previous invocation is over the threshold. Callers are not expected to wait on the result.
+     *
+     * @return completes when any background re-warm has finished
+     */
+    public synchronized CompletableFuture<Void> onInvocationStart() {
+        long invocationTimeMs = currentTimeMsSupplier.getAsLong();
+
+        long idleTimeMs =
+                lastInvocationTimeMs == NO_PREVIOUS_INVOCATION
+                        ? 0
+                        : invocationTimeMs - lastInvocationTimeMs;
+        lastInvocationTimeMs = invocationTimeMs;
+
+        if (idleTimeMs < thawThresholdMs) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        LOGGER.info("Invocation after {}ms idle, evicting pooled connections", idleTimeMs);
+        eventProbe.counterMetric(HTTP_CONNECTION_POOL_THAW_DETECTED, idleTimeMs);
+
+        List<InstrumentedPoolingHttpClientConnectionManager> connectionManagers =
+                connectionManagersSupplier.get();
+
+        connectionManagers.forEach(
+                InstrumentedPoolingHttpClientConnectionManager::evictIdleConnections);
+
+        if (!rewarmEnabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(
+                connectionManagers.stream()
+                        .map(
+                                connectionManager ->
+                                        CompletableFuture.runAsync(
+                                                () -> rewarm(connectionManager), rewarmExecutor))
+                        .toArray(CompletableFuture[]::new));
+    }
+
+    private void rewarm(InstrumentedPoolingHttpClientConnectionManager connectionManager) {
+        try {
+            if (connectionManager.warmLastRoute(REWARM_CONNECT_TIMEOUT_MS)) {
+                LOGGER.info("Re-warmed {} connection", connectionManager.getPoolName());
+            }
+        } catch (IOException | ExecutionException e) {
+            // Not fatal - the next request opens its own connection
+            LOGGER.warn(
+                    "Failed to re-warm {} connection - {}",
+                    connectionManager.getPoolName(),
+                    e.getMessage());
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted re-warming {} connection", connectionManager.getPoolName());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long parseThawThresholdMs(String thawThresholdMs) {
+        if (thawThresholdMs == null) {
+            return DEFAULT_THAW_THRESHOLD_MS;
+        }
+        return Long.parseLong(thawThresholdMs);
+    }
+}
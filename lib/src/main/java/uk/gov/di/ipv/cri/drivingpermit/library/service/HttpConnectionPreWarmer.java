@@ -0,0 +1,244 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.crac.Context;
+import org.crac.Resource;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.DaemonThreadFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_PRE_WARM_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_PRE_WARM_INCOMPLETE;
+
+/**
+ * Opens (including any mutual TLS handshake) a connection to each registered third party endpoint
+ * so the first request on a new execution environment does not pay for it. Run during function
+ * init, and again after a SnapStart restore as connections cannot survive the snapshot. Time-boxed
+ * so init is never held beyond the configured budget, with any unfinished connection left to
+ * complete in the background.
+ */
+public class HttpConnectionPreWarmer implements Resource {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String PRE_WARM_ENABLED_ENV_VAR = "HTTP_CONNECTION_PRE_WARM_ENABLED";
+    public static final String PRE_WARM_BUDGET_MS_ENV_VAR = "HTTP_CONNECTION_PRE_WARM_BUDGET_MS";
+
+    public static final int DEFAULT_PRE_WARM_BUDGET_MS = 2000;
+
+    private final Supplier<List<InstrumentedPoolingHttpClientConnectionManager>>
+            connectionManagersSupplier;
+    private final EventProbe eventProbe;
+    private final boolean preWarmEnabled;
+    private final int preWarmBudgetMs;
+    private final Executor preWarmExecutor;
+
+    // Pool name to the routes that pool is used for
+    private final List<Map.Entry<String, HttpRoute>> targets = new CopyOnWriteArrayList<>();
+
+    // Name to a call that opens connections not held in one of the pools, e.g. to AWS services
+    private final List<Map.Entry<String, Runnable>> tasks = new CopyOnWriteArrayList<>();
+
+    public HttpConnectionPreWarmer(
+            ApacheHTTPClientFactoryService apacheHTTPClientFactoryService, EventProbe eventProbe) {
+        this(
+                apacheHTTPClientFactoryService::getConnectionManagers,
+                eventProbe,
+                Boolean.parseBoolean(System.getenv(PRE_WARM_ENABLED_ENV_VAR)),
+                parsePreWarmBudgetMs(System.getenv(PRE_WARM_BUDGET_MS_ENV_VAR)),
+                // Daemon threads so a connect still in progress cannot hold up the runtime
+                Executors.newCachedThreadPool(
+                        new DaemonThreadFactory("http-connection-pre-warm")));
+    }
+
+    HttpConnectionPreWarmer(
+            Supplier<List<InstrumentedPoolingHttpClientConnectionManager>>
+                    connectionManagersSupplier,
+            EventProbe eventProbe,
+            boolean preWarmEnabled,
+            int preWarmBudgetMs,
+            Executor preWarmExecutor) {
+        this.connectionManagersSupplier = connectionManagersSupplier;
+        this.eventProbe = eventProbe;
+        this.preWarmEnabled = preWarmEnabled;
+        this.preWarmBudgetMs = preWarmBudgetMs;
+        this.preWarmExecutor = preWarmExecutor;
+    }
+
+    /**
+     * Registers an endpoint to be pre-warmed through the connection pool of the given name. The
+     * route is resolved as the http client would, so the warmed connection is the one leased.
+     */
+    public void addTarget(String poolName, String endpointUri) {
+        URI uri = URI.create(endpointUri);
+
+        if (uri.getHost() == null) {
+            LOGGER.warn("Not pre-warming {} endpoint without a host", poolName);
+            return;
+        }
+
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+
+        HttpRoute route =
+                new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+
+        Map.Entry<String, HttpRoute> target = Map.entry(poolName, route);
+        if (!targets.contains(target)) {
+            targets.add(target);
+        }
+    }
+
+    /**
+     * Registers a cheap call to be made alongside the targets, for clients that manage their own
+     * connections. Failures are logged and counted as incomplete, never thrown.
+     */
+    public void addTask(String name, Runnable task) {
+        tasks.add(Map.entry(name, task));
+    }
+
+    /**
+     * Opens a connection for each target, and runs each task, in parallel, waiting no longer than
+     * the budget.
+     *
+     * @return true if every target was warmed and every task run within the budget
+     */
+    public boolean preWarm() {
+        if (!preWarmEnabled || (targets.isEmpty() && tasks.isEmpty())) {
+            return false;
+        }
+
+        Map<String, InstrumentedPoolingHttpClientConnectionManager> connectionManagers =
+                connectionManagersSupplier.get().stream()
+                        .collect(
+                                Collectors.toMap(
+                                        InstrumentedPoolingHttpClientConnectionManager::getPoolName,
+                                        Function.identity(),
+                                        (first, latest) -> latest));
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        List<CompletableFuture<Boolean>> warmed = new ArrayList<>();
+        for (Map.Entry<String, HttpRoute> target : targets) {
+            InstrumentedPoolingHttpClientConnectionManager connectionManager =
+                    connectionManagers.get(target.getKey());
+            warmed.add(
+                    CompletableFuture.supplyAsync(
+                                    () -> warm(connectionManager, target.getValue()),
+                                    preWarmExecutor)
+                            .exceptionally(
+                                    e -> {
+                                        LOGGER.warn(
+                                                "Connection pre-warm failed - {}",
+                                                e.getMessage());
+                                        return false;
+                                    }));
+        }
+        for (Map.Entry<String, Runnable> task : tasks) {
+            warmed.add(
+                    CompletableFuture.supplyAsync(
+                            () -> run(task.getKey(), task.getValue()), preWarmExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(warmed.toArray(CompletableFuture[]::new))
+                    .get(preWarmBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn("Connection pre-warm not completed within {}ms", preWarmBudgetMs);
+        } catch (ExecutionException e) {
+            // Not expected - each failure is already handled as not warmed
+            LOGGER.warn("Connection pre-warm failed - {}", e.getMessage());
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted waiting for connection pre-warm");
+            Thread.currentThread().interrupt();
+        }
+
+        // Failed, or still in progress at the end of the budget
+        long incomplete =
+                warmed.stream().filter(future -> !future.getNow(Boolean.FALSE)).count();
+
+        eventProbe.counterMetric(HTTP_CONNECTION_PRE_WARM_DURATION, stopWatch.stop());
+        eventProbe.counterMetric(HTTP_CONNECTION_PRE_WARM_INCOMPLETE, incomplete);
+
+        return incomplete == 0;
+    }
+
+    private boolean warm(
+            InstrumentedPoolingHttpClientConnectionManager connectionManager, HttpRoute route) {
+        if (connectionManager == null) {
+            LOGGER.warn("No connection pool to pre-warm {}", route.getTargetHost());
+            return false;
+        }
+
+        try {
+            connectionManager.warmConnection(route, preWarmBudgetMs);
+            LOGGER.info(
+                    "Pre-warmed {} connection to {}",
+                    connectionManager.getPoolName(),
+                    route.getTargetHost());
+            return true;
+        } catch (IOException | ExecutionException e) {
+            // Not fatal - the first request opens its own connection
+            LOGGER.warn(
+                    "Failed to pre-warm {} connection - {}",
+                    connectionManager.getPoolName(),
+                    e.getMessage());
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted pre-warming {} connection", connectionManager.getPoolName());
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private boolean run(String name, Runnable task) {
+        try {
+            task.run();
+            LOGGER.info("Pre-warmed {}", name);
+            return true;
+        } catch (RuntimeException e) {
+            // Not fatal - the first request makes its own connection
+            LOGGER.warn("Failed to pre-warm {} - {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        // Open sockets are not valid after restore, close them rather than snapshot them
+        connectionManagersSupplier
+                .get()
+                .forEach(InstrumentedPoolingHttpClientConnectionManager::evictIdleConnections);
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        preWarm();
+    }
+
+    private static int parsePreWarmBudgetMs(String preWarmBudgetMs) {
+        if (preWarmBudgetMs == null) {
+            return DEFAULT_PRE_WARM_BUDGET_MS;
+        }
+        return Integer.parseInt(preWarmBudgetMs);
+    }
+}
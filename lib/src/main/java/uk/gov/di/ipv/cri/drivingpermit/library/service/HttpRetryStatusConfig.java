@@ -8,6 +8,10 @@ public interface HttpRetryStatusConfig {
     // API's may have others depending on implementation
     boolean isSuccessStatusCode(int statusCode);
 
+    // Requests that can safely be re-sent when a stale pooled connection fails with no response,
+    // as the remote may have received the original request before the connection was closed
+    boolean isIdempotent();
+
     // Call backs to allow http retry metrics to be captured per api/endpoint
     String httpRetryerSendOkMetric();
 
@@ -18,4 +22,21 @@ public interface HttpRetryStatusConfig {
     String httpRetryerSendRetryMetric();
 
     String httpRetryerMaxRetriesMetric();
+
+    // Time spent waiting (backoff) before each retry, captured with the wait in ms as the value
+    String httpRetryerWaitTimeMetric();
+
+    // Retries not made as the retry budget is exhausted or the Retry-After does not fit
+    String httpRetryerRetrySuppressedMetric();
+
+    // Retries left in the budget when a retry is considered, captured with that as the value
+    String httpRetryerRetryBudgetMetric();
+
+    // Circuit breaker state is kept per name, configs sharing an endpoint share a circuit breaker
+    String circuitBreakerName();
+
+    // Call backs to allow circuit breaker metrics to be captured per api/endpoint
+    String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState);
+
+    String circuitBreakerRejectedMetric();
 }
@@ -1,23 +1,47 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.service;
 
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BackoffPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ExponentialBackoffPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RetryBudget;
 import uk.gov.di.ipv.cri.drivingpermit.library.util.SleepHelper;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.http.HttpConnectTimeoutException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
-public class HttpRetryer {
+/** Blocking ThirdPartyTransport over an Apache http client. */
+public class HttpRetryer implements ThirdPartyTransport {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
     public static final long HTTP_RETRY_WAIT_TIME_LIMIT_MS = 12800L;
+    public static final long HTTP_RETRY_BASE_WAIT_TIME_MS = 100L;
+
+    // Time kept back from the remaining invocation time for the attempt that follows a wait
+    public static final long HTTP_RETRY_MIN_ATTEMPT_TIME_MS = 1000L;
+
+    // No Retry-After header, or one that could not be parsed
+    private static final long NO_RETRY_AFTER = -1L;
 
     private final SleepHelper sleepHelper;
+    private final BackoffPolicy backoffPolicy;
+    private final RetryBudget retryBudget;
     private final CloseableHttpClient httpClient;
 
     private final int maxRetries;
@@ -25,34 +49,147 @@ public class HttpRetryer {
     private final EventProbe eventProbe;
 
     public HttpRetryer(CloseableHttpClient httpClient, EventProbe eventProbe, int maxRetries) {
+        this(
+                httpClient,
+                eventProbe,
+                maxRetries,
+                new ExponentialBackoffPolicy(
+                        HTTP_RETRY_BASE_WAIT_TIME_MS,
+                        HTTP_RETRY_WAIT_TIME_LIMIT_MS,
+                        ExponentialBackoffPolicy.Jitter.FULL));
+    }
+
+    public HttpRetryer(
+            CloseableHttpClient httpClient,
+            EventProbe eventProbe,
+            int maxRetries,
+            BackoffPolicy backoffPolicy) {
+        this(httpClient, eventProbe, maxRetries, backoffPolicy, new RetryBudget());
+    }
+
+    /**
+     * @param retryBudget shared by all requests sent by this HttpRetryer
+     */
+    public HttpRetryer(
+            CloseableHttpClient httpClient,
+            EventProbe eventProbe,
+            int maxRetries,
+            BackoffPolicy backoffPolicy,
+            RetryBudget retryBudget) {
         this.sleepHelper = new SleepHelper(HTTP_RETRY_WAIT_TIME_LIMIT_MS);
+        this.backoffPolicy = backoffPolicy;
+        this.retryBudget = retryBudget;
         this.httpClient = httpClient;
         this.eventProbe = eventProbe;
         this.maxRetries = maxRetries;
     }
 
+    @Override
     public CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
             HttpUriRequest request, HttpRetryStatusConfig httpRetryStatusConfig)
             throws IOException {
+        return sendHTTPRequestRetryIfAllowed(
+                request, httpRetryStatusConfig, RequestDeadline.none());
+    }
+
+    /**
+     * As {@link #sendHTTPRequestRetryIfAllowed(HttpUriRequest, HttpRetryStatusConfig)}, bounded by
+     * the request deadline. Waits between retries are capped by the time remaining, each attempt
+     * has its timeouts reduced to fit and retries stop when there is no longer time for a further
+     * attempt. If the deadline has passed before an attempt is sent, a
+     * RequestDeadlineExceededException is thrown.
+     *
+     * <p>A Retry-After on a retryable response sets the minimum wait, the retry is not made if
+     * that wait does not fit the time remaining. Retries are also not made once the retry budget
+     * is exhausted.
+     */
+    @Override
+    public CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline)
+            throws IOException {
+
+        // Per attempt timeouts are fitted from the originally configured values
+        final RequestConfig configuredRequestConfig = getConfiguredRequestConfig(request);
+
+        retryBudget.recordRequest();
 
         CloseableHttpResponse httpResponse = null;
+        IOException lastRetryableException = null;
 
         // 0 is initial request, > 0 are retries
         int tryCount = 0;
         boolean retry = false;
+        long previousWaitTimeMs = 0;
 
         do {
             if (retry) {
+                long availableWaitTimeMs =
+                        requestDeadline.getRemainingTimeMs() - HTTP_RETRY_MIN_ATTEMPT_TIME_MS;
+
+                // Only a response to the last attempt can carry a Retry-After
+                long retryAfterMs =
+                        lastRetryableException == null
+                                ? getRetryAfterMs(httpResponse)
+                                : NO_RETRY_AFTER;
+
+                if (!isRetryAllowed(
+                        tryCount, availableWaitTimeMs, retryAfterMs, httpRetryStatusConfig)) {
+                    if (lastRetryableException != null) {
+                        eventProbe.counterMetric(
+                                httpRetryStatusConfig.httpRetryerSendFailMetric(
+                                        lastRetryableException));
+                        throw lastRetryableException;
+                    }
+
+                    break;
+                }
+
                 eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerSendRetryMetric());
 
                 freeHttpConnectionBackToPool(httpResponse);
+
+                long waitTimeMs =
+                        Math.max(
+                                backoffPolicy.calculateWaitTimeMs(tryCount, previousWaitTimeMs),
+                                retryAfterMs);
+                previousWaitTimeMs = Math.min(waitTimeMs, availableWaitTimeMs);
+
+                long timeWaitedMs = sleepHelper.sleep(previousWaitTimeMs);
+
+                eventProbe.counterMetric(
+                        httpRetryStatusConfig.httpRetryerWaitTimeMetric(), timeWaitedMs);
+
+                // The sleep ends early if interrupted, leaving the flag set for the caller
+                if (Thread.currentThread().isInterrupted()) {
+                    InterruptedIOException e =
+                            new InterruptedIOException(
+                                    "Interrupted before attempt " + (tryCount + 1));
+
+                    LOGGER.warn("Failed to send request - reason {}", e.getMessage());
+                    eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerSendFailMetric(e));
+
+                    throw e;
+                }
+            }
+
+            if (requestDeadline.hasExpired()) {
+                RequestDeadlineExceededException e =
+                        new RequestDeadlineExceededException(
+                                "Request deadline reached before attempt " + (tryCount + 1));
+
+                LOGGER.warn("Failed to send request - reason {}", e.getMessage());
+                eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerSendFailMetric(e));
+
+                throw e;
             }
 
-            // Wait before sending request (0ms for first try)
-            sleepHelper.busyWaitWithExponentialBackOff(tryCount);
+            fitRequestConfigToDeadline(request, configuredRequestConfig, requestDeadline);
 
             try {
                 httpResponse = httpClient.execute(request);
+                lastRetryableException = null;
 
                 int statusCode = httpResponse.getStatusLine().getStatusCode();
 
@@ -70,9 +207,9 @@ public class HttpRetryer {
                         statusCode);
 
             } catch (IOException e) {
-                if (!(e instanceof HttpConnectTimeoutException)) {
-                    // Only HttpConnectTimeoutException can be retried, All other IOExceptions are
-                    // not
+                if (!isRetryableException(e, httpRetryStatusConfig)) {
+                    // Only connect timeouts and stale connections (idempotent requests) can be
+                    // retried, All other IOExceptions are not
                     LOGGER.warn("Failed to send request - reason {}", e.getMessage());
                     eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerSendFailMetric(e));
 
@@ -82,7 +219,7 @@ public class HttpRetryer {
                 }
 
                 // For retries (tryCount>0) we want to rethrow only the last
-                // HttpConnectTimeoutException
+                // retryable exception
                 if (tryCount < maxRetries) {
 
                     LOGGER.info(
@@ -92,6 +229,7 @@ public class HttpRetryer {
                             tryCount,
                             true);
 
+                    lastRetryableException = e;
                     retry = true;
                 } else {
 
@@ -128,6 +266,97 @@ public class HttpRetryer {
         return httpResponse;
     }
 
+    private boolean isRetryAllowed(
+            int retryNumber,
+            long availableWaitTimeMs,
+            long retryAfterMs,
+            HttpRetryStatusConfig httpRetryStatusConfig) {
+        if (availableWaitTimeMs < 0) {
+            LOGGER.warn("HTTPRequestRetry - insufficient time remaining for retry {}", retryNumber);
+            return false;
+        }
+
+        if (retryAfterMs > Math.min(availableWaitTimeMs, HTTP_RETRY_WAIT_TIME_LIMIT_MS)) {
+            LOGGER.warn(
+                    "HTTPRequestRetry - Retry-After {}ms exceeds the time available for retry {}",
+                    retryAfterMs,
+                    retryNumber);
+            eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerRetrySuppressedMetric());
+            return false;
+        }
+
+        boolean withinRetryBudget = retryBudget.tryAcquireRetry();
+        eventProbe.counterMetric(
+                httpRetryStatusConfig.httpRetryerRetryBudgetMetric(),
+                retryBudget.getAvailableRetries());
+
+        if (!withinRetryBudget) {
+            LOGGER.warn("HTTPRequestRetry - retry budget exhausted for retry {}", retryNumber);
+            eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerRetrySuppressedMetric());
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the wait requested by a Retry-After header in seconds or as an HTTP-date, or
+     *     NO_RETRY_AFTER
+     */
+    private long getRetryAfterMs(CloseableHttpResponse httpResponse) {
+        Header retryAfterHeader = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (retryAfterHeader == null || retryAfterHeader.getValue() == null) {
+            return NO_RETRY_AFTER;
+        }
+
+        String retryAfter = retryAfterHeader.getValue().trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(retryAfter), 0));
+        } catch (NumberFormatException e) {
+            Date retryAfterDate = DateUtils.parseDate(retryAfter);
+            if (retryAfterDate == null) {
+                LOGGER.warn("HTTPRequestRetry - ignoring invalid Retry-After {}", retryAfter);
+                return NO_RETRY_AFTER;
+            }
+            return Math.max(retryAfterDate.getTime() - System.currentTimeMillis(), 0);
+        }
+    }
+
+    private boolean isRetryableException(
+            IOException e, HttpRetryStatusConfig httpRetryStatusConfig) {
+        if (e instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+
+        // A pooled connection closed by the remote while idle (e.g. during a lambda freeze)
+        // fails on first use with no response
+        if (e instanceof NoHttpResponseException) {
+            LOGGER.warn(
+                    "Stale connection detected - request idempotent {}",
+                    httpRetryStatusConfig.isIdempotent());
+            return httpRetryStatusConfig.isIdempotent();
+        }
+
+        return false;
+    }
+
+    private RequestConfig getConfiguredRequestConfig(HttpUriRequest request) {
+        if (request instanceof HttpRequestBase httpRequestBase
+                && httpRequestBase.getConfig() != null) {
+            return httpRequestBase.getConfig();
+        }
+        return RequestConfig.DEFAULT;
+    }
+
+    private void fitRequestConfigToDeadline(
+            HttpUriRequest request,
+            RequestConfig configuredRequestConfig,
+            RequestDeadline requestDeadline) {
+        if (request instanceof HttpRequestBase httpRequestBase) {
+            httpRequestBase.setConfig(requestDeadline.fitRequestConfig(configuredRequestConfig));
+        }
+    }
+
     /***
      * This avoids using all the limited number of http connection pool
      * resources, by closing previous responses when errors occur.
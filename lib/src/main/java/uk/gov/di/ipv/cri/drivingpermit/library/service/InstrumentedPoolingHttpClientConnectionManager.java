@@ -0,0 +1,189 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_AVAILABLE;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_CONNECTION_OPENED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_EVICTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_LEASED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_LEASE_WAIT_TIME;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_PENDING;
+
+/**
+ * Connection pool for the http client of a single third party, recording pool statistics on each
+ * lease so connection re-use across invocations can be observed.
+ */
+public class InstrumentedPoolingHttpClientConnectionManager
+        extends PoolingHttpClientConnectionManager {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final String poolName;
+    private final String metricPrefix;
+    private final long maxIdleTimeSeconds;
+    private final long keepAliveSeconds;
+    private final EventProbe eventProbe;
+
+    // Route of the most recent lease, used to re-open a connection after stale eviction
+    private volatile HttpRoute lastRoute;
+
+    public InstrumentedPoolingHttpClientConnectionManager(
+            Registry<ConnectionSocketFactory> socketFactoryRegistry,
+            HttpConnectionPoolConfig httpConnectionPoolConfig,
+            EventProbe eventProbe) {
+        super(socketFactoryRegistry);
+
+        setMaxTotal(httpConnectionPoolConfig.getMaxTotal());
+        setDefaultMaxPerRoute(httpConnectionPoolConfig.getMaxPerRoute());
+        setValidateAfterInactivity(httpConnectionPoolConfig.getValidateAfterInactivityMs());
+
+        this.poolName = httpConnectionPoolConfig.getPoolName();
+        this.metricPrefix = poolName.toLowerCase() + "_";
+        this.maxIdleTimeSeconds = httpConnectionPoolConfig.getMaxIdleTimeSeconds();
+        this.keepAliveSeconds = httpConnectionPoolConfig.getKeepAliveSeconds();
+        this.eventProbe = eventProbe;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        // The lambda environment is frozen between invocations so a background evictor thread
+        // cannot be relied upon, expired and idle connections are evicted before each lease
+        closeExpiredConnections();
+        closeIdleConnections(maxIdleTimeSeconds, TimeUnit.SECONDS);
+
+        lastRoute = route;
+
+        final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                    throws InterruptedException, ExecutionException,
+                            ConnectionPoolTimeoutException {
+                StopWatch stopWatch = new StopWatch();
+                stopWatch.start();
+                try {
+                    return connectionRequest.get(timeout, timeUnit);
+                } finally {
+                    eventProbe.counterMetric(
+                            metricPrefix + HTTP_CONNECTION_POOL_LEASE_WAIT_TIME, stopWatch.stop());
+                    recordPoolStatistics();
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return connectionRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(
+            HttpClientConnection managedConn,
+            HttpRoute route,
+            int connectTimeout,
+            HttpContext context)
+            throws IOException {
+        // Only called when a leased connection is not already open (i.e. not re-used)
+        LOGGER.info("Opening new {} connection to {}", poolName, route.getTargetHost());
+        eventProbe.counterMetric(metricPrefix + HTTP_CONNECTION_POOL_CONNECTION_OPENED);
+
+        super.connect(managedConn, route, connectTimeout, context);
+    }
+
+    /**
+     * Closes all connections not currently leased, for use when they are likely to have been
+     * closed by the remote e.g. after the lambda has been frozen.
+     *
+     * @return the number of connections closed
+     */
+    public int evictIdleConnections() {
+        int availableBefore = getTotalStats().getAvailable();
+
+        closeExpiredConnections();
+        closeIdleConnections(0, TimeUnit.MILLISECONDS);
+
+        int evicted = availableBefore - getTotalStats().getAvailable();
+
+        LOGGER.info("Evicted {} idle {} connections", evicted, poolName);
+        eventProbe.counterMetric(metricPrefix + HTTP_CONNECTION_POOL_EVICTED, evicted);
+
+        return evicted;
+    }
+
+    /**
+     * Opens (and completes any TLS handshake for) a connection to the route, returning it to the
+     * pool for the next request. A pooled connection that is already open is left as is.
+     */
+    public void warmConnection(HttpRoute route, int connectTimeoutMs)
+            throws IOException, InterruptedException, ExecutionException {
+        HttpClientConnection connection =
+                requestConnection(route, null).get(connectTimeoutMs, TimeUnit.MILLISECONDS);
+
+        boolean reusable = false;
+        try {
+            if (!connection.isOpen()) {
+                HttpClientContext context = HttpClientContext.create();
+                connect(connection, route, connectTimeoutMs, context);
+                routeComplete(connection, route, context);
+            }
+            reusable = true;
+        } finally {
+            if (!reusable) {
+                connection.shutdown();
+            }
+            releaseConnection(connection, null, keepAliveSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * As {@link #warmConnection(HttpRoute, int)} for the route of the most recent request.
+     *
+     * @return false if no request has been made through this pool
+     */
+    public boolean warmLastRoute(int connectTimeoutMs)
+            throws IOException, InterruptedException, ExecutionException {
+        HttpRoute route = lastRoute;
+        if (route == null) {
+            return false;
+        }
+
+        warmConnection(route, connectTimeoutMs);
+        return true;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void recordPoolStatistics() {
+        PoolStats poolStats = getTotalStats();
+
+        LOGGER.debug("{} connection pool statistics {}", poolName, poolStats);
+
+        eventProbe.counterMetric(metricPrefix + HTTP_CONNECTION_POOL_LEASED, poolStats.getLeased());
+        eventProbe.counterMetric(
+                metricPrefix + HTTP_CONNECTION_POOL_AVAILABLE, poolStats.getAvailable());
+        eventProbe.counterMetric(
+                metricPrefix + HTTP_CONNECTION_POOL_PENDING, poolStats.getPending());
+    }
+}
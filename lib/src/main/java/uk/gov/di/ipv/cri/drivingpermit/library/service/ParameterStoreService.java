@@ -3,6 +3,7 @@ package uk.gov.di.ipv.cri.drivingpermit.library.service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.lambda.powertools.parameters.SSMProvider;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshot;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
 
 import java.util.Map;
@@ -16,9 +17,17 @@ public class ParameterStoreService {
 
     private final SSMProvider ssmProvider;
 
+    // Values prefetched at init, anything not in it is read from parameter store
+    private final ConfigSnapshot configSnapshot;
+
     public ParameterStoreService(SSMProvider ssmProvider) {
+        this(ssmProvider, ConfigSnapshot.empty());
+    }
+
+    public ParameterStoreService(SSMProvider ssmProvider, ConfigSnapshot configSnapshot) {
 
         this.ssmProvider = ssmProvider;
+        this.configSnapshot = configSnapshot;
     }
 
     public String getParameterValue(ParameterPrefix prefix, String parameterName) {
@@ -33,6 +42,11 @@ public class ParameterStoreService {
                 parameterName,
                 parameterPath);
 
+        String snapshotValue = configSnapshot.getParameter(parameterPath);
+        if (snapshotValue != null) {
+            return snapshotValue;
+        }
+
         return ssmProvider.get(parameterPath);
     }
 
@@ -63,6 +77,11 @@ public class ParameterStoreService {
                 path,
                 parametersPath);
 
+        Map<String, String> snapshotValues = configSnapshot.getParametersFromPath(parametersPath);
+        if (snapshotValues != null) {
+            return snapshotValues;
+        }
+
         return ssmProvider.recursive().getMultiple(parametersPath);
     }
 
@@ -79,6 +98,12 @@ public class ParameterStoreService {
                 path,
                 parametersPath);
 
+        Map<String, String> snapshotValues =
+                configSnapshot.getParametersFromPathWithDecryption(parametersPath);
+        if (snapshotValues != null) {
+            return snapshotValues;
+        }
+
         return ssmProvider.withDecryption().getMultiple(parametersPath);
     }
 }
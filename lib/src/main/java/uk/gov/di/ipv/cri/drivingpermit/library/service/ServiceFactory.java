@@ -2,6 +2,7 @@ package uk.gov.di.ipv.cri.drivingpermit.library.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
@@ -11,19 +12,38 @@ import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.library.config.ParameterStoreParameters;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshot;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshotDeclaration;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshotLoader;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.DaemonThreadFactory;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
 
 import java.time.Clock;
+import java.util.concurrent.Executors;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_CLIENT_DURATION;
 
 public class ServiceFactory {
 
+    // Enough for all post document check writes to be in flight at once
+    private static final int CONCURRENT_CALL_THREADS = 5;
+
     private final ObjectMapper objectMapper;
+    private final JsonCodecs jsonCodecs;
     private final EventProbe eventProbe;
 
     private final ClientProviderFactory clientProviderFactory;
     private final ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
+    private final HttpConnectionPoolThawMonitor httpConnectionPoolThawMonitor;
+    private final HttpConnectionPreWarmer httpConnectionPreWarmer;
     private final ParameterStoreService parameterStoreService;
 
+    // Created on first use, so functions that never run concurrent calls have no thread pool
+    private ConcurrentCallRunner concurrentCallRunner;
+
     private final AuditService auditService;
     private final SessionService sessionService;
 
@@ -36,13 +56,29 @@ public class ServiceFactory {
 
     @ExcludeFromGeneratedCoverageReport
     public ServiceFactory() {
+        this(new ConfigSnapshotDeclaration());
+    }
+
+    /**
+     * @param configSnapshotDeclaration parameters the function reads during init, fetched together
+     *     before any are read. Nothing is prefetched if empty.
+     */
+    @ExcludeFromGeneratedCoverageReport
+    public ServiceFactory(ConfigSnapshotDeclaration configSnapshotDeclaration) {
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.jsonCodecs = new JsonCodecs(objectMapper);
         this.eventProbe = new EventProbe();
 
         this.clientProviderFactory = new ClientProviderFactory(true, true);
-        this.apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService();
+        this.apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService(eventProbe);
+        this.httpConnectionPoolThawMonitor =
+                new HttpConnectionPoolThawMonitor(apacheHTTPClientFactoryService, eventProbe);
+        this.httpConnectionPreWarmer =
+                new HttpConnectionPreWarmer(apacheHTTPClientFactoryService, eventProbe);
         this.parameterStoreService =
-                new ParameterStoreService(clientProviderFactory.getSSMProvider());
+                new ParameterStoreService(
+                        clientProviderFactory.getSSMProvider(),
+                        loadConfigSnapshot(configSnapshotDeclaration));
 
         this.commonLibConfigurationService =
                 new uk.gov.di.ipv.cri.common.library.service.ConfigurationService(
@@ -76,6 +112,34 @@ public class ServiceFactory {
                         clientProviderFactory.getDynamoDbEnhancedClient());
     }
 
+    @ExcludeFromGeneratedCoverageReport
+    private ConfigSnapshot loadConfigSnapshot(ConfigSnapshotDeclaration configSnapshotDeclaration) {
+        if (configSnapshotDeclaration.isEmpty()) {
+            return ConfigSnapshot.empty();
+        }
+
+        // Read below, so fetched with the rest
+        configSnapshotDeclaration.parameter(
+                ParameterPrefix.STACK, ParameterStoreParameters.DOCUMENT_CHECK_RESULT_TABLE_NAME);
+
+        // The common-lib SSMProvider does not expose its SsmClient, so the load has its own.
+        // Creating and closing it is timed, as the cost it adds to init.
+        StopWatch clientStopWatch = new StopWatch();
+        clientStopWatch.start();
+        SsmClient ssmClient = ConfigSnapshotLoader.createSsmClient();
+        long clientDurationMs = clientStopWatch.stop();
+
+        try {
+            return new ConfigSnapshotLoader(ssmClient, getConcurrentCallRunner(), eventProbe)
+                    .load(configSnapshotDeclaration);
+        } finally {
+            clientStopWatch.start();
+            ssmClient.close();
+            eventProbe.counterMetric(
+                    CONFIG_SNAPSHOT_CLIENT_DURATION, clientDurationMs + clientStopWatch.stop());
+        }
+    }
+
     // Service factory used to avoid passing all these parameters elsewhere
     // Suppressed S107 added, to avoid breaking apart the service factory (just yet)
     @java.lang.SuppressWarnings("java:S107")
@@ -84,16 +148,23 @@ public class ServiceFactory {
             ClientProviderFactory clientProviderFactory,
             ApacheHTTPClientFactoryService apacheHTTPClientFactoryService,
             ParameterStoreService parameterStoreService,
+            ConcurrentCallRunner concurrentCallRunner,
             SessionService sessionService,
             AuditService auditService,
             DocumentCheckResultStorageService documentCheckResultStorageService,
             PersonIdentityService personIdentityService,
             ConfigurationService commonLibConfigurationService) {
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.jsonCodecs = new JsonCodecs(objectMapper);
         this.eventProbe = eventProbe;
         this.clientProviderFactory = clientProviderFactory;
         this.apacheHTTPClientFactoryService = apacheHTTPClientFactoryService;
+        this.httpConnectionPoolThawMonitor =
+                new HttpConnectionPoolThawMonitor(apacheHTTPClientFactoryService, eventProbe);
+        this.httpConnectionPreWarmer =
+                new HttpConnectionPreWarmer(apacheHTTPClientFactoryService, eventProbe);
         this.parameterStoreService = parameterStoreService;
+        this.concurrentCallRunner = concurrentCallRunner;
         this.sessionService = sessionService;
         this.auditService = auditService;
         this.documentCheckResultStorageService = documentCheckResultStorageService;
@@ -117,6 +188,10 @@ public class ServiceFactory {
         return objectMapper;
     }
 
+    public JsonCodecs getJsonCodecs() {
+        return jsonCodecs;
+    }
+
     public DocumentCheckResultStorageService getDocumentCheckResultStorageService() {
         return documentCheckResultStorageService;
     }
@@ -133,10 +208,30 @@ public class ServiceFactory {
         return apacheHTTPClientFactoryService;
     }
 
+    public HttpConnectionPoolThawMonitor getHttpConnectionPoolThawMonitor() {
+        return httpConnectionPoolThawMonitor;
+    }
+
+    public HttpConnectionPreWarmer getHttpConnectionPreWarmer() {
+        return httpConnectionPreWarmer;
+    }
+
     public ParameterStoreService getParameterStoreService() {
         return parameterStoreService;
     }
 
+    public synchronized ConcurrentCallRunner getConcurrentCallRunner() {
+        if (concurrentCallRunner == null) {
+            concurrentCallRunner =
+                    new ConcurrentCallRunner(
+                            Executors.newFixedThreadPool(
+                                    CONCURRENT_CALL_THREADS,
+                                    new DaemonThreadFactory("concurrent-call")),
+                            eventProbe);
+        }
+        return concurrentCallRunner;
+    }
+
     public ConfigurationService getCommonLibConfigurationService() {
         // Note SSM parameter gets via this service use a 5min cache time
         return commonLibConfigurationService;
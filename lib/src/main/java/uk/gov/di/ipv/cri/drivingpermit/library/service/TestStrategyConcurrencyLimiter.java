@@ -0,0 +1,251 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.ConcurrencySlotItem;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_ADMITTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_REJECTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_SLOTS_UNAVAILABLE;
+
+/**
+ * Caps the share of the function's concurrency used by test strategies (see {@link
+ * Strategy#isTestStrategy()}), so a test run cannot take the concurrency live checks need.
+ *
+ * <p>Each container runs one invocation at a time, so the cap is shared between containers as a
+ * fixed number of slots in DynamoDB. A test strategy request claims a free slot with a conditional
+ * write and releases it when done by expiring its lease, a slot not released (e.g. the container
+ * was frozen) is free again once its lease expires. Live strategies never need a slot and make no
+ * DynamoDB calls.
+ *
+ * <p>Only a few slots are tried before a request is rejected, so the time to reject stays bounded
+ * however many slots there are. Near the cap a request may be rejected while a slot is free.
+ *
+ * <p>If the slots cannot be read or written requests are admitted, as the cap protects live
+ * traffic and should never be the reason a check fails.
+ */
+public class TestStrategyConcurrencyLimiter {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String TABLE_NAME_ENV_VAR = "TEST_STRATEGY_CONCURRENCY_TABLE_NAME";
+    public static final String FUNCTION_MAX_CONCURRENCY_ENV_VAR =
+            "TEST_STRATEGY_FUNCTION_MAX_CONCURRENCY";
+    public static final String CONCURRENCY_SHARE_PERCENT_ENV_VAR =
+            "TEST_STRATEGY_CONCURRENCY_SHARE_PERCENT";
+
+    public static final int DEFAULT_CONCURRENCY_SHARE_PERCENT = 20;
+
+    public static final String SLOT_ITEM_ID_PREFIX = "TestStrategySlot-";
+
+    // Covers a document check including its retries
+    public static final long SLOT_LEASE_DURATION_MS = 30000L;
+
+    private static final long ITEM_TTL_AFTER_LEASE_SECONDS = 3600L;
+
+    // Slots tried per request, spread over the slots from a random start
+    static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    // A released slot is leased until the epoch, so the next claim finds it expired
+    private static final long RELEASED_LEASE_UNTIL_MS = 0L;
+
+    private static final String SLOT_CLAIM_CONDITION =
+            "attribute_not_exists(id) OR leaseUntil < :now";
+    private static final String SLOT_RELEASE_CONDITION = "leaseUntil = :leaseUntil";
+
+    /** Held while a request runs, closing releases it */
+    public interface Slot extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Slot NO_SLOT_NEEDED = () -> {};
+
+    private final EventProbe eventProbe;
+    // null when the cap is not configured
+    private final DynamoDbTable<ConcurrencySlotItem> slotTable;
+    private final int slotCount;
+    private final long leaseDurationMs;
+    private final LongSupplier currentTimeMs;
+    private final IntUnaryOperator firstSlotSelector;
+
+    public TestStrategyConcurrencyLimiter(
+            EventProbe eventProbe, DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this(
+                eventProbe,
+                createSlotTable(
+                        System.getenv(TABLE_NAME_ENV_VAR),
+                        System.getenv(FUNCTION_MAX_CONCURRENCY_ENV_VAR),
+                        dynamoDbEnhancedClient),
+                parseSlotCount(
+                        System.getenv(FUNCTION_MAX_CONCURRENCY_ENV_VAR),
+                        System.getenv(CONCURRENCY_SHARE_PERCENT_ENV_VAR)),
+                SLOT_LEASE_DURATION_MS,
+                System::currentTimeMillis,
+                slotCount -> ThreadLocalRandom.current().nextInt(slotCount));
+    }
+
+    TestStrategyConcurrencyLimiter(
+            EventProbe eventProbe,
+            DynamoDbTable<ConcurrencySlotItem> slotTable,
+            int slotCount,
+            long leaseDurationMs,
+            LongSupplier currentTimeMs,
+            IntUnaryOperator firstSlotSelector) {
+        this.eventProbe = eventProbe;
+        this.slotTable = slotTable;
+        this.slotCount = slotCount;
+        this.leaseDurationMs = leaseDurationMs;
+        this.currentTimeMs = currentTimeMs;
+        this.firstSlotSelector = firstSlotSelector;
+    }
+
+    /** Returns the slot to hold while the request runs, or null if the cap has been reached */
+    public Slot tryAcquire(Strategy strategy) {
+        if (!strategy.isTestStrategy() || slotTable == null) {
+            admitted(strategy);
+            return NO_SLOT_NEEDED;
+        }
+
+        long nowMs = currentTimeMs.getAsLong();
+        long leaseUntilMs = nowMs + leaseDurationMs;
+
+        Expression claimCondition =
+                Expression.builder()
+                        .expression(SLOT_CLAIM_CONDITION)
+                        .putExpressionValue(
+                                ":now", AttributeValue.builder().n(Long.toString(nowMs)).build())
+                        .build();
+
+        // Starting at a random slot spreads concurrent claims over the slots
+        int firstSlot = slotCount > 0 ? firstSlotSelector.applyAsInt(slotCount) : 0;
+        int attempts = Math.min(slotCount, MAX_CLAIM_ATTEMPTS);
+
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            // Distinct slots, as attempts is at most slotCount
+            int slot = (firstSlot + attempt * slotCount / attempts) % slotCount;
+            String slotId = SLOT_ITEM_ID_PREFIX + slot;
+
+            ConcurrencySlotItem slotItem = new ConcurrencySlotItem();
+            slotItem.setId(slotId);
+            slotItem.setLeaseUntil(leaseUntilMs);
+            slotItem.setTtl(leaseUntilMs / 1000 + ITEM_TTL_AFTER_LEASE_SECONDS);
+
+            try {
+                slotTable.putItem(
+                        PutItemEnhancedRequest.builder(ConcurrencySlotItem.class)
+                                .item(slotItem)
+                                .conditionExpression(claimCondition)
+                                .build());
+
+                admitted(strategy);
+                return () -> release(slotId, leaseUntilMs);
+            } catch (ConditionalCheckFailedException e) {
+                // Slot in use, try the next
+            } catch (RuntimeException e) {
+                LOGGER.warn(
+                        "Unable to claim a test strategy slot, admitting {} - {}",
+                        strategy,
+                        e.getClass().getSimpleName());
+                eventProbe.counterMetric(STRATEGY_BULKHEAD_SLOTS_UNAVAILABLE);
+                admitted(strategy);
+                return NO_SLOT_NEEDED;
+            }
+        }
+
+        LOGGER.warn(
+                "{} of {} test strategy slots tried and in use, rejecting {}",
+                attempts,
+                slotCount,
+                strategy);
+        eventProbe.counterMetric(STRATEGY_BULKHEAD_REJECTED + metricSuffix(strategy));
+        return null;
+    }
+
+    private void release(String slotId, long leaseUntilMs) {
+        // Only expires the lease if still ours, it may have expired and been claimed elsewhere
+        Expression releaseCondition =
+                Expression.builder()
+                        .expression(SLOT_RELEASE_CONDITION)
+                        .putExpressionValue(
+                                ":leaseUntil",
+                                AttributeValue.builder().n(Long.toString(leaseUntilMs)).build())
+                        .build();
+
+        ConcurrencySlotItem releasedSlotItem = new ConcurrencySlotItem();
+        releasedSlotItem.setId(slotId);
+        releasedSlotItem.setLeaseUntil(RELEASED_LEASE_UNTIL_MS);
+        releasedSlotItem.setTtl(leaseUntilMs / 1000 + ITEM_TTL_AFTER_LEASE_SECONDS);
+
+        try {
+            slotTable.updateItem(
+                    UpdateItemEnhancedRequest.builder(ConcurrencySlotItem.class)
+                            .item(releasedSlotItem)
+                            .conditionExpression(releaseCondition)
+                            .build());
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Test strategy slot {} was already reclaimed", slotId);
+        } catch (RuntimeException e) {
+            // The lease expiring frees the slot
+            LOGGER.warn(
+                    "Unable to release test strategy slot {} - {}",
+                    slotId,
+                    e.getClass().getSimpleName());
+        }
+    }
+
+    private void admitted(Strategy strategy) {
+        eventProbe.counterMetric(STRATEGY_BULKHEAD_ADMITTED + metricSuffix(strategy));
+    }
+
+    private static String metricSuffix(Strategy strategy) {
+        return strategy.name().toLowerCase();
+    }
+
+    private static DynamoDbTable<ConcurrencySlotItem> createSlotTable(
+            String slotTableName,
+            String functionMaxConcurrency,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        if (slotTableName == null
+                || slotTableName.isBlank()
+                || functionMaxConcurrency == null
+                || functionMaxConcurrency.isBlank()) {
+            LOGGER.info("Test strategy concurrency cap not configured");
+            return null;
+        }
+        return dynamoDbEnhancedClient.table(
+                slotTableName, TableSchema.fromBean(ConcurrencySlotItem.class));
+    }
+
+    private static int parseSlotCount(String functionMaxConcurrency, String sharePercent) {
+        if (functionMaxConcurrency == null || functionMaxConcurrency.isBlank()) {
+            return 0;
+        }
+
+        int maxConcurrency = Integer.parseInt(functionMaxConcurrency);
+        int percent =
+                sharePercent == null
+                        ? DEFAULT_CONCURRENCY_SHARE_PERCENT
+                        : Integer.parseInt(sharePercent);
+
+        // A share of 0 stops test traffic, any other share allows at least one request
+        if (percent <= 0) {
+            return 0;
+        }
+        return Math.max(1, maxConcurrency * percent / 100);
+    }
+}
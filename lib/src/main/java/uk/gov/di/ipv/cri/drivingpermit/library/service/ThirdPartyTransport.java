@@ -0,0 +1,45 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests to a third party, retrying as allowed by the HttpRetryStatusConfig. The caller is
+ * responsible for closing the returned response.
+ */
+public interface ThirdPartyTransport {
+
+    default CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpUriRequest request, HttpRetryStatusConfig httpRetryStatusConfig)
+            throws IOException {
+        return sendHTTPRequestRetryIfAllowed(
+                request, httpRetryStatusConfig, RequestDeadline.none());
+    }
+
+    CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline)
+            throws IOException;
+
+    /**
+     * As {@link #sendHTTPRequestRetryIfAllowed(HttpUriRequest, HttpRetryStatusConfig,
+     * RequestDeadline)}, with the response or failure delivered through the returned future. A
+     * blocking transport completes the future before returning.
+     */
+    default CompletableFuture<CloseableHttpResponse> sendHTTPRequestRetryIfAllowedAsync(
+            HttpUriRequest request,
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            RequestDeadline requestDeadline) {
+        try {
+            return CompletableFuture.completedFuture(
+                    sendHTTPRequestRetryIfAllowed(request, httpRetryStatusConfig, requestDeadline));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
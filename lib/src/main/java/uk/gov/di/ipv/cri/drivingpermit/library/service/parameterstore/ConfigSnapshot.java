@@ -0,0 +1,68 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The parameter store values fetched together at init by ConfigSnapshotLoader, keyed as
+ * ParameterStoreService reads them. Immutable, so can be read by concurrent requests.
+ */
+public final class ConfigSnapshot {
+
+    private static final ConfigSnapshot EMPTY = new ConfigSnapshot(Map.of(), Map.of(), Map.of());
+
+    // Full parameter name to value
+    private final Map<String, String> parameters;
+
+    // Full path to the parameters under it, keyed by name relative to the path
+    private final Map<String, Map<String, String>> parametersFromPath;
+    private final Map<String, Map<String, String>> parametersFromPathWithDecryption;
+
+    public ConfigSnapshot(
+            Map<String, String> parameters,
+            Map<String, Map<String, String>> parametersFromPath,
+            Map<String, Map<String, String>> parametersFromPathWithDecryption) {
+        this.parameters = Map.copyOf(parameters);
+        this.parametersFromPath = deepCopyOf(parametersFromPath);
+        this.parametersFromPathWithDecryption = deepCopyOf(parametersFromPathWithDecryption);
+    }
+
+    public static ConfigSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the value, or null if the parameter is not in the snapshot
+     */
+    public String getParameter(String parameterName) {
+        return parameters.get(parameterName);
+    }
+
+    /**
+     * @return the parameters fetched recursively, without decryption, or null if the path is not
+     *     in the snapshot
+     */
+    public Map<String, String> getParametersFromPath(String parametersPath) {
+        return parametersFromPath.get(parametersPath);
+    }
+
+    /**
+     * @return the parameters fetched with decryption, or null if the path is not in the snapshot
+     */
+    public Map<String, String> getParametersFromPathWithDecryption(String parametersPath) {
+        return parametersFromPathWithDecryption.get(parametersPath);
+    }
+
+    public int size() {
+        return parameters.size()
+                + parametersFromPath.size()
+                + parametersFromPathWithDecryption.size();
+    }
+
+    private static Map<String, Map<String, String>> deepCopyOf(
+            Map<String, Map<String, String>> parametersByPath) {
+        Map<String, Map<String, String>> copy = new HashMap<>();
+        parametersByPath.forEach((path, values) -> copy.put(path, Map.copyOf(values)));
+        return Map.copyOf(copy);
+    }
+}
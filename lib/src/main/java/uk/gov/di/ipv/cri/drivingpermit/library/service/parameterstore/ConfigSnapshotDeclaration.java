@@ -0,0 +1,60 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The parameters a function reads from ParameterStoreService during init, declared up front so
+ * ConfigSnapshotLoader can fetch them together. Each is declared as it is read, so the snapshot
+ * returns exactly what the read would have.
+ */
+public class ConfigSnapshotDeclaration {
+
+    private static final String PARAMETER_NAME_FORMAT = "/%s/%s";
+
+    private final Set<String> parameterNames = new LinkedHashSet<>();
+    private final Set<String> parametersFromPath = new LinkedHashSet<>();
+    private final Set<String> parametersFromPathWithDecryption = new LinkedHashSet<>();
+
+    /** As read by ParameterStoreService.getParameterValue */
+    public ConfigSnapshotDeclaration parameter(ParameterPrefix prefix, String parameterName) {
+        parameterNames.add(fullName(prefix, parameterName));
+        return this;
+    }
+
+    /** As read by ParameterStoreService.getAllParametersFromPath */
+    public ConfigSnapshotDeclaration parametersFromPath(ParameterPrefix prefix, String path) {
+        parametersFromPath.add(fullName(prefix, path));
+        return this;
+    }
+
+    /** As read by ParameterStoreService.getAllParametersFromPathWithDecryption */
+    public ConfigSnapshotDeclaration parametersFromPathWithDecryption(
+            ParameterPrefix prefix, String path) {
+        parametersFromPathWithDecryption.add(fullName(prefix, path));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return parameterNames.isEmpty()
+                && parametersFromPath.isEmpty()
+                && parametersFromPathWithDecryption.isEmpty();
+    }
+
+    Set<String> getParameterNames() {
+        return Collections.unmodifiableSet(parameterNames);
+    }
+
+    Set<String> getParametersFromPath() {
+        return Collections.unmodifiableSet(parametersFromPath);
+    }
+
+    Set<String> getParametersFromPathWithDecryption() {
+        return Collections.unmodifiableSet(parametersFromPathWithDecryption);
+    }
+
+    private static String fullName(ParameterPrefix prefix, String name) {
+        return String.format(PARAMETER_NAME_FORMAT, prefix.getPrefixValue(), name);
+    }
+}
@@ -0,0 +1,169 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.StopWatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_CALL_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_INCOMPLETE;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_LOAD_DURATION;
+
+/**
+ * Fetches the declared parameters in parallel during init, rather than one at a time as each
+ * configuration class is created. Single parameters are fetched in batches with GetParameters and
+ * each path with GetParametersByPath.
+ *
+ * <p>Fails open, anything that could not be fetched is left out of the snapshot and read on its
+ * own as before, so failing as it always did if the parameter is missing.
+ */
+public class ConfigSnapshotLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // GetParameters limit
+    private static final int MAX_NAMES_PER_GET_PARAMETERS = 10;
+
+    private final SsmClient ssmClient;
+    private final ConcurrentCallRunner concurrentCallRunner;
+    private final EventProbe eventProbe;
+
+    public ConfigSnapshotLoader(
+            SsmClient ssmClient, ConcurrentCallRunner concurrentCallRunner, EventProbe eventProbe) {
+        this.ssmClient = ssmClient;
+        this.concurrentCallRunner = concurrentCallRunner;
+        this.eventProbe = eventProbe;
+    }
+
+    /** Only needed for the load, so can be closed once the snapshot is taken */
+    @ExcludeFromGeneratedCoverageReport
+    public static SsmClient createSsmClient() {
+        return SsmClient.builder()
+                .region(Region.of(System.getenv("AWS_REGION")))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .httpClientBuilder(AwsCrtHttpClient.builder())
+                .build();
+    }
+
+    public ConfigSnapshot load(ConfigSnapshotDeclaration configSnapshotDeclaration) {
+        Map<String, String> parameters = new ConcurrentHashMap<>();
+        Map<String, Map<String, String>> parametersFromPath = new ConcurrentHashMap<>();
+        Map<String, Map<String, String>> parametersFromPathWithDecryption =
+                new ConcurrentHashMap<>();
+
+        Map<String, ConcurrentCallRunner.Call> calls = new LinkedHashMap<>();
+
+        List<String> parameterNames =
+                new ArrayList<>(configSnapshotDeclaration.getParameterNames());
+        for (int i = 0; i < parameterNames.size(); i += MAX_NAMES_PER_GET_PARAMETERS) {
+            List<String> batch =
+                    parameterNames.subList(
+                            i, Math.min(i + MAX_NAMES_PER_GET_PARAMETERS, parameterNames.size()));
+            calls.put(
+                    "get_parameters_" + (calls.size() + 1),
+                    () -> parameters.putAll(getParameters(batch)));
+        }
+
+        // Recursive without decryption, and with decryption but not recursive, as SSMProvider
+        for (String path : configSnapshotDeclaration.getParametersFromPath()) {
+            calls.put(
+                    "get_parameters_by_path_" + (calls.size() + 1),
+                    () -> parametersFromPath.put(path, getParametersByPath(path, true, false)));
+        }
+        for (String path : configSnapshotDeclaration.getParametersFromPathWithDecryption()) {
+            calls.put(
+                    "get_parameters_by_path_" + (calls.size() + 1),
+                    () ->
+                            parametersFromPathWithDecryption.put(
+                                    path, getParametersByPath(path, false, true)));
+        }
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        boolean incomplete = false;
+        try {
+            concurrentCallRunner.runAll(CONFIG_SNAPSHOT_CALL_DURATION, calls);
+        } catch (RuntimeException e) {
+            // Not fatal - what is missing is read from parameter store when needed
+            LOGGER.warn("Config snapshot incomplete - {}", e.getMessage());
+            incomplete = true;
+        }
+
+        eventProbe.counterMetric(CONFIG_SNAPSHOT_LOAD_DURATION, stopWatch.stop());
+        eventProbe.counterMetric(CONFIG_SNAPSHOT_INCOMPLETE, incomplete ? 1 : 0);
+
+        ConfigSnapshot configSnapshot =
+                new ConfigSnapshot(
+                        parameters, parametersFromPath, parametersFromPathWithDecryption);
+
+        LOGGER.info(
+                "Config snapshot of {} parameters and paths in {} calls",
+                configSnapshot.size(),
+                calls.size());
+
+        return configSnapshot;
+    }
+
+    private Map<String, String> getParameters(List<String> parameterNames) {
+        GetParametersResponse response =
+                ssmClient.getParameters(
+                        GetParametersRequest.builder()
+                                .names(parameterNames)
+                                .withDecryption(false)
+                                .build());
+
+        if (response.hasInvalidParameters() && !response.invalidParameters().isEmpty()) {
+            LOGGER.warn(
+                    "Parameters not found for config snapshot {}", response.invalidParameters());
+        }
+
+        Map<String, String> values = new HashMap<>();
+        for (Parameter parameter : response.parameters()) {
+            values.put(parameter.name(), parameter.value());
+        }
+        return values;
+    }
+
+    private Map<String, String> getParametersByPath(
+            String path, boolean recursive, boolean withDecryption) {
+        GetParametersByPathRequest request =
+                GetParametersByPathRequest.builder()
+                        .path(path)
+                        .recursive(recursive)
+                        .withDecryption(withDecryption)
+                        .build();
+
+        Map<String, String> values = new HashMap<>();
+        for (Parameter parameter : ssmClient.getParametersByPathPaginator(request).parameters()) {
+            values.put(relativeName(path, parameter.name()), parameter.value());
+        }
+        return values;
+    }
+
+    // Keyed as SSMProvider.getMultiple, relative to the path without a leading /
+    private static String relativeName(String path, String parameterName) {
+        String name =
+                parameterName.startsWith(path)
+                        ? parameterName.substring(path.length())
+                        : parameterName;
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+/** Calculates how long the HttpRetryer should wait before each retry. */
+public interface BackoffPolicy {
+    /**
+     * @param retryNumber 1 for the first retry, 2 for the second...
+     * @param previousWaitMs the wait calculated for the previous retry (0 before the first retry)
+     * @return the time in ms to wait before sending the retry
+     */
+    long calculateWaitTimeMs(int retryNumber, long previousWaitMs);
+}
@@ -0,0 +1,200 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.http.HttpStatusCode;
+import uk.gov.di.ipv.cri.drivingpermit.library.error.ErrorResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.ResponseBodyTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads third party response bodies straight from the entity stream, failing with a
+ * ResponseBodyTooLargeException once a body exceeds the maximum size. JSON is mapped from the
+ * stream without first being copied into a String.
+ */
+public class BoundedResponseReader {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Every expected third party response is a small fraction of this
+    public static final int DEFAULT_MAX_RESPONSE_BODY_BYTES = 256 * 1024;
+
+    private final JsonCodecs jsonCodecs;
+    private final String endpointName;
+    private final int maxResponseBodyBytes;
+
+    // For responses only read as text, readJson cannot be used
+    public BoundedResponseReader(String endpointName) {
+        this(null, endpointName, DEFAULT_MAX_RESPONSE_BODY_BYTES);
+    }
+
+    public BoundedResponseReader(JsonCodecs jsonCodecs, String endpointName) {
+        this(jsonCodecs, endpointName, DEFAULT_MAX_RESPONSE_BODY_BYTES);
+    }
+
+    public BoundedResponseReader(
+            JsonCodecs jsonCodecs, String endpointName, int maxResponseBodyBytes) {
+        this.jsonCodecs = jsonCodecs;
+        this.endpointName = endpointName;
+        this.maxResponseBodyBytes = maxResponseBodyBytes;
+    }
+
+    /**
+     * Maps the response body to valueType. A JsonProcessingException is thrown if the body cannot
+     * be mapped (including when there is no body), an OAuthErrorResponseException if it could not
+     * be read.
+     */
+    public <T> T readJson(HttpResponse response, Class<T> valueType)
+            throws JsonProcessingException, OAuthErrorResponseException {
+        try {
+            InputStream content = openContent(response);
+            try (InputStream body = content == null ? InputStream.nullInputStream() : content) {
+                return jsonCodecs.reader(valueType).readValue(body);
+            }
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            LOGGER.error(String.format("IOException retrieving %s response body", endpointName));
+            LOGGER.debug(e.getMessage());
+
+            throw new OAuthErrorResponseException(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    ErrorResponse.FAILED_TO_RETRIEVE_HTTP_RESPONSE_BODY);
+        }
+    }
+
+    /**
+     * Reads the response body as a String, in the charset of the response content type (UTF-8 if
+     * not given). Returns null if the response has no body.
+     */
+    public String readString(HttpResponse response) throws IOException {
+        InputStream content = openContent(response);
+        if (content == null) {
+            return null;
+        }
+
+        Charset charset = StandardCharsets.UTF_8;
+        ContentType contentType = ContentType.get(response.getEntity());
+        if (contentType != null && contentType.getCharset() != null) {
+            charset = contentType.getCharset();
+        }
+
+        try (content) {
+            return new String(content.readAllBytes(), charset);
+        }
+    }
+
+    /**
+     * Reads the body of an unexpected response so it can be logged, the only case where a body is
+     * held as a String. Never throws, as the response is already being handled as an error.
+     */
+    public String readErrorResponseBody(HttpResponse response) {
+        try {
+            String responseBody = readString(response);
+            return responseBody == null
+                    ? String.format("No %s response body text found", endpointName)
+                    : responseBody;
+        } catch (IOException e) {
+            return String.format(
+                    "Unable to read %s response body - %s", endpointName, e.getMessage());
+        }
+    }
+
+    /** Looks up a single response header, rather than copying every header. */
+    public static String getHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    // Returns null if the response has no body
+    private InputStream openContent(HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+
+        // Rejected before reading when the body is declared too large
+        long contentLength = entity.getContentLength();
+        if (contentLength > maxResponseBodyBytes) {
+            throw new ResponseBodyTooLargeException(
+                    String.format(
+                            "Response body of %d bytes exceeds maximum of %d bytes",
+                            contentLength, maxResponseBodyBytes));
+        }
+
+        InputStream content = entity.getContent();
+        if (content == null) {
+            return null;
+        }
+
+        return new BoundedInputStream(content, maxResponseBodyBytes);
+    }
+
+    /**
+     * Fails once more than maxBytes are read. Once over the limit, the rest of the body is not
+     * drained on close, so the connection is dropped rather than returned to the pool.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long bytesRead;
+        private boolean limitExceeded;
+
+        BoundedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                countBytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                countBytesRead(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            countBytesRead(count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!limitExceeded) {
+                super.close();
+            }
+        }
+
+        private void countBytesRead(long count) throws ResponseBodyTooLargeException {
+            bytesRead += count;
+            if (bytesRead > maxBytes) {
+                limitExceeded = true;
+                throw new ResponseBodyTooLargeException(
+                        String.format("Response body exceeds maximum of %d bytes", maxBytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs independent calls (e.g. AWS writes) concurrently, returning only once every call has
+ * finished. A failure does not cancel the other calls, so each is either completed or has failed
+ * on its own terms before the caller continues.
+ */
+public class ConcurrentCallRunner {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @FunctionalInterface
+    public interface Call {
+        void run() throws Exception; // NOSONAR
+    }
+
+    private final Executor executor;
+    private final EventProbe eventProbe;
+
+    public ConcurrentCallRunner(Executor executor, EventProbe eventProbe) {
+        this.executor = executor;
+        this.eventProbe = eventProbe;
+    }
+
+    /**
+     * Runs all calls on the executor and waits for them to finish, recording the duration of each
+     * successful call as durationMetricPrefix + name. If any call fails, the failure of the first
+     * (in map order) is thrown once all have finished, with later failures added as suppressed.
+     * Unchecked exceptions are thrown unchanged, checked exceptions as the cause of a
+     * CompletionException.
+     *
+     * @param calls call name to call, in the order failures are reported
+     */
+    public void runAll(String durationMetricPrefix, Map<String, Call> calls) {
+        // Log context (e.g. the correlation id) is per thread
+        final Map<String, String> threadContext = ThreadContext.getImmutableContext();
+
+        Map<String, CompletableFuture<Long>> durations = new LinkedHashMap<>();
+        calls.forEach(
+                (name, call) ->
+                        durations.put(
+                                name,
+                                CompletableFuture.supplyAsync(
+                                        () -> timedCall(call, threadContext), executor)));
+
+        Throwable firstFailure = null;
+        for (Map.Entry<String, CompletableFuture<Long>> duration : durations.entrySet()) {
+            String name = duration.getKey();
+            try {
+                long durationMs = duration.getValue().join();
+
+                // Metrics are recorded on the calling thread
+                eventProbe.counterMetric(durationMetricPrefix + name, durationMs);
+            } catch (CompletionException e) {
+                LOGGER.error("Concurrent call {} failed - {}", name, e.getCause().getClass());
+
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                } else {
+                    firstFailure.addSuppressed(e.getCause());
+                }
+            }
+        }
+
+        if (firstFailure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (firstFailure instanceof Error error) {
+            throw error;
+        } else if (firstFailure != null) {
+            throw new CompletionException(firstFailure);
+        }
+    }
+
+    /**
+     * The executor calls are run on, for work the caller overlaps with its own before joining.
+     * Each task runs with the log context of the thread that submitted it.
+     */
+    public Executor getExecutor() {
+        return task -> {
+            final Map<String, String> threadContext = ThreadContext.getImmutableContext();
+            executor.execute(() -> runWithThreadContext(task, threadContext));
+        };
+    }
+
+    private static long timedCall(Call call, Map<String, String> threadContext) {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        runWithThreadContext(
+                () -> {
+                    try {
+                        call.run();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                threadContext);
+        return stopWatch.stop();
+    }
+
+    private static void runWithThreadContext(Runnable task, Map<String, String> threadContext) {
+        // Restored after, in case the executor runs the task on the calling thread
+        final Map<String, String> previousThreadContext = ThreadContext.getImmutableContext();
+        ThreadContext.putAll(threadContext);
+        try {
+            task.run();
+        } finally {
+            ThreadContext.clearMap();
+            ThreadContext.putAll(previousThreadContext);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Exponential backoff (base * 2^(retryNumber-1)) capped at maxWaitTimeMs.
+ *
+ * <p>Jitter spreads retries from many containers so they do not all hit a degraded remote api at
+ * the same moment.
+ *
+ * <ul>
+ *   <li>NONE - the exponential wait unchanged
+ *   <li>FULL - random between 0 and the exponential wait
+ *   <li>DECORRELATED - random between base and 3x the previous wait (capped)
+ * </ul>
+ */
+public class ExponentialBackoffPolicy implements BackoffPolicy {
+
+    public enum Jitter {
+        NONE,
+        FULL,
+        DECORRELATED
+    }
+
+    private static final int DECORRELATED_MULTIPLIER = 3;
+
+    // Avoids overflow of the exponential calculation, 2^30 * base is far above any usable cap
+    private static final int MAX_POWER = 30;
+
+    private final long baseWaitTimeMs;
+    private final long maxWaitTimeMs;
+    private final Jitter jitter;
+    private final Supplier<RandomGenerator> randomSource;
+
+    public ExponentialBackoffPolicy(long baseWaitTimeMs, long maxWaitTimeMs, Jitter jitter) {
+        this(baseWaitTimeMs, maxWaitTimeMs, jitter, ThreadLocalRandom::current);
+    }
+
+    ExponentialBackoffPolicy(
+            long baseWaitTimeMs,
+            long maxWaitTimeMs,
+            Jitter jitter,
+            Supplier<RandomGenerator> randomSource) {
+        if (baseWaitTimeMs < 0 || maxWaitTimeMs < baseWaitTimeMs) {
+            throw new IllegalArgumentException(
+                    "Backoff requires 0 <= baseWaitTimeMs <= maxWaitTimeMs");
+        }
+        this.baseWaitTimeMs = baseWaitTimeMs;
+        this.maxWaitTimeMs = maxWaitTimeMs;
+        this.jitter = jitter;
+        this.randomSource = randomSource;
+    }
+
+    @Override
+    public long calculateWaitTimeMs(int retryNumber, long previousWaitMs) {
+
+        if (retryNumber <= 0) {
+            return 0;
+        }
+
+        return switch (jitter) {
+            case NONE -> exponentialWaitTimeMs(retryNumber);
+            case FULL -> randomBetween(0, exponentialWaitTimeMs(retryNumber));
+            case DECORRELATED -> {
+                long upper =
+                        Math.min(
+                                maxWaitTimeMs,
+                                Math.max(baseWaitTimeMs, previousWaitMs * DECORRELATED_MULTIPLIER));
+                yield randomBetween(baseWaitTimeMs, upper);
+            }
+        };
+    }
+
+    private long exponentialWaitTimeMs(int retryNumber) {
+        int power = Math.min(retryNumber - 1, MAX_POWER);
+
+        return Math.min((1L << power) * baseWaitTimeMs, maxWaitTimeMs);
+    }
+
+    private long randomBetween(long lowerInclusive, long upperInclusive) {
+        if (upperInclusive <= lowerInclusive) {
+            return lowerInclusive;
+        }
+        return randomSource.get().nextLong(lowerInclusive, upperInclusive + 1);
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Readers and writers for the payload and response types, built once per type from the mapper.
+ * Both are immutable and thread safe, so each type is resolved once rather than on every request.
+ *
+ * <p>Each function has a single instance (the ServiceFactory one where there is a ServiceFactory),
+ * passed to everything that maps JSON rather than each building its own mapper.
+ */
+public class JsonCodecs {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonCodecs(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectReader reader(Class<?> valueType) {
+        return readers.computeIfAbsent(valueType, objectMapper::readerFor);
+    }
+
+    public ObjectWriter writer(Class<?> valueType) {
+        return writers.computeIfAbsent(valueType, objectMapper::writerFor);
+    }
+
+    public <T> T convertValue(Object fromValue, TypeReference<T> toValueTypeRef) {
+        return objectMapper.convertValue(fromValue, toValueTypeRef);
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.http.client.config.RequestConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The time budget for a single request. Created once at the start of the lambda invocation (from
+ * context.getRemainingTimeInMillis) and passed down to every third party call, so waits and http
+ * timeouts can shrink to fit the time that is left.
+ */
+public final class RequestDeadline {
+
+    private static final RequestDeadline NONE = new RequestDeadline(0L, System::nanoTime, true);
+
+    private final long deadlineNanos;
+    private final LongSupplier nanoTimeSource;
+    private final boolean unlimited;
+
+    private RequestDeadline(long deadlineNanos, LongSupplier nanoTimeSource, boolean unlimited) {
+        this.deadlineNanos = deadlineNanos;
+        this.nanoTimeSource = nanoTimeSource;
+        this.unlimited = unlimited;
+    }
+
+    public static RequestDeadline fromRemainingTimeMs(long remainingTimeMs) {
+        return fromRemainingTimeMs(remainingTimeMs, System::nanoTime);
+    }
+
+    static RequestDeadline fromRemainingTimeMs(long remainingTimeMs, LongSupplier nanoTimeSource) {
+        long deadlineNanos =
+                nanoTimeSource.getAsLong()
+                        + TimeUnit.MILLISECONDS.toNanos(Math.max(remainingTimeMs, 0));
+        return new RequestDeadline(deadlineNanos, nanoTimeSource, false);
+    }
+
+    /** For callers without a time budget (eg scheduled tasks), never expires */
+    public static RequestDeadline none() {
+        return NONE;
+    }
+
+    public long getRemainingTimeMs() {
+        if (unlimited) {
+            return Long.MAX_VALUE;
+        }
+
+        long remainingNanos = deadlineNanos - nanoTimeSource.getAsLong();
+
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(remainingNanos), 0);
+    }
+
+    public boolean hasExpired() {
+        return getRemainingTimeMs() <= 0;
+    }
+
+    /**
+     * Copies the RequestConfig with each timeout reduced to the remaining time, so a single
+     * attempt cannot run past the deadline. Timeouts already lower are unchanged.
+     *
+     * @param requestConfig the configured per-request timeouts
+     * @return RequestConfig
+     */
+    public RequestConfig fitRequestConfig(RequestConfig requestConfig) {
+        if (unlimited) {
+            return requestConfig;
+        }
+
+        // Apache treats 0 as infinite, 1ms is the lowest finite timeout
+        int remainingMs = (int) Math.max(Math.min(getRemainingTimeMs(), Integer.MAX_VALUE), 1);
+
+        return RequestConfig.copy(requestConfig)
+                .setConnectTimeout(fitTimeout(requestConfig.getConnectTimeout(), remainingMs))
+                .setSocketTimeout(fitTimeout(requestConfig.getSocketTimeout(), remainingMs))
+                .setConnectionRequestTimeout(
+                        fitTimeout(requestConfig.getConnectionRequestTimeout(), remainingMs))
+                .build();
+    }
+
+    private static int fitTimeout(int configuredTimeoutMs, int remainingMs) {
+        // <= 0 is system default/infinite
+        return configuredTimeoutMs <= 0 ? remainingMs : Math.min(configuredTimeoutMs, remainingMs);
+    }
+}
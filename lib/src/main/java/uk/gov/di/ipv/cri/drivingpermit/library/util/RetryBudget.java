@@ -0,0 +1,59 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+/**
+ * Token bucket limiting retries to a proportion of requests. Each request adds retryRatio tokens
+ * (up to maxTokens) and each retry takes one, so while the remote api is failing retries stop once
+ * the bucket is empty rather than multiplying the load on it. The bucket starts full, so a new
+ * container can retry occasional failures straight away.
+ */
+public class RetryBudget {
+
+    // Retries at most 10% of requests, with a burst of up to 10 retries
+    public static final double DEFAULT_RETRY_RATIO = 0.1;
+    public static final double DEFAULT_MAX_TOKENS = 10;
+
+    // Tokens are held in thousandths, so repeated deposits of a fractional ratio add up exactly
+    private static final long MILLI_TOKENS_PER_RETRY = 1000L;
+
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+
+    private long milliTokens;
+
+    public RetryBudget() {
+        this(DEFAULT_RETRY_RATIO, DEFAULT_MAX_TOKENS);
+    }
+
+    public RetryBudget(double retryRatio, double maxTokens) {
+        if (retryRatio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException(
+                    "Retry budget requires retryRatio >= 0 and maxTokens >= 1");
+        }
+        this.depositMilliTokens = Math.round(retryRatio * MILLI_TOKENS_PER_RETRY);
+        this.maxMilliTokens = Math.round(maxTokens * MILLI_TOKENS_PER_RETRY);
+        this.milliTokens = maxMilliTokens;
+    }
+
+    /** Called once per request, not per attempt. */
+    public synchronized void recordRequest() {
+        milliTokens = Math.min(maxMilliTokens, milliTokens + depositMilliTokens);
+    }
+
+    /**
+     * @return true if a retry is within the budget, in which case it is taken from the budget
+     */
+    public synchronized boolean tryAcquireRetry() {
+        if (milliTokens < MILLI_TOKENS_PER_RETRY) {
+            return false;
+        }
+        milliTokens -= MILLI_TOKENS_PER_RETRY;
+        return true;
+    }
+
+    /**
+     * @return the retries currently available, fractional while the bucket refills
+     */
+    public synchronized double getAvailableRetries() {
+        return (double) milliTokens / MILLI_TOKENS_PER_RETRY;
+    }
+}
@@ -3,6 +3,8 @@ package uk.gov.di.ipv.cri.drivingpermit.library.util;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.TimeUnit;
+
 public class SleepHelper {
 
     private static final Logger LOGGER = LogManager.getLogger();
@@ -15,28 +17,44 @@ public class SleepHelper {
 
     /**
      * Calculates a wait time based on number of calls - starting from zero for the first call.
-     * Using a busy wait
+     * Parks the thread rather than spinning, so no cpu is consumed while waiting.
      *
      * @param callNumber
-     * @return
+     * @return time waited in ms
      */
-    public long busyWaitWithExponentialBackOff(int callNumber) {
+    public long sleepWithExponentialBackOff(int callNumber) {
+        return sleep(calculateExponentialBackOffTimeMS(callNumber));
+    }
 
-        long waitDuration = Math.min(calculateExponentialBackOffTimeMS(callNumber), maxSleepTimeMs);
+    /**
+     * Parks the current thread for the duration (capped to maxSleepTimeMs). If interrupted the
+     * wait ends early and the interrupt flag is restored for the caller.
+     *
+     * @param durationMs
+     * @return time waited in ms
+     */
+    public long sleep(long durationMs) {
+
+        long waitDuration = Math.min(Math.max(durationMs, 0), maxSleepTimeMs);
+
+        if (waitDuration == 0) {
+            return 0;
+        }
 
-        long startTime = System.currentTimeMillis();
-        long futureTime = startTime + waitDuration;
+        long startTime = System.nanoTime();
 
-        LOGGER.info("busyWaitWithExponentialBackOff start time : {}", startTime);
+        LOGGER.info("sleep start - duration {}ms", waitDuration);
 
-        while (System.currentTimeMillis() < futureTime) {
-            /* Busy Wait Intended */
+        try {
+            Thread.sleep(waitDuration);
+        } catch (InterruptedException e) {
+            LOGGER.warn("sleep interrupted");
+            Thread.currentThread().interrupt();
         }
 
-        long endTime = System.currentTimeMillis();
-        long timeWaited = (endTime - startTime);
+        long timeWaited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
 
-        LOGGER.info("busyWaitWithExponentialBackOff end time : {}", endTime);
+        LOGGER.info("sleep end - waited {}ms", timeWaited);
 
         return timeWaited;
     }
@@ -0,0 +1,68 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachedStackSecretTest {
+
+    private static final String TEST_PARAMETER_NAME = "DVLA/password";
+    private static final long TEST_TTL_MS = 60000L;
+
+    @Mock private SecretsManagerService mockSecretsManagerService;
+
+    private final AtomicLong currentTimeMs = new AtomicLong(1000L);
+
+    private CachedStackSecret cachedStackSecret;
+
+    @BeforeEach
+    void setUp() {
+        cachedStackSecret =
+                new CachedStackSecret(
+                        mockSecretsManagerService,
+                        TEST_PARAMETER_NAME,
+                        TEST_TTL_MS,
+                        currentTimeMs::get);
+
+        when(mockSecretsManagerService.getStackSecret(TEST_PARAMETER_NAME))
+                .thenReturn(secret("first", "v1"), secret("second", "v2"));
+    }
+
+    @Test
+    void shouldReuseSecretUntilTtlExpires() {
+        assertEquals("first", cachedStackSecret.getValue());
+
+        currentTimeMs.addAndGet(TEST_TTL_MS - 1);
+        assertEquals("first", cachedStackSecret.getValue());
+        verify(mockSecretsManagerService, times(1)).getStackSecret(TEST_PARAMETER_NAME);
+
+        currentTimeMs.addAndGet(1);
+        assertEquals("second", cachedStackSecret.getValue());
+        verify(mockSecretsManagerService, times(2)).getStackSecret(TEST_PARAMETER_NAME);
+    }
+
+    @Test
+    void shouldReReadSecretOnNextUseOnceInvalidated() {
+        assertEquals("first", cachedStackSecret.getValue());
+
+        cachedStackSecret.invalidate();
+
+        assertEquals("second", cachedStackSecret.getValue());
+        verify(mockSecretsManagerService, times(2)).getStackSecret(TEST_PARAMETER_NAME);
+    }
+
+    private static GetSecretValueResponse secret(String value, String versionId) {
+        return GetSecretValueResponse.builder().secretString(value).versionId(versionId).build();
+    }
+}
@@ -1,16 +1,34 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.service;
 
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
+import uk.gov.di.ipv.cri.drivingpermit.library.helpers.KeyCertHelper;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
@@ -19,6 +37,9 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_CONNECTION_OPENED;
 import static uk.gov.di.ipv.cri.drivingpermit.util.CertAndKeyTestFixtures.TEST_ROOT_CRT;
 import static uk.gov.di.ipv.cri.drivingpermit.util.CertAndKeyTestFixtures.TEST_TLS_CRT;
 import static uk.gov.di.ipv.cri.drivingpermit.util.CertAndKeyTestFixtures.TEST_TLS_KEY;
@@ -28,6 +49,11 @@ import static uk.gov.di.ipv.cri.drivingpermit.util.CertAndKeyTestFixtures.TEST_T
 class ApacheHTTPClientFactoryServiceTest {
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
+    private static final HttpConnectionPoolConfig TEST_POOL_CONFIG =
+            HttpConnectionPoolConfig.builder().poolName("test").build();
+
+    @Mock private EventProbe mockEventProbe;
+
     private ApacheHTTPClientFactoryService apacheHTTPClientFactoryService;
 
     @BeforeEach
@@ -35,14 +61,14 @@ class ApacheHTTPClientFactoryServiceTest {
         environmentVariables.set("AWS_REGION", "eu-west-2");
         environmentVariables.set("AWS_STACK_NAME", "TEST_STACK");
 
-        apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService();
+        apacheHTTPClientFactoryService = new ApacheHTTPClientFactoryService(mockEventProbe);
     }
 
     @Test
     void shouldReturnHttpClientWithNoSSL() {
 
         CloseableHttpClient closeableHttpClient =
-                apacheHTTPClientFactoryService.generatePublicHttpClient();
+                apacheHTTPClientFactoryService.generatePublicHttpClient(TEST_POOL_CONFIG);
 
         assertNotNull(closeableHttpClient);
     }
@@ -96,7 +122,8 @@ class ApacheHTTPClientFactoryServiceTest {
                                                 finalBase64TLSCertString,
                                                 finalBase64TLSKeyString,
                                                 base64TLSRootCertString,
-                                                base64TLSIntCertString),
+                                                base64TLSIntCertString,
+                                                TEST_POOL_CONFIG),
                         "An Error Message");
 
         assert expectedExceptionClass != null;
@@ -114,8 +141,92 @@ class ApacheHTTPClientFactoryServiceTest {
                                                 TEST_TLS_CRT,
                                                 TEST_TLS_KEY,
                                                 TEST_ROOT_CRT,
-                                                TEST_TLS_CRT));
+                                                TEST_TLS_CRT,
+                                                TEST_POOL_CONFIG));
 
         assertNotNull(closeableHttpClient);
     }
+
+    @Test
+    void shouldReuseMutualTLSConnectionForLaterRequests() throws Exception {
+        HttpsServer server = startMutualTLSServer();
+        try {
+            CloseableHttpClient closeableHttpClient =
+                    apacheHTTPClientFactoryService.generateHTTPClientFromExternalApacheHttpClient(
+                            TEST_TLS_CRT,
+                            TEST_TLS_KEY,
+                            TEST_ROOT_CRT,
+                            TEST_TLS_CRT,
+                            TEST_POOL_CONFIG);
+
+            String uri = "https://localhost:" + server.getAddress().getPort() + "/";
+            for (int request = 0; request < 2; request++) {
+                try (CloseableHttpResponse response =
+                        closeableHttpClient.execute(new HttpGet(uri))) {
+                    assertEquals(200, response.getStatusLine().getStatusCode());
+                    EntityUtils.consume(response.getEntity());
+                }
+            }
+
+            // The second request leases the pooled connection rather than opening another
+            verify(mockEventProbe, times(1))
+                    .counterMetric("test_" + HTTP_CONNECTION_POOL_CONNECTION_OPENED);
+            assertEquals(
+                    1,
+                    apacheHTTPClientFactoryService
+                            .getConnectionManagers()
+                            .get(0)
+                            .getTotalStats()
+                            .getAvailable());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpsServer startMutualTLSServer() throws Exception {
+        char[] keyStorePassword = "password".toCharArray();
+
+        Certificate tlsCert = KeyCertHelper.getDecodedX509Certificate(TEST_TLS_CRT);
+
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        keyStore.load(null, keyStorePassword);
+        keyStore.setKeyEntry(
+                "server",
+                KeyCertHelper.getDecodedPrivateRSAKey(TEST_TLS_KEY),
+                keyStorePassword,
+                new Certificate[] {tlsCert});
+
+        KeyStore trustStore = KeyStore.getInstance("JKS");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("client", tlsCert);
+
+        SSLContext sslContext =
+                SSLContexts.custom()
+                        .loadKeyMaterial(keyStore, keyStorePassword)
+                        .loadTrustMaterial(trustStore, null)
+                        .build();
+
+        HttpsServer server =
+                HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setHttpsConfigurator(
+                new HttpsConfigurator(sslContext) {
+                    @Override
+                    public void configure(HttpsParameters httpsParameters) {
+                        SSLParameters sslParameters = sslContext.getDefaultSSLParameters();
+                        sslParameters.setNeedClientAuth(true);
+                        httpsParameters.setSSLParameters(sslParameters);
+                    }
+                });
+        server.createContext(
+                "/",
+                exchange -> {
+                    byte[] body = "OK".getBytes();
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        server.start();
+
+        return server;
+    }
 }
@@ -0,0 +1,116 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.CircuitBreakerItem;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerStateStoreTest {
+
+    private static final String TEST_NAME = "test";
+
+    @Mock DataStore<CircuitBreakerItem> mockDataStore;
+    @Mock DynamoDbTable<CircuitBreakerItem> mockCircuitBreakerTable;
+
+    private CircuitBreakerStateStore circuitBreakerStateStore;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerStateStore =
+                new CircuitBreakerStateStore(mockDataStore, mockCircuitBreakerTable);
+    }
+
+    @Test
+    void shouldGetOpenUntilMs() {
+        CircuitBreakerItem testItem = new CircuitBreakerItem();
+        testItem.setId(TEST_NAME);
+        testItem.setOpenUntil(12345L);
+
+        when(mockDataStore.getItem(TEST_NAME)).thenReturn(testItem);
+
+        assertEquals(12345L, circuitBreakerStateStore.getOpenUntilMs(TEST_NAME));
+    }
+
+    @Test
+    void shouldReturnClosedWhenNoItem() {
+        when(mockDataStore.getItem(TEST_NAME)).thenReturn(null);
+
+        assertEquals(0, circuitBreakerStateStore.getOpenUntilMs(TEST_NAME));
+    }
+
+    @Test
+    void shouldReturnClosedWhenReadFails() {
+        when(mockDataStore.getItem(TEST_NAME)).thenThrow(new IllegalStateException("Test"));
+
+        assertEquals(0, circuitBreakerStateStore.getOpenUntilMs(TEST_NAME));
+    }
+
+    @Test
+    void shouldSaveOpenUntilMs() {
+        circuitBreakerStateStore.saveOpenUntilMs(TEST_NAME, 12345000L);
+
+        ArgumentCaptor<CircuitBreakerItem> itemCaptor =
+                ArgumentCaptor.forClass(CircuitBreakerItem.class);
+        verify(mockDataStore).create(itemCaptor.capture());
+
+        assertEquals(TEST_NAME, itemCaptor.getValue().getId());
+        assertEquals(12345000L, itemCaptor.getValue().getOpenUntil());
+        assertEquals(12345L + 3600L, itemCaptor.getValue().getTtl());
+    }
+
+    @Test
+    void shouldNotThrowWhenSaveFails() {
+        doThrow(new IllegalStateException("Test")).when(mockDataStore).create(any());
+
+        assertDoesNotThrow(() -> circuitBreakerStateStore.saveOpenUntilMs(TEST_NAME, 12345L));
+    }
+
+    @Test
+    void shouldClaimProbeWithConditionalPut() {
+        assertTrue(circuitBreakerStateStore.tryClaimProbe(TEST_NAME, 1000L, 31000L));
+
+        ArgumentCaptor<PutItemEnhancedRequest<CircuitBreakerItem>> requestCaptor =
+                ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+        verify(mockCircuitBreakerTable).putItem(requestCaptor.capture());
+
+        PutItemEnhancedRequest<CircuitBreakerItem> request = requestCaptor.getValue();
+        assertEquals(TEST_NAME, request.item().getId());
+        assertEquals(31000L, request.item().getOpenUntil());
+        assertEquals("1000", request.conditionExpression().expressionValues().get(":now").n());
+    }
+
+    @Test
+    void shouldNotClaimProbeClaimedElsewhere() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockCircuitBreakerTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertFalse(circuitBreakerStateStore.tryClaimProbe(TEST_NAME, 1000L, 31000L));
+    }
+
+    @Test
+    void shouldClaimProbeWhenWriteFails() {
+        doThrow(new IllegalStateException("Test"))
+                .when(mockCircuitBreakerTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertTrue(circuitBreakerStateStore.tryClaimProbe(TEST_NAME, 1000L, 31000L));
+    }
+}
@@ -0,0 +1,276 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerTest {
+
+    private static final String TEST_NAME = "test";
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION_MS = 30000L;
+    private static final long START_TIME_MS = 1000000L;
+
+    @Mock private CircuitBreakerStateStore mockCircuitBreakerStateStore;
+
+    private final AtomicLong currentTimeMs = new AtomicLong(START_TIME_MS);
+    private final List<CircuitBreakerState> stateChanges = new ArrayList<>();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = createCircuitBreaker(null);
+    }
+
+    @Test
+    void shouldAllowRequestsWhileFailuresAreBelowThreshold() {
+        for (int failure = 1; failure < FAILURE_THRESHOLD; failure++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onFailure();
+        }
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        assertTrue(stateChanges.isEmpty());
+    }
+
+    @Test
+    void shouldResetFailureCountOnSuccess() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldOpenAndRejectRequestsOnceThresholdReached() {
+        openCircuitBreaker();
+
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        currentTimeMs.addAndGet(OPEN_DURATION_MS - 1);
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        assertEquals(List.of(CircuitBreakerState.OPEN), stateChanges);
+    }
+
+    @Test
+    void shouldAllowSingleProbeWhenHalfOpen() {
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+
+        // Probe still in flight
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldCloseWhenProbeSucceeds() {
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(
+                List.of(
+                        CircuitBreakerState.OPEN,
+                        CircuitBreakerState.HALF_OPEN,
+                        CircuitBreakerState.CLOSED),
+                stateChanges);
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(
+                List.of(
+                        CircuitBreakerState.OPEN,
+                        CircuitBreakerState.HALF_OPEN,
+                        CircuitBreakerState.OPEN),
+                stateChanges);
+    }
+
+    @Test
+    void shouldReleaseProbeWhenOutcomeIgnored() {
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onIgnored();
+
+        assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldPublishOpenAndCloseToSharedState() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        openCircuitBreaker();
+        verify(mockCircuitBreakerStateStore).getOpenUntilMs(TEST_NAME);
+        verify(mockCircuitBreakerStateStore)
+                .saveOpenUntilMs(TEST_NAME, START_TIME_MS + OPEN_DURATION_MS);
+
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+        long probeTimeMs = currentTimeMs.get();
+        when(mockCircuitBreakerStateStore.tryClaimProbe(
+                        TEST_NAME, probeTimeMs, probeTimeMs + OPEN_DURATION_MS))
+                .thenReturn(true);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess();
+
+        verify(mockCircuitBreakerStateStore)
+                .tryClaimProbe(TEST_NAME, probeTimeMs, probeTimeMs + OPEN_DURATION_MS);
+        verify(mockCircuitBreakerStateStore).saveOpenUntilMs(TEST_NAME, 0);
+        verifyNoMoreInteractions(mockCircuitBreakerStateStore);
+    }
+
+    @Test
+    void shouldOpenWhenSharedStateIsOpen() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        when(mockCircuitBreakerStateStore.getOpenUntilMs(TEST_NAME))
+                .thenReturn(START_TIME_MS + OPEN_DURATION_MS);
+
+        circuitBreaker.onFailure();
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertEquals(List.of(CircuitBreakerState.OPEN), stateChanges);
+    }
+
+    @Test
+    void shouldNotReadSharedStateWithoutFailures() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess();
+
+        currentTimeMs.addAndGet(CircuitBreaker.SHARED_STATE_REFRESH_MS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        verifyNoMoreInteractions(mockCircuitBreakerStateStore);
+    }
+
+    @Test
+    void shouldLimitSharedStateReads() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        circuitBreaker.onFailure();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        currentTimeMs.addAndGet(CircuitBreaker.SHARED_STATE_REFRESH_MS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        verify(mockCircuitBreakerStateStore, times(2)).getOpenUntilMs(TEST_NAME);
+    }
+
+    @Test
+    void shouldNotProbeWhenSharedProbeClaimedElsewhere() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        long probeUntilMs = currentTimeMs.get() + OPEN_DURATION_MS;
+        when(mockCircuitBreakerStateStore.tryClaimProbe(
+                        TEST_NAME, currentTimeMs.get(), probeUntilMs))
+                .thenReturn(false);
+        when(mockCircuitBreakerStateStore.getOpenUntilMs(TEST_NAME)).thenReturn(probeUntilMs);
+
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+
+        // Kept open until the other container's probe window ends
+        currentTimeMs.addAndGet(OPEN_DURATION_MS - 1);
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(List.of(CircuitBreakerState.OPEN), stateChanges);
+    }
+
+    @Test
+    void shouldCloseWhenSharedProbeClaimedElsewhereHasClosed() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        openCircuitBreaker();
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        when(mockCircuitBreakerStateStore.tryClaimProbe(
+                        TEST_NAME, currentTimeMs.get(), currentTimeMs.get() + OPEN_DURATION_MS))
+                .thenReturn(false);
+        when(mockCircuitBreakerStateStore.getOpenUntilMs(TEST_NAME)).thenReturn(0L);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        assertEquals(List.of(CircuitBreakerState.OPEN, CircuitBreakerState.CLOSED), stateChanges);
+    }
+
+    @Test
+    void shouldNotHoldMonitorWhileReadingSharedState() {
+        circuitBreaker = createCircuitBreaker(mockCircuitBreakerStateStore);
+
+        // Another thread is only able to use the circuit breaker if the monitor is free
+        when(mockCircuitBreakerStateStore.getOpenUntilMs(TEST_NAME))
+                .thenAnswer(
+                        invocation -> {
+                            CompletableFuture.runAsync(circuitBreaker::onIgnored)
+                                    .get(5, TimeUnit.SECONDS);
+                            return 0L;
+                        });
+
+        circuitBreaker.onFailure();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private CircuitBreaker createCircuitBreaker(
+            CircuitBreakerStateStore circuitBreakerStateStore) {
+        return new CircuitBreaker(
+                TEST_NAME,
+                FAILURE_THRESHOLD,
+                OPEN_DURATION_MS,
+                currentTimeMs::get,
+                stateChanges::add,
+                circuitBreakerStateStore);
+    }
+
+    private void openCircuitBreaker() {
+        for (int failure = 0; failure < FAILURE_THRESHOLD; failure++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onFailure();
+        }
+    }
+}
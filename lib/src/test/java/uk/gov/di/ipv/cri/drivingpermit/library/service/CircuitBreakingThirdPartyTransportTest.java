@@ -0,0 +1,205 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.CircuitBreakerOpenException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.util.HttpRetryStatusConfigFixtures;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingThirdPartyTransportTest {
+
+    private static final HttpGet TEST_REQUEST = new HttpGet("https://localhost/test");
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_DURATION_MS = 30000L;
+
+    private static final HttpRetryStatusConfig TEST_HTTP_RETRY_STATUS_CONFIG =
+            HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                    List.of(500, 503), List.of(200));
+
+    @Mock private ThirdPartyTransport mockThirdPartyTransport;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private CloseableHttpResponse mockResponse;
+    @Mock private StatusLine mockStatusLine;
+
+    private final RequestDeadline requestDeadline = RequestDeadline.none();
+    private final AtomicLong currentTimeMs = new AtomicLong(1000000L);
+
+    @Test
+    void shouldSendWithoutCircuitBreakerWhenDisabled() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(false);
+
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenThrow(new IOException("Test"));
+
+        for (int send = 0; send <= FAILURE_THRESHOLD; send++) {
+            assertThrows(IOException.class, () -> send(transport));
+        }
+
+        verify(mockThirdPartyTransport, times(FAILURE_THRESHOLD + 1))
+                .sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldOpenAfterSendFailuresAndRejectWithoutSending() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenThrow(new IOException("Test"));
+
+        for (int send = 0; send < FAILURE_THRESHOLD; send++) {
+            assertThrows(IOException.class, () -> send(transport));
+        }
+
+        assertThrows(CircuitBreakerOpenException.class, () -> send(transport));
+
+        verify(mockThirdPartyTransport, times(FAILURE_THRESHOLD))
+                .sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline);
+        verify(mockEventProbe).counterMetric(stateMetric(CircuitBreakerState.OPEN));
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_CIRCUIT_BREAKER_REJECTED_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldCountRetryableStatusCodesAsFailures() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        mockResponseStatusCode(503);
+
+        for (int send = 0; send < FAILURE_THRESHOLD; send++) {
+            assertSame(mockResponse, send(transport));
+        }
+
+        assertThrows(CircuitBreakerOpenException.class, () -> send(transport));
+    }
+
+    @Test
+    void shouldNotCountNonRetryableStatusCodesAsFailures() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        mockResponseStatusCode(400);
+
+        for (int send = 0; send <= FAILURE_THRESHOLD; send++) {
+            assertSame(mockResponse, send(transport));
+        }
+
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldIgnoreRequestDeadlineExceeded() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenThrow(new RequestDeadlineExceededException("Test"));
+
+        for (int send = 0; send <= FAILURE_THRESHOLD; send++) {
+            assertThrows(RequestDeadlineExceededException.class, () -> send(transport));
+        }
+
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldCloseWhenProbeSucceedsAfterOpenDuration() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenThrow(new IOException("Test"), new IOException("Test"))
+                .thenReturn(mockResponse);
+        when(mockResponse.getStatusLine()).thenReturn(mockStatusLine);
+        when(mockStatusLine.getStatusCode()).thenReturn(200);
+
+        for (int send = 0; send < FAILURE_THRESHOLD; send++) {
+            assertThrows(IOException.class, () -> send(transport));
+        }
+
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertSame(mockResponse, send(transport));
+
+        verify(mockEventProbe).counterMetric(stateMetric(CircuitBreakerState.OPEN));
+        verify(mockEventProbe).counterMetric(stateMetric(CircuitBreakerState.HALF_OPEN));
+        verify(mockEventProbe).counterMetric(stateMetric(CircuitBreakerState.CLOSED));
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldReleaseProbeWhenProbeFailsWithError() throws IOException {
+        CircuitBreakingThirdPartyTransport transport = createTransport(true);
+
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenThrow(new IOException("Test"), new IOException("Test"))
+                .thenThrow(new StackOverflowError("Test"))
+                .thenReturn(mockResponse);
+        when(mockResponse.getStatusLine()).thenReturn(mockStatusLine);
+        when(mockStatusLine.getStatusCode()).thenReturn(200);
+
+        for (int send = 0; send < FAILURE_THRESHOLD; send++) {
+            assertThrows(IOException.class, () -> send(transport));
+        }
+
+        currentTimeMs.addAndGet(OPEN_DURATION_MS);
+
+        assertThrows(StackOverflowError.class, () -> send(transport));
+
+        // The next request is allowed to probe
+        assertSame(mockResponse, send(transport));
+    }
+
+    private CircuitBreakingThirdPartyTransport createTransport(boolean enabled) {
+        return new CircuitBreakingThirdPartyTransport(
+                mockThirdPartyTransport,
+                mockEventProbe,
+                enabled,
+                FAILURE_THRESHOLD,
+                OPEN_DURATION_MS,
+                currentTimeMs::get,
+                null);
+    }
+
+    private CloseableHttpResponse send(CircuitBreakingThirdPartyTransport transport)
+            throws IOException {
+        return transport.sendHTTPRequestRetryIfAllowed(
+                TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline);
+    }
+
+    private void mockResponseStatusCode(int statusCode) throws IOException {
+        when(mockThirdPartyTransport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, TEST_HTTP_RETRY_STATUS_CONFIG, requestDeadline))
+                .thenReturn(mockResponse);
+        when(mockResponse.getStatusLine()).thenReturn(mockStatusLine);
+        when(mockStatusLine.getStatusCode()).thenReturn(statusCode);
+    }
+
+    private static String stateMetric(CircuitBreakerState circuitBreakerState) {
+        return TEST_HTTP_RETRY_STATUS_CONFIG.circuitBreakerStateMetric(circuitBreakerState);
+    }
+}
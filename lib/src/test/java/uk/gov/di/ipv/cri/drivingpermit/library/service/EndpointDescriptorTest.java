@@ -0,0 +1,83 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicHeader;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EndpointDescriptorTest {
+
+    private static final URI TEST_URI = URI.create("https://127.0.0.1/test");
+    private static final URI TEST_STUB_URI = URI.create("https://stub/test");
+
+    @Test
+    void shouldApplyUriHeadersAndRequestConfigToRequest() {
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(1000).build();
+        EndpointDescriptor endpointDescriptor =
+                new EndpointDescriptor(
+                        TEST_URI,
+                        List.of(
+                                new BasicHeader("Content-Type", "application/json"),
+                                new BasicHeader("X-API-Key", "apiKey")),
+                        requestConfig);
+
+        HttpPost request = new HttpPost();
+        endpointDescriptor.applyTo(request);
+
+        assertEquals(TEST_URI, request.getURI());
+        assertEquals("application/json", request.getFirstHeader("Content-Type").getValue());
+        assertEquals("apiKey", request.getFirstHeader("X-API-Key").getValue());
+        assertSame(requestConfig, request.getConfig());
+    }
+
+    @Test
+    void shouldLeaveRequestConfigUnsetWhenNotGiven() {
+        EndpointDescriptor endpointDescriptor = new EndpointDescriptor(TEST_URI, List.of(), null);
+
+        HttpPost request = new HttpPost();
+        endpointDescriptor.applyTo(request);
+
+        assertEquals(TEST_URI, request.getURI());
+        assertNull(request.getConfig());
+    }
+
+    @Test
+    void shouldCreateADescriptorForEachStrategy() {
+        Map<Strategy, EndpointDescriptor> endpointDescriptors =
+                EndpointDescriptor.forStrategies(
+                        Map.of(Strategy.NO_CHANGE, TEST_URI, Strategy.STUB, TEST_STUB_URI),
+                        List.of(new BasicHeader("Content-Type", "application/json")),
+                        null);
+
+        assertEquals(2, endpointDescriptors.size());
+        assertEquals(TEST_URI, endpointDescriptors.get(Strategy.NO_CHANGE).getUri());
+        assertEquals(TEST_STUB_URI, endpointDescriptors.get(Strategy.STUB).getUri());
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> endpointDescriptors.remove(Strategy.STUB));
+    }
+
+    @Test
+    void shouldThrowWhenStrategyHasNoDescriptor() {
+        Map<Strategy, EndpointDescriptor> endpointDescriptors =
+                EndpointDescriptor.forStrategies(
+                        Map.of(Strategy.NO_CHANGE, TEST_URI), List.of(), null);
+
+        assertEquals(
+                TEST_URI,
+                EndpointDescriptor.forStrategy(endpointDescriptors, Strategy.NO_CHANGE).getUri());
+        assertThrows(
+                IllegalStateException.class,
+                () -> EndpointDescriptor.forStrategy(endpointDescriptors, Strategy.UAT));
+    }
+}
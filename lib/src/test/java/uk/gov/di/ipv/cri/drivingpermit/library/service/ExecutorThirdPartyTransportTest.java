@@ -0,0 +1,117 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutorThirdPartyTransportTest {
+
+    private static final HttpGet TEST_REQUEST = new HttpGet("https://localhost/test");
+
+    @Mock private HttpRetryer mockHttpRetryer;
+    @Mock private HttpRetryStatusConfig mockHttpRetryStatusConfig;
+    @Mock private CloseableHttpResponse mockResponse;
+
+    // Holds submitted tasks until run, to show the send does not happen on the calling thread
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+    private final Executor queuingExecutor = pendingTasks::add;
+
+    @Test
+    void shouldSendOnCallingThreadWhenBlocking() throws IOException {
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline))
+                .thenReturn(mockResponse);
+
+        ExecutorThirdPartyTransport transport =
+                new ExecutorThirdPartyTransport(mockHttpRetryer, queuingExecutor);
+
+        assertSame(
+                mockResponse,
+                transport.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline));
+        assertTrue(pendingTasks.isEmpty());
+    }
+
+    @Test
+    void shouldSendOnExecutorWhenAsync() throws IOException {
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline))
+                .thenReturn(mockResponse);
+
+        ExecutorThirdPartyTransport transport =
+                new ExecutorThirdPartyTransport(mockHttpRetryer, queuingExecutor);
+
+        CompletableFuture<CloseableHttpResponse> future =
+                transport.sendHTTPRequestRetryIfAllowedAsync(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline);
+
+        assertFalse(future.isDone());
+        verifyNoInteractions(mockHttpRetryer);
+
+        pendingTasks.forEach(Runnable::run);
+
+        assertSame(mockResponse, future.join());
+        verify(mockHttpRetryer)
+                .sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline);
+    }
+
+    @Test
+    void shouldFailFutureWithSendIOExceptionWhenAsync() throws IOException {
+        RequestDeadline requestDeadline = RequestDeadline.none();
+        IOException sendException = new IOException("Connection reset");
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline))
+                .thenThrow(sendException);
+
+        ExecutorThirdPartyTransport transport =
+                new ExecutorThirdPartyTransport(mockHttpRetryer, Runnable::run);
+
+        CompletableFuture<CloseableHttpResponse> future =
+                transport.sendHTTPRequestRetryIfAllowedAsync(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, requestDeadline);
+
+        CompletionException thrown = assertThrows(CompletionException.class, future::join);
+        assertSame(sendException, thrown.getCause());
+    }
+
+    @Test
+    void shouldCompleteBeforeReturningWhenTransportIsBlocking() {
+        IOException sendException = new IOException("Connection reset");
+        ThirdPartyTransport failingTransport =
+                (request, httpRetryStatusConfig, requestDeadline) -> {
+                    throw sendException;
+                };
+
+        CompletableFuture<CloseableHttpResponse> future =
+                failingTransport.sendHTTPRequestRetryIfAllowedAsync(
+                        TEST_REQUEST, mockHttpRetryStatusConfig, RequestDeadline.none());
+
+        assertTrue(future.isCompletedExceptionally());
+        CompletionException thrown = assertThrows(CompletionException.class, future::join);
+        assertEquals(sendException, thrown.getCause());
+    }
+}
@@ -0,0 +1,117 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_THAW_DETECTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.service.HttpConnectionPoolThawMonitor.REWARM_CONNECT_TIMEOUT_MS;
+
+@ExtendWith(MockitoExtension.class)
+class HttpConnectionPoolThawMonitorTest {
+
+    private static final long TEST_THAW_THRESHOLD_MS = 10000L;
+
+    @Mock private EventProbe mockEventProbe;
+
+    @Mock private InstrumentedPoolingHttpClientConnectionManager mockConnectionManager1;
+    @Mock private InstrumentedPoolingHttpClientConnectionManager mockConnectionManager2;
+
+    private final AtomicLong currentTimeMs = new AtomicLong(1000L);
+
+    private HttpConnectionPoolThawMonitor createMonitor(boolean rewarmEnabled) {
+        return new HttpConnectionPoolThawMonitor(
+                () -> List.of(mockConnectionManager1, mockConnectionManager2),
+                mockEventProbe,
+                TEST_THAW_THRESHOLD_MS,
+                rewarmEnabled,
+                currentTimeMs::get,
+                Runnable::run);
+    }
+
+    @Test
+    void shouldNotEvictOnFirstInvocationOrWhenUnderThreshold() {
+        HttpConnectionPoolThawMonitor monitor = createMonitor(true);
+
+        CompletableFuture<Void> first = monitor.onInvocationStart();
+
+        currentTimeMs.addAndGet(TEST_THAW_THRESHOLD_MS - 1);
+        CompletableFuture<Void> second = monitor.onInvocationStart();
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        verifyNoInteractions(mockEventProbe, mockConnectionManager1, mockConnectionManager2);
+    }
+
+    @Test
+    void shouldEvictWithoutRewarmWhenOverThresholdAndRewarmDisabled() {
+        HttpConnectionPoolThawMonitor monitor = createMonitor(false);
+
+        monitor.onInvocationStart();
+
+        currentTimeMs.addAndGet(TEST_THAW_THRESHOLD_MS);
+        CompletableFuture<Void> result = monitor.onInvocationStart();
+
+        assertTrue(result.isDone());
+        verify(mockEventProbe)
+                .counterMetric(HTTP_CONNECTION_POOL_THAW_DETECTED, TEST_THAW_THRESHOLD_MS);
+        verify(mockConnectionManager1).evictIdleConnections();
+        verify(mockConnectionManager2).evictIdleConnections();
+        verifyNoMoreInteractions(mockEventProbe, mockConnectionManager1, mockConnectionManager2);
+    }
+
+    @Test
+    void shouldEvictThenRewarmEachPoolWhenOverThresholdAndRewarmEnabled() throws Exception {
+        HttpConnectionPoolThawMonitor monitor = createMonitor(true);
+
+        when(mockConnectionManager1.warmLastRoute(REWARM_CONNECT_TIMEOUT_MS)).thenReturn(true);
+        when(mockConnectionManager2.warmLastRoute(REWARM_CONNECT_TIMEOUT_MS)).thenReturn(false);
+
+        monitor.onInvocationStart();
+
+        currentTimeMs.addAndGet(TEST_THAW_THRESHOLD_MS + 5000);
+        CompletableFuture<Void> result = monitor.onInvocationStart();
+
+        assertTrue(result.isDone());
+
+        InOrder inOrder = inOrder(mockEventProbe, mockConnectionManager1, mockConnectionManager2);
+        inOrder.verify(mockEventProbe)
+                .counterMetric(HTTP_CONNECTION_POOL_THAW_DETECTED, TEST_THAW_THRESHOLD_MS + 5000);
+        inOrder.verify(mockConnectionManager1).evictIdleConnections();
+        inOrder.verify(mockConnectionManager2).evictIdleConnections();
+        inOrder.verify(mockConnectionManager1).warmLastRoute(REWARM_CONNECT_TIMEOUT_MS);
+        inOrder.verify(mockConnectionManager2).warmLastRoute(REWARM_CONNECT_TIMEOUT_MS);
+    }
+
+    @Test
+    void shouldNotFailInvocationWhenRewarmFails() throws Exception {
+        HttpConnectionPoolThawMonitor monitor = createMonitor(true);
+
+        when(mockConnectionManager1.warmLastRoute(REWARM_CONNECT_TIMEOUT_MS))
+                .thenThrow(new IOException("Connection refused"));
+        when(mockConnectionManager2.warmLastRoute(REWARM_CONNECT_TIMEOUT_MS)).thenReturn(true);
+
+        monitor.onInvocationStart();
+
+        currentTimeMs.addAndGet(TEST_THAW_THRESHOLD_MS);
+        CompletableFuture<Void> result = monitor.onInvocationStart();
+
+        assertDoesNotThrow(() -> result.join());
+        verify(mockConnectionManager2).warmLastRoute(REWARM_CONNECT_TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,170 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_PRE_WARM_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_PRE_WARM_INCOMPLETE;
+
+@ExtendWith(MockitoExtension.class)
+class HttpConnectionPreWarmerTest {
+
+    private static final int TEST_BUDGET_MS = 200;
+
+    private static final HttpRoute DVA_ROUTE =
+            new HttpRoute(new HttpHost("dva.example.com", 443, "https"), null, true);
+    private static final HttpRoute DVLA_ROUTE =
+            new HttpRoute(new HttpHost("dvla.example.com", 8080, "http"), null, false);
+
+    @Mock private EventProbe mockEventProbe;
+
+    @Mock private InstrumentedPoolingHttpClientConnectionManager mockDvaConnectionManager;
+    @Mock private InstrumentedPoolingHttpClientConnectionManager mockDvlaConnectionManager;
+
+    private HttpConnectionPreWarmer createPreWarmer(boolean preWarmEnabled) {
+        return new HttpConnectionPreWarmer(
+                () -> List.of(mockDvaConnectionManager, mockDvlaConnectionManager),
+                mockEventProbe,
+                preWarmEnabled,
+                TEST_BUDGET_MS,
+                Runnable::run);
+    }
+
+    @Test
+    void shouldNotPreWarmWhenDisabled() {
+        HttpConnectionPreWarmer preWarmer = createPreWarmer(false);
+        preWarmer.addTarget("dva", "https://dva.example.com/api");
+
+        assertFalse(preWarmer.preWarm());
+
+        verifyNoInteractions(mockEventProbe, mockDvaConnectionManager, mockDvlaConnectionManager);
+    }
+
+    @Test
+    void shouldWarmEachTargetRouteOnceThroughItsPool() throws Exception {
+        when(mockDvaConnectionManager.getPoolName()).thenReturn("dva");
+        when(mockDvlaConnectionManager.getPoolName()).thenReturn("dvla");
+
+        HttpConnectionPreWarmer preWarmer = createPreWarmer(true);
+        preWarmer.addTarget("dva", "https://dva.example.com/api/ukverify");
+        preWarmer.addTarget("dvla", "http://dvla.example.com:8080/token");
+        preWarmer.addTarget("dvla", "http://dvla.example.com:8080/match");
+
+        assertTrue(preWarmer.preWarm());
+
+        verify(mockDvaConnectionManager).warmConnection(DVA_ROUTE, TEST_BUDGET_MS);
+        verify(mockDvlaConnectionManager).warmConnection(DVLA_ROUTE, TEST_BUDGET_MS);
+        verify(mockEventProbe).counterMetric(eq(HTTP_CONNECTION_PRE_WARM_DURATION), anyDouble());
+        verify(mockEventProbe).counterMetric(HTTP_CONNECTION_PRE_WARM_INCOMPLETE, 0);
+    }
+
+    @Test
+    void shouldCountFailedTargetsAsIncomplete() throws Exception {
+        when(mockDvaConnectionManager.getPoolName()).thenReturn("dva");
+        when(mockDvlaConnectionManager.getPoolName()).thenReturn("dvla");
+        doThrow(new IOException("Connection refused"))
+                .when(mockDvaConnectionManager)
+                .warmConnection(DVA_ROUTE, TEST_BUDGET_MS);
+
+        HttpConnectionPreWarmer preWarmer = createPreWarmer(true);
+        preWarmer.addTarget("dva", "https://dva.example.com");
+        preWarmer.addTarget("dvla", "http://dvla.example.com:8080");
+        preWarmer.addTarget("unknown", "https://unknown.example.com");
+
+        assertFalse(preWarmer.preWarm());
+
+        verify(mockDvlaConnectionManager).warmConnection(DVLA_ROUTE, TEST_BUDGET_MS);
+        verify(mockEventProbe).counterMetric(HTTP_CONNECTION_PRE_WARM_INCOMPLETE, 2);
+    }
+
+    @Test
+    void shouldRunTasksAndCountFailedTasksAsIncomplete() {
+        when(mockDvaConnectionManager.getPoolName()).thenReturn("dva");
+        when(mockDvlaConnectionManager.getPoolName()).thenReturn("dvla");
+
+        AtomicInteger tasksRun = new AtomicInteger();
+
+        HttpConnectionPreWarmer preWarmer = createPreWarmer(true);
+        preWarmer.addTask("kms", tasksRun::incrementAndGet);
+        preWarmer.addTask(
+                "failing",
+                () -> {
+                    throw new IllegalStateException("Service unavailable");
+                });
+
+        assertFalse(preWarmer.preWarm());
+
+        assertEquals(1, tasksRun.get());
+        verify(mockEventProbe).counterMetric(HTTP_CONNECTION_PRE_WARM_INCOMPLETE, 1);
+    }
+
+    @Test
+    void shouldNotWaitBeyondBudget() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(mockDvaConnectionManager.getPoolName()).thenReturn("dva");
+        doAnswer(
+                        invocation -> {
+                            release.await();
+                            return null;
+                        })
+                .when(mockDvaConnectionManager)
+                .warmConnection(DVA_ROUTE, TEST_BUDGET_MS);
+
+        HttpConnectionPreWarmer preWarmer =
+                new HttpConnectionPreWarmer(
+                        () -> List.of(mockDvaConnectionManager),
+                        mockEventProbe,
+                        true,
+                        TEST_BUDGET_MS,
+                        Executors.newSingleThreadExecutor());
+        preWarmer.addTarget("dva", "https://dva.example.com");
+
+        try {
+            assertFalse(preWarmer.preWarm());
+
+            verify(mockEventProbe).counterMetric(HTTP_CONNECTION_PRE_WARM_INCOMPLETE, 1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void shouldEvictBeforeCheckpointAndPreWarmAfterRestore() throws Exception {
+        when(mockDvaConnectionManager.getPoolName()).thenReturn("dva");
+        when(mockDvlaConnectionManager.getPoolName()).thenReturn("dvla");
+
+        HttpConnectionPreWarmer preWarmer = createPreWarmer(true);
+        preWarmer.addTarget("dva", "https://dva.example.com");
+
+        preWarmer.beforeCheckpoint(null);
+
+        verify(mockDvaConnectionManager).evictIdleConnections();
+        verify(mockDvlaConnectionManager).evictIdleConnections();
+
+        preWarmer.afterRestore(null);
+
+        verify(mockDvaConnectionManager).warmConnection(DVA_ROUTE, TEST_BUDGET_MS);
+    }
+}
@@ -1,5 +1,8 @@
 package uk.gov.di.ipv.cri.drivingpermit.library.service;
 
+import org.apache.http.HttpHeaders;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -8,21 +11,36 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.RequestDeadlineExceededException;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.BackoffPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ExponentialBackoffPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RetryBudget;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
 import uk.gov.di.ipv.cri.drivingpermit.util.HttpRetryStatusConfigFixtures;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.http.HttpConnectTimeoutException;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -41,6 +59,9 @@ class HttpRetryerTest {
     private List<Integer> TEST_SUCCESS_STATUS_CODES = List.of(200, 201);
     private int TEST_MAX_RETRIES = 3;
 
+    private static final BackoffPolicy NO_WAIT_BACKOFF_POLICY =
+            new ExponentialBackoffPolicy(0, 0, ExponentialBackoffPolicy.Jitter.NONE);
+
     @BeforeEach
     void setUp() {
         httpRetryer = new HttpRetryer(mockHttpClient, mockEventProbe, TEST_MAX_RETRIES);
@@ -81,6 +102,13 @@ class HttpRetryerTest {
                     .counterMetric(
                             HttpRetryStatusConfigFixtures
                                     .TEST_HTTP_RETRYER_SEND_MAX_RETRIES_METRIC);
+
+            // Wait before each retry
+            verify(mockEventProbe, times(TEST_MAX_RETRIES))
+                    .counterMetric(
+                            eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                            anyDouble());
+            verifyRetryBudgetMetric(TEST_MAX_RETRIES);
         } else {
             // Send Success
             verify(mockEventProbe)
@@ -138,6 +166,13 @@ class HttpRetryerTest {
                             HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
             // No retry after final attempt, HttpConnectTimeoutException rethrown
 
+            // Wait before each retry
+            verify(mockEventProbe, times(TEST_MAX_RETRIES))
+                    .counterMetric(
+                            eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                            anyDouble());
+            verifyRetryBudgetMetric(TEST_MAX_RETRIES);
+
             assertTrue(thrownException instanceof HttpConnectTimeoutException);
         } else {
             // Send Fail - IOException
@@ -152,6 +187,72 @@ class HttpRetryerTest {
         verifyNoMoreInteractions(mockHttpClient);
     }
 
+    @ParameterizedTest
+    @CsvSource({
+        "true", // Stale connection retried
+        "false", // Not safe to re-send
+    })
+    void shouldOnlyRetryStaleConnectionNoHttpResponseExceptionWhenRequestIsIdempotent(
+            boolean idempotent) throws IOException {
+
+        NoHttpResponseException staleConnectionException =
+                new NoHttpResponseException("The target server failed to respond");
+
+        CloseableHttpResponse testCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(200, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenThrow(staleConnectionException)
+                .thenReturn(testCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES, idempotent);
+
+        if (idempotent) {
+            CloseableHttpResponse response =
+                    httpRetryer.sendHTTPRequestRetryIfAllowed(
+                            mockPostRequest, testHttpRetryStatusConfig);
+
+            assertEquals(200, response.getStatusLine().getStatusCode());
+
+            InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+            inOrderMockEventProbeSequence
+                    .verify(mockEventProbe)
+                    .counterMetric(
+                            HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_RETRY_METRIC);
+            inOrderMockEventProbeSequence
+                    .verify(mockEventProbe)
+                    .counterMetric(
+                            eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                            anyDouble());
+            inOrderMockEventProbeSequence
+                    .verify(mockEventProbe)
+                    .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_OK_METRIC);
+            verifyRetryBudgetMetric(1);
+
+            verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
+        } else {
+            NoHttpResponseException thrownException =
+                    assertThrows(
+                            NoHttpResponseException.class,
+                            () ->
+                                    httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                            mockPostRequest, testHttpRetryStatusConfig),
+                            "Expected NoHttpResponseException");
+
+            assertEquals(staleConnectionException, thrownException);
+
+            verify(mockEventProbe)
+                    .counterMetric(
+                            HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
+
+            verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        }
+        verifyNoMoreInteractions(mockEventProbe);
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
     @Test
     void shouldCaptureSendErrorMetricIfRemoteAPIReturnsNonRetryableStatusDuringARetry()
             throws IOException {
@@ -184,9 +285,345 @@ class HttpRetryerTest {
                 .verify(mockEventProbe, times(1))
                 .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_ERROR_METRIC);
 
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                        anyDouble());
+        verifyRetryBudgetMetric(1);
+
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldNotRetryRetryableStatusWhenInsufficientTimeRemains() throws IOException {
+
+        CloseableHttpResponse testCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(testCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        // Less than the time reserved for an attempt
+        CloseableHttpResponse response =
+                httpRetryer.sendHTTPRequestRetryIfAllowed(
+                        mockPostRequest,
+                        testHttpRetryStatusConfig,
+                        RequestDeadline.fromRemainingTimeMs(
+                                HttpRetryer.HTTP_RETRY_MIN_ATTEMPT_TIME_MS - 1));
+
+        assertEquals(500, response.getStatusLine().getStatusCode());
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_ERROR_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldRethrowHttpConnectTimeoutExceptionWhenInsufficientTimeRemains()
+            throws IOException {
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenThrow(new HttpConnectTimeoutException("TestHttpConnectTimeoutException"));
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        assertThrows(
+                HttpConnectTimeoutException.class,
+                () ->
+                        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                mockPostRequest,
+                                testHttpRetryStatusConfig,
+                                RequestDeadline.fromRemainingTimeMs(
+                                        HttpRetryer.HTTP_RETRY_MIN_ATTEMPT_TIME_MS - 1)),
+                "Expected HttpConnectTimeoutException");
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
+        verify(mockEventProbe, never())
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_RETRY_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldCapBackoffWaitToTheRemainingTime() throws IOException {
+
+        BackoffPolicy mockBackoffPolicy = mock(BackoffPolicy.class);
+        when(mockBackoffPolicy.calculateWaitTimeMs(anyInt(), anyLong()))
+                .thenReturn(HttpRetryer.HTTP_RETRY_WAIT_TIME_LIMIT_MS);
+
+        httpRetryer = new HttpRetryer(mockHttpClient, mockEventProbe, 1, mockBackoffPolicy);
+
+        CloseableHttpResponse initialRetryableCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "", false);
+        CloseableHttpResponse successCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(200, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(initialRetryableCloseableHttpResponse)
+                .thenReturn(successCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        long availableWaitTimeMs = 50L;
+        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                mockPostRequest,
+                testHttpRetryStatusConfig,
+                RequestDeadline.fromRemainingTimeMs(
+                        HttpRetryer.HTTP_RETRY_MIN_ATTEMPT_TIME_MS + availableWaitTimeMs));
+
+        ArgumentCaptor<Double> waitTimeCaptor = ArgumentCaptor.forClass(Double.class);
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                        waitTimeCaptor.capture());
+
+        // Margin for scheduling delays, but far below the 12.8s the policy requested
+        assertTrue(waitTimeCaptor.getValue() < availableWaitTimeMs + 500L);
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_RETRY_METRIC);
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_OK_METRIC);
+        verifyRetryBudgetMetric(1);
         verifyNoMoreInteractions(mockEventProbe);
 
         verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
         verifyNoMoreInteractions(mockHttpClient);
     }
+
+    @Test
+    void shouldThrowRequestDeadlineExceededExceptionWithoutSendingWhenDeadlineHasPassed()
+            throws IOException {
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        RequestDeadline expiredRequestDeadline = RequestDeadline.fromRemainingTimeMs(0);
+
+        assertThrows(
+                RequestDeadlineExceededException.class,
+                () ->
+                        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                mockPostRequest, testHttpRetryStatusConfig, expiredRequestDeadline),
+                "Expected RequestDeadlineExceededException");
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldStopRetryingWhenInterruptedWhileWaiting() throws IOException {
+        CloseableHttpResponse retryableCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(retryableCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(
+                    InterruptedIOException.class,
+                    () ->
+                            httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                    mockPostRequest, testHttpRetryStatusConfig));
+        } finally {
+            // The flag is left set for the caller
+            assertTrue(Thread.interrupted());
+        }
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldFitRequestTimeoutsToTheRequestDeadline() throws IOException {
+
+        CloseableHttpResponse testCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(200, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(testCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        HttpPost request = new HttpPost("https://localhost/test");
+        request.setConfig(
+                RequestConfig.custom()
+                        .setConnectTimeout(5000)
+                        .setSocketTimeout(10000)
+                        .setConnectionRequestTimeout(5000)
+                        .build());
+
+        long remainingTimeMs = 2000L;
+        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                request,
+                testHttpRetryStatusConfig,
+                RequestDeadline.fromRemainingTimeMs(remainingTimeMs));
+
+        RequestConfig fittedRequestConfig = request.getConfig();
+        assertTrue(fittedRequestConfig.getConnectTimeout() <= remainingTimeMs);
+        assertTrue(fittedRequestConfig.getSocketTimeout() <= remainingTimeMs);
+        assertTrue(fittedRequestConfig.getConnectionRequestTimeout() <= remainingTimeMs);
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_OK_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldSuppressRetriesOnceRetryBudgetIsExhausted() throws IOException {
+
+        // A single retry, not refilled by further requests
+        httpRetryer =
+                new HttpRetryer(
+                        mockHttpClient,
+                        mockEventProbe,
+                        TEST_MAX_RETRIES,
+                        NO_WAIT_BACKOFF_POLICY,
+                        new RetryBudget(0, 1));
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenAnswer(
+                        invocation ->
+                                HttpResponseFixtures.createHttpResponse(500, null, "", false));
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        // First request uses the budget, then the second retry is suppressed
+        httpRetryer.sendHTTPRequestRetryIfAllowed(mockPostRequest, testHttpRetryStatusConfig);
+        verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
+
+        // Second request is not retried
+        httpRetryer.sendHTTPRequestRetryIfAllowed(mockPostRequest, testHttpRetryStatusConfig);
+        verify(mockHttpClient, times(3)).execute(any(HttpPost.class));
+
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_RETRY_METRIC);
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                        anyDouble());
+        verify(mockEventProbe, times(2))
+                .counterMetric(
+                        HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_RETRY_SUPPRESSED_METRIC);
+        verify(mockEventProbe, times(2))
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_ERROR_METRIC);
+        verify(mockEventProbe, times(3))
+                .counterMetric(
+                        HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_RETRY_BUDGET_METRIC, 0);
+        verifyNoMoreInteractions(mockEventProbe);
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldWaitForRetryAfterBeforeRetrying() throws IOException {
+
+        httpRetryer =
+                new HttpRetryer(
+                        mockHttpClient, mockEventProbe, TEST_MAX_RETRIES, NO_WAIT_BACKOFF_POLICY);
+
+        CloseableHttpResponse retryAfterCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        500, Map.of(HttpHeaders.RETRY_AFTER, "1"), "", false);
+        CloseableHttpResponse successCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(200, null, "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(retryAfterCloseableHttpResponse)
+                .thenReturn(successCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        CloseableHttpResponse response =
+                httpRetryer.sendHTTPRequestRetryIfAllowed(
+                        mockPostRequest, testHttpRetryStatusConfig);
+
+        assertEquals(200, response.getStatusLine().getStatusCode());
+
+        ArgumentCaptor<Double> waitTimeCaptor = ArgumentCaptor.forClass(Double.class);
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_WAIT_TIME_METRIC),
+                        waitTimeCaptor.capture());
+
+        // Margin for timer granularity, the backoff policy alone would not wait
+        assertTrue(waitTimeCaptor.getValue() >= 900);
+
+        verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "60", // Seconds, beyond the wait time limit
+        "'Wed, 21 Oct 2099 07:28:00 GMT'", // HTTP-date
+    })
+    void shouldNotRetryWhenRetryAfterDoesNotFit(String retryAfter) throws IOException {
+
+        CloseableHttpResponse retryAfterCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(
+                        500, Map.of(HttpHeaders.RETRY_AFTER, retryAfter), "", false);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(retryAfterCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        CloseableHttpResponse response =
+                httpRetryer.sendHTTPRequestRetryIfAllowed(
+                        mockPostRequest, testHttpRetryStatusConfig);
+
+        assertEquals(500, response.getStatusLine().getStatusCode());
+
+        verify(mockEventProbe)
+                .counterMetric(
+                        HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_RETRY_SUPPRESSED_METRIC);
+        verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_ERROR_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    private void verifyRetryBudgetMetric(int retries) {
+        verify(mockEventProbe, times(retries))
+                .counterMetric(
+                        eq(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_RETRY_BUDGET_METRIC),
+                        anyDouble());
+    }
 }
@@ -0,0 +1,170 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.config.HttpConnectionPoolConfig;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_AVAILABLE;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_CONNECTION_OPENED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_EVICTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_LEASED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_LEASE_WAIT_TIME;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.HTTP_CONNECTION_POOL_PENDING;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedPoolingHttpClientConnectionManagerTest {
+
+    private static final String TEST_POOL_NAME = "TEST";
+    private static final String TEST_METRIC_PREFIX = "test_";
+
+    @Mock private EventProbe mockEventProbe;
+
+    private InstrumentedPoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() {
+        Registry<ConnectionSocketFactory> socketFactoryRegistry =
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .build();
+
+        HttpConnectionPoolConfig httpConnectionPoolConfig =
+                HttpConnectionPoolConfig.builder()
+                        .poolName(TEST_POOL_NAME)
+                        .maxTotal(4)
+                        .maxPerRoute(2)
+                        .validateAfterInactivityMs(500)
+                        .build();
+
+        connectionManager =
+                new InstrumentedPoolingHttpClientConnectionManager(
+                        socketFactoryRegistry, httpConnectionPoolConfig, mockEventProbe);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    void shouldApplyPoolConfig() {
+        assertEquals(4, connectionManager.getMaxTotal());
+        assertEquals(2, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(500, connectionManager.getValidateAfterInactivity());
+    }
+
+    @Test
+    void shouldRecordLeaseWaitTimeAndPoolStatisticsWhenConnectionLeased() throws Exception {
+        HttpRoute route = new HttpRoute(new HttpHost("localhost", 8080));
+
+        ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+        HttpClientConnection connection = connectionRequest.get(1, TimeUnit.SECONDS);
+
+        assertNotNull(connection);
+        assertFalse(connection.isOpen());
+
+        InOrder inOrderMockEventProbe = inOrder(mockEventProbe);
+        inOrderMockEventProbe
+                .verify(mockEventProbe)
+                .counterMetric(
+                        eq(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_LEASE_WAIT_TIME), anyDouble());
+        inOrderMockEventProbe
+                .verify(mockEventProbe)
+                .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_LEASED, 1);
+        inOrderMockEventProbe
+                .verify(mockEventProbe)
+                .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_AVAILABLE, 0);
+        inOrderMockEventProbe
+                .verify(mockEventProbe)
+                .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_PENDING, 0);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void shouldRecordConnectionOpenedWhenNewConnectionIsConnected() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            HttpRoute route =
+                    new HttpRoute(
+                            new HttpHost(
+                                    InetAddress.getLoopbackAddress(),
+                                    serverSocket.getLocalPort(),
+                                    "http"));
+
+            HttpClientConnection connection =
+                    connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+
+            connectionManager.connect(connection, route, 1000, HttpClientContext.create());
+
+            assertTrue(connection.isOpen());
+            verify(mockEventProbe)
+                    .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_CONNECTION_OPENED);
+
+            connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    void shouldNotWarmLastRouteWhenNoRequestHasBeenMade() throws Exception {
+        assertFalse(connectionManager.warmLastRoute(1000));
+
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldWarmLastRouteAndEvictIdleConnections() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            HttpRoute route =
+                    new HttpRoute(
+                            new HttpHost(
+                                    InetAddress.getLoopbackAddress(),
+                                    serverSocket.getLocalPort(),
+                                    "http"));
+
+            HttpClientConnection connection =
+                    connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+            connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+
+            assertTrue(connectionManager.warmLastRoute(1000));
+
+            verify(mockEventProbe)
+                    .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_CONNECTION_OPENED);
+            assertEquals(1, connectionManager.getTotalStats().getAvailable());
+
+            assertEquals(1, connectionManager.evictIdleConnections());
+
+            verify(mockEventProbe)
+                    .counterMetric(TEST_METRIC_PREFIX + HTTP_CONNECTION_POOL_EVICTED, 1);
+            assertEquals(0, connectionManager.getTotalStats().getAvailable());
+        }
+    }
+}
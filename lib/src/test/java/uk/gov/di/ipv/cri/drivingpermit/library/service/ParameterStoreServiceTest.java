@@ -7,6 +7,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.lambda.powertools.parameters.SSMProvider;
+import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ConfigSnapshot;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore.ParameterPrefix;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
@@ -16,6 +17,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -118,4 +120,69 @@ class ParameterStoreServiceTest {
         verify(mockSSMProvider).withDecryption();
         verify(mockSSMProvider).getMultiple(fullPath);
     }
+
+    @ParameterizedTest
+    @CsvSource({"OVERRIDE", "STACK", "COMMON_API", "ENV"})
+    void shouldGetParamValueFromConfigSnapshotWithoutReadingParameterStore(
+            ParameterPrefix prefixToTest) {
+        String fullParamName =
+                String.format("/%s/%s", prefixToTest.getPrefixValue(), TEST_PARAM_NAME);
+
+        ConfigSnapshot configSnapshot =
+                new ConfigSnapshot(Map.of(fullParamName, TEST_PARAM_VALUE), Map.of(), Map.of());
+        parameterStoreService = new ParameterStoreService(mockSSMProvider, configSnapshot);
+
+        assertEquals(
+                TEST_PARAM_VALUE,
+                parameterStoreService.getParameterValue(prefixToTest, TEST_PARAM_NAME));
+
+        verifyNoInteractions(mockSSMProvider);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"OVERRIDE", "STACK", "COMMON_API", "ENV"})
+    void shouldGetAllParametersFromPathFromConfigSnapshotWithoutReadingParameterStore(
+            ParameterPrefix prefixToTest) {
+        Map<String, String> testParameterMap = Map.of("KEY1", "TEST_VALUE1", "KEY2", "TEST_VALUE2");
+        Map<String, String> testDecryptedParameterMap = Map.of("KEY3", "TEST_VALUE3");
+
+        String testPath = "TESTPATH/SUBPATH";
+        String fullPath = String.format("/%s/%s", prefixToTest.getPrefixValue(), testPath);
+
+        ConfigSnapshot configSnapshot =
+                new ConfigSnapshot(
+                        Map.of(),
+                        Map.of(fullPath, testParameterMap),
+                        Map.of(fullPath, testDecryptedParameterMap));
+        parameterStoreService = new ParameterStoreService(mockSSMProvider, configSnapshot);
+
+        assertEquals(
+                testParameterMap,
+                parameterStoreService.getAllParametersFromPath(prefixToTest, testPath));
+        assertEquals(
+                testDecryptedParameterMap,
+                parameterStoreService.getAllParametersFromPathWithDecryption(
+                        prefixToTest, testPath));
+
+        verifyNoInteractions(mockSSMProvider);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"OVERRIDE", "STACK", "COMMON_API", "ENV"})
+    void shouldReadParameterStoreWhenParamValueNotInConfigSnapshot(ParameterPrefix prefixToTest) {
+        String fullParamName =
+                String.format("/%s/%s", prefixToTest.getPrefixValue(), TEST_PARAM_NAME);
+
+        ConfigSnapshot configSnapshot =
+                new ConfigSnapshot(Map.of("/OTHER/Parameter", "OTHER"), Map.of(), Map.of());
+        parameterStoreService = new ParameterStoreService(mockSSMProvider, configSnapshot);
+
+        when(mockSSMProvider.get(fullParamName)).thenReturn(TEST_PARAM_VALUE);
+
+        assertEquals(
+                TEST_PARAM_VALUE,
+                parameterStoreService.getParameterValue(prefixToTest, TEST_PARAM_NAME));
+
+        verify(mockSSMProvider).get(fullParamName);
+    }
 }
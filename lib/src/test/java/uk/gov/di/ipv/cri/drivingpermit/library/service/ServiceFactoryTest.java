@@ -12,6 +12,8 @@ import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.JsonCodecs;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
@@ -29,6 +31,7 @@ class ServiceFactoryTest {
     @Mock ClientProviderFactory mockClientProviderFactory;
     @Mock ApacheHTTPClientFactoryService mockApacheHTTPClientFactoryService;
     @Mock ParameterStoreService mockParameterStoreService;
+    @Mock ConcurrentCallRunner mockConcurrentCallRunner;
     @Mock SessionService mockSessionService;
     @Mock AuditService mockAuditService;
     @Mock DocumentCheckResultStorageService mockDocumentCheckResultStorageService;
@@ -48,6 +51,7 @@ class ServiceFactoryTest {
                         mockClientProviderFactory,
                         mockApacheHTTPClientFactoryService,
                         mockParameterStoreService,
+                        mockConcurrentCallRunner,
                         mockSessionService,
                         mockAuditService,
                         mockDocumentCheckResultStorageService,
@@ -65,6 +69,16 @@ class ServiceFactoryTest {
         assertEquals(objectMapper, objectMapper2);
     }
 
+    @Test
+    void shouldReturnJsonCodecs() {
+        JsonCodecs jsonCodecs = serviceFactory.getJsonCodecs();
+        assertNotNull(jsonCodecs);
+
+        JsonCodecs jsonCodecs2 = serviceFactory.getJsonCodecs();
+
+        assertEquals(jsonCodecs, jsonCodecs2);
+    }
+
     @Test
     void shouldReturnEventProbe() {
         EventProbe eventProbe = serviceFactory.getEventProbe();
@@ -94,6 +108,28 @@ class ServiceFactoryTest {
         assertEquals(apacheHTTPClientFactoryService1, apacheHTTPClientFactoryService2);
     }
 
+    @Test
+    void shouldReturnHttpConnectionPoolThawMonitor() {
+        HttpConnectionPoolThawMonitor httpConnectionPoolThawMonitor1 =
+                serviceFactory.getHttpConnectionPoolThawMonitor();
+        assertNotNull(httpConnectionPoolThawMonitor1);
+
+        HttpConnectionPoolThawMonitor httpConnectionPoolThawMonitor2 =
+                serviceFactory.getHttpConnectionPoolThawMonitor();
+        assertEquals(httpConnectionPoolThawMonitor1, httpConnectionPoolThawMonitor2);
+    }
+
+    @Test
+    void shouldReturnHttpConnectionPreWarmer() {
+        HttpConnectionPreWarmer httpConnectionPreWarmer1 =
+                serviceFactory.getHttpConnectionPreWarmer();
+        assertNotNull(httpConnectionPreWarmer1);
+
+        HttpConnectionPreWarmer httpConnectionPreWarmer2 =
+                serviceFactory.getHttpConnectionPreWarmer();
+        assertEquals(httpConnectionPreWarmer1, httpConnectionPreWarmer2);
+    }
+
     @Test
     void shouldReturnParameterStoreService() {
         ParameterStoreService parameterStoreService1 = serviceFactory.getParameterStoreService();
@@ -103,6 +139,15 @@ class ServiceFactoryTest {
         assertEquals(parameterStoreService1, parameterStoreService2);
     }
 
+    @Test
+    void shouldReturnConcurrentCallRunner() {
+        ConcurrentCallRunner concurrentCallRunner1 = serviceFactory.getConcurrentCallRunner();
+        assertNotNull(concurrentCallRunner1);
+
+        ConcurrentCallRunner concurrentCallRunner2 = serviceFactory.getConcurrentCallRunner();
+        assertEquals(concurrentCallRunner1, concurrentCallRunner2);
+    }
+
     @Test
     void shouldReturnCommonLibConfigurationService() {
         ConfigurationService commonLibConfigurationService1 =
@@ -0,0 +1,199 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.Strategy;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.ConcurrencySlotItem;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_ADMITTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_REJECTED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.STRATEGY_BULKHEAD_SLOTS_UNAVAILABLE;
+
+@ExtendWith(MockitoExtension.class)
+class TestStrategyConcurrencyLimiterTest {
+
+    private static final int TEST_SLOT_COUNT = 3;
+    private static final long TEST_LEASE_DURATION_MS = 10000L;
+    private static final long TEST_NOW_MS = 1700000000000L;
+
+    @Mock private DynamoDbTable<ConcurrencySlotItem> mockSlotTable;
+    @Mock private EventProbe mockEventProbe;
+
+    @Test
+    void shouldAdmitLiveStrategiesWithoutClaimingASlot() {
+        TestStrategyConcurrencyLimiter limiter = createLimiter(mockSlotTable);
+
+        TestStrategyConcurrencyLimiter.Slot slot = limiter.tryAcquire(Strategy.LIVE);
+        assertNotNull(slot);
+        slot.close();
+
+        verifyNoInteractions(mockSlotTable);
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_ADMITTED + "live");
+    }
+
+    @Test
+    void shouldAdmitTestStrategiesWhenNotConfigured() {
+        TestStrategyConcurrencyLimiter limiter = createLimiter(null);
+
+        assertNotNull(limiter.tryAcquire(Strategy.STUB));
+
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_ADMITTED + "stub");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldClaimTheNextFreeSlotAndReleaseItOnClose() {
+        ArgumentCaptor<PutItemEnhancedRequest<ConcurrencySlotItem>> putRequestCaptor =
+                ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+        ArgumentCaptor<UpdateItemEnhancedRequest<ConcurrencySlotItem>> updateRequestCaptor =
+                ArgumentCaptor.forClass(UpdateItemEnhancedRequest.class);
+
+        // Slot 2 (the first tried) is in use, slot 0 is free
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .doNothing()
+                .when(mockSlotTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        TestStrategyConcurrencyLimiter limiter = createLimiter(mockSlotTable);
+
+        TestStrategyConcurrencyLimiter.Slot slot = limiter.tryAcquire(Strategy.UAT);
+        assertNotNull(slot);
+
+        verify(mockSlotTable, times(2)).putItem(putRequestCaptor.capture());
+        List<PutItemEnhancedRequest<ConcurrencySlotItem>> putRequests =
+                putRequestCaptor.getAllValues();
+
+        assertEquals("TestStrategySlot-2", putRequests.get(0).item().getId());
+        assertEquals("TestStrategySlot-0", putRequests.get(1).item().getId());
+        assertEquals(
+                TEST_NOW_MS + TEST_LEASE_DURATION_MS, putRequests.get(1).item().getLeaseUntil());
+        assertEquals(
+                "attribute_not_exists(id) OR leaseUntil < :now",
+                putRequests.get(1).conditionExpression().expression());
+
+        slot.close();
+
+        // Released by expiring the lease, as the function may update but not delete items
+        verify(mockSlotTable).updateItem(updateRequestCaptor.capture());
+        UpdateItemEnhancedRequest<ConcurrencySlotItem> updateRequest =
+                updateRequestCaptor.getValue();
+
+        assertEquals("TestStrategySlot-0", updateRequest.item().getId());
+        assertEquals(0L, updateRequest.item().getLeaseUntil());
+        assertEquals(
+                Long.toString(TEST_NOW_MS + TEST_LEASE_DURATION_MS),
+                updateRequest.conditionExpression().expressionValues().get(":leaseUntil").n());
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_ADMITTED + "uat");
+    }
+
+    @Test
+    void shouldRejectWhenAllSlotsAreInUse() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockSlotTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        TestStrategyConcurrencyLimiter limiter = createLimiter(mockSlotTable);
+
+        assertNull(limiter.tryAcquire(Strategy.STUB));
+
+        verify(mockSlotTable, times(TEST_SLOT_COUNT)).putItem(any(PutItemEnhancedRequest.class));
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_REJECTED + "stub");
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldTryABoundedNumberOfSpreadSlotsBeforeRejecting() {
+        ArgumentCaptor<PutItemEnhancedRequest<ConcurrencySlotItem>> putRequestCaptor =
+                ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockSlotTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        TestStrategyConcurrencyLimiter limiter =
+                new TestStrategyConcurrencyLimiter(
+                        mockEventProbe,
+                        mockSlotTable,
+                        30,
+                        TEST_LEASE_DURATION_MS,
+                        () -> TEST_NOW_MS,
+                        slotCount -> 25);
+
+        assertNull(limiter.tryAcquire(Strategy.UAT));
+
+        verify(mockSlotTable, times(TestStrategyConcurrencyLimiter.MAX_CLAIM_ATTEMPTS))
+                .putItem(putRequestCaptor.capture());
+        assertEquals(
+                List.of("TestStrategySlot-25", "TestStrategySlot-5", "TestStrategySlot-15"),
+                putRequestCaptor.getAllValues().stream()
+                        .map(putRequest -> putRequest.item().getId())
+                        .toList());
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_REJECTED + "uat");
+    }
+
+    @Test
+    void shouldAdmitWhenSlotsCannotBeWritten() {
+        doThrow(new IllegalStateException("Dynamo unavailable"))
+                .when(mockSlotTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        TestStrategyConcurrencyLimiter limiter = createLimiter(mockSlotTable);
+
+        TestStrategyConcurrencyLimiter.Slot slot = limiter.tryAcquire(Strategy.STUB);
+        assertNotNull(slot);
+        slot.close();
+
+        verify(mockSlotTable).putItem(any(PutItemEnhancedRequest.class));
+        verifyNoMoreInteractions(mockSlotTable);
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_SLOTS_UNAVAILABLE);
+        verify(mockEventProbe).counterMetric(STRATEGY_BULKHEAD_ADMITTED + "stub");
+    }
+
+    @Test
+    void shouldIgnoreReleaseFailures() {
+        doNothing().when(mockSlotTable).putItem(any(PutItemEnhancedRequest.class));
+        doThrow(new IllegalStateException("Dynamo unavailable"))
+                .when(mockSlotTable)
+                .updateItem(any(UpdateItemEnhancedRequest.class));
+
+        TestStrategyConcurrencyLimiter limiter = createLimiter(mockSlotTable);
+
+        TestStrategyConcurrencyLimiter.Slot slot = limiter.tryAcquire(Strategy.STUB);
+        assertNotNull(slot);
+        slot.close();
+
+        verify(mockSlotTable).updateItem(any(UpdateItemEnhancedRequest.class));
+    }
+
+    private TestStrategyConcurrencyLimiter createLimiter(
+            DynamoDbTable<ConcurrencySlotItem> slotTable) {
+        return new TestStrategyConcurrencyLimiter(
+                mockEventProbe,
+                slotTable,
+                TEST_SLOT_COUNT,
+                TEST_LEASE_DURATION_MS,
+                () -> TEST_NOW_MS,
+                slotCount -> slotCount - 1);
+    }
+}
@@ -0,0 +1,191 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.service.parameterstore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.InternalServerErrorException;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.paginators.GetParametersByPathIterable;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ConcurrentCallRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_INCOMPLETE;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_SNAPSHOT_LOAD_DURATION;
+
+@ExtendWith(MockitoExtension.class)
+class ConfigSnapshotLoaderTest {
+
+    @Mock private SsmClient mockSsmClient;
+    @Mock private EventProbe mockEventProbe;
+
+    private ConfigSnapshotLoader configSnapshotLoader;
+
+    @BeforeEach
+    void setUp() {
+        // Calls run on the calling thread, so each test is deterministic
+        ConcurrentCallRunner concurrentCallRunner =
+                new ConcurrentCallRunner(Runnable::run, mockEventProbe);
+
+        configSnapshotLoader =
+                new ConfigSnapshotLoader(mockSsmClient, concurrentCallRunner, mockEventProbe);
+    }
+
+    @Test
+    void shouldFetchParametersInBatchesOfTen() {
+        ConfigSnapshotDeclaration declaration = new ConfigSnapshotDeclaration();
+        for (int i = 0; i < 12; i++) {
+            declaration.parameter(ParameterPrefix.STACK, "Parameter" + i);
+        }
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersRequest request = invocation.getArgument(0);
+                            return GetParametersResponse.builder()
+                                    .parameters(
+                                            request.names().stream()
+                                                    .map(
+                                                            name ->
+                                                                    Parameter.builder()
+                                                                            .name(name)
+                                                                            .value(name + "-Value")
+                                                                            .build())
+                                                    .toList())
+                                    .build();
+                        });
+
+        ConfigSnapshot configSnapshot = configSnapshotLoader.load(declaration);
+
+        ArgumentCaptor<GetParametersRequest> requestCaptor =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient, times(2)).getParameters(requestCaptor.capture());
+
+        List<GetParametersRequest> requests = requestCaptor.getAllValues();
+        assertEquals(10, requests.get(0).names().size());
+        assertEquals(2, requests.get(1).names().size());
+
+        String stackPrefix = ParameterPrefix.STACK.getPrefixValue();
+        assertEquals(12, configSnapshot.size());
+        assertEquals(
+                "/" + stackPrefix + "/Parameter0-Value",
+                configSnapshot.getParameter("/" + stackPrefix + "/Parameter0"));
+        assertEquals(
+                "/" + stackPrefix + "/Parameter11-Value",
+                configSnapshot.getParameter("/" + stackPrefix + "/Parameter11"));
+
+        verify(mockEventProbe).counterMetric(eq(CONFIG_SNAPSHOT_LOAD_DURATION), anyDouble());
+        verify(mockEventProbe).counterMetric(CONFIG_SNAPSHOT_INCOMPLETE, 0);
+    }
+
+    @Test
+    void shouldKeyParametersFromPathRelativeToPath() {
+        String overridePrefix = ParameterPrefix.OVERRIDE.getPrefixValue();
+        String fullPath = "/" + overridePrefix + "/TESTPATH";
+        String fullDecryptionPath = "/" + overridePrefix + "/SECRETPATH";
+
+        ConfigSnapshotDeclaration declaration =
+                new ConfigSnapshotDeclaration()
+                        .parametersFromPath(ParameterPrefix.OVERRIDE, "TESTPATH")
+                        .parametersFromPathWithDecryption(ParameterPrefix.OVERRIDE, "SECRETPATH");
+
+        when(mockSsmClient.getParametersByPathPaginator(any(GetParametersByPathRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                new GetParametersByPathIterable(
+                                        mockSsmClient, invocation.getArgument(0)));
+        when(mockSsmClient.getParametersByPath(any(GetParametersByPathRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersByPathRequest request = invocation.getArgument(0);
+                            return GetParametersByPathResponse.builder()
+                                    .parameters(
+                                            Parameter.builder()
+                                                    .name(request.path() + "/SUBPATH/KEY1")
+                                                    .value(
+                                                            request.withDecryption()
+                                                                    ? "DECRYPTED"
+                                                                    : "VALUE")
+                                                    .build())
+                                    .build();
+                        });
+
+        ConfigSnapshot configSnapshot = configSnapshotLoader.load(declaration);
+
+        ArgumentCaptor<GetParametersByPathRequest> requestCaptor =
+                ArgumentCaptor.forClass(GetParametersByPathRequest.class);
+        verify(mockSsmClient, times(2)).getParametersByPath(requestCaptor.capture());
+
+        // Recursive without decryption, and with decryption but not recursive, as SSMProvider
+        GetParametersByPathRequest pathRequest = requestCaptor.getAllValues().get(0);
+        assertEquals(fullPath, pathRequest.path());
+        assertTrue(pathRequest.recursive());
+        assertFalse(pathRequest.withDecryption());
+
+        GetParametersByPathRequest decryptionPathRequest = requestCaptor.getAllValues().get(1);
+        assertEquals(fullDecryptionPath, decryptionPathRequest.path());
+        assertFalse(decryptionPathRequest.recursive());
+        assertTrue(decryptionPathRequest.withDecryption());
+
+        assertEquals(
+                Map.of("SUBPATH/KEY1", "VALUE"), configSnapshot.getParametersFromPath(fullPath));
+        assertEquals(
+                Map.of("SUBPATH/KEY1", "DECRYPTED"),
+                configSnapshot.getParametersFromPathWithDecryption(fullDecryptionPath));
+
+        verify(mockSsmClient, never()).getParameters(any(GetParametersRequest.class));
+    }
+
+    @Test
+    void shouldLeaveFailedCallsOutOfSnapshotAndRecordIncomplete() {
+        String stackPrefix = ParameterPrefix.STACK.getPrefixValue();
+        String fullPath = "/" + stackPrefix + "/TESTPATH";
+
+        ConfigSnapshotDeclaration declaration =
+                new ConfigSnapshotDeclaration()
+                        .parameter(ParameterPrefix.STACK, "Parameter")
+                        .parametersFromPath(ParameterPrefix.STACK, "TESTPATH");
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenReturn(
+                        GetParametersResponse.builder()
+                                .parameters(
+                                        Parameter.builder()
+                                                .name("/" + stackPrefix + "/Parameter")
+                                                .value("VALUE")
+                                                .build())
+                                .build());
+        when(mockSsmClient.getParametersByPathPaginator(any(GetParametersByPathRequest.class)))
+                .thenThrow(InternalServerErrorException.builder().message("Failed").build());
+
+        ConfigSnapshot configSnapshot = configSnapshotLoader.load(declaration);
+
+        assertEquals(1, configSnapshot.size());
+        assertEquals("VALUE", configSnapshot.getParameter("/" + stackPrefix + "/Parameter"));
+        assertNull(configSnapshot.getParametersFromPath(fullPath));
+
+        verify(mockEventProbe).counterMetric(eq(CONFIG_SNAPSHOT_LOAD_DURATION), anyDouble());
+        verify(mockEventProbe).counterMetric(CONFIG_SNAPSHOT_INCOMPLETE, 1);
+    }
+}
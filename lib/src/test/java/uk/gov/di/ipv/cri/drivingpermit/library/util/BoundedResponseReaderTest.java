@@ -0,0 +1,159 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.drivingpermit.library.exceptions.ResponseBodyTooLargeException;
+import uk.gov.di.ipv.cri.drivingpermit.util.HttpResponseFixtures;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedResponseReaderTest {
+
+    private static final String ENDPOINT_NAME = "Test Endpoint";
+    private static final int MAX_RESPONSE_BODY_BYTES = 32;
+
+    private final BoundedResponseReader boundedResponseReader =
+            new BoundedResponseReader(
+                    new JsonCodecs(new ObjectMapper()), ENDPOINT_NAME, MAX_RESPONSE_BODY_BYTES);
+
+    @Test
+    void shouldMapJsonResponseBody() throws OAuthErrorResponseException, JsonProcessingException {
+        HttpResponse response =
+                HttpResponseFixtures.createHttpResponse(200, null, "{\"value\":\"test\"}", false);
+
+        TestBody testBody = boundedResponseReader.readJson(response, TestBody.class);
+
+        assertEquals("test", testBody.value);
+    }
+
+    @Test
+    void shouldThrowJsonProcessingExceptionWhenResponseBodyCannotBeMapped() {
+        HttpResponse response = HttpResponseFixtures.createHttpResponse(200, null, "}{", false);
+
+        assertThrows(
+                JsonProcessingException.class,
+                () -> boundedResponseReader.readJson(response, TestBody.class));
+    }
+
+    @Test
+    void shouldThrowJsonProcessingExceptionWhenThereIsNoResponseBody() {
+        HttpResponse response = HttpResponseFixtures.createHttpResponse(200, null, null, false);
+
+        assertThrows(
+                JsonProcessingException.class,
+                () -> boundedResponseReader.readJson(response, TestBody.class));
+    }
+
+    @Test
+    void shouldThrowOAuthErrorResponseExceptionWhenIOExceptionEncounteredReadingJson() {
+        HttpResponse response = HttpResponseFixtures.createHttpResponse(200, null, "{}", true);
+
+        OAuthErrorResponseException thrownException =
+                assertThrows(
+                        OAuthErrorResponseException.class,
+                        () -> boundedResponseReader.readJson(response, TestBody.class));
+
+        assertEquals("Failed to retrieve http response body", thrownException.getErrorReason());
+    }
+
+    @Test
+    void shouldThrowOAuthErrorResponseExceptionWhenJsonResponseBodyIsTooLarge() {
+        HttpResponse response =
+                createUnknownLengthHttpResponse("{\"value\":\"" + "a".repeat(64) + "\"}");
+
+        assertThrows(
+                OAuthErrorResponseException.class,
+                () -> boundedResponseReader.readJson(response, TestBody.class));
+    }
+
+    @Test
+    void shouldReadStringResponseBody() throws IOException {
+        HttpResponse response =
+                HttpResponseFixtures.createHttpResponse(200, null, "Test Response Body", false);
+
+        assertEquals("Test Response Body", boundedResponseReader.readString(response));
+    }
+
+    @Test
+    void shouldReturnNullWhenThereIsNoResponseBody() throws IOException {
+        HttpResponse response = HttpResponseFixtures.createHttpResponse(200, null, null, false);
+
+        assertNull(boundedResponseReader.readString(response));
+    }
+
+    @Test
+    void shouldRejectResponseBodyDeclaredTooLargeBeforeReading() {
+        HttpResponse response =
+                HttpResponseFixtures.createHttpResponse(200, null, "a".repeat(64), false);
+
+        assertThrows(
+                ResponseBodyTooLargeException.class,
+                () -> boundedResponseReader.readString(response));
+    }
+
+    @Test
+    void shouldStopReadingResponseBodyOfUnknownLengthOnceTooLarge() {
+        HttpResponse response = createUnknownLengthHttpResponse("a".repeat(64));
+
+        assertThrows(
+                ResponseBodyTooLargeException.class,
+                () -> boundedResponseReader.readString(response));
+    }
+
+    @Test
+    void shouldReadErrorResponseBodyWithoutThrowing() {
+        HttpResponse response =
+                HttpResponseFixtures.createHttpResponse(500, null, "Server Error", false);
+        HttpResponse noBodyResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, null, false);
+        HttpResponse ioExceptionResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "Server Error", true);
+
+        assertEquals("Server Error", boundedResponseReader.readErrorResponseBody(response));
+        assertEquals(
+                "No Test Endpoint response body text found",
+                boundedResponseReader.readErrorResponseBody(noBodyResponse));
+        assertTrue(
+                boundedResponseReader
+                        .readErrorResponseBody(ioExceptionResponse)
+                        .startsWith("Unable to read Test Endpoint response body"));
+    }
+
+    @Test
+    void shouldGetHeader() {
+        HttpResponse response =
+                HttpResponseFixtures.createHttpResponse(
+                        200, Map.of("X-TEST-HEADER", "test_value"), null, false);
+
+        assertEquals("test_value", BoundedResponseReader.getHeader(response, "x-test-header"));
+        assertNull(BoundedResponseReader.getHeader(response, "X-MISSING-HEADER"));
+    }
+
+    private static HttpResponse createUnknownLengthHttpResponse(String responseBody) {
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(
+                new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)));
+
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(entity);
+        return response;
+    }
+
+    private static class TestBody {
+        public String value;
+    }
+}
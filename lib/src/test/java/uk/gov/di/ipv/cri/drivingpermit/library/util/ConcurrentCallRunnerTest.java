@@ -0,0 +1,173 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrentCallRunnerTest {
+
+    private static final String METRIC_PREFIX = "test_duration_";
+
+    @Mock private EventProbe mockEventProbe;
+
+    @AfterEach
+    void tearDown() {
+        ThreadContext.clearMap();
+    }
+
+    @Test
+    void shouldRunAllCallsConcurrentlyAndRecordDurationsInCallOrder() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        // Each call only completes once all have started, so cannot pass if run one at a time
+        ConcurrentCallRunner.Call call =
+                () -> {
+                    allStarted.countDown();
+                    assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                };
+
+        Map<String, ConcurrentCallRunner.Call> calls = new LinkedHashMap<>();
+        calls.put("first", call);
+        calls.put("second", call);
+        calls.put("third", call);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            new ConcurrentCallRunner(executorService, mockEventProbe).runAll(METRIC_PREFIX, calls);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        InOrder inOrder = inOrder(mockEventProbe);
+        inOrder.verify(mockEventProbe).counterMetric(eq(METRIC_PREFIX + "first"), anyDouble());
+        inOrder.verify(mockEventProbe).counterMetric(eq(METRIC_PREFIX + "second"), anyDouble());
+        inOrder.verify(mockEventProbe).counterMetric(eq(METRIC_PREFIX + "third"), anyDouble());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldRunRemainingCallsAndThrowFirstFailureWithOthersSuppressed() {
+        IllegalStateException firstFailure = new IllegalStateException("first");
+        IllegalArgumentException secondFailure = new IllegalArgumentException("second");
+        List<String> completedCalls = new ArrayList<>();
+
+        Map<String, ConcurrentCallRunner.Call> calls = new LinkedHashMap<>();
+        calls.put(
+                "failing",
+                () -> {
+                    throw firstFailure;
+                });
+        calls.put("succeeding", () -> completedCalls.add("succeeding"));
+        calls.put(
+                "also_failing",
+                () -> {
+                    throw secondFailure;
+                });
+
+        ConcurrentCallRunner concurrentCallRunner =
+                new ConcurrentCallRunner(Runnable::run, mockEventProbe);
+
+        IllegalStateException thrown =
+                assertThrows(
+                        IllegalStateException.class,
+                        () -> concurrentCallRunner.runAll(METRIC_PREFIX, calls));
+
+        assertSame(firstFailure, thrown);
+        assertArrayEquals(new Throwable[] {secondFailure}, thrown.getSuppressed());
+        assertEquals(List.of("succeeding"), completedCalls);
+
+        verify(mockEventProbe).counterMetric(eq(METRIC_PREFIX + "succeeding"), anyDouble());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldThrowCheckedFailureAsCauseOfCompletionException() {
+        IOException checkedFailure = new IOException("failed");
+
+        Map<String, ConcurrentCallRunner.Call> calls = new LinkedHashMap<>();
+        calls.put(
+                "failing",
+                () -> {
+                    throw checkedFailure;
+                });
+
+        ConcurrentCallRunner concurrentCallRunner =
+                new ConcurrentCallRunner(Runnable::run, mockEventProbe);
+
+        CompletionException thrown =
+                assertThrows(
+                        CompletionException.class,
+                        () -> concurrentCallRunner.runAll(METRIC_PREFIX, calls));
+
+        assertSame(checkedFailure, thrown.getCause());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldCopyLogContextToEachCall() {
+        ThreadContext.put("correlation_id", "test-correlation-id");
+        List<String> callCorrelationIds = new ArrayList<>();
+
+        Map<String, ConcurrentCallRunner.Call> calls = new LinkedHashMap<>();
+        calls.put("call", () -> callCorrelationIds.add(ThreadContext.get("correlation_id")));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            new ConcurrentCallRunner(executorService, mockEventProbe).runAll(METRIC_PREFIX, calls);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(List.of("test-correlation-id"), callCorrelationIds);
+    }
+
+    @Test
+    void shouldCopyLogContextToTasksRunOnExecutor() {
+        ThreadContext.put("correlation_id", "test-correlation-id");
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Executor executor =
+                    new ConcurrentCallRunner(executorService, mockEventProbe).getExecutor();
+
+            String taskCorrelationId =
+                    CompletableFuture.supplyAsync(
+                                    () -> ThreadContext.get("correlation_id"), executor)
+                            .join();
+
+            assertEquals("test-correlation-id", taskCorrelationId);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
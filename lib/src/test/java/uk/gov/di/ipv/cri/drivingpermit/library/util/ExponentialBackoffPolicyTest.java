@@ -0,0 +1,83 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ExponentialBackoffPolicy.Jitter;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ExponentialBackoffPolicyTest {
+
+    private static final long BASE_WAIT = 100L;
+    private static final long MAX_WAIT = 6400L;
+
+    // Enough samples to exercise the random range
+    private static final int SAMPLES = 1000;
+
+    @ParameterizedTest
+    @CsvSource({"1, 100", "2, 200", "3, 400", "7, 6400", "20, 6400", "100, 6400"})
+    void shouldCalculateCappedExponentialWaitWithoutJitter(int retryNumber, long expectedWait) {
+        ExponentialBackoffPolicy policy =
+                new ExponentialBackoffPolicy(BASE_WAIT, MAX_WAIT, Jitter.NONE);
+
+        assertEquals(expectedWait, policy.calculateWaitTimeMs(retryNumber, 0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Jitter.class)
+    void shouldNotWaitBeforeTheInitialRequest(Jitter jitter) {
+        ExponentialBackoffPolicy policy = new ExponentialBackoffPolicy(BASE_WAIT, MAX_WAIT, jitter);
+
+        assertEquals(0, policy.calculateWaitTimeMs(0, 0));
+    }
+
+    @Test
+    void shouldCalculateFullJitterWaitBetweenZeroAndExponentialWait() {
+        Random random = new Random(1234L);
+        ExponentialBackoffPolicy policy =
+                new ExponentialBackoffPolicy(BASE_WAIT, MAX_WAIT, Jitter.FULL, () -> random);
+
+        for (int retryNumber = 1; retryNumber <= 10; retryNumber++) {
+            long exponentialWait = Math.min(BASE_WAIT << (retryNumber - 1), MAX_WAIT);
+
+            for (int s = 0; s < SAMPLES; s++) {
+                long wait = policy.calculateWaitTimeMs(retryNumber, 0);
+                assertTrue(wait >= 0 && wait <= exponentialWait);
+            }
+        }
+    }
+
+    @Test
+    void shouldCalculateDecorrelatedJitterWaitBetweenBaseAndThreeTimesPrevious() {
+        Random random = new Random(1234L);
+        ExponentialBackoffPolicy policy =
+                new ExponentialBackoffPolicy(
+                        BASE_WAIT, MAX_WAIT, Jitter.DECORRELATED, () -> random);
+
+        long previousWait = 0;
+        for (int retryNumber = 1; retryNumber <= SAMPLES; retryNumber++) {
+            long wait = policy.calculateWaitTimeMs(retryNumber, previousWait);
+
+            long upper = Math.min(MAX_WAIT, Math.max(BASE_WAIT, previousWait * 3));
+            assertTrue(wait >= BASE_WAIT && wait <= upper);
+
+            previousWait = wait;
+        }
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenBaseExceedsMax() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ExponentialBackoffPolicy(MAX_WAIT + 1, MAX_WAIT, Jitter.FULL));
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JsonCodecsTest {
+
+    private final JsonCodecs jsonCodecs = new JsonCodecs(new ObjectMapper());
+
+    @Test
+    void shouldReuseReaderAndWriterForType() {
+        assertSame(jsonCodecs.reader(TestBody.class), jsonCodecs.reader(TestBody.class));
+        assertSame(jsonCodecs.writer(TestBody.class), jsonCodecs.writer(TestBody.class));
+    }
+
+    @Test
+    void shouldCreateSeparateReaderAndWriterForEachType() {
+        assertNotSame(jsonCodecs.reader(TestBody.class), jsonCodecs.reader(String.class));
+        assertNotSame(jsonCodecs.writer(TestBody.class), jsonCodecs.writer(String.class));
+    }
+
+    @Test
+    void shouldWriteAndReadType() throws JsonProcessingException {
+        TestBody testBody = new TestBody();
+        testBody.value = "test";
+
+        String json = jsonCodecs.writer(TestBody.class).writeValueAsString(testBody);
+        TestBody readTestBody = jsonCodecs.reader(TestBody.class).readValue(json);
+
+        assertEquals("{\"value\":\"test\"}", json);
+        assertEquals("test", readTestBody.value);
+    }
+
+    @Test
+    void shouldConvertValueToType() {
+        Map<String, String> converted =
+                jsonCodecs.convertValue(new TestBody("test"), new TypeReference<>() {});
+
+        assertEquals(Map.of("value", "test"), converted);
+    }
+
+    private static class TestBody {
+        public String value;
+
+        TestBody() {}
+
+        TestBody(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.http.client.config.RequestConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class RequestDeadlineTest {
+
+    private final AtomicLong testNanoTime = new AtomicLong(0);
+
+    private final RequestConfig testRequestConfig =
+            RequestConfig.custom()
+                    .setConnectTimeout(5000)
+                    .setSocketTimeout(10000)
+                    .setConnectionRequestTimeout(5000)
+                    .build();
+
+    @Test
+    void shouldReduceRemainingTimeAsTimePasses() {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(20000, testNanoTime::get);
+
+        assertEquals(20000, requestDeadline.getRemainingTimeMs());
+        assertFalse(requestDeadline.hasExpired());
+
+        advanceTimeMs(15000);
+        assertEquals(5000, requestDeadline.getRemainingTimeMs());
+
+        advanceTimeMs(6000);
+        assertEquals(0, requestDeadline.getRemainingTimeMs());
+        assertTrue(requestDeadline.hasExpired());
+    }
+
+    @Test
+    void shouldBeExpiredWhenCreatedWithNegativeRemainingTime() {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(-100, testNanoTime::get);
+
+        assertTrue(requestDeadline.hasExpired());
+    }
+
+    @Test
+    void shouldKeepConfiguredTimeoutsWhenEnoughTimeRemains() {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(20000, testNanoTime::get);
+
+        RequestConfig fitted = requestDeadline.fitRequestConfig(testRequestConfig);
+
+        assertEquals(5000, fitted.getConnectTimeout());
+        assertEquals(10000, fitted.getSocketTimeout());
+        assertEquals(5000, fitted.getConnectionRequestTimeout());
+    }
+
+    @Test
+    void shouldShrinkTimeoutsToTheRemainingTime() {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(20000, testNanoTime::get);
+
+        advanceTimeMs(12000);
+
+        RequestConfig fitted = requestDeadline.fitRequestConfig(testRequestConfig);
+
+        assertEquals(5000, fitted.getConnectTimeout());
+        assertEquals(8000, fitted.getSocketTimeout());
+        assertEquals(5000, fitted.getConnectionRequestTimeout());
+    }
+
+    @Test
+    void shouldReplaceInfiniteTimeoutsWithTheRemainingTime() {
+        RequestDeadline requestDeadline =
+                RequestDeadline.fromRemainingTimeMs(3000, testNanoTime::get);
+
+        RequestConfig fitted = requestDeadline.fitRequestConfig(RequestConfig.DEFAULT);
+
+        assertEquals(3000, fitted.getConnectTimeout());
+        assertEquals(3000, fitted.getSocketTimeout());
+        assertEquals(3000, fitted.getConnectionRequestTimeout());
+    }
+
+    @Test
+    void shouldNeverExpireOrChangeRequestConfigWhenNone() {
+        RequestDeadline requestDeadline = RequestDeadline.none();
+
+        assertFalse(requestDeadline.hasExpired());
+        assertEquals(Long.MAX_VALUE, requestDeadline.getRemainingTimeMs());
+        assertSame(testRequestConfig, requestDeadline.fitRequestConfig(testRequestConfig));
+    }
+
+    private void advanceTimeMs(long ms) {
+        testNanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+}
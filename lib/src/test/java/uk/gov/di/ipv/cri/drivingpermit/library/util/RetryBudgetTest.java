@@ -0,0 +1,62 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private static final double DELTA = 0.0001;
+
+    @Test
+    void shouldStartFull() {
+        RetryBudget retryBudget = new RetryBudget();
+
+        assertEquals(RetryBudget.DEFAULT_MAX_TOKENS, retryBudget.getAvailableRetries(), DELTA);
+    }
+
+    @Test
+    void shouldSuppressRetriesOnceExhausted() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 2);
+
+        assertTrue(retryBudget.tryAcquireRetry());
+        assertTrue(retryBudget.tryAcquireRetry());
+        assertFalse(retryBudget.tryAcquireRetry());
+
+        assertEquals(0, retryBudget.getAvailableRetries(), DELTA);
+    }
+
+    @Test
+    void shouldAllowARetryPerTenRequestsOnceExhausted() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 2);
+        retryBudget.tryAcquireRetry();
+        retryBudget.tryAcquireRetry();
+
+        for (int request = 1; request < 10; request++) {
+            retryBudget.recordRequest();
+            assertFalse(retryBudget.tryAcquireRetry());
+        }
+
+        retryBudget.recordRequest();
+        assertTrue(retryBudget.tryAcquireRetry());
+    }
+
+    @Test
+    void shouldNotRefillAboveMaxTokens() {
+        RetryBudget retryBudget = new RetryBudget(0.5, 2);
+
+        retryBudget.recordRequest();
+        retryBudget.recordRequest();
+
+        assertEquals(2, retryBudget.getAvailableRetries(), DELTA);
+    }
+
+    @Test
+    void shouldRejectInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(-0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(0.1, 0.5));
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class SleepHelperTest {
@@ -27,31 +28,47 @@ class SleepHelperTest {
     }
 
     @Test
-    void shouldBusyWait0msWhenCalledOnce() {
+    void shouldWait0msWhenCalledOnce() {
         long expectedWait = 0;
 
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(0);
+        long waitTime = sleepHelper.sleepWithExponentialBackOff(0);
 
         assertEquals(expectedWait, waitTime, EPSILON);
     }
 
     @ParameterizedTest
     @ValueSource(ints = {1, 2, 3})
-    void shouldBusyWait2P100ForCallN(int callNumber) {
+    void shouldWait2P100ForCallN(int callNumber) {
         long baseWaitTime = 100;
         long power = callNumber - 1;
 
         long expectedWait = (long) Math.pow(2, power) * baseWaitTime;
 
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(callNumber);
+        long waitTime = sleepHelper.sleepWithExponentialBackOff(callNumber);
 
         assertEquals(expectedWait, waitTime, EPSILON);
     }
 
     @Test
-    void shouldBusyWaitMaxTimeWhenWaitIsOverMaxSleep() {
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(20);
+    void shouldWaitMaxTimeWhenWaitIsOverMaxSleep() {
+        long waitTime = sleepHelper.sleepWithExponentialBackOff(20);
 
         assertEquals(MAX_TEST_SLEEP, waitTime, EPSILON);
     }
+
+    @Test
+    void shouldNotWaitForNegativeDuration() {
+        assertEquals(0, sleepHelper.sleep(-100));
+    }
+
+    @Test
+    void shouldEndWaitAndRestoreInterruptFlagWhenInterrupted() {
+        Thread.currentThread().interrupt();
+
+        long waitTime = sleepHelper.sleep(MAX_TEST_SLEEP);
+
+        // Thread.interrupted also clears the flag for the following tests
+        assertTrue(Thread.interrupted());
+        assertTrue(waitTime < MAX_TEST_SLEEP);
+    }
 }
@@ -51,6 +51,11 @@ public class HttpResponseFixtures {
 
             @Override
             public Header getFirstHeader(String name) {
+                for (Header header : apacheHeaders) {
+                    if (header.getName().equalsIgnoreCase(name)) {
+                        return header;
+                    }
+                }
                 return null;
             }
 
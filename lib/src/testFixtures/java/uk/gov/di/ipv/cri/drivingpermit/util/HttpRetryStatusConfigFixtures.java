@@ -1,5 +1,6 @@
 package uk.gov.di.ipv.cri.drivingpermit.util;
 
+import uk.gov.di.ipv.cri.drivingpermit.library.service.CircuitBreakerState;
 import uk.gov.di.ipv.cri.drivingpermit.library.service.HttpRetryStatusConfig;
 
 import java.util.List;
@@ -19,9 +20,25 @@ public class HttpRetryStatusConfigFixtures {
             "test_http_retryer_send_retry_metric";
     public static final String TEST_HTTP_RETRYER_SEND_MAX_RETRIES_METRIC =
             "test_http_retryer_send_max_retries_metric";
+    public static final String TEST_HTTP_RETRYER_WAIT_TIME_METRIC =
+            "test_http_retryer_wait_time_metric";
+    public static final String TEST_HTTP_RETRYER_RETRY_SUPPRESSED_METRIC =
+            "test_http_retryer_retry_suppressed_metric";
+    public static final String TEST_HTTP_RETRYER_RETRY_BUDGET_METRIC =
+            "test_http_retryer_retry_budget_metric";
+    public static final String TEST_CIRCUIT_BREAKER_NAME = "test_circuit_breaker";
+    public static final String TEST_CIRCUIT_BREAKER_STATE_METRIC_PREFIX =
+            "test_circuit_breaker_state_metric_";
+    public static final String TEST_CIRCUIT_BREAKER_REJECTED_METRIC =
+            "test_circuit_breaker_rejected_metric";
 
     public static HttpRetryStatusConfig generateTestReplyStatusConfig(
             List<Integer> retryStatusCodes, List<Integer> successStatusCodes) {
+        return generateTestReplyStatusConfig(retryStatusCodes, successStatusCodes, false);
+    }
+
+    public static HttpRetryStatusConfig generateTestReplyStatusConfig(
+            List<Integer> retryStatusCodes, List<Integer> successStatusCodes, boolean idempotent) {
         return new HttpRetryStatusConfig() {
             @Override
             public boolean shouldHttpClientRetry(int statusCode) {
@@ -33,6 +50,11 @@ public class HttpRetryStatusConfigFixtures {
                 return successStatusCodes.contains(statusCode);
             }
 
+            @Override
+            public boolean isIdempotent() {
+                return idempotent;
+            }
+
             @Override
             public String httpRetryerSendOkMetric() {
                 return TEST_HTTP_RETRYER_SEND_OK_METRIC;
@@ -57,6 +79,37 @@ public class HttpRetryStatusConfigFixtures {
             public String httpRetryerMaxRetriesMetric() {
                 return TEST_HTTP_RETRYER_SEND_MAX_RETRIES_METRIC;
             }
+
+            @Override
+            public String httpRetryerWaitTimeMetric() {
+                return TEST_HTTP_RETRYER_WAIT_TIME_METRIC;
+            }
+
+            @Override
+            public String httpRetryerRetrySuppressedMetric() {
+                return TEST_HTTP_RETRYER_RETRY_SUPPRESSED_METRIC;
+            }
+
+            @Override
+            public String httpRetryerRetryBudgetMetric() {
+                return TEST_HTTP_RETRYER_RETRY_BUDGET_METRIC;
+            }
+
+            @Override
+            public String circuitBreakerName() {
+                return TEST_CIRCUIT_BREAKER_NAME;
+            }
+
+            @Override
+            public String circuitBreakerStateMetric(CircuitBreakerState circuitBreakerState) {
+                return TEST_CIRCUIT_BREAKER_STATE_METRIC_PREFIX
+                        + circuitBreakerState.toString().toLowerCase();
+            }
+
+            @Override
+            public String circuitBreakerRejectedMetric() {
+                return TEST_CIRCUIT_BREAKER_REJECTED_METRIC;
+            }
         };
     }
 }